@@ -0,0 +1,182 @@
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Generador de carga local para comparar el modo de hilos de plataforma con el de hilos
+ * virtuales (spring.threads.virtual.enabled) en los endpoints más bloqueantes de EcoRide.
+ *
+ * Cada escenario lanza N clientes concurrentes en lazo cerrado durante el tiempo indicado
+ * (tras un calentamiento) y reporta throughput, p50, p99, máximo y respuestas no 2xx.
+ * El generador usa siempre hilos de plataforma para que ambos modos reciban la misma carga.
+ *
+ * Uso (JDK 17+, sin compilar):
+ *   java bench/LoadBench.java [escenario|all] [--concurrency=200] [--duration=30] [--warmup=10]
+ *                             [--ids=1-500] [--base.trip=http://localhost:8083] ...
+ *
+ * Escenarios:
+ *   trip-start         POST /trips/start               (trip-service; valida contra user-service)
+ *   wallet-recharge    POST /api/wallet/recharge       (user-service; llama a payment-service)
+ *   notification-send  POST /api/notifications/send    (notification-service; consulta user-service y SMTP)
+ *
+ * "{id}" en los cuerpos rota sobre el rango --ids para no concentrar la carga en un usuario.
+ * Procedimiento sugerido: correr "all" con los servicios en modo normal, reiniciarlos con
+ * -Pvirtual-threads (JDK 21) y repetir con los mismos parámetros.
+ */
+public class LoadBench {
+
+    private static final Map<String, Scenario> SCENARIOS = new LinkedHashMap<>();
+
+    static {
+        SCENARIOS.put("trip-start", new Scenario("trip", "/trips/start",
+                "{\"userId\":{id},\"bicycleId\":{id},\"stationId\":1,\"tripType\":\"LAST_MILE\",\"paymentSource\":\"WALLET\"}"));
+        SCENARIOS.put("wallet-recharge", new Scenario("user", "/api/wallet/recharge",
+                "{\"userId\":{id},\"amount\":10000,\"paymentMethodId\":\"pm_card_visa\"}"));
+        SCENARIOS.put("notification-send", new Scenario("notification", "/api/notifications/send",
+                "{\"userId\":{id},\"templateCode\":\"WELCOME\",\"channel\":\"EMAIL\"}"));
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>(Map.of(
+                "concurrency", "200",
+                "duration", "30",
+                "warmup", "10",
+                "ids", "1-500",
+                "base.trip", "http://localhost:8083",
+                "base.user", "http://localhost:8081",
+                "base.notification", "http://localhost:8084"
+        ));
+        String selected = "all";
+        for (String arg : args) {
+            if (arg.startsWith("--") && arg.contains("=")) {
+                options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+            } else {
+                selected = arg;
+            }
+        }
+
+        int concurrency = Integer.parseInt(options.get("concurrency"));
+        Duration duration = Duration.ofSeconds(Long.parseLong(options.get("duration")));
+        Duration warmup = Duration.ofSeconds(Long.parseLong(options.get("warmup")));
+        String[] range = options.get("ids").split("-");
+        long firstId = Long.parseLong(range[0]);
+        long lastId = Long.parseLong(range[1]);
+
+        HttpClient client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(2))
+                .executor(Executors.newFixedThreadPool(8, runnable -> {
+                    Thread thread = new Thread(runnable);
+                    thread.setDaemon(true);
+                    return thread;
+                }))
+                .build();
+
+        System.out.printf("%-18s %8s %10s %9s %9s %9s %8s%n",
+                "escenario", "clientes", "req/s", "p50 ms", "p99 ms", "max ms", "no-2xx");
+        for (Map.Entry<String, Scenario> entry : SCENARIOS.entrySet()) {
+            if (!"all".equals(selected) && !selected.equals(entry.getKey())) {
+                continue;
+            }
+            Scenario scenario = entry.getValue();
+            String baseUrl = options.get("base." + scenario.service());
+
+            run(client, baseUrl, scenario, concurrency, warmup, firstId, lastId);
+            Result result = run(client, baseUrl, scenario, concurrency, duration, firstId, lastId);
+
+            System.out.printf("%-18s %8d %10.1f %9.1f %9.1f %9.1f %8d%n",
+                    entry.getKey(), concurrency,
+                    result.count() / (double) duration.toSeconds(),
+                    result.percentileMillis(0.50), result.percentileMillis(0.99), result.percentileMillis(1.0),
+                    result.failures());
+        }
+        System.exit(0);
+    }
+
+    private static Result run(HttpClient client, String baseUrl, Scenario scenario, int concurrency,
+                              Duration duration, long firstId, long lastId) throws InterruptedException {
+        ExecutorService workers = Executors.newFixedThreadPool(concurrency);
+        AtomicLong sequence = new AtomicLong();
+        AtomicLong failures = new AtomicLong();
+        List<long[]> latenciesPerWorker = new ArrayList<>();
+        int[] counts = new int[concurrency];
+        long deadline = System.nanoTime() + duration.toNanos();
+        CountDownLatch done = new CountDownLatch(concurrency);
+
+        for (int w = 0; w < concurrency; w++) {
+            long[] latencies = new long[1 << 16];
+            latenciesPerWorker.add(latencies);
+            int worker = w;
+            workers.execute(() -> {
+                long[] own = latencies;
+                int n = 0;
+                try {
+                    while (System.nanoTime() < deadline) {
+                        long id = firstId + Math.floorMod(sequence.getAndIncrement(), lastId - firstId + 1);
+                        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + scenario.path()))
+                                .timeout(Duration.ofSeconds(30))
+                                .header("Content-Type", "application/json")
+                                .POST(HttpRequest.BodyPublishers.ofString(scenario.body().replace("{id}", Long.toString(id))))
+                                .build();
+                        long start = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() / 100 != 2) {
+                                failures.incrementAndGet();
+                            }
+                        } catch (Exception e) {
+                            failures.incrementAndGet();
+                        }
+                        if (n == own.length) {
+                            own = Arrays.copyOf(own, n * 2);
+                            latenciesPerWorker.set(worker, own);
+                        }
+                        own[n++] = System.nanoTime() - start;
+                    }
+                } finally {
+                    counts[worker] = n;
+                    done.countDown();
+                }
+            });
+        }
+        done.await();
+        workers.shutdown();
+
+        int total = Arrays.stream(counts).sum();
+        long[] all = new long[total];
+        int offset = 0;
+        for (int w = 0; w < concurrency; w++) {
+            System.arraycopy(latenciesPerWorker.get(w), 0, all, offset, counts[w]);
+            offset += counts[w];
+        }
+        Arrays.sort(all);
+        return new Result(all, failures.get());
+    }
+
+    private record Scenario(String service, String path, String body) {}
+
+    private record Result(long[] sortedNanos, long failures) {
+        int count() {
+            return sortedNanos.length;
+        }
+
+        double percentileMillis(double percentile) {
+            if (sortedNanos.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(percentile * sortedNanos.length) - 1;
+            return sortedNanos[Math.max(0, index)] / 1_000_000.0;
+        }
+    }
+}
@@ -0,0 +1,139 @@
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Compara el listado de usuarios de user-service antes y después de la consulta paginada.
+ *
+ *   full   un solo GET /api/users. En la versión anterior devuelve toda la tabla y hace
+ *          una consulta de wallet por usuario (N+1); en la actual devuelve solo la primera página.
+ *   pages  recorre todo el listado con afterId/nextAfterId (una consulta con JOIN por página).
+ *
+ * Cada modo se repite --repeat veces y reporta tiempo total, bytes recibidos, usuarios y,
+ * para "pages", latencia p50/p99 por página.
+ *
+ * Datos de prueba (psql, una vez; crea usuarios con su wallet):
+ *   INSERT INTO user_account (full_name, document_number, email, password_hash, verified, status, created_at)
+ *   SELECT 'Bench ' || g, 'B' || g, 'bench' || g || '@example.com', 'x', false,
+ *          CASE WHEN g % 10 = 0 THEN 'BLOCKED' ELSE 'ACTIVE' END, now() - (g || ' minutes')::interval
+ *   FROM generate_series(1, 100000) g;
+ *   INSERT INTO wallet (user_id, balance, last_updated)
+ *   SELECT id, 10, now() FROM user_account WHERE email LIKE 'bench%' ON CONFLICT DO NOTHING;
+ *
+ * Uso (JDK 17+, con user-service y Postgres arriba):
+ *   java bench/UserListingBench.java [full|pages] [--base=http://localhost:8081] [--limit=500]
+ *        [--repeat=3] [--query=status=ACTIVE]
+ *
+ * Procedimiento sugerido: correr "full" contra la versión anterior del servicio y "pages"
+ * contra la actual con los mismos datos; con spring.jpa.show-sql=true se ve además la
+ * diferencia en número de consultas.
+ */
+public class UserListingBench {
+
+    private static final Pattern NEXT_AFTER_ID = Pattern.compile("\"nextAfterId\"\\s*:\\s*(null|\\d+)");
+    private static final Pattern COUNT = Pattern.compile("\"count\"\\s*:\\s*(\\d+)");
+
+    public static void main(String[] args) throws Exception {
+        String mode = "pages";
+        Map<String, String> options = new HashMap<>(Map.of(
+                "base", "http://localhost:8081",
+                "limit", "500",
+                "repeat", "3",
+                "query", ""
+        ));
+        for (String arg : args) {
+            if (arg.startsWith("--") && arg.contains("=")) {
+                options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+            } else {
+                mode = arg;
+            }
+        }
+        String base = options.get("base");
+        int limit = Integer.parseInt(options.get("limit"));
+        int repeat = Integer.parseInt(options.get("repeat"));
+        String query = options.get("query");
+
+        HttpClient client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(2))
+                .executor(Executors.newSingleThreadExecutor(runnable -> {
+                    Thread thread = new Thread(runnable);
+                    thread.setDaemon(true);
+                    return thread;
+                }))
+                .build();
+
+        for (int run = 1; run <= repeat; run++) {
+            switch (mode) {
+                case "full" -> full(client, base, query, run);
+                case "pages" -> pages(client, base, query, limit, run);
+                default -> throw new IllegalArgumentException("Modo desconocido: " + mode + " (full|pages)");
+            }
+        }
+    }
+
+    private static void full(HttpClient client, String base, String query, int run) throws Exception {
+        long start = System.nanoTime();
+        HttpResponse<String> response = get(client, base + "/api/users" + (query.isEmpty() ? "" : "?" + query));
+        double millis = (System.nanoTime() - start) / 1e6;
+
+        System.out.printf("[full #%d] status %d | %s usuarios | %.1f KB | %.1f ms%n",
+                run, response.statusCode(), match(COUNT, response.body()), response.body().length() / 1024.0, millis);
+    }
+
+    private static void pages(HttpClient client, String base, String query, int limit, int run) throws Exception {
+        List<Long> latencies = new ArrayList<>();
+        long users = 0;
+        long bytes = 0;
+        String afterId = null;
+
+        long start = System.nanoTime();
+        do {
+            String url = base + "/api/users?limit=" + limit
+                    + (afterId != null ? "&afterId=" + afterId : "")
+                    + (query.isEmpty() ? "" : "&" + query);
+            long t0 = System.nanoTime();
+            HttpResponse<String> response = get(client, url);
+            latencies.add(System.nanoTime() - t0);
+
+            if (response.statusCode() != 200) {
+                throw new IllegalStateException("Respuesta " + response.statusCode() + ": " + response.body());
+            }
+            users += Long.parseLong(match(COUNT, response.body()));
+            bytes += response.body().length();
+            String next = match(NEXT_AFTER_ID, response.body());
+            afterId = "null".equals(next) ? null : next;
+        } while (afterId != null);
+        double millis = (System.nanoTime() - start) / 1e6;
+
+        latencies.sort(null);
+        System.out.printf("[pages #%d] %d páginas | %d usuarios | %.1f KB | %.1f ms total | página p50 %.1f ms, p99 %.1f ms%n",
+                run, latencies.size(), users, bytes / 1024.0, millis,
+                latencies.get(latencies.size() / 2) / 1e6,
+                latencies.get((int) Math.ceil(latencies.size() * 0.99) - 1) / 1e6);
+    }
+
+    private static HttpResponse<String> get(HttpClient client, String url) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+                .timeout(Duration.ofMinutes(5))
+                .GET()
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static String match(Pattern pattern, String body) {
+        Matcher matcher = pattern.matcher(body);
+        if (!matcher.find()) {
+            throw new IllegalStateException("Respuesta inesperada: " + body.substring(0, Math.min(200, body.length())));
+        }
+        return matcher.group(1);
+    }
+}
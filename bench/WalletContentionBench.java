@@ -0,0 +1,172 @@
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Prueba de contención del motor de wallets de user-service: cientos de créditos y débitos
+ * concurrentes sobre la MISMA wallet, con una fracción de reintentos (misma idempotencyKey).
+ *
+ * Al final compara el saldo real con el esperado según lo que el servicio reportó como
+ * aplicado: saldo inicial + fondeo + créditos aplicados - débitos aplicados (replayed=false).
+ * Con read-modify-write se pierden actualizaciones y la verificación falla; con el UPDATE
+ * condicional debe cuadrar exacto y el saldo nunca queda negativo.
+ *
+ * Uso (JDK 17+, con user-service y Postgres arriba):
+ *   java bench/WalletContentionBench.java [--base=http://localhost:8081] [--userId=1]
+ *        [--clients=200] [--ops=5000] [--amount=1.00] [--duplicates=0.1]
+ */
+public class WalletContentionBench {
+
+    private static final Pattern BALANCE = Pattern.compile("\"balance\"\\s*:\\s*([-0-9.]+)");
+    private static final Pattern REPLAYED = Pattern.compile("\"replayed\"\\s*:\\s*(true|false)");
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>(Map.of(
+                "base", "http://localhost:8081",
+                "userId", "1",
+                "clients", "200",
+                "ops", "5000",
+                "amount", "1.00",
+                "duplicates", "0.1"
+        ));
+        for (String arg : args) {
+            if (arg.startsWith("--") && arg.contains("=")) {
+                options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+            }
+        }
+        String base = options.get("base");
+        long userId = Long.parseLong(options.get("userId"));
+        int clients = Integer.parseInt(options.get("clients"));
+        int ops = Integer.parseInt(options.get("ops"));
+        BigDecimal amount = new BigDecimal(options.get("amount"));
+        double duplicates = Double.parseDouble(options.get("duplicates"));
+        String run = Long.toString(System.currentTimeMillis(), 36);
+
+        HttpClient client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(2))
+                .executor(Executors.newFixedThreadPool(8, runnable -> {
+                    Thread thread = new Thread(runnable);
+                    thread.setDaemon(true);
+                    return thread;
+                }))
+                .build();
+
+        BigDecimal initial = balance(client, base, userId);
+        // Fondeo para que aproximadamente la mitad de los débitos tenga saldo
+        BigDecimal funding = amount.multiply(BigDecimal.valueOf(ops / 4));
+        post(client, base + "/api/wallet/notify-recharge", credit(userId, funding, "bench-" + run + "-fund"));
+
+        Set<String> appliedCreditKeys = ConcurrentHashMap.newKeySet();
+        AtomicInteger creditRequests = new AtomicInteger();
+        AtomicInteger appliedDebits = new AtomicInteger();
+        AtomicInteger replays = new AtomicInteger();
+        AtomicInteger insufficient = new AtomicInteger();
+        AtomicInteger errors = new AtomicInteger();
+        long[] latencies = new long[ops];
+
+        ExecutorService workers = Executors.newFixedThreadPool(clients);
+        long start = System.nanoTime();
+        for (int i = 0; i < ops; i++) {
+            int op = i;
+            workers.execute(() -> {
+                boolean isCredit = op % 2 == 0;
+                // Un reintento reusa la clave de una operación anterior del mismo tipo
+                int keyIndex = op >= 2 && ThreadLocalRandom.current().nextDouble() < duplicates
+                        ? op - 2 * (1 + ThreadLocalRandom.current().nextInt(Math.min(op / 2, 50)))
+                        : op;
+                String key = "bench-" + run + "-" + keyIndex;
+
+                long t0 = System.nanoTime();
+                try {
+                    if (isCredit) {
+                        creditRequests.incrementAndGet();
+                        HttpResponse<String> response = post(client, base + "/api/wallet/notify-recharge", credit(userId, amount, key));
+                        if (response.statusCode() == 200) {
+                            appliedCreditKeys.add(key);
+                        } else {
+                            errors.incrementAndGet();
+                        }
+                    } else {
+                        HttpResponse<String> response = post(client, base + "/api/wallet/debit", debit(userId, amount, key));
+                        if (response.statusCode() == 200) {
+                            Matcher replayed = REPLAYED.matcher(response.body());
+                            if (replayed.find() && Boolean.parseBoolean(replayed.group(1))) {
+                                replays.incrementAndGet();
+                            } else {
+                                appliedDebits.incrementAndGet();
+                            }
+                        } else if (response.statusCode() == 409) {
+                            insufficient.incrementAndGet();
+                        } else {
+                            errors.incrementAndGet();
+                        }
+                    }
+                } catch (Exception e) {
+                    errors.incrementAndGet();
+                } finally {
+                    latencies[op] = System.nanoTime() - t0;
+                }
+            });
+        }
+        workers.shutdown();
+        workers.awaitTermination(10, TimeUnit.MINUTES);
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        BigDecimal expected = initial.add(funding)
+                .add(amount.multiply(BigDecimal.valueOf(appliedCreditKeys.size())))
+                .subtract(amount.multiply(BigDecimal.valueOf(appliedDebits.get())));
+        BigDecimal actual = balance(client, base, userId);
+        Arrays.sort(latencies);
+
+        System.out.printf("operaciones: %d en %.1f s (%.1f ops/s) con %d clientes%n", ops, seconds, ops / seconds, clients);
+        System.out.printf("latencia p50 %.1f ms | p99 %.1f ms | max %.1f ms%n",
+                latencies[ops / 2] / 1e6, latencies[(int) Math.ceil(ops * 0.99) - 1] / 1e6, latencies[ops - 1] / 1e6);
+        System.out.printf("créditos: %d peticiones, %d claves aplicadas | débitos aplicados: %d | reintentos: %d | sin saldo: %d | errores: %d%n",
+                creditRequests.get(), appliedCreditKeys.size(), appliedDebits.get(), replays.get(), insufficient.get(), errors.get());
+        System.out.printf("saldo esperado %s | saldo real %s -> %s%n",
+                expected, actual, expected.compareTo(actual) == 0 && actual.signum() >= 0 ? "OK" : "DESCUADRE");
+        System.exit(expected.compareTo(actual) == 0 ? 0 : 1);
+    }
+
+    private static String credit(long userId, BigDecimal amount, String key) {
+        return "{\"userId\":" + userId + ",\"amount\":" + amount + ",\"idempotencyKey\":\"" + key + "\"}";
+    }
+
+    private static String debit(long userId, BigDecimal amount, String key) {
+        return "{\"userId\":" + userId + ",\"amount\":" + amount + ",\"idempotencyKey\":\"" + key + "\",\"reference\":\"BENCH\"}";
+    }
+
+    private static HttpResponse<String> post(HttpClient client, String url, String body) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static BigDecimal balance(HttpClient client, String base, long userId) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(base + "/api/wallet/" + userId)).GET().build();
+        String body = client.send(request, HttpResponse.BodyHandlers.ofString()).body();
+        Matcher matcher = BALANCE.matcher(body);
+        if (!matcher.find()) {
+            throw new IllegalStateException("No se pudo leer el saldo: " + body);
+        }
+        return new BigDecimal(matcher.group(1));
+    }
+}
@@ -0,0 +1,94 @@
+package co.edu.unbosque.common.client;
+
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.reactor.bulkhead.operator.BulkheadOperator;
+import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Envoltura común de las llamadas a otros servicios: plazo máximo por llamada,
+ * bulkhead y circuit breaker del servicio destino, y métrica "client.requests"
+ * etiquetada por servicio, endpoint y resultado.
+ *
+ * Los clientes de los servicios hacen block() sobre el Mono resultante porque sus llamadores
+ * son controladores y servicios JPA síncronos. El hilo que bloquea queda acotado por el plazo
+ * de la llamada y cuenta dentro del bulkhead del destino: un servicio lento retiene como mucho
+ * max-concurrent-calls hilos y el resto se rechaza de inmediato.
+ */
+public class DownstreamCalls {
+
+    private final CircuitBreakerRegistry circuitBreakerRegistry;
+    private final BulkheadRegistry bulkheadRegistry;
+    private final MeterRegistry meterRegistry;
+
+    public DownstreamCalls(CircuitBreakerRegistry circuitBreakerRegistry,
+                           BulkheadRegistry bulkheadRegistry,
+                           MeterRegistry meterRegistry) {
+        this.circuitBreakerRegistry = circuitBreakerRegistry;
+        this.bulkheadRegistry = bulkheadRegistry;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * @param downstream nombre del servicio destino (define el circuito y el bulkhead)
+     * @param endpoint   nombre estable del endpoint para la métrica (sin ids)
+     * @param deadline   tiempo máximo total de la llamada
+     */
+    public <T> Mono<T> call(String downstream, String endpoint, Duration deadline, Mono<T> request) {
+        // El timeout va dentro del circuito para que cuente como falla; el bulkhead va por fuera
+        // para que las llamadas rechazadas no se registren en el circuito
+        Mono<T> guarded = request
+                .timeout(deadline)
+                .transformDeferred(CircuitBreakerOperator.of(circuitBreakerRegistry.circuitBreaker(downstream)))
+                .transformDeferred(BulkheadOperator.of(bulkheadRegistry.bulkhead(downstream)));
+
+        return Mono.defer(() -> {
+            Timer.Sample sample = Timer.start(meterRegistry);
+            return guarded
+                    .doOnSuccess(value -> record(sample, downstream, endpoint, "SUCCESS"))
+                    .doOnError(error -> record(sample, downstream, endpoint, outcome(error)));
+        });
+    }
+
+    /**
+     * true si la falla es del canal (circuito abierto, bulkhead lleno, timeout o conexión)
+     * y no una respuesta HTTP del otro servicio. Acepta también la excepción que lanza block().
+     */
+    public static boolean isUnavailable(Throwable error) {
+        error = Exceptions.unwrap(error);
+        return error instanceof CallNotPermittedException
+                || error instanceof BulkheadFullException
+                || error instanceof TimeoutException
+                || error instanceof WebClientRequestException;
+    }
+
+    private void record(Timer.Sample sample, String downstream, String endpoint, String outcome) {
+        sample.stop(Timer.builder("client.requests")
+                .description("Llamadas a otros servicios")
+                .tag("downstream", downstream)
+                .tag("endpoint", endpoint)
+                .tag("outcome", outcome)
+                .register(meterRegistry));
+    }
+
+    private static String outcome(Throwable error) {
+        if (error instanceof CallNotPermittedException) return "CIRCUIT_OPEN";
+        if (error instanceof BulkheadFullException) return "BULKHEAD_FULL";
+        if (error instanceof TimeoutException) return "TIMEOUT";
+        if (error instanceof WebClientResponseException response) {
+            return response.getStatusCode().is4xxClientError() ? "CLIENT_ERROR" : "SERVER_ERROR";
+        }
+        return "IO_ERROR";
+    }
+}
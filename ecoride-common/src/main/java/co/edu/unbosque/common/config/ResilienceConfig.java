@@ -0,0 +1,97 @@
+package co.edu.unbosque.common.config;
+
+import co.edu.unbosque.common.client.DownstreamCalls;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.micrometer.tagged.TaggedBulkheadMetrics;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import java.time.Duration;
+
+/**
+ * Circuit breaker y bulkhead por servicio destino (una instancia por nombre, p. ej.
+ * "user-service" o "payment-service"). Los 4xx son respuestas válidas del otro servicio
+ * (usuario no encontrado, saldo insuficiente) y no cuentan como falla para abrir el circuito.
+ *
+ * Autoconfiguración: cada servicio la recibe al depender de ecoride-common, sin escanear
+ * este paquete.
+ */
+@AutoConfiguration
+public class ResilienceConfig {
+
+    @Value("${clients.circuit-breaker.window-size:20}")
+    private int windowSize;
+
+    @Value("${clients.circuit-breaker.minimum-calls:10}")
+    private int minimumCalls;
+
+    @Value("${clients.circuit-breaker.failure-rate-threshold:50}")
+    private float failureRateThreshold;
+
+    @Value("${clients.circuit-breaker.slow-call-ms:2000}")
+    private long slowCallMs;
+
+    @Value("${clients.circuit-breaker.slow-call-rate-threshold:80}")
+    private float slowCallRateThreshold;
+
+    @Value("${clients.circuit-breaker.open-state-ms:10000}")
+    private long openStateMs;
+
+    @Value("${clients.bulkhead.max-concurrent-calls:20}")
+    private int maxConcurrentCalls;
+
+    @Bean
+    @ConditionalOnMissingBean
+    public CircuitBreakerRegistry circuitBreakerRegistry(MeterRegistry meterRegistry) {
+        CircuitBreakerConfig config = CircuitBreakerConfig.custom()
+                .slidingWindowType(CircuitBreakerConfig.SlidingWindowType.COUNT_BASED)
+                .slidingWindowSize(windowSize)
+                .minimumNumberOfCalls(minimumCalls)
+                .failureRateThreshold(failureRateThreshold)
+                .slowCallDurationThreshold(Duration.ofMillis(slowCallMs))
+                .slowCallRateThreshold(slowCallRateThreshold)
+                .waitDurationInOpenState(Duration.ofMillis(openStateMs))
+                .permittedNumberOfCallsInHalfOpenState(3)
+                .automaticTransitionFromOpenToHalfOpenEnabled(true)
+                .recordException(e -> !(e instanceof WebClientResponseException response
+                        && response.getStatusCode().is4xxClientError()))
+                .build();
+
+        CircuitBreakerRegistry registry = CircuitBreakerRegistry.of(config);
+        TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(registry).bindTo(meterRegistry);
+        return registry;
+    }
+
+    /**
+     * Sin espera: si el destino ya tiene max-concurrent-calls en curso la llamada se rechaza
+     * de inmediato en vez de retener otro hilo de Tomcat esperando turno.
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    public BulkheadRegistry bulkheadRegistry(MeterRegistry meterRegistry) {
+        BulkheadConfig config = BulkheadConfig.custom()
+                .maxConcurrentCalls(maxConcurrentCalls)
+                .maxWaitDuration(Duration.ZERO)
+                .build();
+
+        BulkheadRegistry registry = BulkheadRegistry.of(config);
+        TaggedBulkheadMetrics.ofBulkheadRegistry(registry).bindTo(meterRegistry);
+        return registry;
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public DownstreamCalls downstreamCalls(CircuitBreakerRegistry circuitBreakerRegistry,
+                                           BulkheadRegistry bulkheadRegistry,
+                                           MeterRegistry meterRegistry) {
+        return new DownstreamCalls(circuitBreakerRegistry, bulkheadRegistry, meterRegistry);
+    }
+}
@@ -0,0 +1,29 @@
+package co.edu.unbosque.common.config;
+
+import co.edu.unbosque.common.diagnostics.VirtualThreadPinningMonitor;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+
+import java.time.Duration;
+
+/**
+ * Monitor de pinning solo cuando el servicio corre con hilos virtuales
+ * (spring.threads.virtual.enabled=true).
+ */
+@AutoConfiguration
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadDiagnosticsConfig {
+
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    @ConditionalOnMissingBean
+    public VirtualThreadPinningMonitor virtualThreadPinningMonitor(
+            MeterRegistry meterRegistry,
+            @Value("${diagnostics.virtual-threads.pinning-threshold-ms:20}") long thresholdMs
+    ) {
+        return new VirtualThreadPinningMonitor(meterRegistry, Duration.ofMillis(thresholdMs));
+    }
+}
@@ -0,0 +1,81 @@
+package co.edu.unbosque.common.diagnostics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+
+/**
+ * Diagnóstico del modo de hilos virtuales: escucha en JFR el evento jdk.VirtualThreadPinned
+ * (un hilo virtual que bloquea dentro de synchronized o de código nativo y retiene a su
+ * carrier) y lo reporta en el log y en la métrica "jvm.threads.virtual.pinned", etiquetada
+ * con el primer frame de la aplicación en la pila para ubicar el bloque responsable.
+ *
+ * Sin @Component: lo registra VirtualThreadDiagnosticsConfig.
+ */
+public class VirtualThreadPinningMonitor {
+
+    private static final Logger log = LoggerFactory.getLogger(VirtualThreadPinningMonitor.class);
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final String APP_PACKAGE = "co.edu.unbosque.";
+
+    private final MeterRegistry meterRegistry;
+    private final Duration threshold;
+
+    private RecordingStream stream;
+
+    public VirtualThreadPinningMonitor(MeterRegistry meterRegistry, Duration threshold) {
+        this.meterRegistry = meterRegistry;
+        this.threshold = threshold;
+    }
+
+    public void start() {
+        stream = new RecordingStream();
+        stream.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+        stream.onEvent(PINNED_EVENT, this::onPinned);
+        stream.startAsync();
+        log.info("Monitor de pinning de hilos virtuales activo (umbral {} ms)", threshold.toMillis());
+    }
+
+    public void stop() {
+        if (stream != null) {
+            stream.close();
+        }
+    }
+
+    private void onPinned(RecordedEvent event) {
+        String frame = applicationFrame(event.getStackTrace());
+        Counter.builder("jvm.threads.virtual.pinned")
+                .description("Hilos virtuales fijados a su carrier por encima del umbral")
+                .tag("frame", frame)
+                .register(meterRegistry)
+                .increment();
+        log.warn("Hilo virtual fijado {} ms en {}", event.getDuration().toMillis(), frame);
+    }
+
+    /**
+     * Primer frame del código propio; si no hay, el frame superior (JDK o librería)
+     */
+    private static String applicationFrame(RecordedStackTrace stackTrace) {
+        if (stackTrace == null || stackTrace.getFrames().isEmpty()) {
+            return "unknown";
+        }
+        for (RecordedFrame frame : stackTrace.getFrames()) {
+            if (frame.isJavaFrame() && frame.getMethod().getType().getName().startsWith(APP_PACKAGE)) {
+                return describe(frame);
+            }
+        }
+        return describe(stackTrace.getFrames().get(0));
+    }
+
+    private static String describe(RecordedFrame frame) {
+        return frame.getMethod().getType().getName() + "." + frame.getMethod().getName();
+    }
+}
@@ -0,0 +1,141 @@
+package co.edu.unbosque.common;
+
+import co.edu.unbosque.common.client.DownstreamCalls;
+import co.edu.unbosque.common.config.ResilienceConfig;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.context.annotation.ImportCandidates;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("DownstreamCalls Tests")
+class DownstreamCallsTest {
+
+    private static final Duration DEADLINE = Duration.ofSeconds(2);
+
+    private SimpleMeterRegistry meterRegistry;
+    private CircuitBreakerRegistry circuitBreakerRegistry;
+    private DownstreamCalls calls;
+
+    @BeforeEach
+    void setUp() {
+        ResilienceConfig config = new ResilienceConfig();
+        ReflectionTestUtils.setField(config, "windowSize", 4);
+        ReflectionTestUtils.setField(config, "minimumCalls", 4);
+        ReflectionTestUtils.setField(config, "failureRateThreshold", 50f);
+        ReflectionTestUtils.setField(config, "slowCallMs", 2000L);
+        ReflectionTestUtils.setField(config, "slowCallRateThreshold", 100f);
+        ReflectionTestUtils.setField(config, "openStateMs", 60_000L);
+        ReflectionTestUtils.setField(config, "maxConcurrentCalls", 1);
+
+        meterRegistry = new SimpleMeterRegistry();
+        circuitBreakerRegistry = config.circuitBreakerRegistry(meterRegistry);
+        calls = config.downstreamCalls(circuitBreakerRegistry, config.bulkheadRegistry(meterRegistry), meterRegistry);
+    }
+
+    private static WebClientResponseException response(HttpStatus status) {
+        return new WebClientResponseException(status, status.getReasonPhrase(), HttpHeaders.EMPTY, new byte[0], null, null);
+    }
+
+    private double count(String endpoint, String outcome) {
+        var timer = meterRegistry.find("client.requests").tag("endpoint", endpoint).tag("outcome", outcome).timer();
+        return timer == null ? 0 : timer.count();
+    }
+
+    @Test
+    @DisplayName("Should register DownstreamCalls through the auto-configuration imports")
+    void testAutoConfiguration() {
+        // Arrange
+        List<String> imports = ImportCandidates.load(AutoConfiguration.class, getClass().getClassLoader()).getCandidates();
+
+        // Act & Assert
+        assertTrue(imports.contains(ResilienceConfig.class.getName()));
+        new ApplicationContextRunner()
+                .withConfiguration(AutoConfigurations.of(ResilienceConfig.class))
+                .withBean(MeterRegistry.class, SimpleMeterRegistry::new)
+                .run(context -> assertNotNull(context.getBean(DownstreamCalls.class)));
+    }
+
+    @Test
+    @DisplayName("Should not open the circuit on 4xx responses")
+    void testClientErrorsDoNotOpenCircuit() {
+        // Act
+        for (int i = 0; i < 6; i++) {
+            Mono<String> call = calls.call("user-service", "get-user", DEADLINE, Mono.error(response(HttpStatus.NOT_FOUND)));
+            assertThrows(WebClientResponseException.class, call::block);
+        }
+
+        // Assert
+        assertEquals(6, count("get-user", "CLIENT_ERROR"));
+        assertEquals("CLOSED", circuitBreakerRegistry.circuitBreaker("user-service").getState().name());
+    }
+
+    @Test
+    @DisplayName("Should open the circuit on 5xx responses and then reject calls as unavailable")
+    void testServerErrorsOpenCircuit() {
+        // Arrange
+        for (int i = 0; i < 4; i++) {
+            Mono<String> call = calls.call("payment-service", "charge", DEADLINE, Mono.error(response(HttpStatus.BAD_GATEWAY)));
+            assertThrows(WebClientResponseException.class, call::block);
+        }
+
+        // Act
+        RuntimeException rejected = assertThrows(RuntimeException.class,
+                () -> calls.call("payment-service", "charge", DEADLINE, Mono.just("ok")).block());
+
+        // Assert
+        assertInstanceOf(CallNotPermittedException.class, rejected);
+        assertTrue(DownstreamCalls.isUnavailable(rejected));
+        assertEquals(4, count("charge", "SERVER_ERROR"));
+        assertEquals(1, count("charge", "CIRCUIT_OPEN"));
+    }
+
+    @Test
+    @DisplayName("Should reject immediately when the downstream bulkhead is full")
+    void testBulkheadRejectsWithoutWaiting() {
+        // Arrange
+        Sinks.One<String> pending = Sinks.one();
+        calls.call("notification-service", "send", DEADLINE, pending.asMono()).subscribe();
+
+        // Act
+        RuntimeException rejected = assertThrows(RuntimeException.class,
+                () -> calls.call("notification-service", "send", DEADLINE, Mono.just("ok")).block());
+        pending.tryEmitValue("ok");
+
+        // Assert
+        assertInstanceOf(BulkheadFullException.class, rejected);
+        assertTrue(DownstreamCalls.isUnavailable(rejected));
+        assertEquals(1, count("send", "BULKHEAD_FULL"));
+        assertEquals(1, count("send", "SUCCESS"));
+    }
+
+    @Test
+    @DisplayName("Should fail with a timeout once the call deadline passes")
+    void testDeadline() {
+        // Act
+        RuntimeException timedOut = assertThrows(RuntimeException.class,
+                () -> calls.call("user-service", "slow", Duration.ofMillis(50), Mono.never()).block());
+
+        // Assert
+        assertTrue(DownstreamCalls.isUnavailable(timedOut));
+        assertEquals(1, count("slow", "TIMEOUT"));
+    }
+}
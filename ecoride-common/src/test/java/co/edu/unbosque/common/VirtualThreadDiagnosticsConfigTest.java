@@ -0,0 +1,43 @@
+package co.edu.unbosque.common;
+
+import co.edu.unbosque.common.config.VirtualThreadDiagnosticsConfig;
+import co.edu.unbosque.common.diagnostics.VirtualThreadPinningMonitor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.context.annotation.ImportCandidates;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("VirtualThreadDiagnosticsConfig Tests")
+class VirtualThreadDiagnosticsConfigTest {
+
+    private final ApplicationContextRunner runner = new ApplicationContextRunner()
+            .withConfiguration(AutoConfigurations.of(VirtualThreadDiagnosticsConfig.class))
+            .withBean(MeterRegistry.class, SimpleMeterRegistry::new);
+
+    @Test
+    @DisplayName("Should register the pinning monitor when virtual threads are enabled")
+    void testMonitorWithVirtualThreads() {
+        // Arrange
+        var imports = ImportCandidates.load(AutoConfiguration.class, getClass().getClassLoader()).getCandidates();
+
+        // Act & Assert
+        assertTrue(imports.contains(VirtualThreadDiagnosticsConfig.class.getName()));
+        runner.withPropertyValues("spring.threads.virtual.enabled=true")
+                .run(context -> assertNotNull(context.getBean(VirtualThreadPinningMonitor.class)));
+    }
+
+    @Test
+    @DisplayName("Should not register the pinning monitor on platform threads")
+    void testNoMonitorWithoutVirtualThreads() {
+        // Act & Assert
+        runner.run(context -> assertTrue(context.getBeansOfType(VirtualThreadPinningMonitor.class).isEmpty()));
+        runner.withPropertyValues("spring.threads.virtual.enabled=false")
+                .run(context -> assertTrue(context.getBeansOfType(VirtualThreadPinningMonitor.class).isEmpty()));
+    }
+}
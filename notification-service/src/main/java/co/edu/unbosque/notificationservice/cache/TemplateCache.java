@@ -0,0 +1,116 @@
+package co.edu.unbosque.notificationservice.cache;
+
+import co.edu.unbosque.notificationservice.model.MessageTemplate;
+import co.edu.unbosque.notificationservice.repository.MessageTemplateRepository;
+import co.edu.unbosque.notificationservice.util.CompiledTemplate;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Plantillas compiladas por (código, versión). Cada envío toma la plantilla de aquí en lugar
+ * de consultarla en la BD y volver a procesar el HTML.
+ *
+ * El código se resuelve a su versión vigente con un TTL corto; al vencer se relee la fila y,
+ * si la versión no cambió, se reutiliza la plantilla ya compilada. Una plantilla editada
+ * tiene otra clave, así que nunca se sirve el cuerpo anterior más allá de ese TTL, aunque el
+ * cambio venga de otra instancia del servicio. MessageTemplateService además invalida el
+ * código al crear, actualizar o borrar (después del commit) para que el cambio local sea inmediato.
+ */
+@Component
+public class TemplateCache implements MeterBinder {
+
+    private final MessageTemplateRepository repository;
+    private final Cache<String, TemplateKey> currentVersions;
+    private final Cache<TemplateKey, CachedTemplate> templates;
+
+    public TemplateCache(
+            MessageTemplateRepository repository,
+            @Value("${notifications.templates.cache.max-size:500}") long maxSize,
+            @Value("${notifications.templates.cache.ttl-seconds:300}") long ttlSeconds,
+            @Value("${notifications.templates.cache.version-ttl-seconds:10}") long versionTtlSeconds
+    ) {
+        this.repository = repository;
+        this.currentVersions = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(versionTtlSeconds))
+                .build();
+        // Versiones reemplazadas dejan de leerse y salen por inactividad
+        this.templates = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterAccess(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Plantilla compilada de la versión vigente; las que no existen no se cachean.
+     */
+    public Optional<CachedTemplate> get(String code) {
+        TemplateKey key = currentVersions.getIfPresent(code);
+        CachedTemplate cached = key != null ? templates.getIfPresent(key) : null;
+        return cached != null ? Optional.of(cached) : load(code);
+    }
+
+    public void invalidate(String code) {
+        if (code == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    currentVersions.invalidate(code);
+                }
+            });
+        } else {
+            currentVersions.invalidate(code);
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, templates, "notification.templates");
+    }
+
+    /**
+     * Relee la fila; solo se compila si su versión aún no está en caché.
+     */
+    private Optional<CachedTemplate> load(String code) {
+        return repository.findByCode(code).map(template -> {
+            TemplateKey key = new TemplateKey(template.getCode(), template.getVersion());
+            CachedTemplate cached = templates.get(key, ignored -> compile(template));
+            currentVersions.put(code, key);
+            return cached;
+        });
+    }
+
+    private static CachedTemplate compile(MessageTemplate template) {
+        return new CachedTemplate(
+                template.getId(),
+                template.getCode(),
+                template.getVersion(),
+                template.getSubject(),
+                CompiledTemplate.compile(template.getBody() != null ? template.getBody() : "")
+        );
+    }
+
+    private record TemplateKey(String code, Integer version) {}
+
+    public record CachedTemplate(
+            Integer id,
+            String code,
+            Integer version,
+            String subject,
+            CompiledTemplate body
+    ) {}
+}
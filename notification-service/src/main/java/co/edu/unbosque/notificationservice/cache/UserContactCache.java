@@ -0,0 +1,59 @@
+package co.edu.unbosque.notificationservice.cache;
+
+import co.edu.unbosque.notificationservice.client.UserServiceClient;
+import co.edu.unbosque.notificationservice.dto.UserEmailDTO;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Datos de contacto (nombre y email) por usuario, para no consultar user-service en cada envío.
+ *
+ * UserEventListener invalida la entrada cuando user-service publica que el usuario cambió
+ * o se eliminó; el TTL acota la desactualización si un evento se pierde. Los errores de
+ * user-service no se cachean: la siguiente consulta vuelve a intentar.
+ */
+@Component
+public class UserContactCache implements MeterBinder {
+
+    private static final String CACHE_NAME = "notification.user-contacts";
+
+    private final UserServiceClient userClient;
+    private final Cache<Integer, UserEmailDTO> contacts;
+
+    public UserContactCache(
+            UserServiceClient userClient,
+            @Value("${notifications.contacts.cache.max-size:50000}") long maxSize,
+            @Value("${notifications.contacts.cache.ttl-seconds:600}") long ttlSeconds
+    ) {
+        this.userClient = userClient;
+        this.contacts = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+    }
+
+    public UserEmailDTO get(Integer userId) {
+        return contacts.get(userId, userClient::getUserEmailById);
+    }
+
+    public void invalidate(Integer userId) {
+        contacts.invalidate(userId);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, contacts, CACHE_NAME);
+        Gauge.builder(CACHE_NAME + ".hit.ratio", contacts, cache -> cache.stats().hitRate())
+                .description("Proporción de consultas de contacto resueltas sin llamar a user-service")
+                .register(registry);
+    }
+}
@@ -1,30 +1,120 @@
 package co.edu.unbosque.notificationservice.client;
 
+import co.edu.unbosque.common.client.DownstreamCalls;
 import co.edu.unbosque.notificationservice.dto.UserEmailDTO;
+import co.edu.unbosque.notificationservice.dto.UserEmailPageDTO;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 @Component
 public class UserServiceClient {
 
+    private static final String DOWNSTREAM = "user-service";
+
     @Autowired
     private WebClient userWebClient;
 
+    @Autowired
+    private DownstreamCalls downstreamCalls;
+
+    @Value("${clients.user-service.deadline-ms:2000}")
+    private long deadlineMs;
+
+    // Páginas grandes de emails para campañas: más plazo que una consulta individual
+    @Value("${clients.user-service.bulk-deadline-ms:10000}")
+    private long bulkDeadlineMs;
+
+    @Value("${clients.user-service.bulk-retries:3}")
+    private int bulkRetries;
+
+    private static final int IDS_PER_BATCH = 1000;
+
+    /**
+     * Contacto del usuario; null si user-service no lo conoce (404, p. ej. usuario eliminado).
+     * Otro 4xx es un error permanente (IllegalArgumentException); la caída del canal o un 5xx
+     * se propagan como RuntimeException para que quien llama reintente.
+     */
     public UserEmailDTO getUserEmailById(Integer userId) {
         try {
-            return userWebClient.get()
+            Mono<UserEmailDTO> request = userWebClient.get()
                     .uri(uriBuilder -> uriBuilder.path("/api/users/{id}/email").build(userId))
                     .accept(MediaType.APPLICATION_JSON)
                     .retrieve()
-                    .bodyToMono(UserEmailDTO.class)
-                    .block();
+                    .bodyToMono(UserEmailDTO.class);
+
+            return downstreamCalls.call(DOWNSTREAM, "user-email", Duration.ofMillis(deadlineMs), request).block();
+        } catch (WebClientResponseException.NotFound e) {
+            return null;
         } catch (WebClientResponseException e) {
+            if (e.getStatusCode().is4xxClientError()) {
+                throw new IllegalArgumentException("user-service rechazó la consulta del usuario " + userId
+                        + ": " + e.getStatusCode().value());
+            }
             throw new RuntimeException("Error consultando user-service: " + e.getResponseBodyAsString());
         } catch (Exception e) {
+            if (DownstreamCalls.isUnavailable(e)) {
+                throw new RuntimeException("user-service no disponible: " + e.getMessage());
+            }
             throw new RuntimeException("Error comunicando con user-service: " + e.getMessage());
         }
     }
+
+    /**
+     * Emails de todos los usuarios del segmento, página por página (keyset). La página
+     * siguiente solo se pide cuando el consumidor demanda más elementos, así el ritmo lo
+     * marca quien procesa y no se carga el segmento completo en memoria.
+     */
+    public Flux<UserEmailDTO> streamUserEmails(String status, int pageSize) {
+        return fetchEmailPage(status, null, pageSize)
+                .expand(page -> page.nextAfterId() != null
+                        ? fetchEmailPage(status, page.nextAfterId(), pageSize)
+                        : Mono.empty())
+                .concatMapIterable(UserEmailPageDTO::users);
+    }
+
+    /**
+     * Emails de una lista de usuarios, en lotes de 1000 ids por petición.
+     */
+    public Flux<UserEmailDTO> getUserEmails(List<Integer> userIds) {
+        return Flux.fromIterable(userIds)
+                .buffer(IDS_PER_BATCH)
+                .concatMap(ids -> bulk("user-emails-batch", userWebClient.post()
+                        .uri("/api/users/emails/batch")
+                        .bodyValue(Map.of("ids", ids))
+                        .accept(MediaType.APPLICATION_JSON)
+                        .retrieve()
+                        .bodyToMono(new ParameterizedTypeReference<List<UserEmailDTO>>() {})), 1)
+                .concatMapIterable(users -> users);
+    }
+
+    private Mono<UserEmailPageDTO> fetchEmailPage(String status, Long afterId, int pageSize) {
+        return bulk("user-emails-page", userWebClient.get()
+                .uri(uriBuilder -> uriBuilder.path("/api/users/emails")
+                        .queryParamIfPresent("status", Optional.ofNullable(status))
+                        .queryParamIfPresent("afterId", Optional.ofNullable(afterId))
+                        .queryParam("limit", pageSize)
+                        .build())
+                .accept(MediaType.APPLICATION_JSON)
+                .retrieve()
+                .bodyToMono(UserEmailPageDTO.class));
+    }
+
+    // Una página fallida por el canal se reintenta; cortar la campaña a la mitad es peor que esperar
+    private <T> Mono<T> bulk(String endpoint, Mono<T> request) {
+        return downstreamCalls.call(DOWNSTREAM, endpoint, Duration.ofMillis(bulkDeadlineMs), request)
+                .retryWhen(Retry.backoff(bulkRetries, Duration.ofMillis(500)).filter(DownstreamCalls::isUnavailable));
+    }
 }
@@ -0,0 +1,31 @@
+package co.edu.unbosque.notificationservice.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+@EnableScheduling
+public class EmailDispatchConfig {
+
+    /**
+     * Pool acotado que drena email_outbox: cada worker envía un lote completo por una sola
+     * conexión SMTP. EmailDispatcher nunca tiene más lotes en vuelo que workers, así que la
+     * cola solo absorbe el instante entre que un worker termina y vuelve al pool.
+     */
+    @Bean(name = "emailDispatchExecutor")
+    public AsyncTaskExecutor emailDispatchExecutor(@Value("${notifications.email.workers:4}") int workers) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(workers);
+        executor.setMaxPoolSize(workers);
+        executor.setQueueCapacity(workers);
+        executor.setThreadNamePrefix("email-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        executor.initialize();
+        return executor;
+    }
+}
@@ -0,0 +1,45 @@
+package co.edu.unbosque.notificationservice.config;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.CommonErrorHandler;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.util.backoff.ExponentialBackOff;
+
+@Configuration
+public class KafkaConfig {
+
+    public static final String DEAD_LETTER_SUFFIX = ".DLT";
+
+    /**
+     * Un listener que falla por algo transitorio (user-service caído, plantilla aún no creada)
+     * reintenta el mismo registro con backoff exponencial durante max-elapsed-ms; agotado el
+     * plazo, o de inmediato si el error es permanente (payload o petición inválidos), el
+     * registro se publica en "{topic}.DLT" y la partición sigue avanzando. Spring Boot aplica
+     * este handler a la fábrica de contenedores por defecto.
+     */
+    @Bean
+    public CommonErrorHandler kafkaErrorHandler(
+            KafkaTemplate<?, ?> kafkaTemplate,
+            @Value("${notifications.kafka.retry.initial-interval-ms:1000}") long initialIntervalMs,
+            @Value("${notifications.kafka.retry.max-interval-ms:60000}") long maxIntervalMs,
+            @Value("${notifications.kafka.retry.max-elapsed-ms:900000}") long maxElapsedMs
+    ) {
+        ExponentialBackOff backOff = new ExponentialBackOff(initialIntervalMs, 2.0);
+        backOff.setMaxInterval(maxIntervalMs);
+        backOff.setMaxElapsedTime(maxElapsedMs);
+
+        // Partición negativa: la elige el productor, así el DLT no necesita tantas particiones como el original
+        DeadLetterPublishingRecoverer recoverer = new DeadLetterPublishingRecoverer(kafkaTemplate,
+                (record, exception) -> new TopicPartition(record.topic() + DEAD_LETTER_SUFFIX, -1));
+
+        DefaultErrorHandler errorHandler = new DefaultErrorHandler(recoverer, backOff);
+        errorHandler.addNotRetryableExceptions(JsonProcessingException.class, IllegalArgumentException.class);
+        return errorHandler;
+    }
+}
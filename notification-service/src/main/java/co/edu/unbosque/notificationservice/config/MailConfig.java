@@ -29,6 +29,13 @@ public class MailConfig {
     @Value("${spring.mail.properties.mail.smtp.starttls.enable:true}")
     private String startTls;
 
+    // Plazos del socket SMTP; sin ellos un servidor colgado retiene al worker indefinidamente
+    @Value("${notifications.email.smtp.connect-timeout-ms:5000}")
+    private String connectTimeoutMs;
+
+    @Value("${notifications.email.smtp.timeout-ms:10000}")
+    private String timeoutMs;
+
     @Bean
     public JavaMailSender javaMailSender() {
         JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
@@ -42,6 +49,9 @@ public class MailConfig {
         props.put("mail.smtp.auth", smtpAuth);
         props.put("mail.smtp.starttls.enable", startTls);
         props.put("mail.debug", "false");
+        props.put("mail.smtp.connectiontimeout", connectTimeoutMs);
+        props.put("mail.smtp.timeout", timeoutMs);
+        props.put("mail.smtp.writetimeout", timeoutMs);
         return mailSender;
     }
 }
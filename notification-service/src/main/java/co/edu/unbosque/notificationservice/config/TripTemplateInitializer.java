@@ -0,0 +1,54 @@
+package co.edu.unbosque.notificationservice.config;
+
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+@Configuration
+public class TripTemplateInitializer {
+
+    private static final String INSERT_IF_MISSING = """
+            INSERT INTO message_template (code, subject, body, version)
+            VALUES (?, ?, ?, 0)
+            ON CONFLICT (code) DO NOTHING
+            """;
+
+    private static final String TRIP_STARTED_BODY = """
+            <html><body>
+            <h2>Hola {{username}}</h2>
+            <p>Tu viaje #{{tripId}} comenzó el {{startTime}} en la estación {{stationId}}.</p>
+            <p>Bicicleta: {{bikeId}} · Tipo de viaje: {{tripType}}</p>
+            <p>¡Buen viaje con EcoRide!</p>
+            </body></html>
+            """;
+
+    private static final String TRIP_COMPLETED_BODY = """
+            <html><body>
+            <h2>Hola {{username}}</h2>
+            <p>Este es el recibo de tu viaje #{{tripId}}, finalizado el {{endTime}} en la estación {{stationId}}.</p>
+            <ul>
+            <li>Bicicleta: {{bikeId}}</li>
+            <li>Distancia: {{distanceKm}} km</li>
+            <li>Duración: {{durationMinutes}} min</li>
+            <li>Total: ${{cost}}</li>
+            </ul>
+            <p>Gracias por moverte con EcoRide.</p>
+            </body></html>
+            """;
+
+    /**
+     * Crea las plantillas que usa TripEventListener si aún no existen; una plantilla ya
+     * editada desde la API no se sobrescribe.
+     */
+    @Bean
+    public CommandLineRunner seedTripTemplates(JdbcTemplate jdbcTemplate) {
+        return args -> {
+            int created = jdbcTemplate.update(INSERT_IF_MISSING, "TRIP_STARTED", "Tu viaje en EcoRide comenzó", TRIP_STARTED_BODY)
+                    + jdbcTemplate.update(INSERT_IF_MISSING, "TRIP_COMPLETED", "Recibo de tu viaje en EcoRide", TRIP_COMPLETED_BODY);
+            if (created > 0) {
+                System.out.println("Plantillas de viaje creadas: " + created);
+            }
+        };
+    }
+}
@@ -0,0 +1,90 @@
+package co.edu.unbosque.notificationservice.controller;
+
+import co.edu.unbosque.notificationservice.dto.CampaignRequestDTO;
+import co.edu.unbosque.notificationservice.dto.CampaignResponseDTO;
+import co.edu.unbosque.notificationservice.service.CampaignService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/notifications/campaigns")
+@Tag(name = "Campañas", description = "Envío masivo de notificaciones a segmentos de usuarios")
+public class CampaignController {
+
+    private static final Logger log = LoggerFactory.getLogger(CampaignController.class);
+    private final CampaignService campaignService;
+
+    public CampaignController(CampaignService campaignService) {
+        this.campaignService = campaignService;
+    }
+
+    @Operation(
+            summary = "Iniciar campaña",
+            description = "Envía una plantilla a una lista de usuarios (userIds) o a un segmento por estado (status). " +
+                    "Los destinatarios se procesan en segundo plano; consultar el progreso con GET /campaigns/{id}"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "202", description = "Campaña iniciada",
+                    content = @Content(schema = @Schema(implementation = CampaignResponseDTO.class))),
+            @ApiResponse(responseCode = "400", description = "Solicitud inválida o plantilla inexistente"),
+            @ApiResponse(responseCode = "429", description = "Demasiadas campañas en curso")
+    })
+    @PostMapping
+    public ResponseEntity<?> startCampaign(@Valid @RequestBody CampaignRequestDTO request) {
+        try {
+            return ResponseEntity.accepted().body(campaignService.startCampaign(request));
+
+        } catch (IllegalArgumentException e) {
+            log.warn("Campaña inválida: {}", e.getMessage());
+            return ResponseEntity
+                    .status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of(
+                            "error", "Solicitud inválida",
+                            "message", e.getMessage(),
+                            "timestamp", System.currentTimeMillis()
+                    ));
+
+        } catch (IllegalStateException e) {
+            return ResponseEntity
+                    .status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header("Retry-After", "60")
+                    .body(Map.of(
+                            "error", "Campañas en curso",
+                            "message", e.getMessage(),
+                            "timestamp", System.currentTimeMillis()
+                    ));
+        }
+    }
+
+    @Operation(
+            summary = "Consultar progreso de campaña",
+            description = "Destinatarios encolados y omitidos, correos enviados, fallidos y pendientes, y ritmo del pipeline"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Progreso de la campaña",
+                    content = @Content(schema = @Schema(implementation = CampaignResponseDTO.class))),
+            @ApiResponse(responseCode = "404", description = "Campaña no encontrada")
+    })
+    @GetMapping("/{id}")
+    public ResponseEntity<?> getCampaign(@PathVariable Long id) {
+        try {
+            return ResponseEntity.ok(campaignService.getCampaign(id));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity
+                    .status(HttpStatus.NOT_FOUND)
+                    .body(Map.of("error", "Campaña no encontrada", "message", e.getMessage()));
+        }
+    }
+}
@@ -22,6 +22,11 @@ public class MessageTemplateController {
         return ResponseEntity.ok(service.createTemplate(dto));
     }
 
+    @PutMapping("/{id}")
+    public ResponseEntity<MessageTemplateDTO> updateTemplate(@PathVariable Integer id, @RequestBody MessageTemplateDTO dto) {
+        return ResponseEntity.ok(service.updateTemplate(id, dto));
+    }
+
     @GetMapping("/{name}")
     public ResponseEntity<MessageTemplateDTO> getByName(@PathVariable String name) {
         return ResponseEntity.ok(service.getTemplateByName(name));
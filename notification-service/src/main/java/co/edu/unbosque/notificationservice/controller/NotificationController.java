@@ -32,10 +32,11 @@ public class NotificationController {
 
     @Operation(
             summary = "Enviar notificación genérica",
-            description = "Envía una notificación basada en una plantilla predefinida a un usuario específico"
+            description = "Encola una notificación basada en una plantilla predefinida para un usuario específico. " +
+                    "El correo se envía en segundo plano; el estado final (SENT/FAILED) queda en el log de notificación"
     )
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "Notificación procesada correctamente",
+            @ApiResponse(responseCode = "202", description = "Notificación encolada (estado PENDING)",
                     content = @Content(schema = @Schema(implementation = NotificationResponseDTO.class))),
             @ApiResponse(responseCode = "400", description = "Solicitud inválida"),
             @ApiResponse(responseCode = "500", description = "Error interno del servidor")
@@ -48,7 +49,7 @@ public class NotificationController {
 
             NotificationResponseDTO response = notificationService.sendNotification(request);
 
-            return ResponseEntity.ok(response);
+            return ResponseEntity.accepted().body(response);
 
         } catch (IllegalArgumentException e) {
             log.warn("Solicitud inválida: {}", e.getMessage());
@@ -0,0 +1,61 @@
+package co.edu.unbosque.notificationservice.dispatch;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Token bucket por dominio de destino (gmail.com, outlook.com, ...). Los proveedores
+ * limitan por remitente y dominio; superarlos devuelve 421/451 y castiga la reputación,
+ * así que los correos por encima del límite se aplazan en la cola en vez de enviarse.
+ *
+ * Con per-domain-per-minute <= 0 no hay límite.
+ */
+@Component
+public class DomainRateLimiter {
+
+    private final int perMinute;
+    private final long nanosPerToken;
+    private final Cache<String, Bucket> buckets = Caffeine.newBuilder()
+            .expireAfterAccess(Duration.ofMinutes(10))
+            .build();
+
+    public DomainRateLimiter(@Value("${notifications.email.rate-limit.per-domain-per-minute:120}") int perMinute) {
+        this.perMinute = perMinute;
+        this.nanosPerToken = perMinute > 0 ? Duration.ofMinutes(1).toNanos() / perMinute : 0;
+    }
+
+    public boolean tryAcquire(String domain) {
+        if (perMinute <= 0) {
+            return true;
+        }
+        return buckets.get(domain, key -> new Bucket()).tryAcquire();
+    }
+
+    /**
+     * Tiempo hasta que el bucket recupera un token.
+     */
+    public Duration refillInterval() {
+        return Duration.ofNanos(nanosPerToken);
+    }
+
+    private final class Bucket {
+
+        private double tokens = perMinute;
+        private long refilledAt = System.nanoTime();
+
+        synchronized boolean tryAcquire() {
+            long now = System.nanoTime();
+            tokens = Math.min(perMinute, tokens + (double) (now - refilledAt) / nanosPerToken);
+            refilledAt = now;
+            if (tokens < 1) {
+                return false;
+            }
+            tokens--;
+            return true;
+        }
+    }
+}
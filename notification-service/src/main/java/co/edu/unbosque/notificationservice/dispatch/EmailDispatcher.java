@@ -0,0 +1,240 @@
+package co.edu.unbosque.notificationservice.dispatch;
+
+import co.edu.unbosque.notificationservice.repository.EmailOutboxJdbcRepository;
+import co.edu.unbosque.notificationservice.repository.EmailOutboxJdbcRepository.EmailJob;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.mail.SendFailedException;
+import jakarta.mail.internet.AddressException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Drena email_outbox con el pool emailDispatchExecutor.
+ *
+ * Cada ciclo reclama lotes (FOR UPDATE SKIP LOCKED) mientras haya workers libres y entrega
+ * cada lote a un worker, que lo envía por una sola sesión SMTP. Los fallos transitorios se
+ * reintentan con backoff exponencial y jitter hasta max-attempts; los rechazos permanentes
+ * (dirección inválida, 5xx al destinatario) pasan a FAILED sin reintentar. Los correos por
+ * encima del límite por dominio vuelven a la cola sin contar como intento.
+ *
+ * El lease del reclamo cubre el peor caso del lote (conexión más un plazo SMTP completo por
+ * correo), no solo lease-seconds. Aun así, si el lease vence, los cierres van protegidos por el
+ * token del reclamo y no pisan a otro worker que ya haya reclamado el correo.
+ */
+@Component
+public class EmailDispatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(EmailDispatcher.class);
+
+    private final EmailOutboxJdbcRepository outboxRepository;
+    private final SmtpBatchSender sender;
+    private final DomainRateLimiter rateLimiter;
+    private final AsyncTaskExecutor executor;
+    private final MeterRegistry meterRegistry;
+    private final Semaphore workers;
+
+    @Value("${notifications.email.batch-size:50}")
+    private int batchSize = 50;
+
+    @Value("${notifications.email.lease-seconds:120}")
+    private long leaseSeconds = 120;
+
+    @Value("${notifications.email.smtp.connect-timeout-ms:5000}")
+    private long smtpConnectTimeoutMs = 5000;
+
+    @Value("${notifications.email.smtp.timeout-ms:10000}")
+    private long smtpTimeoutMs = 10_000;
+
+    @Value("${notifications.email.retry.max-attempts:6}")
+    private int maxAttempts = 6;
+
+    @Value("${notifications.email.retry.base-delay-ms:5000}")
+    private long baseDelayMs = 5000;
+
+    @Value("${notifications.email.retry.max-delay-ms:600000}")
+    private long maxDelayMs = 600_000;
+
+    public EmailDispatcher(
+            EmailOutboxJdbcRepository outboxRepository,
+            SmtpBatchSender sender,
+            DomainRateLimiter rateLimiter,
+            @Qualifier("emailDispatchExecutor") AsyncTaskExecutor executor,
+            MeterRegistry meterRegistry,
+            @Value("${notifications.email.workers:4}") int workers
+    ) {
+        this.outboxRepository = outboxRepository;
+        this.sender = sender;
+        this.rateLimiter = rateLimiter;
+        this.executor = executor;
+        this.meterRegistry = meterRegistry;
+        this.workers = new Semaphore(workers);
+    }
+
+    @Scheduled(fixedDelayString = "${notifications.email.poll-interval-ms:500}")
+    public void poll() {
+        while (workers.tryAcquire()) {
+            List<EmailJob> batch;
+            try {
+                batch = outboxRepository.claimBatch(batchSize, claimLease());
+            } catch (RuntimeException e) {
+                workers.release();
+                log.warn("No se pudo reclamar un lote de email_outbox: {}", e.getMessage());
+                return;
+            }
+            if (batch.isEmpty()) {
+                workers.release();
+                return;
+            }
+
+            try {
+                executor.execute(() -> {
+                    try {
+                        dispatch(batch);
+                    } finally {
+                        workers.release();
+                    }
+                });
+            } catch (TaskRejectedException e) {
+                workers.release();
+                LocalDateTime now = LocalDateTime.now();
+                batch.forEach(job -> outboxRepository.defer(job, now));
+                return;
+            }
+            if (batch.size() < batchSize) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Envía un lote reclamado y registra el resultado de cada correo.
+     */
+    public void dispatch(List<EmailJob> batch) {
+        LocalDateTime now = LocalDateTime.now();
+        List<EmailJob> allowed = new ArrayList<>(batch.size());
+        for (EmailJob job : batch) {
+            if (rateLimiter.tryAcquire(job.domain())) {
+                allowed.add(job);
+            } else {
+                if (outboxRepository.defer(job, now.plus(rateLimiter.refillInterval()))) {
+                    count("deferred");
+                } else {
+                    leaseLost(job);
+                }
+            }
+        }
+        if (allowed.isEmpty()) {
+            return;
+        }
+
+        Map<Long, Exception> failures;
+        try {
+            failures = sender.sendAll(allowed);
+        } catch (RuntimeException e) {
+            log.error("Error inesperado enviando un lote de {} correos", allowed.size(), e);
+            failures = new HashMap<>();
+            for (EmailJob job : allowed) {
+                failures.put(job.id(), e);
+            }
+        }
+
+        List<EmailJob> sent = new ArrayList<>(allowed.size());
+        for (EmailJob job : allowed) {
+            Exception failure = failures.get(job.id());
+            if (failure == null) {
+                sent.add(job);
+            } else if (isPermanent(failure) || job.attempts() >= maxAttempts) {
+                if (!outboxRepository.markFailed(job, describe(failure))) {
+                    leaseLost(job);
+                    continue;
+                }
+                count("failed");
+                log.warn("Correo {} a {} descartado tras {} intentos: {}",
+                        job.id(), job.recipient(), job.attempts(), describe(failure));
+            } else if (outboxRepository.markRetry(job, now.plus(backoff(job.attempts())), describe(failure))) {
+                count("retry");
+            } else {
+                leaseLost(job);
+            }
+        }
+        if (!sent.isEmpty()) {
+            int marked = outboxRepository.markSent(sent);
+            meterRegistry.counter("notifications.email.dispatched", "outcome", "sent").increment(marked);
+            if (marked < sent.size()) {
+                meterRegistry.counter("notifications.email.dispatched", "outcome", "lease_lost")
+                        .increment(sent.size() - marked);
+                log.warn("{} de {} correos enviados perdieron el lease antes de marcarse SENT",
+                        sent.size() - marked, sent.size());
+            }
+        }
+    }
+
+    /**
+     * Lease del reclamo: lease-seconds, o el peor caso del lote si es mayor (un servidor SMTP
+     * lento puede agotar el plazo de lectura en cada correo antes de que el lote termine).
+     */
+    public Duration claimLease() {
+        Duration configured = Duration.ofSeconds(leaseSeconds);
+        Duration worstCase = Duration.ofMillis(smtpConnectTimeoutMs + (long) batchSize * smtpTimeoutMs)
+                .plusSeconds(30);
+        return configured.compareTo(worstCase) >= 0 ? configured : worstCase;
+    }
+
+    /**
+     * Espera antes del intento siguiente: base * 2^(intentos - 1), con tope en max-delay-ms y
+     * jitter entre la mitad y el total para que los reintentos de un lote no lleguen juntos.
+     */
+    public Duration backoff(int attempts) {
+        long exponential = baseDelayMs << Math.min(Math.max(attempts - 1, 0), 20);
+        long capped = Math.min(exponential, maxDelayMs);
+        long jittered = capped / 2 + ThreadLocalRandom.current().nextLong(capped / 2 + 1);
+        return Duration.ofMillis(jittered);
+    }
+
+    /**
+     * Dirección mal formada o destinatario rechazado con 5xx: reintentar no cambia el resultado.
+     */
+    static boolean isPermanent(Throwable failure) {
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            if (cause instanceof AddressException) {
+                return true;
+            }
+            if (cause instanceof SendFailedException sendFailed
+                    && sendFailed.getInvalidAddresses() != null
+                    && sendFailed.getInvalidAddresses().length > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void leaseLost(EmailJob job) {
+        count("lease_lost");
+        log.warn("Correo {} perdió el lease; otro worker lo reclamó y el resultado de este envío se descarta",
+                job.id());
+    }
+
+    private void count(String outcome) {
+        meterRegistry.counter("notifications.email.dispatched", "outcome", outcome).increment();
+    }
+
+    private static String describe(Exception failure) {
+        String message = failure.getMessage();
+        return failure.getClass().getSimpleName() + (message != null ? ": " + message : "");
+    }
+}
@@ -0,0 +1,84 @@
+package co.edu.unbosque.notificationservice.dispatch;
+
+import co.edu.unbosque.notificationservice.repository.EmailOutboxJdbcRepository.EmailJob;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Envía un lote de correos por una sola sesión SMTP.
+ *
+ * JavaMailSender.send(MimeMessage...) abre el Transport una vez y lo reutiliza para todos
+ * los mensajes (se reconecta solo si el servidor cierra la conexión), en lugar de
+ * conectar, autenticar y cerrar por cada correo como el envío individual.
+ */
+@Component
+public class SmtpBatchSender {
+
+    private final JavaMailSender mailSender;
+
+    public SmtpBatchSender(JavaMailSender mailSender) {
+        this.mailSender = mailSender;
+    }
+
+    /**
+     * @return fallos por id de outbox; los trabajos que no aparecen se enviaron
+     */
+    public Map<Long, Exception> sendAll(List<EmailJob> jobs) {
+        Map<Long, Exception> failures = new HashMap<>();
+        Map<MimeMessage, Long> jobIds = new IdentityHashMap<>();
+        List<MimeMessage> messages = new ArrayList<>(jobs.size());
+
+        for (EmailJob job : jobs) {
+            try {
+                MimeMessage message = build(job);
+                jobIds.put(message, job.id());
+                messages.add(message);
+            } catch (MessagingException e) {
+                // Dirección o contenido inválido: no llega a enviarse
+                failures.put(job.id(), e);
+            }
+        }
+        if (messages.isEmpty()) {
+            return failures;
+        }
+
+        try {
+            mailSender.send(messages.toArray(MimeMessage[]::new));
+        } catch (MailSendException e) {
+            // Fallos por mensaje; el resto del lote salió por la misma conexión
+            if (e.getFailedMessages().isEmpty()) {
+                jobIds.values().forEach(id -> failures.put(id, e));
+            }
+            e.getFailedMessages().forEach((message, cause) -> {
+                Long id = jobIds.get(message);
+                if (id != null) {
+                    failures.put(id, cause);
+                }
+            });
+        } catch (MailException e) {
+            // Autenticación o configuración: no salió ningún mensaje
+            jobIds.values().forEach(id -> failures.put(id, e));
+        }
+        return failures;
+    }
+
+    private MimeMessage build(EmailJob job) throws MessagingException {
+        MimeMessage message = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
+        helper.setTo(job.recipient());
+        helper.setSubject(job.subject() != null ? job.subject() : "Sin asunto");
+        helper.setText(job.body() != null ? job.body() : "", true);
+        return message;
+    }
+}
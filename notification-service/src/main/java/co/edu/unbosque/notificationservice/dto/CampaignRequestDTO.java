@@ -0,0 +1,20 @@
+package co.edu.unbosque.notificationservice.dto;
+
+import jakarta.validation.constraints.NotBlank;
+
+import java.util.List;
+import java.util.Map;
+
+public record CampaignRequestDTO(
+        @NotBlank(message = "templateCode es obligatorio")
+        String templateCode,
+
+        // Destinatarios explícitos; si viene vacío se usa el segmento
+        List<Integer> userIds,
+
+        // Segmento: estado del usuario (ACTIVE, BLOCKED...); null = todos
+        String status,
+
+        // Variables adicionales para la plantilla (p. ej. detalle de la falla del servicio)
+        Map<String, String> variables
+) {}
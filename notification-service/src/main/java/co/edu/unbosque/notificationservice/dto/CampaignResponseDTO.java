@@ -0,0 +1,23 @@
+package co.edu.unbosque.notificationservice.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Progreso de una campaña. enqueued/skipped cuentan destinatarios procesados por el pipeline;
+ * sent/failed/pending reflejan el estado de sus correos en email_outbox.
+ */
+public record CampaignResponseDTO(
+        Long id,
+        String templateCode,
+        String target,
+        String status,
+        long enqueued,
+        long skipped,
+        long sent,
+        long failed,
+        long pending,
+        double recipientsPerSecond,
+        LocalDateTime startedAt,
+        LocalDateTime finishedAt,
+        String error
+) {}
@@ -0,0 +1,8 @@
+package co.edu.unbosque.notificationservice.dto;
+
+import java.util.List;
+
+public record UserEmailPageDTO(
+        List<UserEmailDTO> users,
+        Long nextAfterId
+) {}
@@ -0,0 +1,8 @@
+package co.edu.unbosque.notificationservice.dto.event;
+
+import java.math.BigDecimal;
+
+public record LocationData(
+        BigDecimal latitude,
+        BigDecimal longitude
+) {}
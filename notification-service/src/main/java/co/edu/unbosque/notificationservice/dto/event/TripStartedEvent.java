@@ -0,0 +1,18 @@
+package co.edu.unbosque.notificationservice.dto.event;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Payload de TRIP_STARTED en trip-events; mismo contrato que el record de trip-service.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record TripStartedEvent(
+        @JsonProperty("trip_id") Long tripId,
+        @JsonProperty("user_id") Long userId,
+        @JsonProperty("bike_id") Long bikeId,
+        @JsonProperty("station_id") Long stationId,
+        @JsonProperty("trip_type") String tripType,
+        @JsonProperty("timestamp") String timestamp,
+        @JsonProperty("start_location") LocationData startLocation
+) {}
@@ -0,0 +1,141 @@
+package co.edu.unbosque.notificationservice.messaging;
+
+import co.edu.unbosque.notificationservice.dto.event.TripCompletedEvent;
+import co.edu.unbosque.notificationservice.dto.event.TripStartedEvent;
+import co.edu.unbosque.notificationservice.service.NotificationService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.header.Header;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Consume trip-events (publicado por TripOutboxRelay en trip-service) y encola el correo de
+ * inicio o de recibo del viaje con las plantillas TRIP_STARTED y TRIP_COMPLETED.
+ *
+ * Todas las instancias comparten el group id: cada evento se notifica una vez. La entrega es
+ * al menos una vez, así que se deduplica por el header event_id (id del outbox en trip-service)
+ * dentro de la misma transacción que encola el correo. Si falta la plantilla o user-service no
+ * responde, la excepción llega al contenedor y el evento se reintenta (KafkaConfig); agotados los
+ * reintentos queda en trip-events.DLT. Un usuario que user-service ya no conoce se omite.
+ */
+@Component
+public class TripEventListener {
+
+    private static final Logger log = LoggerFactory.getLogger(TripEventListener.class);
+
+    static final String EVENT_ID_HEADER = "event_id";
+    static final String EVENT_TYPE_HEADER = "event_type";
+
+    private final NotificationService notificationService;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    public TripEventListener(NotificationService notificationService, ObjectMapper objectMapper,
+                             MeterRegistry meterRegistry) {
+        this.notificationService = notificationService;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @KafkaListener(
+            topics = "${notifications.trips.events.topic:trip-events}",
+            groupId = "${notifications.trips.events.group-id:notification-service-trips}",
+            autoStartup = "${notifications.trips.events.enabled:true}"
+    )
+    public void onTripEvent(ConsumerRecord<String, String> record) {
+        String eventType = header(record, EVENT_TYPE_HEADER);
+        String eventId = header(record, EVENT_ID_HEADER);
+        if (eventType == null || eventId == null) {
+            log.warn("Evento de viaje sin headers event_type/event_id [P:{}|O:{}]", record.partition(), record.offset());
+            count("invalid");
+            return;
+        }
+
+        try {
+            boolean enqueued = switch (eventType) {
+                case "TRIP_STARTED" -> onTripStarted(eventId, objectMapper.readValue(record.value(), TripStartedEvent.class));
+                case "TRIP_COMPLETED" -> onTripCompleted(eventId, objectMapper.readValue(record.value(), TripCompletedEvent.class));
+                default -> {
+                    log.debug("Evento de viaje {} sin notificación", eventType);
+                    count("ignored");
+                    yield false;
+                }
+            };
+            if (enqueued) {
+                count("enqueued");
+            }
+        } catch (JsonProcessingException e) {
+            // Un payload ilegible no mejora con reintentos
+            log.warn("Evento de viaje {} ilegible: {}", eventId, e.getOriginalMessage());
+            count("invalid");
+        }
+    }
+
+    private boolean onTripStarted(String eventId, TripStartedEvent event) {
+        if (event.userId() == null) {
+            count("invalid");
+            return false;
+        }
+        Map<String, String> variables = new HashMap<>();
+        variables.put("tripId", text(event.tripId()));
+        variables.put("bikeId", text(event.bikeId()));
+        variables.put("stationId", text(event.stationId()));
+        variables.put("tripType", text(event.tripType()));
+        variables.put("startTime", text(event.timestamp()));
+        return enqueue(eventId, event.userId(), "TRIP_STARTED", variables);
+    }
+
+    private boolean onTripCompleted(String eventId, TripCompletedEvent event) {
+        if (event.userId() == null) {
+            count("invalid");
+            return false;
+        }
+        Map<String, String> variables = new HashMap<>();
+        variables.put("tripId", text(event.tripId()));
+        variables.put("bikeId", text(event.bikeId()));
+        variables.put("stationId", text(event.endStationId()));
+        variables.put("distanceKm", amount(event.distanceKm()));
+        variables.put("durationMinutes", text(event.durationMinutes()));
+        variables.put("cost", amount(event.cost()));
+        variables.put("endTime", text(event.timestamp()));
+        return enqueue(eventId, event.userId(), "TRIP_COMPLETED", variables);
+    }
+
+    private boolean enqueue(String eventId, Long userId, String templateCode, Map<String, String> variables) {
+        // El prefijo separa los ids de trip-events de otros topics que usen la misma tabla
+        boolean enqueued = notificationService.enqueueEventNotification(
+                "trip-events:" + eventId, Math.toIntExact(userId), templateCode, variables);
+        if (!enqueued) {
+            count("skipped");
+        }
+        return enqueued;
+    }
+
+    private void count(String outcome) {
+        meterRegistry.counter("notifications.trip-events.consumed", "outcome", outcome).increment();
+    }
+
+    private static String header(ConsumerRecord<String, String> record, String name) {
+        Header header = record.headers().lastHeader(name);
+        return header != null ? new String(header.value(), StandardCharsets.UTF_8) : null;
+    }
+
+    private static String text(Object value) {
+        return value != null ? value.toString() : "";
+    }
+
+    private static String amount(BigDecimal value) {
+        return value != null ? value.setScale(2, RoundingMode.HALF_UP).toPlainString() : "";
+    }
+}
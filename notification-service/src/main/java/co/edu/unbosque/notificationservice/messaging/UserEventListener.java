@@ -0,0 +1,60 @@
+package co.edu.unbosque.notificationservice.messaging;
+
+import co.edu.unbosque.notificationservice.cache.UserContactCache;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Consume user-events (publicado por user-service al actualizar o eliminar un usuario) e
+ * invalida el contacto en UserContactCache.
+ *
+ * Cada instancia usa su propio group id para recibir todos los eventos, y empieza desde el
+ * final del topic: al arrancar la cache está vacía y no hay nada viejo que invalidar.
+ */
+@Component
+public class UserEventListener {
+
+    private static final Logger log = LoggerFactory.getLogger(UserEventListener.class);
+
+    private final UserContactCache contactCache;
+    private final ObjectMapper objectMapper;
+
+    public UserEventListener(UserContactCache contactCache, ObjectMapper objectMapper) {
+        this.contactCache = contactCache;
+        this.objectMapper = objectMapper;
+    }
+
+    @KafkaListener(
+            topics = "${notifications.contacts.events.topic:user-events}",
+            groupId = "notification-contacts-${random.uuid}",
+            autoStartup = "${notifications.contacts.events.enabled:true}",
+            properties = "auto.offset.reset=latest"
+    )
+    public void onUserEvent(ConsumerRecord<String, String> record) {
+        Integer userId = userId(record);
+        if (userId == null) {
+            log.warn("Evento de usuario ilegible [P:{}|O:{}]", record.partition(), record.offset());
+            return;
+        }
+        contactCache.invalidate(userId);
+        log.debug("Contacto del usuario {} invalidado", userId);
+    }
+
+    // La clave es el userId; si falta se toma del payload
+    private Integer userId(ConsumerRecord<String, String> record) {
+        try {
+            if (record.key() != null) {
+                return Integer.valueOf(record.key());
+            }
+            JsonNode payload = objectMapper.readTree(record.value());
+            return payload.hasNonNull("userId") ? payload.get("userId").asInt() : null;
+        } catch (Exception e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package co.edu.unbosque.notificationservice.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Correo pendiente de envío. EmailDispatcher toma las filas PENDING vencidas, las envía
+ * por lotes y las marca SENT, las reprograma con backoff o las deja en FAILED.
+ */
+@Entity
+@Table(
+        name = "email_outbox",
+        indexes = {
+                @Index(name = "idx_email_outbox_due", columnList = "status, next_attempt_at"),
+                @Index(name = "idx_email_outbox_campaign", columnList = "campaign_id, status")
+        }
+)
+public class EmailOutbox {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "notification_log_id")
+    private Integer notificationLogId;
+
+    // Solo para correos de campañas (progreso por estado)
+    @Column(name = "campaign_id")
+    private Long campaignId;
+
+    @Column(nullable = false)
+    private String recipient;
+
+    @Column(name = "recipient_domain", nullable = false)
+    private String recipientDomain;
+
+    @Column(length = 150)
+    private String subject;
+
+    @Column(columnDefinition = "text")
+    private String body;
+
+    // PENDING, SENDING, SENT, FAILED
+    @Column(length = 20, nullable = false)
+    private String status = "PENDING";
+
+    @Column(nullable = false)
+    private int attempts = 0;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt = LocalDateTime.now();
+
+    @Column(name = "locked_until")
+    private LocalDateTime lockedUntil;
+
+    @Column(name = "last_error", length = 500)
+    private String lastError;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    @Column(name = "sent_at")
+    private LocalDateTime sentAt;
+
+    public EmailOutbox() {}
+
+    public EmailOutbox(Integer notificationLogId, String recipient, String subject, String body) {
+        this.notificationLogId = notificationLogId;
+        this.recipient = recipient;
+        this.recipientDomain = domainOf(recipient);
+        this.subject = subject;
+        this.body = body;
+    }
+
+    public static String domainOf(String email) {
+        int at = email.lastIndexOf('@');
+        return at >= 0 ? email.substring(at + 1).trim().toLowerCase() : "";
+    }
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Integer getNotificationLogId() { return notificationLogId; }
+    public void setNotificationLogId(Integer notificationLogId) { this.notificationLogId = notificationLogId; }
+
+    public Long getCampaignId() { return campaignId; }
+    public void setCampaignId(Long campaignId) { this.campaignId = campaignId; }
+
+    public String getRecipient() { return recipient; }
+    public void setRecipient(String recipient) { this.recipient = recipient; }
+
+    public String getRecipientDomain() { return recipientDomain; }
+    public void setRecipientDomain(String recipientDomain) { this.recipientDomain = recipientDomain; }
+
+    public String getSubject() { return subject; }
+    public void setSubject(String subject) { this.subject = subject; }
+
+    public String getBody() { return body; }
+    public void setBody(String body) { this.body = body; }
+
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+
+    public int getAttempts() { return attempts; }
+    public void setAttempts(int attempts) { this.attempts = attempts; }
+
+    public LocalDateTime getNextAttemptAt() { return nextAttemptAt; }
+    public void setNextAttemptAt(LocalDateTime nextAttemptAt) { this.nextAttemptAt = nextAttemptAt; }
+
+    public LocalDateTime getLockedUntil() { return lockedUntil; }
+    public void setLockedUntil(LocalDateTime lockedUntil) { this.lockedUntil = lockedUntil; }
+
+    public String getLastError() { return lastError; }
+    public void setLastError(String lastError) { this.lastError = lastError; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+
+    public LocalDateTime getSentAt() { return sentAt; }
+    public void setSentAt(LocalDateTime sentAt) { this.sentAt = sentAt; }
+}
@@ -19,6 +19,11 @@ public class MessageTemplate {
     @Column(columnDefinition = "text")
     private String body;
 
+    // Se incrementa en cada actualización; identifica la versión compilada en TemplateCache
+    @Version
+    @Column(columnDefinition = "integer default 0 not null")
+    private Integer version;
+
     public MessageTemplate() {}
 
     public Integer getId() {
@@ -52,5 +57,13 @@ public class MessageTemplate {
     public void setBody(String body) {
         this.body = body;
     }
+
+    public Integer getVersion() {
+        return version;
+    }
+
+    public void setVersion(Integer version) {
+        this.version = version;
+    }
 }
 
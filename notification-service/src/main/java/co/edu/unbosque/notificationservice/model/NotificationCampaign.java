@@ -0,0 +1,78 @@
+package co.edu.unbosque.notificationservice.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Envío masivo de una plantilla a un segmento o lista de usuarios. Los contadores los
+ * actualiza el pipeline por bloque, en la misma transacción que encola los correos.
+ */
+@Entity
+@Table(name = "notification_campaign")
+public class NotificationCampaign {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "template_code", nullable = false, length = 50)
+    private String templateCode;
+
+    // "status:ACTIVE", "status:ALL" o "ids:<cantidad>"
+    @Column(nullable = false, length = 60)
+    private String target;
+
+    // RUNNING, COMPLETED, FAILED
+    @Column(length = 20, nullable = false)
+    private String status = "RUNNING";
+
+    @Column(nullable = false)
+    private long enqueued = 0;
+
+    @Column(nullable = false)
+    private long skipped = 0;
+
+    @Column(name = "started_at", nullable = false)
+    private LocalDateTime startedAt = LocalDateTime.now();
+
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+
+    @Column(length = 500)
+    private String error;
+
+    public NotificationCampaign() {}
+
+    public NotificationCampaign(String templateCode, String target) {
+        this.templateCode = templateCode;
+        this.target = target;
+    }
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getTemplateCode() { return templateCode; }
+    public void setTemplateCode(String templateCode) { this.templateCode = templateCode; }
+
+    public String getTarget() { return target; }
+    public void setTarget(String target) { this.target = target; }
+
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+
+    public long getEnqueued() { return enqueued; }
+    public void setEnqueued(long enqueued) { this.enqueued = enqueued; }
+
+    public long getSkipped() { return skipped; }
+    public void setSkipped(long skipped) { this.skipped = skipped; }
+
+    public LocalDateTime getStartedAt() { return startedAt; }
+    public void setStartedAt(LocalDateTime startedAt) { this.startedAt = startedAt; }
+
+    public LocalDateTime getFinishedAt() { return finishedAt; }
+    public void setFinishedAt(LocalDateTime finishedAt) { this.finishedAt = finishedAt; }
+
+    public String getError() { return error; }
+    public void setError(String error) { this.error = error; }
+}
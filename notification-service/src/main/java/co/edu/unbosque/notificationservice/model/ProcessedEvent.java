@@ -0,0 +1,40 @@
+package co.edu.unbosque.notificationservice.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Evento de Kafka ya convertido en notificación. Se inserta en la misma transacción que el
+ * correo encolado, así una reentrega (at-least-once) del mismo evento no envía otro correo.
+ */
+@Entity
+@Table(name = "processed_event")
+public class ProcessedEvent {
+
+    @Id
+    @Column(name = "event_id", length = 100)
+    private String eventId;
+
+    @Column(name = "processed_at", nullable = false)
+    private LocalDateTime processedAt = LocalDateTime.now();
+
+    public ProcessedEvent() {
+    }
+
+    public String getEventId() {
+        return eventId;
+    }
+
+    public void setEventId(String eventId) {
+        this.eventId = eventId;
+    }
+
+    public LocalDateTime getProcessedAt() {
+        return processedAt;
+    }
+
+    public void setProcessedAt(LocalDateTime processedAt) {
+        this.processedAt = processedAt;
+    }
+}
@@ -0,0 +1,87 @@
+package co.edu.unbosque.notificationservice.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Escrituras por bloque del pipeline de campañas.
+ *
+ * Un bloque de destinatarios se encola con una sola sentencia: los arreglos de usuarios,
+ * direcciones y cuerpos se expanden con unnest, se insertan los notification_log y sus ids
+ * alimentan el INSERT en email_outbox. El contador de la campaña avanza en la misma
+ * transacción, así el progreso nunca adelanta a lo realmente encolado.
+ */
+@Repository
+public class CampaignJdbcRepository {
+
+    private static final String ENQUEUE = """
+            WITH input AS (
+                SELECT * FROM unnest(?::int[], ?::text[], ?::text[], ?::text[]) AS t(user_id, recipient, domain, body)
+            ), logs AS (
+                INSERT INTO notification_log (user_id, template_id, status, sent_at)
+                SELECT user_id, ?, 'PENDING', now() FROM input
+                RETURNING id, user_id
+            )
+            INSERT INTO email_outbox (campaign_id, notification_log_id, recipient, recipient_domain, subject, body,
+                                      status, attempts, next_attempt_at, created_at)
+            SELECT ?, logs.id, input.recipient, input.domain, ?, input.body, 'PENDING', 0, now(), now()
+            FROM logs JOIN input ON input.user_id = logs.user_id
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public CampaignJdbcRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Encola los correos de un bloque (usuarios sin repetir) y suma el progreso de la campaña.
+     */
+    @Transactional
+    public void appendChunk(Long campaignId, Integer templateId, String subject, List<OutboundEmail> emails, int skipped) {
+        if (!emails.isEmpty()) {
+            jdbcTemplate.update(connection -> {
+                var statement = connection.prepareStatement(ENQUEUE);
+                statement.setArray(1, connection.createArrayOf("integer",
+                        emails.stream().map(OutboundEmail::userId).toArray()));
+                statement.setArray(2, connection.createArrayOf("text",
+                        emails.stream().map(OutboundEmail::recipient).toArray()));
+                statement.setArray(3, connection.createArrayOf("text",
+                        emails.stream().map(OutboundEmail::domain).toArray()));
+                statement.setArray(4, connection.createArrayOf("text",
+                        emails.stream().map(OutboundEmail::body).toArray()));
+                statement.setInt(5, templateId);
+                statement.setLong(6, campaignId);
+                statement.setString(7, subject);
+                return statement;
+            });
+        }
+        jdbcTemplate.update("UPDATE notification_campaign SET enqueued = enqueued + ?, skipped = skipped + ? WHERE id = ?",
+                emails.size(), skipped, campaignId);
+    }
+
+    public void finish(Long campaignId, String status, String error) {
+        jdbcTemplate.update("UPDATE notification_campaign SET status = ?, finished_at = now(), error = ? WHERE id = ?",
+                status, error != null && error.length() > 500 ? error.substring(0, 500) : error, campaignId);
+    }
+
+    /**
+     * Correos de la campaña en email_outbox agrupados por estado.
+     */
+    public Map<String, Long> countDeliveries(Long campaignId) {
+        Map<String, Long> counts = new HashMap<>();
+        jdbcTemplate.query("SELECT status, COUNT(*) AS total FROM email_outbox WHERE campaign_id = ? GROUP BY status",
+                rs -> {
+                    counts.put(rs.getString("status"), rs.getLong("total"));
+                },
+                campaignId);
+        return counts;
+    }
+
+    public record OutboundEmail(Integer userId, String recipient, String domain, String body) {}
+}
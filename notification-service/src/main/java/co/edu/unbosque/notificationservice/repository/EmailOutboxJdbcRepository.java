@@ -0,0 +1,163 @@
+package co.edu.unbosque.notificationservice.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Array;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Operaciones de la cola email_outbox usadas por EmailDispatcher.
+ *
+ * Reclamar un lote es un solo UPDATE ... RETURNING sobre filas elegidas con
+ * FOR UPDATE SKIP LOCKED, así varias instancias del servicio drenan la cola sin tomar
+ * el mismo correo. Una fila SENDING cuyo lease venció (worker caído) se vuelve a reclamar.
+ *
+ * El locked_until devuelto por el reclamo es el token del lease: los cierres (SENT, reintento,
+ * FAILED, defer) solo aplican si la fila sigue SENDING con ese mismo locked_until. Si el lease
+ * venció y otro worker la reclamó, el cierre tardío no toca la fila y devuelve 0.
+ */
+@Repository
+public class EmailOutboxJdbcRepository {
+
+    private static final String CLAIM = """
+            UPDATE email_outbox e
+            SET status = 'SENDING', attempts = e.attempts + 1, locked_until = ?
+            WHERE e.id IN (
+                SELECT id FROM email_outbox
+                WHERE (status = 'PENDING' AND next_attempt_at <= ?)
+                   OR (status = 'SENDING' AND locked_until < ?)
+                ORDER BY next_attempt_at
+                LIMIT ?
+                FOR UPDATE SKIP LOCKED
+            )
+            RETURNING e.id, e.notification_log_id, e.recipient, e.recipient_domain, e.subject, e.body, e.attempts,
+                e.locked_until
+            """;
+
+    private static final RowMapper<EmailJob> JOB_ROW_MAPPER = (rs, rowNum) -> new EmailJob(
+            rs.getLong("id"),
+            (Integer) rs.getObject("notification_log_id"),
+            rs.getString("recipient"),
+            rs.getString("recipient_domain"),
+            rs.getString("subject"),
+            rs.getString("body"),
+            rs.getInt("attempts"),
+            rs.getTimestamp("locked_until").toLocalDateTime()
+    );
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public EmailOutboxJdbcRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public List<EmailJob> claimBatch(int limit, Duration lease) {
+        LocalDateTime now = LocalDateTime.now();
+        return jdbcTemplate.query(CLAIM, JOB_ROW_MAPPER,
+                Timestamp.valueOf(now.plus(lease)), Timestamp.valueOf(now), Timestamp.valueOf(now), limit);
+    }
+
+    /**
+     * Marca los correos como enviados junto con sus logs de notificación.
+     *
+     * @return correos marcados; los que perdieron el lease no cuentan
+     */
+    @Transactional
+    public int markSent(Collection<EmailJob> jobs) {
+        if (jobs.isEmpty()) {
+            return 0;
+        }
+        Long[] ids = jobs.stream().map(EmailJob::id).toArray(Long[]::new);
+        Timestamp[] leases = jobs.stream().map(job -> Timestamp.valueOf(job.leaseToken())).toArray(Timestamp[]::new);
+        return jdbcTemplate.query(connection -> {
+            var statement = connection.prepareStatement("""
+                    WITH sent AS (
+                        UPDATE email_outbox e
+                        SET status = 'SENT', sent_at = now(), locked_until = NULL, last_error = NULL
+                        FROM unnest(?, ?) AS claimed(id, lease)
+                        WHERE e.id = claimed.id AND e.status = 'SENDING' AND e.locked_until = claimed.lease
+                        RETURNING e.notification_log_id
+                    ), logs AS (
+                        UPDATE notification_log SET status = 'SENT', sent_at = now()
+                        WHERE id IN (SELECT notification_log_id FROM sent)
+                    )
+                    SELECT COUNT(*) FROM sent
+                    """);
+            Array idArray = connection.createArrayOf("bigint", ids);
+            Array leaseArray = connection.createArrayOf("timestamp", leases);
+            statement.setArray(1, idArray);
+            statement.setArray(2, leaseArray);
+            return statement;
+        }, rs -> rs.next() ? rs.getInt(1) : 0);
+    }
+
+    /**
+     * Vuelve a PENDING para un nuevo intento en nextAttemptAt.
+     *
+     * @return false si el lease del correo ya no es de quien lo reclamó
+     */
+    public boolean markRetry(EmailJob job, LocalDateTime nextAttemptAt, String error) {
+        return jdbcTemplate.update("""
+                UPDATE email_outbox SET status = 'PENDING', next_attempt_at = ?, locked_until = NULL, last_error = ?
+                WHERE id = ? AND status = 'SENDING' AND locked_until = ?
+                """, Timestamp.valueOf(nextAttemptAt), truncate(error), job.id(),
+                Timestamp.valueOf(job.leaseToken())) > 0;
+    }
+
+    /**
+     * Devuelve a la cola sin contar el intento (p. ej. límite por dominio alcanzado).
+     *
+     * @return false si el lease del correo ya no es de quien lo reclamó
+     */
+    public boolean defer(EmailJob job, LocalDateTime nextAttemptAt) {
+        return jdbcTemplate.update("""
+                UPDATE email_outbox SET status = 'PENDING', next_attempt_at = ?, locked_until = NULL,
+                    attempts = GREATEST(attempts - 1, 0)
+                WHERE id = ? AND status = 'SENDING' AND locked_until = ?
+                """, Timestamp.valueOf(nextAttemptAt), job.id(), Timestamp.valueOf(job.leaseToken())) > 0;
+    }
+
+    /**
+     * @return false si el lease del correo ya no es de quien lo reclamó
+     */
+    @Transactional
+    public boolean markFailed(EmailJob job, String error) {
+        Integer failed = jdbcTemplate.queryForObject("""
+                WITH failed AS (
+                    UPDATE email_outbox SET status = 'FAILED', locked_until = NULL, last_error = ?
+                    WHERE id = ? AND status = 'SENDING' AND locked_until = ?
+                    RETURNING notification_log_id
+                ), logs AS (
+                    UPDATE notification_log SET status = 'FAILED', sent_at = now()
+                    WHERE id IN (SELECT notification_log_id FROM failed)
+                )
+                SELECT COUNT(*) FROM failed
+                """, Integer.class, truncate(error), job.id(), Timestamp.valueOf(job.leaseToken()));
+        return failed != null && failed > 0;
+    }
+
+    private static String truncate(String error) {
+        if (error == null) {
+            return null;
+        }
+        return error.length() > 500 ? error.substring(0, 500) : error;
+    }
+
+    public record EmailJob(
+            Long id,
+            Integer notificationLogId,
+            String recipient,
+            String domain,
+            String subject,
+            String body,
+            int attempts,
+            LocalDateTime leaseToken
+    ) {}
+}
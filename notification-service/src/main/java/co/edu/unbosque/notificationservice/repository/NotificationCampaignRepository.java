@@ -0,0 +1,7 @@
+package co.edu.unbosque.notificationservice.repository;
+
+import co.edu.unbosque.notificationservice.model.NotificationCampaign;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface NotificationCampaignRepository extends JpaRepository<NotificationCampaign, Long> {
+}
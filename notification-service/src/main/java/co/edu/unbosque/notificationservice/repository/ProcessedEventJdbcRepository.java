@@ -0,0 +1,30 @@
+package co.edu.unbosque.notificationservice.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+/**
+ * Registro de eventos procesados (processed_event) para deduplicar consumidores de Kafka.
+ */
+@Repository
+public class ProcessedEventJdbcRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ProcessedEventJdbcRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Marca el evento como procesado. Retorna false si ya lo estaba; con ON CONFLICT dos
+     * consumidores concurrentes no chocan: el segundo espera el commit del primero y no inserta.
+     */
+    public boolean markProcessed(String eventId) {
+        return jdbcTemplate.update(
+                "INSERT INTO processed_event (event_id, processed_at) VALUES (?, ?) ON CONFLICT (event_id) DO NOTHING",
+                eventId, Timestamp.valueOf(LocalDateTime.now())) == 1;
+    }
+}
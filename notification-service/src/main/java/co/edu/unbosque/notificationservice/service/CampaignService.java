@@ -0,0 +1,9 @@
+package co.edu.unbosque.notificationservice.service;
+
+import co.edu.unbosque.notificationservice.dto.CampaignRequestDTO;
+import co.edu.unbosque.notificationservice.dto.CampaignResponseDTO;
+
+public interface CampaignService {
+    CampaignResponseDTO startCampaign(CampaignRequestDTO request);
+    CampaignResponseDTO getCampaign(Long id);
+}
@@ -5,6 +5,7 @@ import java.util.List;
 
 public interface MessageTemplateService {
     MessageTemplateDTO createTemplate(MessageTemplateDTO dto);
+    MessageTemplateDTO updateTemplate(Integer id, MessageTemplateDTO dto);
     MessageTemplateDTO getTemplateByName(String name);
     List<MessageTemplateDTO> getAllTemplates();
     void deleteTemplate(Integer id);
@@ -3,8 +3,17 @@ package co.edu.unbosque.notificationservice.service;
 import co.edu.unbosque.notificationservice.dto.NotificationRequestDTO;
 import co.edu.unbosque.notificationservice.dto.NotificationResponseDTO;
 
+import java.util.Map;
+
 public interface NotificationService {
     NotificationResponseDTO sendNotification(NotificationRequestDTO request);
      NotificationResponseDTO sendPasswordRecoveryCode(Integer userId, String code);
 
+    /**
+     * Encola la notificación de un evento de dominio (p. ej. trip-events) una sola vez por eventId.
+     * Retorna false si el evento ya se había procesado o el usuario no tiene email; lanza
+     * IllegalStateException si la plantilla no existe, sin marcar el evento.
+     */
+    boolean enqueueEventNotification(String eventId, Integer userId, String templateCode, Map<String, String> variables);
+
     }
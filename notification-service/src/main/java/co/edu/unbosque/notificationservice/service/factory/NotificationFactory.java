@@ -12,10 +12,11 @@ import org.springframework.stereotype.Component;
 @Component
 public class NotificationFactory {
 
-    private final JavaMailSender mailSender;
+    // Sin estado: una sola instancia por canal
+    private final NotificationChannel emailChannel;
 
     public NotificationFactory(JavaMailSender mailSender) {
-        this.mailSender = mailSender;
+        this.emailChannel = new EmailNotificationStrategy(mailSender);
     }
 
     /**
@@ -30,7 +31,7 @@ public class NotificationFactory {
         }
 
         return switch (channelType.toUpperCase()) {
-            case "EMAIL" -> new EmailNotificationStrategy(mailSender);
+            case "EMAIL" -> emailChannel;
             // Aquí puedes agregar más canales en el futuro:
             // case "SMS" -> new SmsNotificationStrategy(smsProvider);
             // case "PUSH" -> new PushNotificationStrategy(pushService);
@@ -0,0 +1,211 @@
+package co.edu.unbosque.notificationservice.service.impl;
+
+import co.edu.unbosque.notificationservice.cache.TemplateCache;
+import co.edu.unbosque.notificationservice.cache.TemplateCache.CachedTemplate;
+import co.edu.unbosque.notificationservice.client.UserServiceClient;
+import co.edu.unbosque.notificationservice.dto.CampaignRequestDTO;
+import co.edu.unbosque.notificationservice.dto.CampaignResponseDTO;
+import co.edu.unbosque.notificationservice.dto.UserEmailDTO;
+import co.edu.unbosque.notificationservice.model.EmailOutbox;
+import co.edu.unbosque.notificationservice.model.NotificationCampaign;
+import co.edu.unbosque.notificationservice.repository.CampaignJdbcRepository;
+import co.edu.unbosque.notificationservice.repository.CampaignJdbcRepository.OutboundEmail;
+import co.edu.unbosque.notificationservice.repository.NotificationCampaignRepository;
+import co.edu.unbosque.notificationservice.service.CampaignService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Campañas: una plantilla enviada a un segmento o lista de usuarios.
+ *
+ * El pipeline es un Flux con contrapresión de punta a punta: los emails llegan de
+ * user-service por páginas, se agrupan en bloques, cada bloque se renderiza con la plantilla
+ * compilada y se encola en email_outbox con una sola sentencia. concatMap procesa un bloque
+ * a la vez, así que la página siguiente solo se pide cuando la base de datos absorbió la
+ * anterior. El envío SMTP lo hace EmailDispatcher a su propio ritmo.
+ */
+@Service
+public class CampaignServiceImpl implements CampaignService {
+
+    private static final Logger log = LoggerFactory.getLogger(CampaignServiceImpl.class);
+
+    private final NotificationCampaignRepository campaignRepository;
+    private final CampaignJdbcRepository campaignJdbcRepository;
+    private final TemplateCache templateCache;
+    private final UserServiceClient userClient;
+    private final Semaphore runningCampaigns;
+    private final int maxRunning;
+
+    private final Counter enqueuedCounter;
+    private final Counter skippedCounter;
+    private final Timer chunkTimer;
+
+    @Value("${notifications.campaigns.chunk-size:500}")
+    private int chunkSize = 500;
+
+    @Value("${notifications.campaigns.page-size:1000}")
+    private int pageSize = 1000;
+
+    public CampaignServiceImpl(
+            NotificationCampaignRepository campaignRepository,
+            CampaignJdbcRepository campaignJdbcRepository,
+            TemplateCache templateCache,
+            UserServiceClient userClient,
+            MeterRegistry meterRegistry,
+            @Value("${notifications.campaigns.max-running:2}") int maxRunning
+    ) {
+        this.campaignRepository = campaignRepository;
+        this.campaignJdbcRepository = campaignJdbcRepository;
+        this.templateCache = templateCache;
+        this.userClient = userClient;
+        this.maxRunning = maxRunning;
+        this.runningCampaigns = new Semaphore(maxRunning);
+
+        this.enqueuedCounter = Counter.builder("notifications.campaign.recipients")
+                .description("Destinatarios de campañas procesados")
+                .tag("outcome", "enqueued")
+                .register(meterRegistry);
+        this.skippedCounter = Counter.builder("notifications.campaign.recipients")
+                .description("Destinatarios de campañas procesados")
+                .tag("outcome", "skipped")
+                .register(meterRegistry);
+        this.chunkTimer = Timer.builder("notifications.campaign.chunk")
+                .description("Render y encolado de un bloque de destinatarios")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        Gauge.builder("notifications.campaign.running", runningCampaigns, s -> maxRunning - s.availablePermits())
+                .description("Campañas con pipeline en curso")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public CampaignResponseDTO startCampaign(CampaignRequestDTO request) {
+        CachedTemplate template = templateCache.get(request.templateCode())
+                .orElseThrow(() -> new IllegalArgumentException("Plantilla no encontrada: " + request.templateCode()));
+
+        boolean byIds = request.userIds() != null && !request.userIds().isEmpty();
+        String status = request.status() != null && !request.status().isBlank()
+                ? request.status().trim().toUpperCase()
+                : null;
+        List<Integer> userIds = byIds ? List.copyOf(new LinkedHashSet<>(request.userIds())) : List.of();
+
+        if (!runningCampaigns.tryAcquire()) {
+            throw new IllegalStateException("Hay " + maxRunning + " campañas en curso, intente más tarde");
+        }
+
+        NotificationCampaign campaign;
+        try {
+            campaign = campaignRepository.save(new NotificationCampaign(
+                    template.code(),
+                    byIds ? "ids:" + userIds.size() : "status:" + (status != null ? status : "ALL")));
+        } catch (RuntimeException e) {
+            runningCampaigns.release();
+            throw e;
+        }
+
+        Flux<UserEmailDTO> recipients = byIds
+                ? userClient.getUserEmails(userIds)
+                : userClient.streamUserEmails(status, pageSize);
+        Map<String, String> variables = request.variables() != null ? request.variables() : Map.of();
+
+        run(campaign.getId(), template, variables, recipients).subscribe();
+        log.info("Campaña {} iniciada: plantilla {}, destino {}", campaign.getId(), template.code(), campaign.getTarget());
+
+        return toDTO(campaign, Map.of());
+    }
+
+    @Override
+    public CampaignResponseDTO getCampaign(Long id) {
+        NotificationCampaign campaign = campaignRepository.findById(id)
+                .orElseThrow(() -> new IllegalArgumentException("Campaña no encontrada: " + id));
+        return toDTO(campaign, campaignJdbcRepository.countDeliveries(id));
+    }
+
+    /**
+     * Pipeline de la campaña; termina marcándola COMPLETED o FAILED.
+     */
+    private Mono<Void> run(Long campaignId, CachedTemplate template, Map<String, String> variables, Flux<UserEmailDTO> recipients) {
+        String date = LocalDate.now().toString();
+        return recipients
+                .buffer(chunkSize)
+                .concatMap(chunk -> Mono.fromRunnable(() -> writeChunk(campaignId, template, variables, date, chunk))
+                        .subscribeOn(Schedulers.boundedElastic()), 1)
+                .then(Mono.fromRunnable(() -> {
+                    campaignJdbcRepository.finish(campaignId, "COMPLETED", null);
+                    log.info("Campaña {} encolada completa", campaignId);
+                }))
+                .onErrorResume(e -> {
+                    log.error("Campaña {} interrumpida", campaignId, e);
+                    campaignJdbcRepository.finish(campaignId, "FAILED", e.getMessage());
+                    return Mono.empty();
+                })
+                .doFinally(signal -> runningCampaigns.release())
+                .then();
+    }
+
+    private void writeChunk(Long campaignId, CachedTemplate template, Map<String, String> variables,
+                            String date, List<UserEmailDTO> chunk) {
+        long start = System.nanoTime();
+        List<OutboundEmail> emails = new ArrayList<>(chunk.size());
+        int skipped = 0;
+
+        Map<String, String> userVariables = new HashMap<>(variables);
+        userVariables.put("date", date);
+        for (UserEmailDTO user : chunk) {
+            if (user.email() == null || user.email().isBlank()) {
+                skipped++;
+                continue;
+            }
+            userVariables.put("username", user.fullName() != null ? user.fullName() : "Usuario");
+            String email = user.email().trim();
+            emails.add(new OutboundEmail(user.id(), email, EmailOutbox.domainOf(email), template.body().render(userVariables)));
+        }
+
+        campaignJdbcRepository.appendChunk(campaignId, template.id(), template.subject(), emails, skipped);
+        enqueuedCounter.increment(emails.size());
+        skippedCounter.increment(skipped);
+        chunkTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    private CampaignResponseDTO toDTO(NotificationCampaign campaign, Map<String, Long> deliveries) {
+        LocalDateTime end = campaign.getFinishedAt() != null ? campaign.getFinishedAt() : LocalDateTime.now();
+        double seconds = Math.max(Duration.between(campaign.getStartedAt(), end).toMillis(), 1) / 1000.0;
+        long processed = campaign.getEnqueued() + campaign.getSkipped();
+
+        return new CampaignResponseDTO(
+                campaign.getId(),
+                campaign.getTemplateCode(),
+                campaign.getTarget(),
+                campaign.getStatus(),
+                campaign.getEnqueued(),
+                campaign.getSkipped(),
+                deliveries.getOrDefault("SENT", 0L),
+                deliveries.getOrDefault("FAILED", 0L),
+                deliveries.getOrDefault("PENDING", 0L) + deliveries.getOrDefault("SENDING", 0L),
+                Math.round(processed / seconds * 10) / 10.0,
+                campaign.getStartedAt(),
+                campaign.getFinishedAt(),
+                campaign.getError()
+        );
+    }
+}
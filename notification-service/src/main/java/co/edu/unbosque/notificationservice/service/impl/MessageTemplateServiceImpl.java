@@ -1,5 +1,6 @@
 package co.edu.unbosque.notificationservice.service.impl;
 
+import co.edu.unbosque.notificationservice.cache.TemplateCache;
 import co.edu.unbosque.notificationservice.dto.MessageTemplateDTO;
 import co.edu.unbosque.notificationservice.mapper.DataMapper;
 import co.edu.unbosque.notificationservice.model.MessageTemplate;
@@ -16,17 +17,43 @@ public class MessageTemplateServiceImpl implements MessageTemplateService {
 
     private final MessageTemplateRepository repository;
     private final DataMapper mapper;
+    private final TemplateCache templateCache;
 
-    public MessageTemplateServiceImpl(MessageTemplateRepository repository, DataMapper mapper) {
+    public MessageTemplateServiceImpl(MessageTemplateRepository repository, DataMapper mapper, TemplateCache templateCache) {
         this.repository = repository;
         this.mapper = mapper;
+        this.templateCache = templateCache;
     }
 
 
     @Override
     public MessageTemplateDTO createTemplate(MessageTemplateDTO dto) {
         MessageTemplate entity = mapper.toEntity(dto);
-        return mapper.toDTO(repository.save(entity));
+        MessageTemplate saved = repository.save(entity);
+        templateCache.invalidate(saved.getCode());
+        return mapper.toDTO(saved);
+    }
+
+    @Override
+    public MessageTemplateDTO updateTemplate(Integer id, MessageTemplateDTO dto) {
+        MessageTemplate entity = repository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Plantilla no encontrada: " + id));
+        String previousCode = entity.getCode();
+
+        if (dto.code() != null && !dto.code().isBlank()) {
+            entity.setCode(dto.code());
+        }
+        if (dto.subject() != null) {
+            entity.setSubject(dto.subject());
+        }
+        if (dto.body() != null) {
+            entity.setBody(dto.body());
+        }
+        MessageTemplate saved = repository.save(entity);
+
+        templateCache.invalidate(previousCode);
+        templateCache.invalidate(saved.getCode());
+        return mapper.toDTO(saved);
     }
 
     @Override
@@ -43,6 +70,7 @@ public class MessageTemplateServiceImpl implements MessageTemplateService {
 
     @Override
     public void deleteTemplate(Integer id) {
+        repository.findById(id).ifPresent(template -> templateCache.invalidate(template.getCode()));
         repository.deleteById(id);
     }
 }
@@ -1,16 +1,20 @@
 package co.edu.unbosque.notificationservice.service.impl;
 
-import co.edu.unbosque.notificationservice.client.UserServiceClient;
+import co.edu.unbosque.notificationservice.cache.TemplateCache;
+import co.edu.unbosque.notificationservice.cache.TemplateCache.CachedTemplate;
+import co.edu.unbosque.notificationservice.cache.UserContactCache;
 import co.edu.unbosque.notificationservice.dto.*;
 import co.edu.unbosque.notificationservice.mapper.DataMapper;
+import co.edu.unbosque.notificationservice.model.EmailOutbox;
 import co.edu.unbosque.notificationservice.model.MessageTemplate;
 import co.edu.unbosque.notificationservice.model.NotificationLog;
+import co.edu.unbosque.notificationservice.repository.EmailOutboxRepository;
 import co.edu.unbosque.notificationservice.repository.MessageTemplateRepository;
 import co.edu.unbosque.notificationservice.repository.NotificationLogRepository;
+import co.edu.unbosque.notificationservice.repository.ProcessedEventJdbcRepository;
 import co.edu.unbosque.notificationservice.service.NotificationService;
 import co.edu.unbosque.notificationservice.service.factory.NotificationFactory;
 import co.edu.unbosque.notificationservice.service.strategy.NotificationChannel;
-import co.edu.unbosque.notificationservice.util.TemplateProcessor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
@@ -34,21 +38,30 @@ public class NotificationServiceImpl implements NotificationService {
     private static final String DEFAULT_CHANNEL = "EMAIL";
 
     private final MessageTemplateRepository templateRepository;
+    private final TemplateCache templateCache;
     private final NotificationLogRepository logRepository;
-    private final UserServiceClient userClient;
+    private final EmailOutboxRepository outboxRepository;
+    private final ProcessedEventJdbcRepository processedEvents;
+    private final UserContactCache contactCache;
     private final NotificationFactory notificationFactory;
     private final DataMapper mapper;
 
     public NotificationServiceImpl(
             MessageTemplateRepository templateRepository,
+            TemplateCache templateCache,
             NotificationLogRepository logRepository,
-            UserServiceClient userClient,
+            EmailOutboxRepository outboxRepository,
+            ProcessedEventJdbcRepository processedEvents,
+            UserContactCache contactCache,
             NotificationFactory notificationFactory,
             DataMapper mapper
     ) {
         this.templateRepository = templateRepository;
+        this.templateCache = templateCache;
         this.logRepository = logRepository;
-        this.userClient = userClient;
+        this.outboxRepository = outboxRepository;
+        this.processedEvents = processedEvents;
+        this.contactCache = contactCache;
         this.notificationFactory = notificationFactory;
         this.mapper = mapper;
     }
@@ -56,56 +69,43 @@ public class NotificationServiceImpl implements NotificationService {
     @Override
     @Transactional
     public NotificationResponseDTO sendNotification(NotificationRequestDTO request) {
-        log.info("Iniciando envío de notificación para usuario: {} con template: {}",
+        log.info("Encolando notificación para usuario: {} con template: {}",
                 request.userId(), request.templateCode());
 
-        // 1. Recuperar plantilla desde BD (entidad MANAGED)
-        MessageTemplate template = templateRepository.findByCode(request.templateCode())
+        // 1. Recuperar plantilla compilada (cache; solo va a la BD si no está cargada)
+        CachedTemplate template = templateCache.get(request.templateCode())
                 .orElseThrow(() -> new RuntimeException("Plantilla no encontrada: " + request.templateCode()));
 
-        // 2. Obtener email del usuario desde el servicio externo
-        UserEmailDTO userEmail = userClient.getUserEmailById(request.userId());
+        // 2. Obtener email del usuario (cache local; solo consulta user-service si no está cargado)
+        UserEmailDTO userEmail = contactCache.get(request.userId());
         if (userEmail == null || userEmail.email() == null || userEmail.email().isBlank()) {
             throw new RuntimeException("No se encontró email válido para el usuario: " + request.userId());
         }
 
         // 3. Procesar plantilla con variables dinámicas
         Map<String, String> variables = buildTemplateVariables(userEmail);
-        String processedBody = TemplateProcessor.processTemplate(template.getBody(), variables);
+        String processedBody = template.body().render(variables);
 
-        // 4. Crear log ANTES de intentar enviar (entidad MANAGED)
-        NotificationLog notificationLog = createPendingLog(request.userId(), template);
-
-        // 5. Determinar canal de envío
+        // 4. Validar canal: la cola de despacho solo maneja EMAIL
         String channel = (request.channel() != null && !request.channel().isBlank())
                 ? request.channel()
                 : DEFAULT_CHANNEL;
-
-        // 6. Intentar enviar la notificación
-        try {
-            NotificationChannel notificationChannel = notificationFactory.createChannel(channel);
-            notificationChannel.send(userEmail.email(), template.getSubject(), processedBody);
-
-            // Envío exitoso
-            notificationLog.setStatus("SENT");
-            log.info("Notificación enviada exitosamente a usuario: {}", request.userId());
-
-        } catch (Exception e) {
-            // Fallo en el envío
-            notificationLog.setStatus("FAILED");
-            log.error("Error al enviar notificación a usuario: {}", request.userId(), e);
-            // No lanzamos excepción, registramos el fallo
+        if (!DEFAULT_CHANNEL.equalsIgnoreCase(channel)) {
+            throw new IllegalArgumentException("Canal no soportado: " + channel);
         }
 
-        // 7. Actualizar timestamp y persistir
-        notificationLog.setSentAt(LocalDateTime.now());
-        notificationLog = logRepository.save(notificationLog);
+        // 5. Log PENDING y correo en email_outbox en la misma transacción; EmailDispatcher
+        //    lo envía y actualiza el log a SENT o FAILED
+        NotificationLog notificationLog = createPendingLog(request.userId(), templateRepository.getReferenceById(template.id()));
+        outboxRepository.save(new EmailOutbox(
+                notificationLog.getId(), userEmail.email(), template.subject(), processedBody));
+        log.info("Notificación encolada para usuario: {} (log {})", request.userId(), notificationLog.getId());
 
-        // 8. Retornar DTO con la información del envío
+        // 6. Retornar DTO con la información del encolado
         return new NotificationResponseDTO(
                 notificationLog.getId(),
                 notificationLog.getUserId(),
-                template.getCode(),
+                template.code(),
                 notificationLog.getStatus(),
                 notificationLog.getSentAt()
         );
@@ -114,13 +114,14 @@ public class NotificationServiceImpl implements NotificationService {
     @Override
     @Transactional
     public NotificationResponseDTO sendPasswordRecoveryCode(Integer userId, String code) {
+        // Envío síncrono, fuera de email_outbox: user-service necesita saber si el código salió
         System.out.println("Enviando código de recuperación '" + code + "' para usuario: " + userId);
 
-        // Obtener template MANAGED desde la BD
-        MessageTemplate template = templateRepository.findByCode("PASSWORD_RECOVERY")
+        // Obtener template compilado desde la cache
+        CachedTemplate template = templateCache.get("PASSWORD_RECOVERY")
                 .orElseThrow(() -> new RuntimeException("Plantilla PASSWORD_RECOVERY no encontrada"));
 
-        UserEmailDTO userEmail = userClient.getUserEmailById(userId);
+        UserEmailDTO userEmail = contactCache.get(userId);
         if (userEmail == null || userEmail.email() == null || userEmail.email().isBlank()) {
             throw new RuntimeException("No se encontró email válido para el usuario: " + userId);
         }
@@ -129,18 +130,18 @@ public class NotificationServiceImpl implements NotificationService {
         Map<String, String> variables = buildTemplateVariables(userEmail);
         variables.put("code", code); // ← CÓDIGO para el email
 
-        String processedBody = TemplateProcessor.processTemplate(template.getBody(), variables);
+        String processedBody = template.body().render(variables);
 
         // Crear y guardar el log en una sola operación
         NotificationLog notificationLog = new NotificationLog();
         notificationLog.setUserId(userId);
-        notificationLog.setTemplate(template); // Template ya es MANAGED
+        notificationLog.setTemplate(templateRepository.getReferenceById(template.id())); // Referencia sin SELECT
         notificationLog.setStatus("PENDING");
         notificationLog.setSentAt(LocalDateTime.now());
 
         try {
             NotificationChannel channel = notificationFactory.createChannel(DEFAULT_CHANNEL);
-            channel.send(userEmail.email(), template.getSubject(), processedBody);
+            channel.send(userEmail.email(), template.subject(), processedBody);
             notificationLog.setStatus("SENT");
             System.out.println("Código de recuperación enviado exitosamente a " + userEmail.email());
         } catch (Exception e) {
@@ -155,6 +156,41 @@ public class NotificationServiceImpl implements NotificationService {
         return mapper.toNotificationDTO(notificationLog);
     }
 
+    @Override
+    @Transactional
+    public boolean enqueueEventNotification(String eventId, Integer userId, String templateCode,
+                                            Map<String, String> variables) {
+        // Sin plantilla el evento no se marca: la excepción llega al contenedor de Kafka, que
+        // reintenta con backoff (y, agotado el plazo, lo deja en el DLT)
+        CachedTemplate template = templateCache.get(templateCode)
+                .orElseThrow(() -> new IllegalStateException("Plantilla no encontrada: " + templateCode));
+
+        // La marca del evento, el log y el correo se confirman juntos: si algo falla se
+        // revierte todo y la reentrega de Kafka lo intenta de nuevo
+        if (!processedEvents.markProcessed(eventId)) {
+            log.debug("Evento {} ya procesado, se omite", eventId);
+            return false;
+        }
+
+        // Usuario sin email o que user-service ya no conoce (404, p. ej. eliminado): no hay correo
+        // posible y el evento queda marcado como procesado en lugar de reintentarse
+        UserEmailDTO userEmail = contactCache.get(userId);
+        if (userEmail == null || userEmail.email() == null || userEmail.email().isBlank()) {
+            log.warn("Usuario {} sin email válido; evento {} sin notificación", userId, eventId);
+            return false;
+        }
+
+        Map<String, String> allVariables = buildTemplateVariables(userEmail);
+        allVariables.putAll(variables);
+        String processedBody = template.body().render(allVariables);
+
+        NotificationLog notificationLog = createPendingLog(userId, templateRepository.getReferenceById(template.id()));
+        outboxRepository.save(new EmailOutbox(
+                notificationLog.getId(), userEmail.email(), template.subject(), processedBody));
+        log.info("Notificación {} encolada para usuario: {} (evento {})", templateCode, userId, eventId);
+        return true;
+    }
+
     // ==================== MÉTODOS PRIVADOS ====================
 
     /**
@@ -0,0 +1,83 @@
+package co.edu.unbosque.notificationservice.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Plantilla con los placeholders {{variable}} ya ubicados: el texto queda partido en
+ * literales y nombres de variable, de modo que renderizar es una sola pasada sobre los
+ * segmentos hacia un StringBuilder del tamaño final, sin volver a recorrer el HTML.
+ *
+ * Es inmutable y se puede compartir entre hilos.
+ */
+public final class CompiledTemplate {
+
+    private static final String OPEN = "{{";
+    private static final String CLOSE = "}}";
+
+    // literals.length == names.length + 1: literal, variable, literal, ..., literal
+    private final String[] literals;
+    private final String[] names;
+    private final int literalLength;
+
+    private CompiledTemplate(String[] literals, String[] names) {
+        this.literals = literals;
+        this.names = names;
+        int length = 0;
+        for (String literal : literals) {
+            length += literal.length();
+        }
+        this.literalLength = length;
+    }
+
+    public static CompiledTemplate compile(String source) {
+        List<String> literals = new ArrayList<>();
+        List<String> names = new ArrayList<>();
+
+        int position = 0;
+        while (true) {
+            int open = source.indexOf(OPEN, position);
+            int close = open >= 0 ? source.indexOf(CLOSE, open + OPEN.length()) : -1;
+            if (close < 0) {
+                // Sin más placeholders completos: el resto es texto
+                literals.add(source.substring(position));
+                break;
+            }
+            literals.add(source.substring(position, open));
+            names.add(source.substring(open + OPEN.length(), close));
+            position = close + CLOSE.length();
+        }
+
+        return new CompiledTemplate(literals.toArray(String[]::new), names.toArray(String[]::new));
+    }
+
+    /**
+     * Sustituye cada placeholder por su valor (null se vuelve vacío). Los placeholders sin
+     * entrada en el mapa se dejan tal cual, igual que el reemplazo anterior.
+     */
+    public String render(Map<String, String> variables) {
+        int size = literalLength;
+        for (String name : names) {
+            String value = variables.get(name);
+            size += value != null ? value.length() : name.length() + OPEN.length() + CLOSE.length();
+        }
+
+        StringBuilder out = new StringBuilder(size);
+        for (int i = 0; i < names.length; i++) {
+            out.append(literals[i]);
+            String value = variables.get(names[i]);
+            if (value != null) {
+                out.append(value);
+            } else if (!variables.containsKey(names[i])) {
+                out.append(OPEN).append(names[i]).append(CLOSE);
+            }
+        }
+        out.append(literals[names.length]);
+        return out.toString();
+    }
+
+    public List<String> variableNames() {
+        return List.of(names);
+    }
+}
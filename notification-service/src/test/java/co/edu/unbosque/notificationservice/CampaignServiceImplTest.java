@@ -0,0 +1,147 @@
+package co.edu.unbosque.notificationservice;
+
+import co.edu.unbosque.notificationservice.cache.TemplateCache;
+import co.edu.unbosque.notificationservice.client.UserServiceClient;
+import co.edu.unbosque.notificationservice.dto.CampaignRequestDTO;
+import co.edu.unbosque.notificationservice.dto.CampaignResponseDTO;
+import co.edu.unbosque.notificationservice.dto.UserEmailDTO;
+import co.edu.unbosque.notificationservice.model.MessageTemplate;
+import co.edu.unbosque.notificationservice.model.NotificationCampaign;
+import co.edu.unbosque.notificationservice.repository.CampaignJdbcRepository;
+import co.edu.unbosque.notificationservice.repository.CampaignJdbcRepository.OutboundEmail;
+import co.edu.unbosque.notificationservice.repository.MessageTemplateRepository;
+import co.edu.unbosque.notificationservice.repository.NotificationCampaignRepository;
+import co.edu.unbosque.notificationservice.service.impl.CampaignServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("CampaignServiceImpl Tests")
+class CampaignServiceImplTest {
+
+    @Mock
+    private NotificationCampaignRepository campaignRepository;
+
+    @Mock
+    private CampaignJdbcRepository campaignJdbcRepository;
+
+    @Mock
+    private MessageTemplateRepository templateRepository;
+
+    @Mock
+    private UserServiceClient userClient;
+
+    private CampaignServiceImpl campaignService;
+
+    @BeforeEach
+    void setUp() {
+        MessageTemplate outage = new MessageTemplate();
+        outage.setId(9);
+        outage.setCode("SERVICE_OUTAGE");
+        outage.setSubject("Falla del servicio");
+        outage.setBody("<p>Hola {{username}}: {{detail}}</p>");
+        lenient().when(templateRepository.findByCode("SERVICE_OUTAGE")).thenReturn(Optional.of(outage));
+        lenient().when(campaignRepository.save(any(NotificationCampaign.class))).thenAnswer(invocation -> {
+            NotificationCampaign campaign = invocation.getArgument(0);
+            campaign.setId(77L);
+            return campaign;
+        });
+
+        campaignService = new CampaignServiceImpl(campaignRepository, campaignJdbcRepository,
+                new TemplateCache(templateRepository, 100, 300, 10), userClient, new SimpleMeterRegistry(), 1);
+    }
+
+    private static Flux<UserEmailDTO> users(int count, AtomicInteger emitted) {
+        return Flux.range(1, count)
+                .doOnNext(id -> emitted.incrementAndGet())
+                .map(id -> new UserEmailDTO(id, "Usuario " + id, id % 100 == 0 ? " " : "u" + id + "@example.com"));
+    }
+
+    @Test
+    @DisplayName("Should render and enqueue a segment in chunks and complete the campaign")
+    @SuppressWarnings("unchecked")
+    void testSegmentCampaignIsChunked() {
+        // Arrange
+        when(userClient.streamUserEmails("ACTIVE", 1000)).thenReturn(users(1200, new AtomicInteger()));
+
+        // Act
+        CampaignResponseDTO response = campaignService.startCampaign(new CampaignRequestDTO(
+                "SERVICE_OUTAGE", null, "active", Map.of("detail", "Estaciones fuera de servicio")));
+
+        // Assert
+        assertEquals(77L, response.id());
+        assertEquals("status:ACTIVE", response.target());
+        verify(campaignJdbcRepository, timeout(5000)).finish(77L, "COMPLETED", null);
+
+        ArgumentCaptor<List<OutboundEmail>> chunks = ArgumentCaptor.forClass(List.class);
+        ArgumentCaptor<Integer> skipped = ArgumentCaptor.forClass(Integer.class);
+        verify(campaignJdbcRepository, times(3))
+                .appendChunk(eq(77L), eq(9), eq("Falla del servicio"), chunks.capture(), skipped.capture());
+        assertEquals(List.of(495, 495, 198), chunks.getAllValues().stream().map(List::size).toList());
+        assertEquals(List.of(5, 5, 2), skipped.getAllValues());
+
+        OutboundEmail first = chunks.getAllValues().get(0).get(0);
+        assertEquals("u1@example.com", first.recipient());
+        assertEquals("example.com", first.domain());
+        assertEquals("<p>Hola Usuario 1: Estaciones fuera de servicio</p>", first.body());
+    }
+
+    @Test
+    @DisplayName("Should stop pulling recipients and fail the campaign when a chunk cannot be written")
+    void testFailedChunkCancelsUpstream() {
+        // Arrange
+        AtomicInteger emitted = new AtomicInteger();
+        when(userClient.streamUserEmails(null, 1000)).thenReturn(users(200_000, emitted));
+        doThrow(new IllegalStateException("BD caída"))
+                .when(campaignJdbcRepository).appendChunk(anyLong(), anyInt(), anyString(), anyList(), anyInt());
+
+        // Act
+        campaignService.startCampaign(new CampaignRequestDTO("SERVICE_OUTAGE", null, null, null));
+
+        // Assert
+        verify(campaignJdbcRepository, timeout(5000)).finish(77L, "FAILED", "BD caída");
+        verify(campaignJdbcRepository, times(1)).appendChunk(anyLong(), anyInt(), anyString(), anyList(), anyInt());
+        assertTrue(emitted.get() <= 1000, "se consumieron " + emitted.get() + " destinatarios");
+    }
+
+    @Test
+    @DisplayName("Should reject a campaign while the limit of running campaigns is reached")
+    void testRunningLimit() {
+        // Arrange
+        when(userClient.getUserEmails(List.of(1, 2))).thenReturn(Flux.never());
+        campaignService.startCampaign(new CampaignRequestDTO("SERVICE_OUTAGE", List.of(1, 2, 2, 1), null, null));
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class,
+                () -> campaignService.startCampaign(new CampaignRequestDTO("SERVICE_OUTAGE", null, null, null)));
+        verify(campaignRepository, times(1)).save(any(NotificationCampaign.class));
+    }
+
+    @Test
+    @DisplayName("Should reject an unknown template before creating the campaign")
+    void testUnknownTemplate() {
+        // Arrange
+        when(templateRepository.findByCode("NOPE")).thenReturn(Optional.empty());
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class,
+                () -> campaignService.startCampaign(new CampaignRequestDTO("NOPE", List.of(1), null, null)));
+        verifyNoInteractions(campaignRepository, userClient);
+    }
+}
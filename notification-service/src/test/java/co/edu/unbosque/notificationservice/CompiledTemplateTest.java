@@ -0,0 +1,56 @@
+package co.edu.unbosque.notificationservice;
+
+import co.edu.unbosque.notificationservice.util.CompiledTemplate;
+import co.edu.unbosque.notificationservice.util.TemplateProcessor;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("CompiledTemplate - Unit Tests")
+public class CompiledTemplateTest {
+
+    @Test
+    @DisplayName("Debería sustituir todas las apariciones de cada variable en una pasada")
+    void deberiaSustituirVariables() {
+        CompiledTemplate template = CompiledTemplate.compile(
+                "<h1>Hola {{username}}</h1><p>{{username}}, tu código es {{code}}</p>");
+
+        String result = template.render(Map.of("username", "Ana", "code", "123456"));
+
+        assertEquals("<h1>Hola Ana</h1><p>Ana, tu código es 123456</p>", result);
+        assertEquals(List.of("username", "username", "code"), template.variableNames());
+    }
+
+    @Test
+    @DisplayName("Debería dejar intactos los placeholders sin valor y vaciar los valores null")
+    void deberiaConservarPlaceholdersDesconocidos() {
+        Map<String, String> variables = new HashMap<>();
+        variables.put("date", null);
+
+        String result = CompiledTemplate.compile("{{date}}|{{otro}}|{{sin cerrar").render(variables);
+
+        assertEquals("|{{otro}}|{{sin cerrar", result);
+    }
+
+    @Test
+    @DisplayName("Debería manejar plantillas sin placeholders y placeholders en los extremos")
+    void deberiaManejarBordes() {
+        assertEquals("<p>fijo</p>", CompiledTemplate.compile("<p>fijo</p>").render(Map.of()));
+        assertEquals("ab", CompiledTemplate.compile("{{x}}{{y}}").render(Map.of("x", "a", "y", "b")));
+        assertEquals("", CompiledTemplate.compile("").render(Map.of()));
+        assertNull(TemplateProcessor.processTemplate(null, Map.of()));
+    }
+
+    @Test
+    @DisplayName("No debería volver a expandir placeholders que vienen dentro de un valor")
+    void noDeberiaExpandirValores() {
+        String result = TemplateProcessor.processTemplate("{{a}} {{b}}", Map.of("a", "{{b}}", "b", "x"));
+
+        assertEquals("{{b}} x", result);
+    }
+}
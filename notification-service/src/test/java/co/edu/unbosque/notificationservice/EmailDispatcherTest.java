@@ -0,0 +1,174 @@
+package co.edu.unbosque.notificationservice;
+
+import co.edu.unbosque.notificationservice.dispatch.DomainRateLimiter;
+import co.edu.unbosque.notificationservice.dispatch.EmailDispatcher;
+import co.edu.unbosque.notificationservice.dispatch.SmtpBatchSender;
+import co.edu.unbosque.notificationservice.repository.EmailOutboxJdbcRepository;
+import co.edu.unbosque.notificationservice.repository.EmailOutboxJdbcRepository.EmailJob;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.mail.SendFailedException;
+import jakarta.mail.internet.InternetAddress;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.mail.MailSendException;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("EmailDispatcher Tests")
+class EmailDispatcherTest {
+
+    @Mock
+    private EmailOutboxJdbcRepository outboxRepository;
+
+    @Mock
+    private SmtpBatchSender sender;
+
+    private EmailDispatcher dispatcher(int perDomainPerMinute) {
+        return new EmailDispatcher(outboxRepository, sender, new DomainRateLimiter(perDomainPerMinute),
+                new TaskExecutorAdapter(Runnable::run), new SimpleMeterRegistry(), 2);
+    }
+
+    private static final LocalDateTime LEASE = LocalDateTime.now().plusMinutes(15);
+
+    private static EmailJob job(long id, String domain, int attempts) {
+        return new EmailJob(id, (int) id, "user" + id + "@" + domain, domain, "Asunto", "<p>Hola</p>", attempts, LEASE);
+    }
+
+    @Test
+    @DisplayName("Should mark sent jobs and reschedule transient failures with backoff")
+    void testTransientFailureIsRetried() {
+        // Arrange
+        EmailDispatcher dispatcher = dispatcher(0);
+        List<EmailJob> batch = List.of(job(1, "example.com", 1), job(2, "example.com", 3));
+        when(sender.sendAll(batch)).thenReturn(Map.of(2L, new MailSendException("421 Servicio no disponible")));
+        when(outboxRepository.markSent(anyList())).thenReturn(1);
+        when(outboxRepository.markRetry(any(), any(), any())).thenReturn(true);
+        LocalDateTime before = LocalDateTime.now();
+
+        // Act
+        dispatcher.dispatch(batch);
+
+        // Assert
+        verify(outboxRepository).markSent(List.of(batch.get(0)));
+        ArgumentCaptor<LocalDateTime> nextAttempt = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(outboxRepository).markRetry(eq(batch.get(1)), nextAttempt.capture(), contains("421"));
+        // Tercer intento: 5 s * 2^2 = 20 s, con jitter entre 10 y 20 s
+        Duration delay = Duration.between(before, nextAttempt.getValue());
+        assertTrue(delay.compareTo(Duration.ofSeconds(9)) > 0 && delay.compareTo(Duration.ofSeconds(21)) < 0,
+                "backoff fuera de rango: " + delay);
+        verify(outboxRepository, never()).markFailed(any(), any());
+    }
+
+    @Test
+    @DisplayName("Should fail permanently on rejected recipients and after max attempts")
+    void testPermanentFailures() throws Exception {
+        // Arrange
+        EmailDispatcher dispatcher = dispatcher(0);
+        List<EmailJob> batch = List.of(job(1, "example.com", 1), job(2, "example.com", 6));
+        SendFailedException rejected = new SendFailedException("Invalid Addresses", null,
+                null, null, new InternetAddress[]{new InternetAddress("user1@example.com")});
+        when(sender.sendAll(batch)).thenReturn(Map.of(
+                1L, new MailSendException("550", rejected),
+                2L, new MailSendException("421 Servicio no disponible")));
+        when(outboxRepository.markFailed(any(), anyString())).thenReturn(true);
+
+        // Act
+        dispatcher.dispatch(batch);
+
+        // Assert
+        verify(outboxRepository).markFailed(eq(batch.get(0)), anyString());
+        verify(outboxRepository).markFailed(eq(batch.get(1)), anyString());
+        verify(outboxRepository, never()).markRetry(any(), any(), any());
+        verify(outboxRepository, never()).markSent(any());
+    }
+
+    @Test
+    @DisplayName("Should defer jobs over the per-domain limit without sending them")
+    void testDomainRateLimit() {
+        // Arrange
+        EmailDispatcher dispatcher = dispatcher(1);
+        List<EmailJob> batch = List.of(job(1, "gmail.com", 1), job(2, "gmail.com", 1), job(3, "outlook.com", 1));
+        when(sender.sendAll(anyList())).thenReturn(Map.of());
+        when(outboxRepository.defer(any(), any())).thenReturn(true);
+        when(outboxRepository.markSent(anyList())).thenReturn(2);
+
+        // Act
+        dispatcher.dispatch(batch);
+
+        // Assert
+        verify(sender).sendAll(List.of(batch.get(0), batch.get(2)));
+        verify(outboxRepository).defer(eq(batch.get(1)), any(LocalDateTime.class));
+        verify(outboxRepository).markSent(List.of(batch.get(0), batch.get(2)));
+    }
+
+    @Test
+    @DisplayName("Should count outcomes only for jobs whose lease was still held")
+    void testLostLeaseIsNotCounted() {
+        // Arrange
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        EmailDispatcher dispatcher = new EmailDispatcher(outboxRepository, sender, new DomainRateLimiter(0),
+                new TaskExecutorAdapter(Runnable::run), registry, 2);
+        List<EmailJob> batch = List.of(job(1, "example.com", 1), job(2, "example.com", 1), job(3, "example.com", 1));
+        when(sender.sendAll(batch)).thenReturn(Map.of(3L, new MailSendException("421 Servicio no disponible")));
+        // Otro worker reclamó el correo 2 y el 3 tras vencer el lease
+        when(outboxRepository.markSent(anyList())).thenReturn(1);
+        when(outboxRepository.markRetry(any(), any(), any())).thenReturn(false);
+
+        // Act
+        dispatcher.dispatch(batch);
+
+        // Assert
+        assertEquals(1.0, registry.counter("notifications.email.dispatched", "outcome", "sent").count());
+        assertEquals(2.0, registry.counter("notifications.email.dispatched", "outcome", "lease_lost").count());
+        assertEquals(0.0, registry.counter("notifications.email.dispatched", "outcome", "retry").count());
+    }
+
+    @Test
+    @DisplayName("Should size the claim lease to cover a full batch hitting the SMTP timeout")
+    void testClaimLeaseCoversWorstCaseBatch() {
+        // Arrange
+        EmailDispatcher dispatcher = dispatcher(0);
+
+        // Act
+        Duration lease = dispatcher.claimLease();
+
+        // Assert
+        // 5 s de conexión + 50 correos * 10 s de plazo SMTP
+        assertTrue(lease.compareTo(Duration.ofSeconds(505)) >= 0, "lease insuficiente: " + lease);
+    }
+
+    @Test
+    @DisplayName("Should keep claiming full batches while workers are free")
+    void testPollDrainsFullBatches() {
+        // Arrange
+        EmailDispatcher dispatcher = dispatcher(0);
+        List<EmailJob> full = LongStream.rangeClosed(1, 50)
+                .mapToObj(id -> job(id, "example.com", 1))
+                .toList();
+        when(outboxRepository.claimBatch(eq(50), any(Duration.class)))
+                .thenReturn(full)
+                .thenReturn(List.of(job(51, "example.com", 1)));
+        when(sender.sendAll(anyList())).thenReturn(Map.of());
+
+        // Act
+        dispatcher.poll();
+
+        // Assert
+        verify(outboxRepository, times(2)).claimBatch(eq(50), any(Duration.class));
+        verify(sender, times(2)).sendAll(anyList());
+    }
+}
@@ -0,0 +1,59 @@
+package co.edu.unbosque.notificationservice;
+
+import co.edu.unbosque.notificationservice.config.KafkaConfig;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.CommonErrorHandler;
+import org.springframework.kafka.listener.ListenerExecutionFailedException;
+import org.springframework.kafka.listener.MessageListenerContainer;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Kafka error handler Tests")
+class KafkaErrorHandlerTest {
+
+    @Mock
+    private KafkaTemplate<Object, Object> kafkaTemplate;
+
+    @Mock
+    private Consumer<?, ?> consumer;
+
+    @Mock
+    private MessageListenerContainer container;
+
+    @Test
+    @DisplayName("Should send a record that fails with a permanent error to the dead letter topic without retrying")
+    void testPermanentErrorGoesToDeadLetter() {
+        // Arrange
+        when(kafkaTemplate.send(any(ProducerRecord.class))).thenReturn(CompletableFuture.completedFuture(null));
+        CommonErrorHandler errorHandler = new KafkaConfig().kafkaErrorHandler(kafkaTemplate, 1000, 60000, 900000);
+        ConsumerRecord<String, String> record = new ConsumerRecord<>("trip-events", 3, 17L, "42", "{}");
+        Exception failure = new ListenerExecutionFailedException("listener falló",
+                new IllegalArgumentException("user-service rechazó la consulta del usuario 7: 400"));
+
+        // Act
+        boolean recovered = errorHandler.handleOne(failure, record, consumer, container);
+
+        // Assert
+        assertTrue(recovered);
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<ProducerRecord<Object, Object>> sent = ArgumentCaptor.forClass(ProducerRecord.class);
+        verify(kafkaTemplate).send(sent.capture());
+        assertEquals("trip-events" + KafkaConfig.DEAD_LETTER_SUFFIX, sent.getValue().topic());
+        assertNull(sent.getValue().partition());
+        assertEquals("42", sent.getValue().key());
+    }
+}
@@ -1,14 +1,19 @@
 package co.edu.unbosque.notificationservice;
 
+import co.edu.unbosque.notificationservice.cache.TemplateCache;
+import co.edu.unbosque.notificationservice.cache.UserContactCache;
 import co.edu.unbosque.notificationservice.client.UserServiceClient;
 import co.edu.unbosque.notificationservice.dto.NotificationRequestDTO;
 import co.edu.unbosque.notificationservice.dto.NotificationResponseDTO;
 import co.edu.unbosque.notificationservice.dto.UserEmailDTO;
 import co.edu.unbosque.notificationservice.mapper.DataMapper;
+import co.edu.unbosque.notificationservice.model.EmailOutbox;
 import co.edu.unbosque.notificationservice.model.MessageTemplate;
 import co.edu.unbosque.notificationservice.model.NotificationLog;
+import co.edu.unbosque.notificationservice.repository.EmailOutboxRepository;
 import co.edu.unbosque.notificationservice.repository.MessageTemplateRepository;
 import co.edu.unbosque.notificationservice.repository.NotificationLogRepository;
+import co.edu.unbosque.notificationservice.repository.ProcessedEventJdbcRepository;
 import co.edu.unbosque.notificationservice.service.factory.NotificationFactory;
 import co.edu.unbosque.notificationservice.service.impl.NotificationServiceImpl;
 import co.edu.unbosque.notificationservice.service.strategy.NotificationChannel;
@@ -17,7 +22,6 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
@@ -38,6 +42,12 @@ public class NotificationServiceImplTest {
     @Mock
     private NotificationLogRepository logRepository;
 
+    @Mock
+    private EmailOutboxRepository outboxRepository;
+
+    @Mock
+    private ProcessedEventJdbcRepository processedEvents;
+
     @Mock
     private UserServiceClient userClient;
 
@@ -50,7 +60,6 @@ public class NotificationServiceImplTest {
     @Mock
     private NotificationChannel notificationChannel;
 
-    @InjectMocks
     private NotificationServiceImpl notificationService;
 
     private MessageTemplate mockTemplate;
@@ -76,13 +85,20 @@ public class NotificationServiceImplTest {
         mockNotificationLog.setTemplate(mockTemplate);
         mockNotificationLog.setStatus("SENT");
         mockNotificationLog.setSentAt(LocalDateTime.now());
+
+        // Cache real sobre el repositorio mock; cada test parte con la cache vacía
+        TemplateCache templateCache = new TemplateCache(templateRepository, 100, 300, 10);
+        notificationService = new NotificationServiceImpl(
+                templateRepository, templateCache, logRepository, outboxRepository, processedEvents,
+                new UserContactCache(userClient, 100, 600), notificationFactory, mapper);
+        lenient().when(templateRepository.getReferenceById(1)).thenReturn(mockTemplate);
     }
 
     // ==================== TESTS PARA sendNotification ====================
 
     @Test
-    @DisplayName("Debería enviar notificación genérica exitosamente")
-    void deberiaEnviarNotificacionGenericaExitosamente() throws Exception {
+    @DisplayName("Debería encolar la notificación genérica sin enviarla en la petición")
+    void deberiaEncolarNotificacionGenerica() throws Exception {
         // Given
         NotificationRequestDTO request = new NotificationRequestDTO(1, "WELCOME", null);
         MessageTemplate welcomeTemplate = new MessageTemplate();
@@ -93,13 +109,11 @@ public class NotificationServiceImplTest {
 
         when(templateRepository.findByCode("WELCOME")).thenReturn(Optional.of(welcomeTemplate));
         when(userClient.getUserEmailById(1)).thenReturn(mockUserEmail);
-        when(notificationFactory.createChannel("EMAIL")).thenReturn(notificationChannel);
         when(logRepository.save(any(NotificationLog.class))).thenAnswer(invocation -> {
             NotificationLog log = invocation.getArgument(0);
             log.setId(1);
             return log;
         });
-        doNothing().when(notificationChannel).send(anyString(), anyString(), anyString());
 
         // When
         NotificationResponseDTO response = notificationService.sendNotification(request);
@@ -109,12 +123,19 @@ public class NotificationServiceImplTest {
         assertEquals(1, response.id());
         assertEquals(1, response.userId());
         assertEquals("WELCOME", response.templateCode());
-        assertEquals("SENT", response.status());
+        assertEquals("PENDING", response.status());
 
-        verify(templateRepository, times(1)).findByCode("WELCOME");
-        verify(userClient, times(1)).getUserEmailById(1);
-        verify(notificationChannel, times(1)).send(eq("juan@example.com"), eq("Bienvenido"), anyString());
-        verify(logRepository, times(2)).save(any(NotificationLog.class));
+        ArgumentCaptor<EmailOutbox> outboxCaptor = ArgumentCaptor.forClass(EmailOutbox.class);
+        verify(outboxRepository, times(1)).save(outboxCaptor.capture());
+        EmailOutbox queued = outboxCaptor.getValue();
+        assertEquals(1, queued.getNotificationLogId());
+        assertEquals("juan@example.com", queued.getRecipient());
+        assertEquals("example.com", queued.getRecipientDomain());
+        assertEquals("Bienvenido", queued.getSubject());
+        assertEquals("<html><body><h1>Bienvenido Juan Pérez</h1></body></html>", queued.getBody());
+
+        verify(logRepository, times(1)).save(any(NotificationLog.class));
+        verifyNoInteractions(notificationFactory, notificationChannel);
     }
 
     @Test
@@ -170,33 +191,20 @@ public class NotificationServiceImplTest {
     }
 
     @Test
-    @DisplayName("Debería marcar como FAILED cuando falla el envío de notificación")
-    void deberiaMarcarcComoFailedCuandoFallaEnvioNotificacion() throws Exception {
+    @DisplayName("Debería rechazar un canal no soportado sin encolar nada")
+    void deberiaRechazarCanalNoSoportado() {
         // Given
-        NotificationRequestDTO request = new NotificationRequestDTO(1, "WELCOME", null);
+        NotificationRequestDTO request = new NotificationRequestDTO(1, "WELCOME", "SMS");
 
         when(templateRepository.findByCode("WELCOME")).thenReturn(Optional.of(mockTemplate));
         when(userClient.getUserEmailById(1)).thenReturn(mockUserEmail);
-        when(notificationFactory.createChannel("EMAIL")).thenReturn(notificationChannel);
-        when(logRepository.save(any(NotificationLog.class))).thenAnswer(invocation -> {
-            NotificationLog log = invocation.getArgument(0);
-            log.setId(1);
-            return log;
-        });
-        doThrow(new RuntimeException("SMTP Error")).when(notificationChannel).send(anyString(), anyString(), anyString());
 
-        // When
-        NotificationResponseDTO response = notificationService.sendNotification(request);
-
-        // Then
-        assertNotNull(response);
-        assertEquals("FAILED", response.status());
-
-        ArgumentCaptor<NotificationLog> logCaptor = ArgumentCaptor.forClass(NotificationLog.class);
-        verify(logRepository, times(2)).save(logCaptor.capture());
+        // When & Then
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> notificationService.sendNotification(request));
 
-        NotificationLog finalLog = logCaptor.getAllValues().get(1);
-        assertEquals("FAILED", finalLog.getStatus());
+        assertEquals("Canal no soportado: SMS", exception.getMessage());
+        verifyNoInteractions(logRepository, outboxRepository);
     }
 
     // ==================== TESTS PARA sendPasswordRecoveryCode ====================
@@ -452,4 +460,78 @@ public class NotificationServiceImplTest {
         verify(notificationFactory, times(1)).createChannel("EMAIL");
         verify(notificationChannel, times(1)).send(anyString(), anyString(), anyString());
     }
+
+    // ==================== TESTS PARA LA CACHE DE PLANTILLAS ====================
+
+    @Test
+    @DisplayName("Debería consultar la plantilla en BD una sola vez para envíos repetidos")
+    void deberiaConsultarPlantillaUnaSolaVez() throws Exception {
+        // Given
+        when(templateRepository.findByCode("PASSWORD_RECOVERY")).thenReturn(Optional.of(mockTemplate));
+        when(userClient.getUserEmailById(1)).thenReturn(mockUserEmail);
+        when(notificationFactory.createChannel("EMAIL")).thenReturn(notificationChannel);
+        when(logRepository.save(any(NotificationLog.class))).thenReturn(mockNotificationLog);
+
+        // When
+        notificationService.sendPasswordRecoveryCode(1, "111111");
+        notificationService.sendPasswordRecoveryCode(1, "222222");
+
+        // Then
+        verify(templateRepository, times(1)).findByCode("PASSWORD_RECOVERY");
+        ArgumentCaptor<String> bodyCaptor = ArgumentCaptor.forClass(String.class);
+        verify(notificationChannel, times(2)).send(anyString(), anyString(), bodyCaptor.capture());
+        assertTrue(bodyCaptor.getAllValues().get(1).contains("222222"));
+    }
+
+    @Test
+    @DisplayName("Debería recargar la plantilla después de invalidarla")
+    void deberiaRecargarPlantillaDespuesDeInvalidar() {
+        // Given
+        TemplateCache templateCache = new TemplateCache(templateRepository, 100, 300, 10);
+        MessageTemplate updated = new MessageTemplate();
+        updated.setId(1);
+        updated.setCode("PASSWORD_RECOVERY");
+        updated.setVersion(1);
+        updated.setBody("<p>Nuevo código: {{code}}</p>");
+        when(templateRepository.findByCode("PASSWORD_RECOVERY"))
+                .thenReturn(Optional.of(mockTemplate))
+                .thenReturn(Optional.of(updated));
+
+        // When
+        templateCache.get("PASSWORD_RECOVERY");
+        templateCache.invalidate("PASSWORD_RECOVERY");
+        TemplateCache.CachedTemplate reloaded = templateCache.get("PASSWORD_RECOVERY").orElseThrow();
+
+        // Then
+        assertEquals(1, reloaded.version());
+        assertEquals("<p>Nuevo código: 42</p>", reloaded.body().render(java.util.Map.of("code", "42")));
+        verify(templateRepository, times(2)).findByCode("PASSWORD_RECOVERY");
+    }
+
+    @Test
+    @DisplayName("Debería usar la nueva versión editada desde otra instancia sin invalidar")
+    void deberiaDetectarNuevaVersionSinInvalidar() {
+        // Given
+        // TTL de versión 0: cada lectura vuelve a consultar la versión vigente
+        TemplateCache templateCache = new TemplateCache(templateRepository, 100, 300, 0);
+        MessageTemplate updated = new MessageTemplate();
+        updated.setId(1);
+        updated.setCode("PASSWORD_RECOVERY");
+        updated.setVersion(1);
+        updated.setBody("<p>Nuevo código: {{code}}</p>");
+        when(templateRepository.findByCode("PASSWORD_RECOVERY"))
+                .thenReturn(Optional.of(mockTemplate))
+                .thenReturn(Optional.of(mockTemplate))
+                .thenReturn(Optional.of(updated));
+
+        // When
+        TemplateCache.CachedTemplate first = templateCache.get("PASSWORD_RECOVERY").orElseThrow();
+        TemplateCache.CachedTemplate sameVersion = templateCache.get("PASSWORD_RECOVERY").orElseThrow();
+        TemplateCache.CachedTemplate newVersion = templateCache.get("PASSWORD_RECOVERY").orElseThrow();
+
+        // Then
+        assertSame(first, sameVersion);
+        assertEquals(1, newVersion.version());
+        assertEquals("<p>Nuevo código: 42</p>", newVersion.body().render(java.util.Map.of("code", "42")));
+    }
 }
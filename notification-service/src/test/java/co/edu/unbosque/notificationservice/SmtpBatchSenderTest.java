@@ -0,0 +1,186 @@
+package co.edu.unbosque.notificationservice;
+
+import co.edu.unbosque.notificationservice.dispatch.SmtpBatchSender;
+import co.edu.unbosque.notificationservice.repository.EmailOutboxJdbcRepository.EmailJob;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Envío por lotes contra un servidor SMTP falso local: acepta cualquier destinatario salvo
+ * los que empiezan por "bounce", que rechaza con 550.
+ */
+@DisplayName("SmtpBatchSender Tests")
+class SmtpBatchSenderTest {
+
+    private FakeSmtpServer smtpServer;
+    private SmtpBatchSender sender;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        smtpServer = new FakeSmtpServer();
+        smtpServer.start();
+
+        JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
+        mailSender.setHost("127.0.0.1");
+        mailSender.setPort(smtpServer.port());
+        mailSender.getJavaMailProperties().put("mail.smtp.from", "noreply@ecoride.test");
+        mailSender.getJavaMailProperties().put("mail.smtp.timeout", "5000");
+        sender = new SmtpBatchSender(mailSender);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        smtpServer.stop();
+    }
+
+    private static EmailJob job(long id, String recipient) {
+        return new EmailJob(id, (int) id, recipient, "example.com", "Asunto " + id, "<p>Cuerpo " + id + "</p>", 1,
+                LocalDateTime.now().plusMinutes(2));
+    }
+
+    @Test
+    @DisplayName("Should send the whole batch through a single SMTP connection")
+    void testBatchUsesOneConnection() {
+        // Act
+        Map<Long, Exception> failures = sender.sendAll(List.of(
+                job(1, "ana@example.com"), job(2, "luis@example.com"), job(3, "sofia@example.com")));
+
+        // Assert
+        assertTrue(failures.isEmpty());
+        assertEquals(1, smtpServer.connections.get());
+        assertEquals(List.of("<ana@example.com>", "<luis@example.com>", "<sofia@example.com>"), smtpServer.delivered);
+    }
+
+    @Test
+    @DisplayName("Should report only the rejected recipient and deliver the rest")
+    void testRejectedRecipientFailsOnlyItsJob() {
+        // Act
+        Map<Long, Exception> failures = sender.sendAll(List.of(
+                job(1, "ana@example.com"), job(2, "bounce@example.com"), job(3, "sofia@example.com")));
+
+        // Assert
+        assertEquals(1, failures.size());
+        assertTrue(failures.containsKey(2L));
+        assertEquals(1, smtpServer.connections.get());
+        assertEquals(List.of("<ana@example.com>", "<sofia@example.com>"), smtpServer.delivered);
+    }
+
+    @Test
+    @DisplayName("Should fail every job when the server is unreachable")
+    void testConnectionFailureFailsAll() throws IOException {
+        // Arrange
+        smtpServer.stop();
+
+        // Act
+        Map<Long, Exception> failures = sender.sendAll(List.of(job(1, "ana@example.com"), job(2, "luis@example.com")));
+
+        // Assert
+        assertEquals(2, failures.size());
+    }
+
+    /**
+     * Servidor SMTP mínimo (sin AUTH ni STARTTLS) que registra conexiones y entregas.
+     */
+    private static final class FakeSmtpServer {
+
+        private final ServerSocket serverSocket;
+        private final AtomicInteger connections = new AtomicInteger();
+        private final List<String> delivered = new CopyOnWriteArrayList<>();
+
+        FakeSmtpServer() throws IOException {
+            serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        }
+
+        int port() {
+            return serverSocket.getLocalPort();
+        }
+
+        void start() {
+            Thread acceptor = new Thread(() -> {
+                while (!serverSocket.isClosed()) {
+                    try {
+                        Socket socket = serverSocket.accept();
+                        connections.incrementAndGet();
+                        Thread session = new Thread(() -> serve(socket));
+                        session.setDaemon(true);
+                        session.start();
+                    } catch (IOException e) {
+                        return;
+                    }
+                }
+            });
+            acceptor.setDaemon(true);
+            acceptor.start();
+        }
+
+        void stop() throws IOException {
+            serverSocket.close();
+        }
+
+        private void serve(Socket socket) {
+            try (socket;
+                 BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+                 PrintWriter out = new PrintWriter(socket.getOutputStream(), true, StandardCharsets.US_ASCII)) {
+                reply(out, "220 fake-smtp listo");
+                String recipient = null;
+                String line;
+                while ((line = in.readLine()) != null) {
+                    String command = line.toUpperCase();
+                    if (command.startsWith("EHLO") || command.startsWith("HELO")) {
+                        reply(out, "250 fake-smtp");
+                    } else if (command.startsWith("MAIL FROM")) {
+                        recipient = null;
+                        reply(out, "250 OK");
+                    } else if (command.startsWith("RCPT TO")) {
+                        String address = line.substring(line.indexOf(':') + 1).trim();
+                        if (address.startsWith("<bounce")) {
+                            reply(out, "550 5.1.1 Usuario desconocido");
+                        } else {
+                            recipient = address;
+                            reply(out, "250 OK");
+                        }
+                    } else if (command.startsWith("DATA")) {
+                        reply(out, "354 Fin con <CRLF>.<CRLF>");
+                        while ((line = in.readLine()) != null && !line.equals(".")) {
+                            // se descarta el contenido
+                        }
+                        delivered.add(recipient);
+                        reply(out, "250 OK encolado");
+                    } else if (command.startsWith("QUIT")) {
+                        reply(out, "221 Adiós");
+                        return;
+                    } else {
+                        // RSET, NOOP
+                        reply(out, "250 OK");
+                    }
+                }
+            } catch (IOException ignored) {
+                // el cliente cerró la conexión
+            }
+        }
+
+        private static void reply(PrintWriter out, String line) {
+            out.print(line + "\r\n");
+            out.flush();
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package co.edu.unbosque.notificationservice;
+
+import co.edu.unbosque.notificationservice.cache.TemplateCache;
+import co.edu.unbosque.notificationservice.cache.UserContactCache;
+import co.edu.unbosque.notificationservice.client.UserServiceClient;
+import co.edu.unbosque.notificationservice.dto.UserEmailDTO;
+import co.edu.unbosque.notificationservice.mapper.DataMapper;
+import co.edu.unbosque.notificationservice.messaging.TripEventListener;
+import co.edu.unbosque.notificationservice.model.EmailOutbox;
+import co.edu.unbosque.notificationservice.model.MessageTemplate;
+import co.edu.unbosque.notificationservice.model.NotificationLog;
+import co.edu.unbosque.notificationservice.repository.EmailOutboxRepository;
+import co.edu.unbosque.notificationservice.repository.MessageTemplateRepository;
+import co.edu.unbosque.notificationservice.repository.NotificationLogRepository;
+import co.edu.unbosque.notificationservice.repository.ProcessedEventJdbcRepository;
+import co.edu.unbosque.notificationservice.service.factory.NotificationFactory;
+import co.edu.unbosque.notificationservice.service.impl.NotificationServiceImpl;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Los eventos de trip-events llegan al listener como ConsumerRecord con los headers que pone
+ * TripOutboxRelay; el servicio de notificaciones es el real, sobre repositorios mock.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("TripEventListener Tests")
+class TripEventListenerTest {
+
+    private static final String COMPLETED_PAYLOAD = """
+            {"trip_id":42,"user_id":7,"bike_id":3,"end_station_id":9,"distance_km":2.5,
+             "duration_minutes":18,"cost":4500.5,"timestamp":"2026-10-17T10:15:00",
+             "end_location":{"latitude":4.6,"longitude":-74.1}}
+            """;
+
+    @Mock
+    private MessageTemplateRepository templateRepository;
+
+    @Mock
+    private NotificationLogRepository logRepository;
+
+    @Mock
+    private EmailOutboxRepository outboxRepository;
+
+    @Mock
+    private ProcessedEventJdbcRepository processedEvents;
+
+    @Mock
+    private UserServiceClient userClient;
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private TripEventListener listener;
+
+    @BeforeEach
+    void setUp() {
+        NotificationServiceImpl notificationService = new NotificationServiceImpl(
+                templateRepository, new TemplateCache(templateRepository, 100, 300, 10), logRepository,
+                outboxRepository, processedEvents, new UserContactCache(userClient, 100, 600),
+                mock(NotificationFactory.class), mock(DataMapper.class));
+        listener = new TripEventListener(notificationService, new ObjectMapper(), registry);
+
+        // Tabla processed_event en memoria: la segunda inserción del mismo id no cuenta
+        Set<String> processed = new HashSet<>();
+        lenient().when(processedEvents.markProcessed(anyString()))
+                .thenAnswer(invocation -> processed.add(invocation.getArgument(0)));
+        lenient().when(userClient.getUserEmailById(7)).thenReturn(new UserEmailDTO(7, "Ana", "ana@example.com"));
+        lenient().when(logRepository.save(any(NotificationLog.class))).thenAnswer(invocation -> {
+            NotificationLog log = invocation.getArgument(0);
+            log.setId(11);
+            return log;
+        });
+    }
+
+    private MessageTemplate template(int id, String code, String body) {
+        MessageTemplate template = new MessageTemplate();
+        template.setId(id);
+        template.setCode(code);
+        template.setSubject("Tu viaje");
+        template.setBody(body);
+        when(templateRepository.findByCode(code)).thenReturn(Optional.of(template));
+        lenient().when(templateRepository.getReferenceById(id)).thenReturn(template);
+        return template;
+    }
+
+    private static ConsumerRecord<String, String> event(String eventId, String eventType, String payload) {
+        ConsumerRecord<String, String> record = new ConsumerRecord<>("trip-events", 0, 0L, "42", payload);
+        if (eventId != null) {
+            record.headers().add("event_id", eventId.getBytes(StandardCharsets.UTF_8));
+        }
+        record.headers().add("event_type", eventType.getBytes(StandardCharsets.UTF_8));
+        return record;
+    }
+
+    private double consumed(String outcome) {
+        return registry.counter("notifications.trip-events.consumed", "outcome", outcome).count();
+    }
+
+    @Test
+    @DisplayName("Should render the trip receipt from the TRIP_COMPLETED template and enqueue it")
+    void testCompletedEventEnqueuesReceipt() {
+        // Arrange
+        template(5, "TRIP_COMPLETED",
+                "Hola {{username}}: viaje {{tripId}}, {{distanceKm}} km en {{durationMinutes}} min, costo ${{cost}}");
+
+        // Act
+        listener.onTripEvent(event("100", "TRIP_COMPLETED", COMPLETED_PAYLOAD));
+
+        // Assert
+        ArgumentCaptor<EmailOutbox> captor = ArgumentCaptor.forClass(EmailOutbox.class);
+        verify(outboxRepository).save(captor.capture());
+        assertEquals("ana@example.com", captor.getValue().getRecipient());
+        assertEquals(11, captor.getValue().getNotificationLogId());
+        assertEquals("Hola Ana: viaje 42, 2.50 km en 18 min, costo $4500.50", captor.getValue().getBody());
+        verify(processedEvents).markProcessed("trip-events:100");
+        assertEquals(1.0, consumed("enqueued"));
+    }
+
+    @Test
+    @DisplayName("Should enqueue a single email when the same event is delivered twice")
+    void testRedeliveredEventIsDeduplicated() {
+        // Arrange
+        template(6, "TRIP_STARTED", "Viaje {{tripId}} iniciado en la estación {{stationId}}");
+        String payload = "{\"trip_id\":42,\"user_id\":7,\"bike_id\":3,\"station_id\":2,\"trip_type\":\"LONG\"}";
+
+        // Act
+        listener.onTripEvent(event("101", "TRIP_STARTED", payload));
+        listener.onTripEvent(event("101", "TRIP_STARTED", payload));
+
+        // Assert
+        ArgumentCaptor<EmailOutbox> captor = ArgumentCaptor.forClass(EmailOutbox.class);
+        verify(outboxRepository, times(1)).save(captor.capture());
+        assertEquals("Viaje 42 iniciado en la estación 2", captor.getValue().getBody());
+        verify(userClient, times(1)).getUserEmailById(7);
+        assertEquals(1.0, consumed("enqueued"));
+        assertEquals(1.0, consumed("skipped"));
+    }
+
+    @Test
+    @DisplayName("Should fail without marking the event when the template is missing so Kafka retries it")
+    void testMissingTemplateIsRetried() {
+        // Arrange
+        when(templateRepository.findByCode("TRIP_COMPLETED")).thenReturn(Optional.empty());
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class,
+                () -> listener.onTripEvent(event("102", "TRIP_COMPLETED", COMPLETED_PAYLOAD)));
+        verify(processedEvents, never()).markProcessed(anyString());
+        verifyNoInteractions(outboxRepository, logRepository);
+
+        // La plantilla se crea y la reentrega del mismo evento sí encola el recibo
+        template(5, "TRIP_COMPLETED", "Recibo del viaje {{tripId}}");
+        listener.onTripEvent(event("102", "TRIP_COMPLETED", COMPLETED_PAYLOAD));
+        verify(outboxRepository, times(1)).save(any(EmailOutbox.class));
+    }
+
+    @Test
+    @DisplayName("Should mark the event processed and enqueue nothing when user-service no longer knows the user")
+    void testDeletedUserIsSkipped() {
+        // Arrange: UserServiceClient traduce el 404 de user-service en null
+        template(5, "TRIP_COMPLETED", "Recibo del viaje {{tripId}}");
+        when(userClient.getUserEmailById(7)).thenReturn(null);
+
+        // Act
+        listener.onTripEvent(event("105", "TRIP_COMPLETED", COMPLETED_PAYLOAD));
+        listener.onTripEvent(event("105", "TRIP_COMPLETED", COMPLETED_PAYLOAD));
+
+        // Assert: la reentrega no vuelve a consultar al usuario
+        verify(processedEvents, times(2)).markProcessed("trip-events:105");
+        verify(userClient, times(1)).getUserEmailById(7);
+        verifyNoInteractions(outboxRepository, logRepository);
+    }
+
+    @Test
+    @DisplayName("Should skip events with no event id, unknown type or unreadable payload")
+    void testUnusableEventsAreSkipped() {
+        // Act
+        listener.onTripEvent(event(null, "TRIP_COMPLETED", COMPLETED_PAYLOAD));
+        listener.onTripEvent(event("103", "TRIP_CANCELLED", "{}"));
+        listener.onTripEvent(event("104", "TRIP_STARTED", "no es json"));
+
+        // Assert
+        verifyNoInteractions(outboxRepository, logRepository, userClient, processedEvents);
+        assertEquals(1.0, consumed("ignored"));
+        assertEquals(2.0, consumed("invalid"));
+    }
+}
@@ -0,0 +1,108 @@
+package co.edu.unbosque.notificationservice;
+
+import co.edu.unbosque.notificationservice.cache.UserContactCache;
+import co.edu.unbosque.notificationservice.client.UserServiceClient;
+import co.edu.unbosque.notificationservice.dto.UserEmailDTO;
+import co.edu.unbosque.notificationservice.messaging.UserEventListener;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Los eventos de user-events se entregan al listener como ConsumerRecord, igual que lo
+ * haría el contenedor de Kafka, sin broker.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("UserContactCache Tests")
+class UserContactCacheTest {
+
+    @Mock
+    private UserServiceClient userClient;
+
+    private UserContactCache contactCache;
+    private UserEventListener listener;
+
+    @BeforeEach
+    void setUp() {
+        contactCache = new UserContactCache(userClient, 100, 600);
+        listener = new UserEventListener(contactCache, new ObjectMapper());
+    }
+
+    private static ConsumerRecord<String, String> event(String key, String payload) {
+        return new ConsumerRecord<>("user-events", 0, 0L, key, payload);
+    }
+
+    @Test
+    @DisplayName("Should call user-service once for repeated lookups and expose the hit ratio")
+    void testRepeatedLookupsAreCached() {
+        // Arrange
+        when(userClient.getUserEmailById(5)).thenReturn(new UserEmailDTO(5, "Ana", "ana@example.com"));
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        contactCache.bindTo(registry);
+
+        // Act
+        for (int i = 0; i < 4; i++) {
+            assertEquals("ana@example.com", contactCache.get(5).email());
+        }
+
+        // Assert
+        verify(userClient, times(1)).getUserEmailById(5);
+        assertEquals(0.75, registry.get("notification.user-contacts.hit.ratio").gauge().value(), 1e-9);
+    }
+
+    @Test
+    @DisplayName("Should reload the contact after a user-updated event")
+    void testUpdateEventInvalidates() {
+        // Arrange
+        when(userClient.getUserEmailById(5))
+                .thenReturn(new UserEmailDTO(5, "Ana", "ana@example.com"))
+                .thenReturn(new UserEmailDTO(5, "Ana", "ana.nueva@example.com"));
+        contactCache.get(5);
+
+        // Act
+        listener.onUserEvent(event("5", "{\"userId\":5,\"type\":\"UPDATED\"}"));
+
+        // Assert
+        assertEquals("ana.nueva@example.com", contactCache.get(5).email());
+        verify(userClient, times(2)).getUserEmailById(5);
+    }
+
+    @Test
+    @DisplayName("Should take the user id from the payload and ignore unreadable events")
+    void testEventWithoutKey() {
+        // Arrange
+        when(userClient.getUserEmailById(8)).thenReturn(new UserEmailDTO(8, "Luis", "luis@example.com"));
+        contactCache.get(8);
+
+        // Act
+        listener.onUserEvent(event(null, "no es json"));
+        contactCache.get(8);
+        listener.onUserEvent(event(null, "{\"userId\":8,\"type\":\"DELETED\"}"));
+        contactCache.get(8);
+
+        // Assert
+        verify(userClient, times(2)).getUserEmailById(8);
+    }
+
+    @Test
+    @DisplayName("Should not cache user-service failures")
+    void testFailuresAreNotCached() {
+        // Arrange
+        when(userClient.getUserEmailById(3))
+                .thenThrow(new RuntimeException("user-service no disponible"))
+                .thenReturn(new UserEmailDTO(3, "Sofía", "sofia@example.com"));
+
+        // Act & Assert
+        assertThrows(RuntimeException.class, () -> contactCache.get(3));
+        assertEquals("sofia@example.com", contactCache.get(3).email());
+    }
+}
@@ -0,0 +1,108 @@
+package co.edu.unbosque.notificationservice.benchmark;
+
+import co.edu.unbosque.notificationservice.util.CompiledTemplate;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Render de plantillas HTML de correo: reemplazo anterior (un String.replace por variable)
+ * frente a la plantilla compilada, con y sin la compilación incluida en cada llamada.
+ *
+ * Las plantillas imitan las reales: estilos en línea, cabecera, tabla de detalle y pie,
+ * con 5 variables repetidas. "blocks" multiplica el cuerpo para ver cómo escala con el tamaño.
+ *
+ *   mvn -Pjmh test-compile exec:exec -Djmh.args="TemplateRenderingBenchmark -prof gc"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class TemplateRenderingBenchmark {
+
+    private static final String HEADER = """
+            <!DOCTYPE html>
+            <html lang="es"><head><meta charset="UTF-8"><title>EcoRide</title></head>
+            <body style="margin:0;padding:0;background-color:#f4f6f8;font-family:Arial,Helvetica,sans-serif;">
+            <table role="presentation" width="100%" cellspacing="0" cellpadding="0" style="background-color:#f4f6f8;">
+            <tr><td align="center" style="padding:24px 12px;">
+            <table role="presentation" width="600" cellspacing="0" cellpadding="0" style="background:#ffffff;border-radius:8px;">
+            <tr><td style="background:#1b8a5a;color:#ffffff;padding:24px;font-size:22px;font-weight:bold;">EcoRide</td></tr>
+            <tr><td style="padding:24px;color:#333333;font-size:15px;line-height:22px;">
+            <p>Hola <strong>{{username}}</strong>,</p>
+            """;
+
+    private static final String BLOCK = """
+            <p>Tu viaje del {{date}} finalizó correctamente. Este es el resumen del recorrido:</p>
+            <table role="presentation" width="100%" cellspacing="0" cellpadding="6" style="border:1px solid #e1e4e8;border-collapse:collapse;">
+            <tr><td style="border:1px solid #e1e4e8;">Estación de origen</td><td style="border:1px solid #e1e4e8;">{{origin}}</td></tr>
+            <tr><td style="border:1px solid #e1e4e8;">Estación de destino</td><td style="border:1px solid #e1e4e8;">{{destination}}</td></tr>
+            <tr><td style="border:1px solid #e1e4e8;">Valor cobrado</td><td style="border:1px solid #e1e4e8;">${{amount}}</td></tr>
+            </table>
+            <p style="color:#6a737d;font-size:13px;">Si no reconoces este viaje, responde a este correo o escribe a soporte@ecoride.co.</p>
+            """;
+
+    private static final String FOOTER = """
+            </td></tr>
+            <tr><td style="background:#f0f2f4;color:#6a737d;padding:16px 24px;font-size:12px;">
+            Recibes este correo porque tienes una cuenta en EcoRide. {{date}} &middot; Bogotá, Colombia
+            </td></tr></table></td></tr></table></body></html>
+            """;
+
+    @Param({"1", "8"})
+    public int blocks;
+
+    private String source;
+    private CompiledTemplate compiled;
+    private Map<String, String> variables;
+
+    @Setup
+    public void setUp() {
+        source = HEADER + BLOCK.repeat(blocks) + FOOTER;
+        compiled = CompiledTemplate.compile(source);
+
+        variables = new HashMap<>();
+        variables.put("username", "Sebastian Carroz");
+        variables.put("date", "2025-01-10");
+        variables.put("origin", "Estación Calle 72");
+        variables.put("destination", "Estación Universidad El Bosque");
+        variables.put("amount", "4500.00");
+    }
+
+    // Implementación anterior de TemplateProcessor.processTemplate
+    @Benchmark
+    public String legacyReplace() {
+        String processed = source;
+        for (Map.Entry<String, String> entry : variables.entrySet()) {
+            String key = "{{" + entry.getKey() + "}}";
+            processed = processed.replace(key, entry.getValue() != null ? entry.getValue() : "");
+        }
+        return processed;
+    }
+
+    // Primer envío tras cargar o invalidar la plantilla
+    @Benchmark
+    public String compileAndRender() {
+        return CompiledTemplate.compile(source).render(variables);
+    }
+
+    // Envíos siguientes: plantilla ya compilada en TemplateCache
+    @Benchmark
+    public String cachedRender() {
+        return compiled.render(variables);
+    }
+}
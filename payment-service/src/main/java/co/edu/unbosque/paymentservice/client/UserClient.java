@@ -1,25 +1,43 @@
 package co.edu.unbosque.paymentservice.client;
 
+import co.edu.unbosque.common.client.DownstreamCalls;
+import co.edu.unbosque.paymentservice.dto.WalletDebitRequestDTO;
+import co.edu.unbosque.paymentservice.dto.WalletDebitResponseDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
 import reactor.core.publisher.Mono;
 
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Optional;
 
 @Component
 public class UserClient {
 
+    private static final Logger log = LoggerFactory.getLogger(UserClient.class);
+    private static final String DOWNSTREAM = "user-service";
+
     @Autowired
     private WebClient userWebClient;
 
+    @Autowired
+    private DownstreamCalls downstreamCalls;
+
+    @Value("${clients.user-service.deadline-ms:2000}")
+    private long deadlineMs;
+
     /**
      * Envía la notificación al UserService para actualizar el saldo de la wallet
      * después de una recarga exitosa en Stripe.
      */
     public void updateWalletBalance(Long userId, BigDecimal amount) {
-        userWebClient.put()
+        Mono<Void> request = userWebClient.put()
                 .uri(uriBuilder -> uriBuilder
                         .path("/wallet/recharge")
                         .queryParam("userId", userId)
@@ -27,11 +45,34 @@ public class UserClient {
                         .build())
                 .contentType(MediaType.APPLICATION_JSON)
                 .retrieve()
-                .bodyToMono(Void.class)
+                .bodyToMono(Void.class);
+
+        // Fallback: se registra el error sin interrumpir el flujo de pago
+        downstreamCalls.call(DOWNSTREAM, "update-wallet-balance", Duration.ofMillis(deadlineMs), request)
                 .onErrorResume(error -> {
-                    System.err.println("Error notificando al UserService: " + error.getMessage());
+                    log.warn("Error notificando a user-service la recarga del usuario {}: {}", userId, error.getMessage());
                     return Mono.empty();
                 })
                 .block();
     }
+
+    /**
+     * Debita la wallet en UserService con una clave de idempotencia.
+     *
+     * @return vacío si el saldo no alcanza (409); el resto de errores se propaga
+     */
+    public Optional<WalletDebitResponseDTO> debitWallet(WalletDebitRequestDTO debit) {
+        Mono<WalletDebitResponseDTO> request = userWebClient.post()
+                .uri("/api/wallet/debit")
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(Mono.just(debit), WalletDebitRequestDTO.class)
+                .retrieve()
+                .bodyToMono(WalletDebitResponseDTO.class);
+
+        // Saldo insuficiente es una respuesta de negocio, no una falla del servicio
+        return downstreamCalls.call(DOWNSTREAM, "wallet-debit", Duration.ofMillis(deadlineMs), request)
+                .map(Optional::of)
+                .onErrorResume(WebClientResponseException.Conflict.class, error -> Mono.just(Optional.empty()))
+                .block();
+    }
 }
@@ -1,32 +1,55 @@
 package co.edu.unbosque.paymentservice.client;
 
+import co.edu.unbosque.common.client.DownstreamCalls;
 import co.edu.unbosque.paymentservice.dto.WalletNotificationDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
 import reactor.core.publisher.Mono;
 
+import java.time.Duration;
+
 @Component
 public class UserNotificationClient {
 
+    private static final Logger log = LoggerFactory.getLogger(UserNotificationClient.class);
+    private static final String DOWNSTREAM = "user-service";
+
     @Autowired
     private WebClient userWebClient;
 
+    @Autowired
+    private DownstreamCalls downstreamCalls;
+
+    @Value("${clients.user-service.deadline-ms:2000}")
+    private long deadlineMs;
+
     /**
      * Envía notificación al UserService para actualizar el saldo de la wallet.
+     *
+     * @return true solo si UserService respondió 2xx; el llamador reintenta en otro caso
      */
-    public void notifyWalletRecharge(WalletNotificationDTO notification) {
-        userWebClient.post()
-                .uri("/wallet/notify-recharge")
+    public boolean notifyWalletRecharge(WalletNotificationDTO notification) {
+        Mono<Void> request = userWebClient.post()
+                .uri("/api/wallet/notify-recharge")
                 .contentType(MediaType.APPLICATION_JSON)
                 .body(Mono.just(notification), WalletNotificationDTO.class)
                 .retrieve()
-                .bodyToMono(Void.class)
-                .onErrorResume(error -> {
-                    System.err.println("Error notificando al UserService: " + error.getMessage());
-                    return Mono.empty();
-                })
-                .block();
+                .bodyToMono(Void.class);
+
+        try {
+            downstreamCalls.call(DOWNSTREAM, "notify-wallet-recharge", Duration.ofMillis(deadlineMs), request)
+                    .block();
+            return true;
+        } catch (RuntimeException e) {
+            // No interrumpe el flujo de pago: la recarga queda pendiente de abono para el barrido
+            log.warn("Error notificando al UserService la recarga {}: {}",
+                    notification.idempotencyKey(), e.getMessage());
+            return false;
+        }
     }
 }
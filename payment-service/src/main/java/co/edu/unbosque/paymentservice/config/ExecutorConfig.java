@@ -0,0 +1,46 @@
+package co.edu.unbosque.paymentservice.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+public class ExecutorConfig {
+
+    /**
+     * Pool acotado para las llamadas a Stripe fuera del hilo de la petición.
+     * Si la cola se llena la transacción queda PENDING y la retoma el barrido de conciliación.
+     *
+     * Con hilos virtuales (spring.threads.virtual.enabled, Java 21) el límite de concurrencia
+     * reemplaza a la cola y al superarlo la tarea se rechaza igual.
+     */
+    @Bean(name = "stripeExecutor")
+    public AsyncTaskExecutor stripeExecutor(
+            @Value("${payments.stripe.workers:8}") int workers,
+            @Value("${payments.stripe.queue-capacity:500}") int queueCapacity,
+            @Value("${payments.stripe.virtual-concurrency-limit:64}") int virtualConcurrencyLimit,
+            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads
+    ) {
+        if (virtualThreads) {
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("stripe-");
+            executor.setVirtualThreads(true);
+            executor.setConcurrencyLimit(virtualConcurrencyLimit);
+            executor.setRejectTasksWhenLimitReached(true);
+            executor.setTaskTerminationTimeout(20_000);
+            return executor;
+        }
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(workers);
+        executor.setMaxPoolSize(workers);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("stripe-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(20);
+        executor.initialize();
+        return executor;
+    }
+}
@@ -1,23 +1,43 @@
-
 package co.edu.unbosque.paymentservice.config;
 
 import com.stripe.Stripe;
+import com.stripe.StripeClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
-import jakarta.annotation.PostConstruct;
-
 @Configuration
 public class StripeConfig {
 
+    private static final Logger log = LoggerFactory.getLogger(StripeConfig.class);
+
     @Value("${stripe.api.key}")
     private String stripeSecretKey;
 
-    @PostConstruct
-    public void init() {
-        Stripe.apiKey = stripeSecretKey;
-        System.out.println("Stripe inicializado correctamente.");
+    // Permite apuntar a un stub local (ej. stripe-mock en http://localhost:12111) en pruebas
+    @Value("${stripe.api.base:" + Stripe.LIVE_API_BASE + "}")
+    private String stripeApiBase;
+
+    /**
+     * Cliente para el pipeline asíncrono de pagos. Los reintentos de red de la librería
+     * reutilizan la misma clave de idempotencia, así que no generan cobros duplicados.
+     * Toda llamada a Stripe pasa por este cliente: no se configura el estado global de la librería.
+     */
+    @Bean
+    public StripeClient stripeClient(
+            @Value("${stripe.client.connect-timeout-ms:3000}") int connectTimeoutMs,
+            @Value("${stripe.client.read-timeout-ms:20000}") int readTimeoutMs,
+            @Value("${stripe.client.max-network-retries:2}") int maxNetworkRetries
+    ) {
+        log.info("Cliente Stripe inicializado contra {}", stripeApiBase);
+        return StripeClient.builder()
+                .setApiKey(stripeSecretKey)
+                .setApiBase(stripeApiBase)
+                .setConnectTimeout(connectTimeoutMs)
+                .setReadTimeout(readTimeoutMs)
+                .setMaxNetworkRetries(maxNetworkRetries)
+                .build();
     }
 }
-
-
@@ -0,0 +1,24 @@
+package co.edu.unbosque.paymentservice.config;
+
+import co.edu.unbosque.paymentservice.repository.TransactionStatusJdbcRepository;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class TransactionStatsInitializer {
+
+    /**
+     * Llena user_transaction_stats desde el historial la primera vez que arranca el servicio
+     * con el rollup; después lo mantienen los cambios de estado.
+     */
+    @Bean
+    public CommandLineRunner seedTransactionStats(TransactionStatusJdbcRepository statusRepository) {
+        return args -> {
+            int rows = statusRepository.seedRollupIfEmpty();
+            if (rows > 0) {
+                System.out.println("Rollup de estadísticas inicializado con " + rows + " filas");
+            }
+        };
+    }
+}
@@ -189,27 +189,27 @@ public class PaymentController {
 
     @Operation(
             summary = "Recargar saldo de wallet",
-            description = "Procesa una recarga de wallet usando un método de pago previamente registrado. " +
-                    "El pago se procesa con Stripe y, si es exitoso, se notifica al User Service " +
-                    "para actualizar el saldo de la wallet. La transacción queda registrada en la base de datos."
+            description = "Registra una recarga de wallet con un método de pago previamente registrado y la " +
+                    "procesa con Stripe en segundo plano. Cuando el pago se confirma (webhook o conciliación) " +
+                    "se notifica al User Service para actualizar el saldo de la wallet."
     )
     @ApiResponses({
             @ApiResponse(
-                    responseCode = "200",
-                    description = "Recarga procesada exitosamente",
+                    responseCode = "202",
+                    description = "Recarga registrada y en proceso",
                     content = @Content(
                             mediaType = "application/json",
                             examples = @ExampleObject(value = """
                                 {
-                                  "message": "Recarga procesada correctamente",
+                                  "message": "Recarga en proceso",
                                   "transaction": {
                                     "transactionId": 15,
                                     "userId": 7,
                                     "amount": 25.00,
                                     "type": "TOP_UP",
                                     "source": "CARD",
-                                    "status": "COMPLETED",
-                                    "stripePaymentId": "pi_3SGq7uDz9DdnuWM72fucSWJM",
+                                    "status": "PENDING",
+                                    "stripePaymentId": null,
                                     "createdAt": "2025-01-10T15:30:45"
                                   }
                                 }
@@ -218,13 +218,13 @@ public class PaymentController {
             ),
             @ApiResponse(
                     responseCode = "400",
-                    description = "Error procesando el pago (fondos insuficientes, tarjeta rechazada, etc.)",
+                    description = "Método de pago inválido o que no pertenece al usuario",
                     content = @Content(
                             mediaType = "application/json",
                             examples = @ExampleObject(value = """
                                 {
                                   "error": "Error procesando la recarga",
-                                  "details": "La tarjeta fue rechazada"
+                                  "details": "El método de pago está inactivo"
                                 }
                                 """)
                     )
@@ -257,10 +257,10 @@ public class PaymentController {
             TransactionResponseDTO transaction = paymentService.rechargeWallet(request);
 
             Map<String, Object> response = new HashMap<>();
-            response.put("message", "Recarga procesada correctamente");
+            response.put("message", "Recarga en proceso");
             response.put("transaction", transaction);
 
-            return ResponseEntity.ok(response);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
         } catch (Exception e) {
             System.err.println("Error procesando recarga: " + e.getMessage());
 
@@ -271,4 +271,75 @@ public class PaymentController {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
         }
     }
-}
\ No newline at end of file
+
+    // ========================================
+    // PAGOS DE VIAJE
+    // ========================================
+
+    @Operation(
+            summary = "Cobrar viaje finalizado",
+            description = "Liquida el costo de un viaje. Con paymentSource WALLET se debita el saldo en el User Service " +
+                    "sin pasar por Stripe; con CARD se cobra a la tarjeta activa del usuario. " +
+                    "Es idempotente por tripId: reintentos devuelven el cobro ya registrado."
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Cobro procesado (revisar status: COMPLETED, PROCESSING o FAILED)",
+                    content = @Content(
+                            mediaType = "application/json",
+                            examples = @ExampleObject(value = """
+                                {
+                                  "transactionId": "42",
+                                  "status": "COMPLETED",
+                                  "message": "Cobro aplicado a la wallet",
+                                  "source": "WALLET"
+                                }
+                                """)
+                    )
+            ),
+            @ApiResponse(responseCode = "400", description = "Datos del cobro inválidos"),
+            @ApiResponse(responseCode = "409", description = "El viaje ya tiene un cobro por otro monto"),
+            @ApiResponse(responseCode = "502", description = "No se pudo debitar la wallet en el User Service")
+    })
+    @PostMapping("/trip/charge")
+    public ResponseEntity<?> chargeTrip(
+            @RequestBody
+            @io.swagger.v3.oas.annotations.parameters.RequestBody(
+                    description = "Datos del viaje a cobrar",
+                    required = true,
+                    content = @Content(
+                            schema = @Schema(implementation = TripPaymentRequestDTO.class),
+                            examples = @ExampleObject(value = """
+                                {
+                                  "userId": 7,
+                                  "tripId": 42,
+                                  "amount": 4500.00,
+                                  "paymentSource": "WALLET"
+                                }
+                                """)
+                    )
+            )
+            TripPaymentRequestDTO request
+    ) {
+        try {
+            return ResponseEntity.ok(paymentService.chargeTrip(request));
+        } catch (IllegalArgumentException e) {
+            return tripChargeError(HttpStatus.BAD_REQUEST, "Datos del cobro inválidos", e);
+        } catch (IllegalStateException e) {
+            return tripChargeError(HttpStatus.CONFLICT, "Cobro de viaje en conflicto", e);
+        } catch (Exception e) {
+            return tripChargeError(HttpStatus.BAD_GATEWAY, "Error procesando el cobro del viaje", e);
+        }
+    }
+
+    private ResponseEntity<?> tripChargeError(HttpStatus status, String message, Exception e) {
+        System.err.println(message + ": " + e.getMessage());
+
+        Map<String, Object> error = new HashMap<>();
+        error.put("error", message);
+        error.put("details", e.getMessage());
+
+        return ResponseEntity.status(status).body(error);
+    }
+}
@@ -0,0 +1,88 @@
+package co.edu.unbosque.paymentservice.controller;
+
+import co.edu.unbosque.paymentservice.processing.PaymentIntentProcessor;
+import com.stripe.StripeClient;
+import com.stripe.exception.SignatureVerificationException;
+import com.stripe.model.Event;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Receptor de webhooks de Stripe para cerrar las transacciones del pipeline asíncrono.
+ */
+@RestController
+@RequestMapping("/api/payments/webhook")
+@Tag(name = "Stripe Webhook", description = "Eventos de Stripe para conciliar PaymentIntents")
+public class StripeWebhookController {
+
+    private final StripeClient stripeClient;
+    private final PaymentIntentProcessor processor;
+
+    @Value("${stripe.webhook.secret:}")
+    private String webhookSecret;
+
+    public StripeWebhookController(StripeClient stripeClient, PaymentIntentProcessor processor) {
+        this.stripeClient = stripeClient;
+        this.processor = processor;
+    }
+
+    @Operation(
+            summary = "Recibir eventos de Stripe",
+            description = "Verifica la firma Stripe-Signature y aplica los eventos payment_intent.* " +
+                    "a la transacción correspondiente. Los eventos repetidos no tienen efecto."
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Evento recibido"),
+            @ApiResponse(responseCode = "400", description = "Firma o payload inválido"),
+            @ApiResponse(responseCode = "503", description = "Webhook sin secreto configurado")
+    })
+    @PostMapping("/stripe")
+    public ResponseEntity<?> handleStripeEvent(
+            @RequestBody String payload,
+            @RequestHeader(value = "Stripe-Signature", required = false) String signature
+    ) {
+        Map<String, Object> response = new HashMap<>();
+
+        if (webhookSecret == null || webhookSecret.isBlank()) {
+            response.put("error", "Webhook de Stripe no configurado");
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(response);
+        }
+
+        if (signature == null || signature.isBlank()) {
+            response.put("error", "Falta el header Stripe-Signature");
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
+        }
+
+        Event event;
+        try {
+            event = stripeClient.constructEvent(payload, signature, webhookSecret);
+        } catch (SignatureVerificationException e) {
+            response.put("error", "Firma de Stripe inválida");
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
+        } catch (RuntimeException e) {
+            response.put("error", "Evento de Stripe inválido");
+            response.put("details", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
+        }
+
+        // Otros errores responden 5xx y Stripe reintenta el envío
+        try {
+            response.put("received", true);
+            response.put("applied", processor.handleEvent(event));
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            response.put("error", "Evento de Stripe inválido");
+            response.put("details", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
+        }
+    }
+}
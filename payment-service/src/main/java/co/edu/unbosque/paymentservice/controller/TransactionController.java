@@ -1,7 +1,9 @@
 package co.edu.unbosque.paymentservice.controller;
 
 import co.edu.unbosque.paymentservice.dto.TransactionDetailDTO;
+import co.edu.unbosque.paymentservice.dto.TransactionPageDTO;
 import co.edu.unbosque.paymentservice.dto.TransactionResponseDTO;
+import co.edu.unbosque.paymentservice.dto.TransactionStatsDTO;
 import co.edu.unbosque.paymentservice.service.PaymentService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -10,10 +12,17 @@ import io.swagger.v3.oas.annotations.media.ExampleObject;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -30,10 +39,16 @@ import java.util.Map;
 @Tag(name = "Transactions", description = "Endpoints para consultar historial de transacciones")
 public class TransactionController {
 
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 200;
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
     private final PaymentService paymentService;
+    private final ObjectMapper objectMapper;
 
-    public TransactionController(PaymentService paymentService) {
+    public TransactionController(PaymentService paymentService, ObjectMapper objectMapper) {
         this.paymentService = paymentService;
+        this.objectMapper = objectMapper;
     }
 
     // ========================================
@@ -41,9 +56,10 @@ public class TransactionController {
     // ========================================
 
     @Operation(
-            summary = "Obtener todas las transacciones de un usuario",
-            description = "Retorna el historial completo de transacciones del usuario ordenadas por fecha " +
-                    "(más recientes primero). Incluye recargas de wallet, pagos de viajes y suscripciones."
+            summary = "Obtener las transacciones de un usuario (paginado)",
+            description = "Retorna el historial de transacciones del usuario ordenado por fecha " +
+                    "(más recientes primero), por páginas. Para la siguiente página se envía el nextCursor " +
+                    "recibido; es null cuando no hay más. Incluye recargas de wallet, pagos de viajes y suscripciones."
     )
     @ApiResponses({
             @ApiResponse(
@@ -54,7 +70,8 @@ public class TransactionController {
                             examples = @ExampleObject(value = """
                                 {
                                   "message": "Transacciones obtenidas exitosamente",
-                                  "count": 5,
+                                  "count": 2,
+                                  "nextCursor": "MjAyNS0wMS0xMFQxNDoyMDozMHwxNA",
                                   "data": [
                                     {
                                       "transactionId": 15,
@@ -82,22 +99,30 @@ public class TransactionController {
                     )
             ),
             @ApiResponse(
-                    responseCode = "404",
-                    description = "No se encontraron transacciones para el usuario"
+                    responseCode = "400",
+                    description = "Cursor o tamaño de página inválido"
             )
     })
     @GetMapping("/user/{userId}")
     public ResponseEntity<?> getTransactionsByUser(
             @Parameter(description = "ID del usuario", required = true, example = "7")
-            @PathVariable Long userId
+            @PathVariable Long userId,
+            @Parameter(description = "nextCursor de la página anterior (vacío para la primera)")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Tamaño de página (máximo " + MAX_PAGE_SIZE + ")", example = "50")
+            @RequestParam(defaultValue = "" + DEFAULT_PAGE_SIZE) int limit
     ) {
         try {
-            List<TransactionResponseDTO> transactions = paymentService.getTransactionsByUser(userId);
+            if (limit < 1 || limit > MAX_PAGE_SIZE) {
+                throw new IllegalArgumentException("limit debe estar entre 1 y " + MAX_PAGE_SIZE);
+            }
+            TransactionPageDTO page = paymentService.getTransactionsPage(userId, cursor, limit);
 
             Map<String, Object> response = new HashMap<>();
             response.put("message", "Transacciones obtenidas exitosamente");
-            response.put("count", transactions.size());
-            response.put("data", transactions);
+            response.put("count", page.data().size());
+            response.put("data", page.data());
+            response.put("nextCursor", page.nextCursor());
 
             return ResponseEntity.ok(response);
         } catch (Exception e) {
@@ -111,6 +136,36 @@ public class TransactionController {
         }
     }
 
+    @Operation(
+            summary = "Exportar el historial completo de un usuario",
+            description = "Transmite todas las transacciones del usuario en formato NDJSON (una por línea), " +
+                    "más recientes primero. Se leen de la base de datos por lotes, sin cargar el historial en memoria."
+    )
+    @ApiResponse(responseCode = "200", description = "Historial en NDJSON")
+    @GetMapping(value = "/user/{userId}/export", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> exportTransactionsByUser(
+            @Parameter(description = "ID del usuario", required = true, example = "7")
+            @PathVariable Long userId
+    ) {
+        StreamingResponseBody body = outputStream -> {
+            OutputStream out = new BufferedOutputStream(outputStream, 16 * 1024);
+            paymentService.forEachTransaction(userId, transaction -> {
+                try {
+                    out.write(objectMapper.writeValueAsBytes(transaction));
+                    out.write('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            out.flush();
+        };
+
+        return ResponseEntity.ok()
+                .contentType(NDJSON)
+                .header("Content-Disposition", "attachment; filename=\"transactions-" + userId + ".ndjson\"")
+                .body(body);
+    }
+
     @Operation(
             summary = "Obtener detalle de una transacción específica",
             description = "Retorna información detallada de una transacción por su ID, " +
@@ -302,32 +357,8 @@ public class TransactionController {
             @PathVariable Long userId
     ) {
         try {
-            // Obtener todas las transacciones del usuario
-            List<TransactionResponseDTO> transactions = paymentService.getTransactionsByUser(userId);
-
-            // Calcular estadísticas
-            Map<String, Long> byType = new HashMap<>();
-            Map<String, Long> byStatus = new HashMap<>();
-            double totalAmount = 0.0;
-
-            for (TransactionResponseDTO t : transactions) {
-                // Contar por tipo
-                byType.merge(t.type(), 1L, Long::sum);
-
-                // Contar por estado
-                byStatus.merge(t.status(), 1L, Long::sum);
-
-                // Sumar montos completados
-                if ("COMPLETED".equals(t.status())) {
-                    totalAmount += t.amount().doubleValue();
-                }
-            }
-
-            Map<String, Object> stats = new HashMap<>();
-            stats.put("totalTransactions", transactions.size());
-            stats.put("totalAmount", totalAmount);
-            stats.put("byType", byType);
-            stats.put("byStatus", byStatus);
+            // Agregado en BD: rollup de terminales + transacciones abiertas
+            TransactionStatsDTO stats = paymentService.getTransactionStats(userId);
 
             Map<String, Object> response = new HashMap<>();
             response.put("message", "Estadísticas calculadas exitosamente");
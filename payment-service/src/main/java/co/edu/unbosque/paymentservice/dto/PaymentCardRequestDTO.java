@@ -1,8 +1,19 @@
 package co.edu.unbosque.paymentservice.dto;
 
+import jakarta.validation.constraints.Email;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+
 public record PaymentCardRequestDTO(
+        @NotNull(message = "userId es obligatorio")
         Long userId,
+
         String name,
+
+        @NotBlank(message = "El email es obligatorio")
+        @Email(message = "Debe proporcionar un email válido")
         String email,
+
+        @NotBlank(message = "paymentMethodId es obligatorio")
         String paymentMethodId
 ) {}
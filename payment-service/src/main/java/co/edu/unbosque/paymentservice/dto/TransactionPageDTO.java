@@ -0,0 +1,8 @@
+package co.edu.unbosque.paymentservice.dto;
+
+import java.util.List;
+
+public record TransactionPageDTO(
+        List<TransactionResponseDTO> data,
+        String nextCursor  // null cuando no hay más páginas
+) {}
@@ -0,0 +1,11 @@
+package co.edu.unbosque.paymentservice.dto;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+public record TransactionStatsDTO(
+        long totalTransactions,
+        BigDecimal totalAmount,  // suma exacta de las transacciones COMPLETED
+        Map<String, Long> byType,
+        Map<String, Long> byStatus
+) {}
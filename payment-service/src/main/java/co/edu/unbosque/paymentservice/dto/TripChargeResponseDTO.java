@@ -0,0 +1,8 @@
+package co.edu.unbosque.paymentservice.dto;
+
+public record TripChargeResponseDTO(
+        String transactionId,
+        String status,
+        String message,
+        String source
+) {}
@@ -5,5 +5,6 @@ import java.math.BigDecimal;
 public record TripPaymentRequestDTO(
         Long userId,
         Long tripId,
-        BigDecimal amount
+        BigDecimal amount,
+        String paymentSource  // WALLET o CARD
 ) {}
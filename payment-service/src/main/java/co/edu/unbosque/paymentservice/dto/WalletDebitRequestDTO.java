@@ -0,0 +1,10 @@
+package co.edu.unbosque.paymentservice.dto;
+
+import java.math.BigDecimal;
+
+public record WalletDebitRequestDTO(
+        Long userId,
+        BigDecimal amount,
+        String idempotencyKey,
+        String reference
+) {}
@@ -0,0 +1,11 @@
+package co.edu.unbosque.paymentservice.dto;
+
+import java.math.BigDecimal;
+
+public record WalletDebitResponseDTO(
+        Long entryId,
+        Long userId,
+        BigDecimal amount,
+        BigDecimal balance,
+        boolean replayed
+) {}
@@ -4,5 +4,6 @@ import java.math.BigDecimal;
 
 public record WalletNotificationDTO(
         Long userId,
-        BigDecimal amount
+        BigDecimal amount,
+        String idempotencyKey
 ) {}
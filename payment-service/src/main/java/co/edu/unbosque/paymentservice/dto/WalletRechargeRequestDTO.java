@@ -1,9 +1,19 @@
 package co.edu.unbosque.paymentservice.dto;
 
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+
 import java.math.BigDecimal;
 
 public record WalletRechargeRequestDTO(
+        @NotNull(message = "userId es obligatorio")
         Long userId,
+
+        @NotNull(message = "amount es obligatorio")
+        @DecimalMin(value = "0.01", message = "El monto debe ser mayor a cero")
         BigDecimal amount,
+
+        @NotBlank(message = "paymentMethodId es obligatorio")
         String paymentMethodId
 ) {}
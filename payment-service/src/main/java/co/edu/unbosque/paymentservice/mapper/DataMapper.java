@@ -4,9 +4,14 @@ import co.edu.unbosque.paymentservice.dto.*;
 import co.edu.unbosque.paymentservice.model.PaymentMethod;
 import co.edu.unbosque.paymentservice.model.SubscriptionPlan;
 import co.edu.unbosque.paymentservice.model.Transaction;
+import co.edu.unbosque.paymentservice.repository.TransactionStatusJdbcRepository;
 import org.springframework.stereotype.Component;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 /**
  * Mapper para convertir entre DTOs y Entidades
@@ -105,21 +110,34 @@ public class DataMapper {
     public Transaction createTripPaymentTransaction(
             Long userId,
             Long tripId,
-            Long walletId,
+            String source,
             java.math.BigDecimal amount
     ) {
         Transaction transaction = new Transaction();
         transaction.setUserId(userId);
         transaction.setTripId(tripId);
-        transaction.setWalletId(walletId);
         transaction.setAmount(amount);
         transaction.setType("TRIP_PAYMENT");
-        transaction.setSource("WALLET");
+        transaction.setSource(source);
         transaction.setStatus("PENDING");
         transaction.setCreatedAt(LocalDateTime.now());
         return transaction;
     }
 
+    /**
+     * Convierte una transacción de viaje a la respuesta que espera TripService
+     */
+    public TripChargeResponseDTO toTripChargeResponseDTO(Transaction entity, String message) {
+        if (entity == null) return null;
+
+        return new TripChargeResponseDTO(
+                entity.getId() != null ? entity.getId().toString() : null,
+                entity.getStatus(),
+                message,
+                entity.getSource()
+        );
+    }
+
     /**
      * Crea una transacción de suscripción
      */
@@ -183,6 +201,27 @@ public class DataMapper {
         );
     }
 
+    /**
+     * Consolida las filas agrupadas por tipo y estado en el DTO de estadísticas
+     */
+    public TransactionStatsDTO toTransactionStatsDTO(List<TransactionStatusJdbcRepository.StatsRow> rows) {
+        Map<String, Long> byType = new HashMap<>();
+        Map<String, Long> byStatus = new HashMap<>();
+        long total = 0;
+        BigDecimal completedAmount = BigDecimal.ZERO;
+
+        for (TransactionStatusJdbcRepository.StatsRow row : rows) {
+            byType.merge(row.type(), row.count(), Long::sum);
+            byStatus.merge(row.status(), row.count(), Long::sum);
+            total += row.count();
+            if ("COMPLETED".equals(row.status())) {
+                completedAmount = completedAmount.add(row.totalAmount());
+            }
+        }
+
+        return new TransactionStatsDTO(total, completedAmount, byType, byStatus);
+    }
+
     // ========================================
     // SUBSCRIPTION PLAN MAPPINGS
     // ========================================
@@ -211,9 +250,22 @@ public class DataMapper {
      */
     public WalletNotificationDTO toWalletNotificationDTO(
             Long userId,
-            java.math.BigDecimal amount
+            java.math.BigDecimal amount,
+            Long transactionId
+    ) {
+        // La clave por transacción evita que un reintento acredite dos veces en UserService
+        return new WalletNotificationDTO(userId, amount, "wallet-recharge-" + transactionId);
+    }
+
+    /**
+     * Crea el débito de wallet de un viaje; la clave por viaje hace que un reintento no cobre dos veces
+     */
+    public WalletDebitRequestDTO toWalletDebitRequestDTO(
+            Long userId,
+            java.math.BigDecimal amount,
+            Long tripId
     ) {
-        return new WalletNotificationDTO(userId, amount);
+        return new WalletDebitRequestDTO(userId, amount, "trip-" + tripId, "TRIP:" + tripId);
     }
 
     /**
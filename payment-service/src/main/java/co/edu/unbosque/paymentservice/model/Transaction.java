@@ -6,7 +6,16 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "transaction")
+@Table(
+        name = "transaction",
+        indexes = {
+                // Un solo cobro por viaje: dos /trip/charge simultáneos no pueden crear dos filas TRIP_PAYMENT
+                @Index(name = "uk_transaction_trip_type", columnList = "trip_id, type", unique = true),
+                @Index(name = "idx_transaction_user_status", columnList = "user_id, status"),
+                @Index(name = "idx_transaction_user_created", columnList = "user_id, created_at, id"),
+                @Index(name = "idx_transaction_wallet_credit", columnList = "wallet_credit_pending, id")
+        }
+)
 public class Transaction {
 
     @Id
@@ -24,6 +33,13 @@ public class Transaction {
     private String stripePaymentId;
     private LocalDateTime createdAt = LocalDateTime.now();
 
+    // Intento de cobro con tarjeta; cambia la clave de idempotencia tras un rechazo definitivo
+    private Integer chargeAttempt;
+
+    // Recargas COMPLETED cuyo abono en UserService aún no se confirmó (lo reintenta el barrido)
+    private Boolean walletCreditPending;
+    private LocalDateTime walletCreditedAt;
+
     public Transaction() {
     }
 
@@ -126,4 +142,28 @@ public class Transaction {
     public void setUserId(Long userId) {
         this.userId = userId;
     }
+
+    public Integer getChargeAttempt() {
+        return chargeAttempt;
+    }
+
+    public void setChargeAttempt(Integer chargeAttempt) {
+        this.chargeAttempt = chargeAttempt;
+    }
+
+    public Boolean getWalletCreditPending() {
+        return walletCreditPending;
+    }
+
+    public void setWalletCreditPending(Boolean walletCreditPending) {
+        this.walletCreditPending = walletCreditPending;
+    }
+
+    public LocalDateTime getWalletCreditedAt() {
+        return walletCreditedAt;
+    }
+
+    public void setWalletCreditedAt(LocalDateTime walletCreditedAt) {
+        this.walletCreditedAt = walletCreditedAt;
+    }
 }
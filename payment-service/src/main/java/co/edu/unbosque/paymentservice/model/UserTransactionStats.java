@@ -0,0 +1,48 @@
+package co.edu.unbosque.paymentservice.model;
+
+import jakarta.persistence.*;
+
+import java.math.BigDecimal;
+
+/**
+ * Rollup de transacciones terminales por usuario, tipo y estado.
+ * Solo define el esquema; lo mantiene TransactionStatusJdbcRepository en cada cambio de estado.
+ */
+@Entity
+@Table(
+        name = "user_transaction_stats",
+        uniqueConstraints = @UniqueConstraint(
+                name = "uk_user_transaction_stats",
+                columnNames = {"user_id", "type", "status"}
+        )
+)
+public class UserTransactionStats {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(nullable = false, length = 20)
+    private String type;
+
+    @Column(nullable = false, length = 20)
+    private String status;
+
+    @Column(name = "tx_count", nullable = false)
+    private long txCount;
+
+    @Column(name = "total_amount", nullable = false, precision = 38, scale = 2)
+    private BigDecimal totalAmount;
+
+    public UserTransactionStats() {}
+
+    public Long getId() { return id; }
+    public Long getUserId() { return userId; }
+    public String getType() { return type; }
+    public String getStatus() { return status; }
+    public long getTxCount() { return txCount; }
+    public BigDecimal getTotalAmount() { return totalAmount; }
+}
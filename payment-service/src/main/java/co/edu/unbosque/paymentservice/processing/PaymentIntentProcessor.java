@@ -0,0 +1,348 @@
+package co.edu.unbosque.paymentservice.processing;
+
+import co.edu.unbosque.paymentservice.client.UserNotificationClient;
+import co.edu.unbosque.paymentservice.mapper.DataMapper;
+import co.edu.unbosque.paymentservice.model.PaymentMethod;
+import co.edu.unbosque.paymentservice.model.Transaction;
+import co.edu.unbosque.paymentservice.repository.PaymentMethodRepository;
+import co.edu.unbosque.paymentservice.repository.TransactionRepository;
+import co.edu.unbosque.paymentservice.repository.TransactionStatusJdbcRepository;
+import com.stripe.StripeClient;
+import com.stripe.exception.ApiConnectionException;
+import com.stripe.exception.ApiException;
+import com.stripe.exception.EventDataObjectDeserializationException;
+import com.stripe.exception.StripeException;
+import com.stripe.model.Event;
+import com.stripe.model.EventDataObjectDeserializer;
+import com.stripe.model.PaymentIntent;
+import com.stripe.model.StripeSearchResult;
+import com.stripe.model.StripeObject;
+import com.stripe.net.RequestOptions;
+import com.stripe.param.PaymentIntentCreateParams;
+import com.stripe.param.PaymentIntentSearchParams;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Pipeline asíncrono de PaymentIntents.
+ *
+ * La petición solo persiste la transacción PENDING y la entrega a este procesador; un pool
+ * acotado crea el PaymentIntent con la clave de idempotencia "txn-{id}", de modo que el
+ * worker, un reintento de red y el barrido de conciliación pueden repetir la llamada sin
+ * cobrar dos veces. El resultado final llega por el webhook o por el barrido; todas las
+ * transiciones son condicionales (TransactionStatusJdbcRepository.transition), así que solo el primer camino en
+ * completar la transacción dispara la notificación al UserService.
+ *
+ * Stripe guarda las claves de idempotencia 24 horas: los reintentos del barrido primero buscan
+ * un PaymentIntent existente por el metadata transactionId y solo crean uno si no lo hay. El
+ * abono de una recarga COMPLETED queda pendiente (wallet_credit_pending) hasta que UserService
+ * responde 2xx; el barrido lo reintenta con la misma clave "wallet-recharge-{id}".
+ */
+@Component
+public class PaymentIntentProcessor {
+
+    private static final Logger log = LoggerFactory.getLogger(PaymentIntentProcessor.class);
+
+    private static final List<String> OPEN = List.of("PENDING", "PROCESSING");
+
+    private final StripeClient stripeClient;
+    private final AsyncTaskExecutor stripeExecutor;
+    private final TransactionRepository transactionRepository;
+    private final TransactionStatusJdbcRepository statusRepository;
+    private final PaymentMethodRepository paymentMethodRepository;
+    private final UserNotificationClient userNotificationClient;
+    private final DataMapper mapper;
+    private final MeterRegistry meterRegistry;
+
+    public PaymentIntentProcessor(
+            StripeClient stripeClient,
+            @Qualifier("stripeExecutor") AsyncTaskExecutor stripeExecutor,
+            TransactionRepository transactionRepository,
+            TransactionStatusJdbcRepository statusRepository,
+            PaymentMethodRepository paymentMethodRepository,
+            UserNotificationClient userNotificationClient,
+            DataMapper mapper,
+            MeterRegistry meterRegistry
+    ) {
+        this.stripeClient = stripeClient;
+        this.stripeExecutor = stripeExecutor;
+        this.transactionRepository = transactionRepository;
+        this.statusRepository = statusRepository;
+        this.paymentMethodRepository = paymentMethodRepository;
+        this.userNotificationClient = userNotificationClient;
+        this.mapper = mapper;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Encola el cobro. Si el pool está saturado la transacción queda PENDING para el barrido.
+     */
+    public void submit(Long transactionId) {
+        try {
+            stripeExecutor.execute(() -> process(transactionId));
+        } catch (TaskRejectedException e) {
+            meterRegistry.counter("payments.stripe.submissions", "outcome", "rejected").increment();
+            log.warn("Pool de Stripe saturado, la transacción {} queda para el barrido", transactionId);
+        }
+    }
+
+    /**
+     * Reencola una transacción PENDING desde el barrido; antes de crear el PaymentIntent
+     * se busca en Stripe uno que ya exista para ella.
+     */
+    public void resubmit(Long transactionId) {
+        try {
+            stripeExecutor.execute(() -> retry(transactionId));
+        } catch (TaskRejectedException e) {
+            log.warn("Pool de Stripe saturado, la transacción {} sigue pendiente", transactionId);
+        }
+    }
+
+    /**
+     * Crea y confirma el PaymentIntent de una transacción PENDING.
+     */
+    public void process(Long transactionId) {
+        attempt(transactionId, false);
+    }
+
+    /**
+     * Reintento de una transacción PENDING: un intento anterior pudo llegar a Stripe aunque la
+     * respuesta se perdiera, así que primero se busca por metadata.
+     */
+    public void retry(Long transactionId) {
+        attempt(transactionId, true);
+    }
+
+    /**
+     * Resuelve una transacción PENDING más antigua que la ventana de idempotencia de Stripe:
+     * ya no se puede reintentar sin riesgo de cobrar dos veces, así que solo se aplica el
+     * PaymentIntent existente o se marca FAILED.
+     */
+    public void expire(Transaction transaction) {
+        try {
+            PaymentIntent existing = findExistingIntent(transaction.getId());
+            if (existing != null) {
+                applyIntent(transaction.getId(), existing.getId(), existing.getStatus());
+            } else {
+                log.warn("Transacción {} PENDING fuera de la ventana de idempotencia y sin PaymentIntent", transaction.getId());
+                fail(transaction.getId(), null);
+            }
+        } catch (StripeException e) {
+            log.warn("No se pudo consultar en Stripe la transacción {}: {}", transaction.getId(), e.getMessage());
+        }
+    }
+
+    /**
+     * Resuelve un cobro de viaje que quedó PENDING (resultado incierto o petición caída). Nunca
+     * crea un PaymentIntent: aplica el que exista para la transacción o la marca FAILED, y el
+     * reintento del viaje repite el cobro con la misma clave ("trip-charge-…" o "trip-{tripId}"
+     * para la wallet), así que si el cobro sí se aplicó se obtiene el resultado original.
+     */
+    public void settleTripCharge(Transaction transaction) {
+        if ("CARD".equals(transaction.getSource())) {
+            try {
+                PaymentIntent existing = findExistingIntent(transaction.getId());
+                if (existing != null) {
+                    applyIntent(transaction.getId(), existing.getId(), existing.getStatus());
+                    return;
+                }
+            } catch (StripeException e) {
+                log.warn("No se pudo consultar en Stripe el cobro del viaje {}: {}", transaction.getTripId(), e.getMessage());
+                return;
+            }
+        }
+        log.warn("Cobro del viaje {} sin resultado, se marca FAILED para que el reintento lo repita", transaction.getTripId());
+        fail(transaction.getId(), null);
+    }
+
+    /**
+     * Notifica a UserService el abono de una recarga COMPLETED y lo marca confirmado si responde 2xx.
+     */
+    public void creditWallet(Transaction transaction) {
+        // La clave "wallet-recharge-{id}" hace idempotente el abono en UserService
+        boolean credited = userNotificationClient.notifyWalletRecharge(
+                mapper.toWalletNotificationDTO(transaction.getUserId(), transaction.getAmount(), transaction.getId())
+        );
+        meterRegistry.counter("payments.wallet.credits", "outcome", credited ? "credited" : "retry").increment();
+        if (credited) {
+            statusRepository.markWalletCredited(transaction.getId());
+        }
+    }
+
+    private void attempt(Long transactionId, boolean lookupFirst) {
+        Transaction transaction = transactionRepository.findById(transactionId).orElse(null);
+        if (transaction == null || !"PENDING".equals(transaction.getStatus())) {
+            return;
+        }
+
+        if (lookupFirst) {
+            try {
+                PaymentIntent existing = findExistingIntent(transactionId);
+                if (existing != null) {
+                    applyIntent(transactionId, existing.getId(), existing.getStatus());
+                    return;
+                }
+            } catch (StripeException e) {
+                log.warn("No se pudo buscar en Stripe la transacción {}: {}", transactionId, e.getMessage());
+                return;
+            }
+        }
+
+        PaymentMethod paymentMethod = transaction.getPaymentMethodId() != null
+                ? paymentMethodRepository.findById(transaction.getPaymentMethodId()).orElse(null)
+                : null;
+        if (paymentMethod == null) {
+            log.warn("Transacción {} sin método de pago válido", transactionId);
+            fail(transactionId, null);
+            return;
+        }
+
+        try {
+            PaymentIntent intent = stripeClient.v1().paymentIntents().create(
+                    PaymentIntentCreateParams.builder()
+                            .setAmount(transaction.getAmount().multiply(BigDecimal.valueOf(100)).longValue())
+                            .setCurrency("cop")
+                            .setCustomer(paymentMethod.getStripeCustomerId())
+                            .setPaymentMethod(paymentMethod.getTokenId())
+                            .setConfirm(true)
+                            .setOffSession(true)
+                            .setDescription(describe(transaction))
+                            .putMetadata("transactionId", transactionId.toString())
+                            .build(),
+                    RequestOptions.builder().setIdempotencyKey("txn-" + transactionId).build()
+            );
+            applyIntent(transactionId, intent.getId(), intent.getStatus());
+
+        } catch (ApiConnectionException | ApiException e) {
+            // Falla transitoria (red, 5xx o límite de tasa): sigue PENDING y el barrido reintenta con la misma clave
+            meterRegistry.counter("payments.stripe.submissions", "outcome", "retry").increment();
+            log.warn("Stripe no disponible para la transacción {}: {}", transactionId, e.getMessage());
+        } catch (StripeException e) {
+            // Tarjeta rechazada o petición inválida: no tiene sentido reintentar
+            log.warn("Stripe rechazó la transacción {}: {}", transactionId, e.getMessage());
+            fail(transactionId, e.getStripeError() != null && e.getStripeError().getPaymentIntent() != null
+                    ? e.getStripeError().getPaymentIntent().getId()
+                    : null);
+        } catch (RuntimeException e) {
+            log.error("Error procesando la transacción {}", transactionId, e);
+        }
+    }
+
+    /**
+     * Consulta en Stripe el estado de una transacción que quedó PROCESSING.
+     */
+    public void reconcile(Transaction transaction) {
+        try {
+            PaymentIntent intent = stripeClient.v1().paymentIntents().retrieve(transaction.getStripePaymentId());
+            applyIntent(transaction.getId(), intent.getId(), intent.getStatus());
+        } catch (StripeException e) {
+            log.warn("No se pudo conciliar la transacción {}: {}", transaction.getId(), e.getMessage());
+        }
+    }
+
+    /**
+     * Aplica un evento payment_intent.* recibido por el webhook (firma ya verificada).
+     *
+     * @return false si el evento no corresponde a una transacción conocida
+     */
+    public boolean handleEvent(Event event) {
+        if (event.getType() == null || !event.getType().startsWith("payment_intent.")) {
+            return false;
+        }
+
+        EventDataObjectDeserializer deserializer = event.getDataObjectDeserializer();
+        StripeObject object = event.getApiVersion() != null ? deserializer.getObject().orElse(null) : null;
+        if (object == null) {
+            // Versión de API distinta (o ausente) respecto a la librería: los campos usados son estables
+            try {
+                object = deserializer.deserializeUnsafe();
+            } catch (EventDataObjectDeserializationException e) {
+                throw new IllegalArgumentException("Evento de Stripe ilegible: " + e.getMessage(), e);
+            }
+        }
+        if (!(object instanceof PaymentIntent intent)) {
+            return false;
+        }
+
+        Long transactionId = resolveTransactionId(intent);
+        if (transactionId == null) {
+            log.warn("PaymentIntent {} sin transacción asociada", intent.getId());
+            return false;
+        }
+        applyIntent(transactionId, intent.getId(), intent.getStatus());
+        return true;
+    }
+
+    private void applyIntent(Long transactionId, String paymentIntentId, String status) {
+        meterRegistry.counter("payments.stripe.intents", "status", String.valueOf(status)).increment();
+
+        switch (String.valueOf(status)) {
+            case "succeeded" -> {
+                if (statusRepository.transition(transactionId, OPEN, "COMPLETED", paymentIntentId)) {
+                    log.info("Transacción {} completada ({})", transactionId, paymentIntentId);
+                    onCompleted(transactionId);
+                }
+            }
+            case "processing", "requires_action", "requires_confirmation", "requires_capture" ->
+                    statusRepository.transition(transactionId, List.of("PENDING"), "PROCESSING", paymentIntentId);
+            case "canceled", "requires_payment_method" -> fail(transactionId, paymentIntentId);
+            default -> log.warn("Estado de PaymentIntent desconocido {} para la transacción {}", status, transactionId);
+        }
+    }
+
+    private void fail(Long transactionId, String paymentIntentId) {
+        if (statusRepository.transition(transactionId, OPEN, "FAILED", paymentIntentId)) {
+            log.info("Transacción {} marcada como FAILED", transactionId);
+        }
+    }
+
+    private void onCompleted(Long transactionId) {
+        Transaction transaction = transactionRepository.findById(transactionId).orElse(null);
+        if (transaction == null || !"TOP_UP".equals(transaction.getType())) {
+            return;
+        }
+        creditWallet(transaction);
+    }
+
+    private PaymentIntent findExistingIntent(Long transactionId) throws StripeException {
+        // La búsqueda de Stripe indexa con un retraso de hasta un minuto; el barrido solo toma
+        // transacciones con más antigüedad que eso (payments.reconciliation.pending-grace-seconds)
+        StripeSearchResult<PaymentIntent> result = stripeClient.v1().paymentIntents().search(
+                PaymentIntentSearchParams.builder()
+                        .setQuery("metadata['transactionId']:'" + transactionId + "'")
+                        .setLimit(1L)
+                        .build()
+        );
+        return result.getData() != null && !result.getData().isEmpty() ? result.getData().get(0) : null;
+    }
+
+    private Long resolveTransactionId(PaymentIntent intent) {
+        String fromMetadata = intent.getMetadata() != null ? intent.getMetadata().get("transactionId") : null;
+        if (fromMetadata != null) {
+            try {
+                return Long.valueOf(fromMetadata);
+            } catch (NumberFormatException ignored) {
+                // se busca por id de Stripe
+            }
+        }
+        return transactionRepository.findByStripePaymentId(intent.getId())
+                .stream()
+                .findFirst()
+                .map(Transaction::getId)
+                .orElse(null);
+    }
+
+    private String describe(Transaction transaction) {
+        return "TOP_UP".equals(transaction.getType())
+                ? "Recarga de wallet - Usuario: " + transaction.getUserId()
+                : transaction.getType() + " - Usuario: " + transaction.getUserId();
+    }
+}
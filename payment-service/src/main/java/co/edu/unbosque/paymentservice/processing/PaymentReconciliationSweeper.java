@@ -0,0 +1,88 @@
+package co.edu.unbosque.paymentservice.processing;
+
+import co.edu.unbosque.paymentservice.model.Transaction;
+import co.edu.unbosque.paymentservice.repository.TransactionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Barrido periódico de conciliación con Stripe.
+ *
+ * Retoma las recargas PENDING que no llegaron a procesarse (pool saturado, reinicio, falla
+ * transitoria) y consulta el estado de las transacciones PROCESSING cuyo webhook no llegó.
+ * Solo mira registros con cierta antigüedad para no competir con el worker ni con el webhook.
+ *
+ * Las PENDING solo se reintentan mientras la clave de idempotencia "txn-{id}" sigue vigente en
+ * Stripe (24 h); las más antiguas se resuelven sin crear un PaymentIntent nuevo. También
+ * reintenta el abono de las recargas COMPLETED que UserService no confirmó y resuelve los cobros
+ * de viaje que quedaron PENDING con resultado incierto.
+ */
+@Component
+public class PaymentReconciliationSweeper {
+
+    private static final Logger log = LoggerFactory.getLogger(PaymentReconciliationSweeper.class);
+
+    private final TransactionRepository transactionRepository;
+    private final PaymentIntentProcessor processor;
+
+    @Value("${payments.reconciliation.pending-grace-seconds:60}")
+    private long pendingGraceSeconds;
+
+    @Value("${payments.reconciliation.processing-grace-seconds:300}")
+    private long processingGraceSeconds;
+
+    // Holgura sobre la duración máxima de un cobro con tarjeta en vuelo (timeouts y reintentos de Stripe)
+    @Value("${payments.reconciliation.trip-pending-grace-seconds:300}")
+    private long tripPendingGraceSeconds;
+
+    // Por debajo de las 24 h que Stripe conserva una clave de idempotencia
+    @Value("${payments.reconciliation.pending-max-age-hours:23}")
+    private long pendingMaxAgeHours;
+
+    public PaymentReconciliationSweeper(TransactionRepository transactionRepository, PaymentIntentProcessor processor) {
+        this.transactionRepository = transactionRepository;
+        this.processor = processor;
+    }
+
+    @Scheduled(
+            fixedDelayString = "${payments.reconciliation.interval-ms:60000}",
+            initialDelayString = "${payments.reconciliation.initial-delay-ms:30000}"
+    )
+    public void sweep() {
+        LocalDateTime now = LocalDateTime.now();
+
+        LocalDateTime maxAge = now.minusHours(pendingMaxAgeHours);
+
+        List<Transaction> pending = transactionRepository.findTop100ByTypeAndStatusAndCreatedAtBetweenOrderByIdAsc(
+                "TOP_UP", "PENDING", maxAge, now.minusSeconds(pendingGraceSeconds));
+        pending.forEach(transaction -> processor.resubmit(transaction.getId()));
+
+        List<Transaction> expired = transactionRepository.findTop100ByTypeAndStatusAndCreatedAtBeforeOrderByIdAsc(
+                "TOP_UP", "PENDING", maxAge);
+        expired.forEach(processor::expire);
+
+        List<Transaction> tripCharges = transactionRepository.findTop100ByTypeAndStatusAndCreatedAtBeforeOrderByIdAsc(
+                "TRIP_PAYMENT", "PENDING", now.minusSeconds(tripPendingGraceSeconds));
+        tripCharges.forEach(processor::settleTripCharge);
+
+        List<Transaction> processing = transactionRepository
+                .findTop100ByStatusAndStripePaymentIdNotNullAndCreatedAtBeforeOrderByIdAsc(
+                        "PROCESSING", now.minusSeconds(processingGraceSeconds));
+        processing.forEach(processor::reconcile);
+
+        List<Transaction> uncredited = transactionRepository
+                .findTop100ByWalletCreditPendingTrueAndCreatedAtBeforeOrderByIdAsc(now.minusSeconds(pendingGraceSeconds));
+        uncredited.forEach(processor::creditWallet);
+
+        if (!pending.isEmpty() || !expired.isEmpty() || !tripCharges.isEmpty() || !processing.isEmpty() || !uncredited.isEmpty()) {
+            log.info("Conciliación: {} PENDING reencoladas, {} PENDING vencidas, {} cobros de viaje resueltos, {} PROCESSING consultadas, {} abonos reintentados",
+                    pending.size(), expired.size(), tripCharges.size(), processing.size(), uncredited.size());
+        }
+    }
+}
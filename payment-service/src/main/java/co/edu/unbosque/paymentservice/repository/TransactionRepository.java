@@ -1,10 +1,18 @@
 package co.edu.unbosque.paymentservice.repository;
 
 import co.edu.unbosque.paymentservice.model.Transaction;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import jakarta.persistence.QueryHint;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface TransactionRepository extends JpaRepository<Transaction, Long> {
@@ -16,4 +24,41 @@ public interface TransactionRepository extends JpaRepository<Transaction, Long>
     List<Transaction> findByStripePaymentId(String stripePaymentId);
 
     List<Transaction> findByUserIdOrderByCreatedAtDesc(Long userId);
-}
\ No newline at end of file
+
+    Optional<Transaction> findFirstByTripIdAndTypeOrderByIdDesc(Long tripId, String type);
+
+    List<Transaction> findTop100ByTypeAndStatusAndCreatedAtBeforeOrderByIdAsc(String type, String status, LocalDateTime before);
+
+    List<Transaction> findTop100ByTypeAndStatusAndCreatedAtBetweenOrderByIdAsc(String type, String status, LocalDateTime from, LocalDateTime to);
+
+    List<Transaction> findTop100ByStatusAndStripePaymentIdNotNullAndCreatedAtBeforeOrderByIdAsc(String status, LocalDateTime before);
+
+    List<Transaction> findTop100ByWalletCreditPendingTrueAndCreatedAtBeforeOrderByIdAsc(LocalDateTime before);
+
+    // Keyset sobre el índice (user_id, created_at, id): cada página cuesta lo mismo sin importar la profundidad
+    @Query(value = """
+            SELECT * FROM transaction
+            WHERE user_id = :userId
+            ORDER BY created_at DESC, id DESC
+            LIMIT :limit
+            """, nativeQuery = true)
+    List<Transaction> findFirstPageByUser(@Param("userId") Long userId, @Param("limit") int limit);
+
+    @Query(value = """
+            SELECT * FROM transaction
+            WHERE user_id = :userId AND (created_at, id) < (:createdAt, :id)
+            ORDER BY created_at DESC, id DESC
+            LIMIT :limit
+            """, nativeQuery = true)
+    List<Transaction> findPageByUserAfter(@Param("userId") Long userId,
+                                          @Param("createdAt") LocalDateTime createdAt,
+                                          @Param("id") Long id,
+                                          @Param("limit") int limit);
+
+    // Recorrido con cursor del driver: requiere una transacción abierta mientras se consume
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<Transaction> streamByUserIdOrderByCreatedAtDescIdDesc(Long userId);
+}
@@ -0,0 +1,166 @@
+package co.edu.unbosque.paymentservice.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.sql.Array;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Cambios de estado de transacciones y rollup de estadísticas por usuario (user_transaction_stats).
+ *
+ * El rollup solo guarda transacciones en estado terminal (COMPLETED, FAILED) y se mantiene en
+ * la misma transacción que el cambio de estado: al entrar a un estado terminal se suma y al
+ * salir de él (reintento de un cobro FAILED) se resta. Las abiertas (PENDING, PROCESSING) son
+ * pocas por usuario y se agregan al vuelo con el índice (user_id, status).
+ *
+ * Una recarga que pasa a COMPLETED queda con wallet_credit_pending en la misma sentencia; se
+ * limpia solo cuando UserService confirma el abono, así un abono fallido no se pierde.
+ */
+@Repository
+public class TransactionStatusJdbcRepository {
+
+    public static final Set<String> TERMINAL = Set.of("COMPLETED", "FAILED");
+
+    // Bloquea la fila y devuelve el estado anterior junto con los datos del rollup
+    private static final String TRANSITION = """
+            WITH previous AS (
+                SELECT id, status FROM transaction
+                WHERE id = ? AND status = ANY (?)
+                FOR UPDATE
+            )
+            UPDATE transaction t
+            SET status = ?, stripe_payment_id = COALESCE(?, t.stripe_payment_id),
+                wallet_credit_pending = CASE WHEN ? = 'COMPLETED' AND t.type = 'TOP_UP'
+                                             THEN TRUE ELSE t.wallet_credit_pending END
+            FROM previous
+            WHERE t.id = previous.id
+            RETURNING t.user_id, t.type, t.amount, previous.status AS previous_status
+            """;
+
+    private static final String ADJUST_ROLLUP = """
+            INSERT INTO user_transaction_stats (user_id, type, status, tx_count, total_amount)
+            VALUES (?, ?, ?, ?, ?)
+            ON CONFLICT (user_id, type, status) DO UPDATE
+            SET tx_count = user_transaction_stats.tx_count + EXCLUDED.tx_count,
+                total_amount = user_transaction_stats.total_amount + EXCLUDED.total_amount
+            """;
+
+    private static final String SELECT_STATS = """
+            SELECT type, status, tx_count, total_amount
+            FROM user_transaction_stats
+            WHERE user_id = ? AND tx_count > 0
+            UNION ALL
+            SELECT type, status, COUNT(*), COALESCE(SUM(amount), 0)
+            FROM transaction
+            WHERE user_id = ? AND status IN ('PENDING', 'PROCESSING')
+            GROUP BY type, status
+            """;
+
+    // Carga inicial desde el historial; no hace nada si el rollup ya tiene datos
+    private static final String SEED_ROLLUP = """
+            INSERT INTO user_transaction_stats (user_id, type, status, tx_count, total_amount)
+            SELECT user_id, type, status, COUNT(*), COALESCE(SUM(amount), 0)
+            FROM transaction
+            WHERE status IN ('COMPLETED', 'FAILED') AND user_id IS NOT NULL AND type IS NOT NULL
+              AND NOT EXISTS (SELECT 1 FROM user_transaction_stats)
+            GROUP BY user_id, type, status
+            """;
+
+    private static final RowMapper<StatsRow> STATS_ROW_MAPPER = (rs, rowNum) -> new StatsRow(
+            rs.getString("type"),
+            rs.getString("status"),
+            rs.getLong("tx_count"),
+            rs.getBigDecimal("total_amount")
+    );
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public TransactionStatusJdbcRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Cambia el estado solo si la transacción sigue en uno de los estados de origen.
+     *
+     * @return false si otro camino (webhook, worker o barrido) ya la resolvió
+     */
+    @Transactional
+    public boolean transition(Long transactionId, Collection<String> from, String next, String paymentIntentId) {
+        List<Transition> applied = jdbcTemplate.query(
+                connection -> {
+                    var statement = connection.prepareStatement(TRANSITION);
+                    Array statuses = connection.createArrayOf("varchar", from.toArray());
+                    statement.setLong(1, transactionId);
+                    statement.setArray(2, statuses);
+                    statement.setString(3, next);
+                    statement.setString(4, paymentIntentId);
+                    statement.setString(5, next);
+                    return statement;
+                },
+                (rs, rowNum) -> new Transition(
+                        rs.getLong("user_id"),
+                        rs.getString("type"),
+                        rs.getBigDecimal("amount"),
+                        rs.getString("previous_status")
+                )
+        );
+        if (applied.isEmpty()) {
+            return false;
+        }
+
+        Transition transition = applied.get(0);
+        BigDecimal amount = transition.amount() != null ? transition.amount() : BigDecimal.ZERO;
+        if (TERMINAL.contains(transition.previousStatus())) {
+            adjustRollup(transition.userId(), transition.type(), transition.previousStatus(), -1, amount.negate());
+        }
+        if (TERMINAL.contains(next)) {
+            adjustRollup(transition.userId(), transition.type(), next, 1, amount);
+        }
+        return true;
+    }
+
+    /**
+     * Marca el abono de la recarga como confirmado por UserService.
+     */
+    public void markWalletCredited(Long transactionId) {
+        jdbcTemplate.update(
+                "UPDATE transaction SET wallet_credit_pending = FALSE, wallet_credited_at = ? " +
+                        "WHERE id = ? AND wallet_credit_pending",
+                Timestamp.valueOf(LocalDateTime.now()), transactionId);
+    }
+
+    /**
+     * Filas del rollup más las transacciones abiertas del usuario, agrupadas por tipo y estado.
+     */
+    public List<StatsRow> findStatsByUser(Long userId) {
+        return jdbcTemplate.query(SELECT_STATS, STATS_ROW_MAPPER, userId, userId);
+    }
+
+    /**
+     * Llena el rollup desde el historial la primera vez. Toma un lock exclusivo para que
+     * ninguna transición escriba en la tabla mientras se calcula.
+     *
+     * @return filas insertadas (0 si el rollup ya estaba inicializado)
+     */
+    @Transactional
+    public int seedRollupIfEmpty() {
+        jdbcTemplate.execute("LOCK TABLE user_transaction_stats IN EXCLUSIVE MODE");
+        return jdbcTemplate.update(SEED_ROLLUP);
+    }
+
+    private void adjustRollup(Long userId, String type, String status, long countDelta, BigDecimal amountDelta) {
+        jdbcTemplate.update(ADJUST_ROLLUP, userId, type, status, countDelta, amountDelta);
+    }
+
+    private record Transition(Long userId, String type, BigDecimal amount, String previousStatus) {}
+
+    public record StatsRow(String type, String status, long count, BigDecimal totalAmount) {}
+}
@@ -2,6 +2,7 @@ package co.edu.unbosque.paymentservice.service;
 
 import co.edu.unbosque.paymentservice.dto.*;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface PaymentService {
 
@@ -9,11 +10,19 @@ public interface PaymentService {
 
     TransactionResponseDTO rechargeWallet(WalletRechargeRequestDTO request);
 
+    TripChargeResponseDTO chargeTrip(TripPaymentRequestDTO request);
+
     List<PaymentMethodResponseDTO> getActiveMethodsByUser(Long userId);
 
     List<TransactionResponseDTO> getTransactionsByUser(Long userId);
 
+    TransactionPageDTO getTransactionsPage(Long userId, String cursor, int limit);
+
+    void forEachTransaction(Long userId, Consumer<TransactionResponseDTO> consumer);
+
     TransactionDetailDTO getTransactionDetail(Long transactionId);
     List<TransactionResponseDTO> getTransactionsByUserAndStatus(Long userId, String status);
 
+    TransactionStatsDTO getTransactionStats(Long userId);
+
 }
\ No newline at end of file
@@ -1,62 +1,86 @@
 package co.edu.unbosque.paymentservice.service.impl;
 
-import co.edu.unbosque.paymentservice.client.UserNotificationClient;
+import co.edu.unbosque.paymentservice.client.UserClient;
 import co.edu.unbosque.paymentservice.dto.*;
 import co.edu.unbosque.paymentservice.mapper.DataMapper;
 import co.edu.unbosque.paymentservice.model.PaymentMethod;
 import co.edu.unbosque.paymentservice.model.Transaction;
+import co.edu.unbosque.paymentservice.processing.PaymentIntentProcessor;
 import co.edu.unbosque.paymentservice.repository.PaymentMethodRepository;
 import co.edu.unbosque.paymentservice.repository.TransactionRepository;
+import co.edu.unbosque.paymentservice.repository.TransactionStatusJdbcRepository;
 import co.edu.unbosque.paymentservice.service.PaymentService;
-import com.stripe.Stripe;
+import com.stripe.StripeClient;
+import com.stripe.exception.ApiConnectionException;
+import com.stripe.exception.ApiException;
+import com.stripe.exception.CardException;
+import com.stripe.exception.IdempotencyException;
 import com.stripe.exception.StripeException;
 import com.stripe.model.Customer;
 import com.stripe.model.PaymentIntent;
+import com.stripe.net.RequestOptions;
 import com.stripe.param.CustomerCreateParams;
 import com.stripe.param.PaymentIntentCreateParams;
 import com.stripe.param.PaymentMethodAttachParams;
-import jakarta.annotation.PostConstruct;
-import org.springframework.beans.factory.annotation.Value;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class PaymentServiceImpl implements PaymentService {
 
-    @Value("${stripe.api.key}")
-    private String stripeSecretKey;
+    private static final Logger log = LoggerFactory.getLogger(PaymentServiceImpl.class);
+
+    private static final List<String> OPEN = List.of("PENDING", "PROCESSING");
+    // Un PaymentIntent succeeded se aplica aunque el barrido ya haya dado el cobro por FAILED
+    private static final List<String> SETTLEABLE = List.of("PENDING", "PROCESSING", "FAILED");
+
+    @PersistenceContext
+    private EntityManager entityManager;
 
     private final PaymentMethodRepository paymentMethodRepository;
     private final TransactionRepository transactionRepository;
-    private final UserNotificationClient userNotificationClient;
+    private final TransactionStatusJdbcRepository statusRepository;
+    private final PaymentIntentProcessor paymentIntentProcessor;
+    private final StripeClient stripeClient;
+    private final UserClient userClient;
     private final DataMapper mapper;
 
     public PaymentServiceImpl(
             PaymentMethodRepository paymentMethodRepository,
             TransactionRepository transactionRepository,
-            UserNotificationClient userNotificationClient,
+            TransactionStatusJdbcRepository statusRepository,
+            PaymentIntentProcessor paymentIntentProcessor,
+            StripeClient stripeClient,
+            UserClient userClient,
             DataMapper mapper
     ) {
         this.paymentMethodRepository = paymentMethodRepository;
         this.transactionRepository = transactionRepository;
-        this.userNotificationClient = userNotificationClient;
+        this.statusRepository = statusRepository;
+        this.paymentIntentProcessor = paymentIntentProcessor;
+        this.stripeClient = stripeClient;
+        this.userClient = userClient;
         this.mapper = mapper;
     }
 
-    @PostConstruct
-    public void init() {
-        Stripe.apiKey = stripeSecretKey;
-    }
-
     @Override
     @Transactional
     public PaymentMethodResponseDTO registerCard(PaymentCardRequestDTO request) {
         try {
-            System.out.println("Registrando nueva tarjeta para usuario: " + request.userId());
+            log.info("Registrando nueva tarjeta para usuario: {}", request.userId());
 
             // Buscar o crear cliente en Stripe
             String customerId = paymentMethodRepository
@@ -67,14 +91,13 @@ public class PaymentServiceImpl implements PaymentService {
                     .orElseGet(() -> createStripeCustomer(request.name(), request.email()));
 
             // Obtener y vincular metodo de pago en Stripe
-            com.stripe.model.PaymentMethod stripeMethod =
-                    com.stripe.model.PaymentMethod.retrieve(request.paymentMethodId());
+            com.stripe.model.PaymentMethod stripeMethod = stripeClient.v1().paymentMethods().attach(
+                    request.paymentMethodId(),
+                    PaymentMethodAttachParams.builder()
+                            .setCustomer(customerId)
+                            .build());
 
-            stripeMethod.attach(PaymentMethodAttachParams.builder()
-                    .setCustomer(customerId)
-                    .build());
-
-            System.out.println(" Método de pago vinculado a Stripe: " + stripeMethod.getId());
+            log.info("Método de pago vinculado a Stripe: {}", stripeMethod.getId());
 
             // USAR MAPPER para crear la entidad
             PaymentMethod method = mapper.toPaymentMethodEntity(
@@ -87,72 +110,121 @@ public class PaymentServiceImpl implements PaymentService {
             );
 
             paymentMethodRepository.save(method);
-            System.out.println("Método de pago guardado en BD con ID: " + method.getId());
+            log.info("Método de pago guardado en BD con ID: {}", method.getId());
 
             // USAR MAPPER para crear el DTO de respuesta
             return mapper.toPaymentMethodResponseDTO(method);
 
         } catch (StripeException e) {
-            System.err.println("Error Stripe: " + e.getMessage());
+            log.warn("Error Stripe al registrar tarjeta: {}", e.getMessage());
             throw new RuntimeException("Error al registrar tarjeta: " + e.getMessage(), e);
         }
     }
 
+    /**
+     * Registra la recarga como PENDING y la entrega al pipeline asíncrono de Stripe.
+     * Sin @Transactional: la petición no mantiene una conexión abierta durante la llamada a Stripe.
+     * El saldo se acredita cuando el webhook o el barrido confirman el PaymentIntent.
+     */
     @Override
-    @Transactional
     public TransactionResponseDTO rechargeWallet(WalletRechargeRequestDTO request) {
-        Transaction transaction = null;
-
-        try {
-            System.out.println("Procesando recarga de wallet...");
-            System.out.println("   Usuario: " + request.userId());
-            System.out.println("   Monto: $" + request.amount());
+        System.out.println("Procesando recarga de wallet...");
+        System.out.println("   Usuario: " + request.userId());
+        System.out.println("   Monto: $" + request.amount());
 
-            if (request.paymentMethodId() == null || request.paymentMethodId().isBlank()) {
-                throw new RuntimeException("El ID del método de pago es obligatorio");
-            }
+        if (request.paymentMethodId() == null || request.paymentMethodId().isBlank()) {
+            throw new RuntimeException("El ID del método de pago es obligatorio");
+        }
 
-            PaymentMethod paymentMethod = paymentMethodRepository
-                    .findByTokenId(request.paymentMethodId())
-                    .orElseThrow(() -> new RuntimeException(
-                            "Método de pago no encontrado: " + request.paymentMethodId()
-                    ));
+        PaymentMethod paymentMethod = paymentMethodRepository
+                .findByTokenId(request.paymentMethodId())
+                .orElseThrow(() -> new RuntimeException(
+                        "Método de pago no encontrado: " + request.paymentMethodId()
+                ));
 
-            validatePaymentMethod(paymentMethod, request.userId());
+        validatePaymentMethod(paymentMethod, request.userId());
 
-            transaction = mapper.createWalletRechargeTransaction(
-                    request.userId(),
-                    paymentMethod.getId(),
-                    request.amount()
-            );
+        Transaction transaction = transactionRepository.save(mapper.createWalletRechargeTransaction(
+                request.userId(),
+                paymentMethod.getId(),
+                request.amount()
+        ));
+        System.out.println("Transacción registrada con ID: " + transaction.getId());
 
-            transaction = transactionRepository.save(transaction);
-            System.out.println("Transacción registrada con ID: " + transaction.getId());
+        paymentIntentProcessor.submit(transaction.getId());
 
-            PaymentIntent intent = createStripePaymentIntent(
-                    paymentMethod,
-                    request.amount(),
-                    transaction.getId(),
-                    "Recarga de wallet - Usuario: " + request.userId()
-            );
-
-            updateTransactionWithStripeResult(transaction, intent);
+        return mapper.toTransactionResponseDTO(transaction);
+    }
 
-            if ("COMPLETED".equals(transaction.getStatus())) {
-                notifyWalletRecharge(request.userId(), request.amount());
+    /**
+     * Cobro al finalizar un viaje. WALLET se liquida con un único débito atómico en UserService
+     * (sin Stripe); solo CARD llama a Stripe. Es idempotente por tripId: hay una sola fila
+     * TRIP_PAYMENT por viaje (índice único), el débito usa la clave "trip-{tripId}" y el
+     * PaymentIntent "trip-charge-{tripId}", así que un reintento nunca cobra dos veces aunque la
+     * respuesta anterior se haya perdido. Tras un rechazo definitivo de la tarjeta el siguiente
+     * intento usa una clave nueva ("trip-charge-{tripId}-{n}"): con la misma, Stripe repetiría el
+     * rechazo durante 24 h. Un cobro PENDING está en vuelo (o su resultado es incierto) y no se
+     * repite: lo resuelve la petición original o el barrido de conciliación.
+     *
+     * Sin @Transactional: no se mantiene una conexión abierta mientras se espera a otro servicio.
+     */
+    @Override
+    public TripChargeResponseDTO chargeTrip(TripPaymentRequestDTO request) {
+        validateTripCharge(request);
+        String source = "CARD".equalsIgnoreCase(request.paymentSource()) ? "CARD" : "WALLET";
+
+        Optional<Transaction> existing = transactionRepository
+                .findFirstByTripIdAndTypeOrderByIdDesc(request.tripId(), "TRIP_PAYMENT");
+
+        Transaction transaction;
+        if (existing.isPresent()) {
+            transaction = existing.get();
+            if (transaction.getAmount().compareTo(request.amount()) != 0) {
+                throw new IllegalStateException("El viaje " + request.tripId() + " ya tiene un cobro por otro monto");
             }
+            if ("COMPLETED".equals(transaction.getStatus()) || "PROCESSING".equals(transaction.getStatus())) {
+                return mapper.toTripChargeResponseDTO(transaction, "Cobro ya registrado para el viaje");
+            }
+            if ("PENDING".equals(transaction.getStatus())) {
+                return mapper.toTripChargeResponseDTO(transaction, "Cobro en curso para el viaje");
+            }
+            // Reintento de un cobro fallido: las mismas claves aguas abajo evitan el doble cobro
+            if (!statusRepository.transition(transaction.getId(), List.of("FAILED"), "PENDING", null)) {
+                Transaction current = transactionRepository.findById(transaction.getId()).orElse(transaction);
+                return mapper.toTripChargeResponseDTO(current, "Cobro en curso para el viaje");
+            }
+            transaction.setSource(source);
+            transaction.setStatus("PENDING");
+            transaction = transactionRepository.save(transaction);
+        } else {
+            try {
+                transaction = transactionRepository.save(mapper.createTripPaymentTransaction(
+                        request.userId(),
+                        request.tripId(),
+                        source,
+                        request.amount()
+                ));
+            } catch (DataIntegrityViolationException e) {
+                // Otra petición creó el cobro del viaje entre la búsqueda y el insert
+                Transaction current = transactionRepository
+                        .findFirstByTripIdAndTypeOrderByIdDesc(request.tripId(), "TRIP_PAYMENT")
+                        .orElseThrow(() -> e);
+                if (current.getAmount().compareTo(request.amount()) != 0) {
+                    throw new IllegalStateException("El viaje " + request.tripId() + " ya tiene un cobro por otro monto");
+                }
+                return mapper.toTripChargeResponseDTO(current, "Cobro en curso para el viaje");
+            }
+        }
 
-            return mapper.toTransactionResponseDTO(transaction);
-
-        } catch (StripeException e) {
-            System.err.println("Error Stripe: " + e.getMessage());
-            markTransactionAsFailed(transaction);
-            throw new RuntimeException("Error procesando pago: " + e.getMessage(), e);
-        } catch (Exception e) {
-            System.err.println("Error general: " + e.getMessage());
-            markTransactionAsFailed(transaction);
-            throw new RuntimeException("Error procesando recarga: " + e.getMessage(), e);
+        // Viaje sin costo: no hay nada que cobrar (Stripe rechaza montos en cero)
+        if (request.amount().signum() == 0) {
+            moveTo(transaction, "COMPLETED", null);
+            return mapper.toTripChargeResponseDTO(transaction, "Viaje sin costo");
         }
+
+        return "CARD".equals(source)
+                ? chargeTripWithCard(request, transaction)
+                : chargeTripWithWallet(request, transaction);
     }
 
     @Override
@@ -185,6 +257,44 @@ public class PaymentServiceImpl implements PaymentService {
         return transactions;
     }
 
+    @Override
+    public TransactionPageDTO getTransactionsPage(Long userId, String cursor, int limit) {
+        // Se pide una fila extra para saber si hay página siguiente sin un COUNT
+        List<Transaction> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = transactionRepository.findFirstPageByUser(userId, limit + 1);
+        } else {
+            TransactionCursor after = TransactionCursor.decode(cursor);
+            rows = transactionRepository.findPageByUserAfter(userId, after.createdAt(), after.id(), limit + 1);
+        }
+
+        boolean hasMore = rows.size() > limit;
+        List<Transaction> page = hasMore ? rows.subList(0, limit) : rows;
+        String nextCursor = hasMore
+                ? new TransactionCursor(page.get(limit - 1).getCreatedAt(), page.get(limit - 1).getId()).encode()
+                : null;
+
+        return new TransactionPageDTO(
+                page.stream().map(mapper::toTransactionResponseDTO).collect(Collectors.toList()),
+                nextCursor
+        );
+    }
+
+    /**
+     * Recorre todo el historial con un cursor del driver; cada entidad se desprende del
+     * contexto de persistencia apenas se entrega para que el heap no crezca con el historial.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public void forEachTransaction(Long userId, Consumer<TransactionResponseDTO> consumer) {
+        try (Stream<Transaction> transactions = transactionRepository.streamByUserIdOrderByCreatedAtDescIdDesc(userId)) {
+            transactions.forEach(transaction -> {
+                consumer.accept(mapper.toTransactionResponseDTO(transaction));
+                entityManager.detach(transaction);
+            });
+        }
+    }
+
     @Override
     public TransactionDetailDTO getTransactionDetail(Long transactionId) {
         Transaction transaction = transactionRepository.findById(transactionId)
@@ -206,14 +316,135 @@ public class PaymentServiceImpl implements PaymentService {
     // MÉTODOS AUXILIARES (PRIVADOS)
     // ========================================
 
+    private void validateTripCharge(TripPaymentRequestDTO request) {
+        if (request.userId() == null || request.tripId() == null) {
+            throw new IllegalArgumentException("userId y tripId son obligatorios");
+        }
+        if (request.amount() == null || request.amount().signum() < 0) {
+            throw new IllegalArgumentException("El monto del viaje no es válido");
+        }
+    }
+
+    private TripChargeResponseDTO chargeTripWithWallet(TripPaymentRequestDTO request, Transaction transaction) {
+        Optional<WalletDebitResponseDTO> debit;
+        try {
+            debit = userClient.debitWallet(
+                    mapper.toWalletDebitRequestDTO(request.userId(), request.amount(), request.tripId())
+            );
+        } catch (Exception e) {
+            markTransactionAsFailed(transaction);
+            throw new RuntimeException("Error debitando la wallet: " + e.getMessage(), e);
+        }
+
+        if (debit.isEmpty()) {
+            moveTo(transaction, "FAILED", null);
+            log.info("Saldo insuficiente para el viaje {}", request.tripId());
+            return mapper.toTripChargeResponseDTO(transaction, "Saldo insuficiente en la wallet");
+        }
+
+        moveTo(transaction, "COMPLETED", null);
+        log.info("Viaje {} cobrado a la wallet. Saldo: ${}", request.tripId(), debit.get().balance());
+        return mapper.toTripChargeResponseDTO(transaction, "Cobro aplicado a la wallet");
+    }
+
+    private TripChargeResponseDTO chargeTripWithCard(TripPaymentRequestDTO request, Transaction transaction) {
+        PaymentMethod paymentMethod = paymentMethodRepository
+                .findByUserIdAndActiveTrue(request.userId())
+                .stream()
+                .max(Comparator.comparing(PaymentMethod::isDefault))
+                .orElse(null);
+
+        if (paymentMethod == null) {
+            markTransactionAsFailed(transaction);
+            return mapper.toTripChargeResponseDTO(transaction, "El usuario no tiene tarjetas activas");
+        }
+        transaction.setPaymentMethodId(paymentMethod.getId());
+        transaction = transactionRepository.save(transaction);
+
+        try {
+            PaymentIntent intent = createStripePaymentIntent(
+                    paymentMethod,
+                    request.amount(),
+                    transaction.getId(),
+                    "Pago de viaje " + request.tripId() + " - Usuario: " + request.userId(),
+                    RequestOptions.builder().setIdempotencyKey(tripChargeKey(transaction)).build()
+            );
+            return applyTripIntent(transaction, intent);
+        } catch (CardException e) {
+            // Rechazo definitivo: Stripe guardó el resultado con esta clave, el siguiente intento usa otra
+            log.info("Tarjeta rechazada para el viaje {}: {}", request.tripId(), e.getMessage());
+            nextChargeAttempt(transaction);
+            moveTo(transaction, "FAILED", e.getStripeError() != null && e.getStripeError().getPaymentIntent() != null
+                    ? e.getStripeError().getPaymentIntent().getId()
+                    : null);
+            return mapper.toTripChargeResponseDTO(transaction, "La tarjeta fue rechazada");
+        } catch (IdempotencyException | ApiConnectionException | ApiException e) {
+            // Resultado incierto (petición concurrente con la misma clave, timeout, 5xx, límite de tasa): el cobro sigue
+            // PENDING con la misma clave y lo resuelve la petición original o el barrido de conciliación
+            log.warn("Cobro con tarjeta sin confirmar para el viaje {}: {}", request.tripId(), e.getMessage());
+            return mapper.toTripChargeResponseDTO(transaction, "Cobro en curso para el viaje");
+        } catch (StripeException e) {
+            // Stripe rechazó la petición antes de cobrar (parámetros, credenciales): la clave no quedó usada
+            log.error("Stripe rechazó el cobro del viaje {}: {}", request.tripId(), e.getMessage());
+            markTransactionAsFailed(transaction);
+            return mapper.toTripChargeResponseDTO(transaction, "No se pudo cobrar con la tarjeta");
+        } catch (RuntimeException e) {
+            // El cobro pudo aplicarse antes del error local: el barrido lo concilia por metadata
+            log.error("Error registrando el cobro con tarjeta del viaje {}", request.tripId(), e);
+            return mapper.toTripChargeResponseDTO(transaction, "Cobro en curso para el viaje");
+        }
+    }
+
+    /**
+     * Aplica el estado del PaymentIntent del viaje. requires_action/processing dejan el cobro
+     * PROCESSING y lo termina el webhook; un estado de rechazo consume la clave de idempotencia.
+     */
+    private TripChargeResponseDTO applyTripIntent(Transaction transaction, PaymentIntent intent) {
+        switch (intent.getStatus()) {
+            case "succeeded" -> {
+                if (statusRepository.transition(transaction.getId(), SETTLEABLE, "COMPLETED", intent.getId())) {
+                    transaction.setStatus("COMPLETED");
+                    transaction.setStripePaymentId(intent.getId());
+                }
+                return mapper.toTripChargeResponseDTO(transaction, "Cobro aplicado a la tarjeta");
+            }
+            case "requires_action", "processing" -> {
+                moveTo(transaction, "PROCESSING", intent.getId());
+                return mapper.toTripChargeResponseDTO(transaction, "Cobro en proceso con la tarjeta");
+            }
+            default -> {
+                log.info("Cobro del viaje {} no exitoso. Status: {}", transaction.getTripId(), intent.getStatus());
+                nextChargeAttempt(transaction);
+                moveTo(transaction, "FAILED", intent.getId());
+                return mapper.toTripChargeResponseDTO(transaction, "La tarjeta fue rechazada");
+            }
+        }
+    }
+
+    private static String tripChargeKey(Transaction transaction) {
+        int attempt = transaction.getChargeAttempt() != null ? transaction.getChargeAttempt() : 0;
+        return attempt == 0
+                ? "trip-charge-" + transaction.getTripId()
+                : "trip-charge-" + transaction.getTripId() + "-" + attempt;
+    }
+
+    /**
+     * Rechazo definitivo: el próximo reintento del viaje usará una clave de idempotencia nueva.
+     */
+    private void nextChargeAttempt(Transaction transaction) {
+        int attempt = transaction.getChargeAttempt() != null ? transaction.getChargeAttempt() : 0;
+        transaction.setChargeAttempt(attempt + 1);
+        transactionRepository.save(transaction);
+    }
+
     private String createStripeCustomer(String name, String email) {
         try {
             CustomerCreateParams params = CustomerCreateParams.builder()
                     .setName(name)
                     .setEmail(email)
                     .build();
-            Customer customer = Customer.create(params);
-            System.out.println("Cliente Stripe creado: " + customer.getId());
+            Customer customer = stripeClient.v1().customers().create(params);
+            log.info("Cliente Stripe creado: {}", customer.getId());
             return customer.getId();
         } catch (StripeException e) {
             throw new RuntimeException("Error creando cliente en Stripe: " + e.getMessage());
@@ -233,7 +464,8 @@ public class PaymentServiceImpl implements PaymentService {
             PaymentMethod paymentMethod,
             BigDecimal amount,
             Long transactionId,
-            String description
+            String description,
+            RequestOptions options
     ) throws StripeException {
         long amountInCents = amount.multiply(BigDecimal.valueOf(100)).longValue();
 
@@ -248,52 +480,37 @@ public class PaymentServiceImpl implements PaymentService {
                 .putMetadata("transactionId", transactionId.toString())
                 .build();
 
-        PaymentIntent intent = PaymentIntent.create(params);
-        System.out.println("PaymentIntent creado: " + intent.getId() + " - Status: " + intent.getStatus());
+        PaymentIntent intent = stripeClient.v1().paymentIntents().create(params, options);
+        log.info("PaymentIntent creado: {} - Status: {}", intent.getId(), intent.getStatus());
 
         return intent;
     }
 
-    private void updateTransactionWithStripeResult(Transaction transaction, PaymentIntent intent) {
-        transaction.setStripePaymentId(intent.getId());
-
-        switch (intent.getStatus()) {
-            case "succeeded" -> {
-                transaction.setStatus("COMPLETED");
-                System.out.println("Pago completado exitosamente");
-            }
-            case "requires_action", "processing" -> {
-                transaction.setStatus("PROCESSING");
-                System.out.println("Pago en proceso");
-            }
-            default -> {
-                transaction.setStatus("FAILED");
-                System.err.println("Pago fallido con status: " + intent.getStatus());
-                throw new RuntimeException("El pago no fue exitoso. Status: " + intent.getStatus());
-            }
-        }
-
-        transactionRepository.save(transaction);
-    }
-
     private void markTransactionAsFailed(Transaction transaction) {
-        if (transaction != null) {
-            transaction.setStatus("FAILED");
-            transactionRepository.save(transaction);
+        if (transaction != null && moveTo(transaction, "FAILED", null)) {
             System.out.println("Transacción marcada como FAILED");
         }
     }
 
-    private void notifyWalletRecharge(Long userId, BigDecimal amount) {
-        try {
-            // USAR MAPPER para crear notificación
-            WalletNotificationDTO notification = mapper.toWalletNotificationDTO(userId, amount);
-            userNotificationClient.notifyWalletRecharge(notification);
-            System.out.println("Notificación enviada al UserService");
-        } catch (Exception e) {
-            System.err.println("Error notificando (el pago SÍ se completó): " + e.getMessage());
+    /**
+     * Cambio de estado condicional; también mantiene el rollup de estadísticas del usuario.
+     */
+    private boolean moveTo(Transaction transaction, String next, String paymentIntentId) {
+        if (!statusRepository.transition(transaction.getId(), OPEN, next, paymentIntentId)) {
+            return false;
+        }
+        transaction.setStatus(next);
+        if (paymentIntentId != null) {
+            transaction.setStripePaymentId(paymentIntentId);
         }
+        return true;
+    }
+
+    @Override
+    public TransactionStatsDTO getTransactionStats(Long userId) {
+        return mapper.toTransactionStatsDTO(statusRepository.findStatsByUser(userId));
     }
+
     @Override
     public List<TransactionResponseDTO> getTransactionsByUserAndStatus(Long userId, String status) {
         return transactionRepository
@@ -8,6 +8,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
@@ -25,6 +26,8 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(PaymentController.class)
+// SecurityConfig no entra en el slice de @WebMvcTest; sin filtros el controlador se prueba solo
+@AutoConfigureMockMvc(addFilters = false)
 @DisplayName("PaymentController Integration Tests")
 class PaymentControllerTest {
 
@@ -70,7 +73,7 @@ class PaymentControllerTest {
                 new BigDecimal("25.00"),
                 "TOP_UP",
                 "CARD",
-                "COMPLETED",
+                "PENDING",
                 "pi_test",
                 LocalDateTime.now()
         );
@@ -121,9 +124,9 @@ class PaymentControllerTest {
         mockMvc.perform(post("/api/payments/wallet/recharge")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(rechargeRequest)))
-                .andExpect(status().isOk())
-                .andExpect(jsonPath("$.message").value("Recarga procesada correctamente"))
-                .andExpect(jsonPath("$.transaction.status").value("COMPLETED"))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.message").value("Recarga en proceso"))
+                .andExpect(jsonPath("$.transaction.status").value("PENDING"))
                 .andExpect(jsonPath("$.transaction.amount").value(25.00));
 
         verify(paymentService).rechargeWallet(any());
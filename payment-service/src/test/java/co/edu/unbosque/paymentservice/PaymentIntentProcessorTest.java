@@ -0,0 +1,313 @@
+package co.edu.unbosque.paymentservice;
+
+import co.edu.unbosque.paymentservice.client.UserNotificationClient;
+import co.edu.unbosque.paymentservice.dto.WalletNotificationDTO;
+import co.edu.unbosque.paymentservice.mapper.DataMapper;
+import co.edu.unbosque.paymentservice.model.PaymentMethod;
+import co.edu.unbosque.paymentservice.model.Transaction;
+import co.edu.unbosque.paymentservice.processing.PaymentIntentProcessor;
+import co.edu.unbosque.paymentservice.repository.PaymentMethodRepository;
+import co.edu.unbosque.paymentservice.repository.TransactionRepository;
+import co.edu.unbosque.paymentservice.repository.TransactionStatusJdbcRepository;
+import com.stripe.Stripe;
+import com.stripe.StripeClient;
+import com.stripe.model.Event;
+import com.stripe.net.Webhook;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Pipeline asíncrono contra un stub HTTP local de Stripe: el StripeClient real apunta a
+ * stripe.api.base, así que no se necesita red ni una cuenta de Stripe.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("PaymentIntentProcessor Tests")
+class PaymentIntentProcessorTest {
+
+    private static final String WEBHOOK_SECRET = "whsec_test";
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @Mock
+    private TransactionStatusJdbcRepository statusRepository;
+
+    @Mock
+    private PaymentMethodRepository paymentMethodRepository;
+
+    @Mock
+    private UserNotificationClient userNotificationClient;
+
+    private HttpServer stripeStub;
+    private final AtomicInteger stubStatus = new AtomicInteger(200);
+    private final AtomicReference<String> stubBody = new AtomicReference<>();
+    private final AtomicReference<String> searchBody = new AtomicReference<>("{\"object\": \"search_result\", \"data\": []}");
+    private final AtomicReference<String> idempotencyKey = new AtomicReference<>();
+    private final List<String> requests = new CopyOnWriteArrayList<>();
+
+    private StripeClient stripeClient;
+    private PaymentIntentProcessor processor;
+    private Transaction transaction;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        stripeStub = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        stripeStub.createContext("/v1/payment_intents", exchange -> {
+            boolean search = exchange.getRequestURI().getPath().endsWith("/search");
+            requests.add(exchange.getRequestMethod() + " " + exchange.getRequestURI().getPath());
+            if (!search) {
+                idempotencyKey.set(exchange.getRequestHeaders().getFirst("Idempotency-Key"));
+            }
+            byte[] body = (search ? searchBody.get() : stubBody.get()).getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(stubStatus.get(), body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        stripeStub.start();
+
+        stripeClient = StripeClient.builder()
+                .setApiKey("sk_test_stub")
+                .setApiBase("http://127.0.0.1:" + stripeStub.getAddress().getPort())
+                .setMaxNetworkRetries(0)
+                .build();
+
+        processor = new PaymentIntentProcessor(
+                stripeClient,
+                new TaskExecutorAdapter(Runnable::run),
+                transactionRepository,
+                statusRepository,
+                paymentMethodRepository,
+                userNotificationClient,
+                new DataMapper(),
+                new SimpleMeterRegistry()
+        );
+
+        transaction = new Transaction();
+        transaction.setId(15L);
+        transaction.setUserId(7L);
+        transaction.setPaymentMethodId(1L);
+        transaction.setAmount(new BigDecimal("25.00"));
+        transaction.setType("TOP_UP");
+        transaction.setSource("CARD");
+        transaction.setStatus("PENDING");
+    }
+
+    @AfterEach
+    void tearDown() {
+        stripeStub.stop(0);
+    }
+
+    private PaymentMethod paymentMethod() {
+        PaymentMethod method = new PaymentMethod();
+        method.setId(1L);
+        method.setUserId(7L);
+        method.setTokenId("pm_test_token");
+        method.setStripeCustomerId("cus_test");
+        method.setActive(true);
+        return method;
+    }
+
+    private static String paymentIntentJson(String status) {
+        return """
+                {"id": "pi_123", "object": "payment_intent", "status": "%s", "metadata": {"transactionId": "15"}}
+                """.formatted(status);
+    }
+
+    @Test
+    @DisplayName("Should complete the transaction and credit the wallet once when Stripe succeeds")
+    void testProcessSucceeded() {
+        // Arrange
+        stubBody.set(paymentIntentJson("succeeded"));
+        when(transactionRepository.findById(15L)).thenReturn(Optional.of(transaction));
+        when(paymentMethodRepository.findById(1L)).thenReturn(Optional.of(paymentMethod()));
+        when(statusRepository.transition(eq(15L), anyCollection(), eq("COMPLETED"), eq("pi_123"))).thenReturn(true);
+        when(userNotificationClient.notifyWalletRecharge(any())).thenReturn(true);
+
+        // Act
+        processor.submit(15L);
+
+        // Assert
+        assertEquals("txn-15", idempotencyKey.get());
+        assertEquals(List.of("POST /v1/payment_intents"), requests);
+        verify(userNotificationClient).notifyWalletRecharge(
+                new WalletNotificationDTO(7L, new BigDecimal("25.00"), "wallet-recharge-15"));
+        verify(statusRepository).markWalletCredited(15L);
+    }
+
+    @Test
+    @DisplayName("Should keep the wallet credit pending when user-service fails and mark it once a retry succeeds")
+    void testWalletCreditRetriedUntilConfirmed() {
+        // Arrange
+        stubBody.set(paymentIntentJson("succeeded"));
+        when(transactionRepository.findById(15L)).thenReturn(Optional.of(transaction));
+        when(paymentMethodRepository.findById(1L)).thenReturn(Optional.of(paymentMethod()));
+        when(statusRepository.transition(eq(15L), anyCollection(), eq("COMPLETED"), eq("pi_123"))).thenReturn(true);
+        when(userNotificationClient.notifyWalletRecharge(any())).thenReturn(false).thenReturn(true);
+
+        // Act
+        processor.process(15L);
+
+        // Assert
+        verify(statusRepository, never()).markWalletCredited(any());
+
+        // Act: el barrido reintenta el abono
+        transaction.setStatus("COMPLETED");
+        processor.creditWallet(transaction);
+
+        // Assert
+        verify(userNotificationClient, times(2)).notifyWalletRecharge(
+                new WalletNotificationDTO(7L, new BigDecimal("25.00"), "wallet-recharge-15"));
+        verify(statusRepository, times(1)).markWalletCredited(15L);
+    }
+
+    @Test
+    @DisplayName("Should apply an existing PaymentIntent found by metadata instead of creating a new one on retry")
+    void testRetryUsesExistingIntent() {
+        // Arrange
+        searchBody.set("{\"object\": \"search_result\", \"data\": [" + paymentIntentJson("succeeded") + "]}");
+        when(transactionRepository.findById(15L)).thenReturn(Optional.of(transaction));
+        when(statusRepository.transition(eq(15L), anyCollection(), eq("COMPLETED"), eq("pi_123"))).thenReturn(true);
+        when(userNotificationClient.notifyWalletRecharge(any())).thenReturn(true);
+
+        // Act
+        processor.retry(15L);
+
+        // Assert
+        assertEquals(List.of("GET /v1/payment_intents/search"), requests);
+        verifyNoInteractions(paymentMethodRepository);
+        verify(statusRepository).markWalletCredited(15L);
+    }
+
+    @Test
+    @DisplayName("Should create the PaymentIntent with the same key on retry when Stripe has none")
+    void testRetryCreatesWhenNoneExists() {
+        // Arrange
+        stubBody.set(paymentIntentJson("processing"));
+        when(transactionRepository.findById(15L)).thenReturn(Optional.of(transaction));
+        when(paymentMethodRepository.findById(1L)).thenReturn(Optional.of(paymentMethod()));
+
+        // Act
+        processor.retry(15L);
+
+        // Assert
+        assertEquals(List.of("GET /v1/payment_intents/search", "POST /v1/payment_intents"), requests);
+        assertEquals("txn-15", idempotencyKey.get());
+        verify(statusRepository).transition(15L, List.of("PENDING"), "PROCESSING", "pi_123");
+    }
+
+    @Test
+    @DisplayName("Should fail a PENDING transaction past the idempotency window without creating an intent")
+    void testExpireWithoutIntent() {
+        // Act
+        processor.expire(transaction);
+
+        // Assert
+        assertEquals(List.of("GET /v1/payment_intents/search"), requests);
+        verify(statusRepository).transition(15L, List.of("PENDING", "PROCESSING"), "FAILED", null);
+    }
+
+    @Test
+    @DisplayName("Should settle a stuck card trip charge from the intent found in Stripe without creating one")
+    void testSettleTripChargeUsesExistingIntent() {
+        // Arrange
+        transaction.setType("TRIP_PAYMENT");
+        transaction.setTripId(9L);
+        searchBody.set("{\"object\": \"search_result\", \"data\": [" + paymentIntentJson("succeeded") + "]}");
+        when(statusRepository.transition(eq(15L), anyCollection(), eq("COMPLETED"), eq("pi_123"))).thenReturn(true);
+        when(transactionRepository.findById(15L)).thenReturn(Optional.of(transaction));
+
+        // Act
+        processor.settleTripCharge(transaction);
+
+        // Assert
+        assertEquals(List.of("GET /v1/payment_intents/search"), requests);
+        verifyNoInteractions(userNotificationClient);
+    }
+
+    @Test
+    @DisplayName("Should fail a stuck trip charge with no intent so the trip retry repeats it with the same key")
+    void testSettleTripChargeWithoutIntent() {
+        // Arrange
+        transaction.setType("TRIP_PAYMENT");
+        transaction.setTripId(9L);
+
+        // Act
+        processor.settleTripCharge(transaction);
+        transaction.setSource("WALLET");
+        processor.settleTripCharge(transaction);
+
+        // Assert: la wallet no consulta Stripe
+        assertEquals(List.of("GET /v1/payment_intents/search"), requests);
+        verify(statusRepository, times(2)).transition(15L, List.of("PENDING", "PROCESSING"), "FAILED", null);
+    }
+
+    @Test
+    @DisplayName("Should leave the transaction PENDING when Stripe is unavailable")
+    void testProcessStripeUnavailable() {
+        // Arrange
+        stubStatus.set(500);
+        stubBody.set("""
+                {"error": {"type": "api_error", "message": "stub caído"}}
+                """);
+        when(transactionRepository.findById(15L)).thenReturn(Optional.of(transaction));
+        when(paymentMethodRepository.findById(1L)).thenReturn(Optional.of(paymentMethod()));
+
+        // Act
+        processor.process(15L);
+
+        // Assert
+        verify(statusRepository, never()).transition(any(), anyCollection(), any(), any());
+        verifyNoInteractions(userNotificationClient);
+    }
+
+    @Test
+    @DisplayName("Should apply a signed webhook event only the first time")
+    void testWebhookEventIsIdempotent() throws Exception {
+        // Arrange
+        String payload = """
+                {"id": "evt_1", "object": "event", "api_version": "%s", "type": "payment_intent.succeeded",
+                 "data": {"object": %s}}
+                """.formatted(Stripe.API_VERSION, paymentIntentJson("succeeded"));
+        long timestamp = Webhook.Util.getTimeNow();
+        String signature = "t=" + timestamp + ",v1="
+                + Webhook.Util.computeHmacSha256(WEBHOOK_SECRET, timestamp + "." + payload);
+        Event event = stripeClient.constructEvent(payload, signature, WEBHOOK_SECRET);
+
+        when(statusRepository.transition(eq(15L), anyCollection(), eq("COMPLETED"), eq("pi_123")))
+                .thenReturn(true)
+                .thenReturn(false);
+        when(transactionRepository.findById(15L)).thenReturn(Optional.of(transaction));
+        when(userNotificationClient.notifyWalletRecharge(any())).thenReturn(true);
+
+        // Act
+        assertTrue(processor.handleEvent(event));
+        assertTrue(processor.handleEvent(event));
+
+        // Assert
+        verify(userNotificationClient, times(1)).notifyWalletRecharge(any());
+        verify(statusRepository, times(2))
+                .transition(eq(15L), eq(List.of("PENDING", "PROCESSING")), eq("COMPLETED"), eq("pi_123"));
+    }
+}
@@ -0,0 +1,104 @@
+package co.edu.unbosque.paymentservice;
+
+import co.edu.unbosque.paymentservice.model.Transaction;
+import co.edu.unbosque.paymentservice.processing.PaymentIntentProcessor;
+import co.edu.unbosque.paymentservice.processing.PaymentReconciliationSweeper;
+import co.edu.unbosque.paymentservice.repository.TransactionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("PaymentReconciliationSweeper Tests")
+class PaymentReconciliationSweeperTest {
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @Mock
+    private PaymentIntentProcessor processor;
+
+    private PaymentReconciliationSweeper sweeper;
+
+    @BeforeEach
+    void setUp() {
+        sweeper = new PaymentReconciliationSweeper(transactionRepository, processor);
+        ReflectionTestUtils.setField(sweeper, "pendingGraceSeconds", 60L);
+        ReflectionTestUtils.setField(sweeper, "processingGraceSeconds", 300L);
+        ReflectionTestUtils.setField(sweeper, "pendingMaxAgeHours", 23L);
+        ReflectionTestUtils.setField(sweeper, "tripPendingGraceSeconds", 300L);
+    }
+
+    private static Transaction transaction(long id) {
+        Transaction transaction = new Transaction();
+        transaction.setId(id);
+        return transaction;
+    }
+
+    @Test
+    @DisplayName("Should requeue recent PENDING top-ups, expire old ones and retry pending wallet credits")
+    void testSweepRoutesByAge() {
+        // Arrange
+        Transaction recent = transaction(1L);
+        Transaction old = transaction(2L);
+        Transaction uncredited = transaction(3L);
+        when(transactionRepository.findTop100ByTypeAndStatusAndCreatedAtBetweenOrderByIdAsc(
+                eq("TOP_UP"), eq("PENDING"), any(), any())).thenReturn(List.of(recent));
+        when(transactionRepository.findTop100ByTypeAndStatusAndCreatedAtBeforeOrderByIdAsc(
+                eq("TOP_UP"), eq("PENDING"), any())).thenReturn(List.of(old));
+        when(transactionRepository.findTop100ByWalletCreditPendingTrueAndCreatedAtBeforeOrderByIdAsc(any()))
+                .thenReturn(List.of(uncredited));
+        when(transactionRepository.findTop100ByTypeAndStatusAndCreatedAtBeforeOrderByIdAsc(
+                eq("TRIP_PAYMENT"), eq("PENDING"), any())).thenReturn(List.of());
+
+        // Act
+        sweeper.sweep();
+
+        // Assert
+        verify(processor).resubmit(1L);
+        verify(processor).expire(old);
+        verify(processor).creditWallet(uncredited);
+        verify(processor, never()).submit(any());
+
+        ArgumentCaptor<LocalDateTime> from = ArgumentCaptor.forClass(LocalDateTime.class);
+        ArgumentCaptor<LocalDateTime> expiredBefore = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(transactionRepository).findTop100ByTypeAndStatusAndCreatedAtBetweenOrderByIdAsc(
+                eq("TOP_UP"), eq("PENDING"), from.capture(), any());
+        verify(transactionRepository).findTop100ByTypeAndStatusAndCreatedAtBeforeOrderByIdAsc(
+                eq("TOP_UP"), eq("PENDING"), expiredBefore.capture());
+        assertEquals(from.getValue(), expiredBefore.getValue());
+        assertTrue(Duration.between(from.getValue(), LocalDateTime.now()).toHours() < 24);
+    }
+
+    @Test
+    @DisplayName("Should settle trip charges left PENDING only after the in-flight grace period")
+    void testSweepSettlesStuckTripCharges() {
+        // Arrange
+        Transaction stuck = transaction(4L);
+        when(transactionRepository.findTop100ByTypeAndStatusAndCreatedAtBeforeOrderByIdAsc(anyString(), eq("PENDING"), any()))
+                .thenAnswer(invocation -> "TRIP_PAYMENT".equals(invocation.getArgument(0)) ? List.of(stuck) : List.of());
+
+        // Act
+        sweeper.sweep();
+
+        // Assert
+        verify(processor).settleTripCharge(stuck);
+        ArgumentCaptor<LocalDateTime> before = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(transactionRepository).findTop100ByTypeAndStatusAndCreatedAtBeforeOrderByIdAsc(
+                eq("TRIP_PAYMENT"), eq("PENDING"), before.capture());
+        assertTrue(Duration.between(before.getValue(), LocalDateTime.now()).getSeconds() >= 300);
+    }
+}
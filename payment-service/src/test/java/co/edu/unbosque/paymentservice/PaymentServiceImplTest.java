@@ -1,13 +1,18 @@
 package co.edu.unbosque.paymentservice;
 
-import co.edu.unbosque.paymentservice.client.UserNotificationClient;
+import co.edu.unbosque.paymentservice.client.UserClient;
 import co.edu.unbosque.paymentservice.dto.*;
 import co.edu.unbosque.paymentservice.mapper.DataMapper;
 import co.edu.unbosque.paymentservice.model.PaymentMethod;
 import co.edu.unbosque.paymentservice.model.Transaction;
+import co.edu.unbosque.paymentservice.processing.PaymentIntentProcessor;
 import co.edu.unbosque.paymentservice.repository.PaymentMethodRepository;
 import co.edu.unbosque.paymentservice.repository.TransactionRepository;
+import co.edu.unbosque.paymentservice.repository.TransactionStatusJdbcRepository;
+import co.edu.unbosque.paymentservice.repository.TransactionStatusJdbcRepository.StatsRow;
 import co.edu.unbosque.paymentservice.service.impl.PaymentServiceImpl;
+import com.stripe.StripeClient;
+import com.sun.net.httpserver.HttpServer;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -15,12 +20,16 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.dao.DataIntegrityViolationException;
 
 import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -37,7 +46,13 @@ class PaymentServiceImplTest {
     private TransactionRepository transactionRepository;
 
     @Mock
-    private UserNotificationClient userNotificationClient;
+    private TransactionStatusJdbcRepository statusRepository;
+
+    @Mock
+    private PaymentIntentProcessor paymentIntentProcessor;
+
+    @Mock
+    private UserClient userClient;
 
     @Mock
     private DataMapper mapper;
@@ -52,8 +67,6 @@ class PaymentServiceImplTest {
 
     @BeforeEach
     void setUp() {
-        ReflectionTestUtils.setField(paymentService, "stripeSecretKey", "sk_test_dummy");
-
         cardRequest = new PaymentCardRequestDTO(
                 1L,
                 "Sebastian Carroz",
@@ -307,4 +320,365 @@ class PaymentServiceImplTest {
                 paymentService.rechargeWallet(invalidRequest)
         );
     }
-}
\ No newline at end of file
+
+    // ========================================
+    // COBRO DE VIAJES
+    // ========================================
+
+    private Transaction tripTransaction(String status) {
+        Transaction trip = new Transaction();
+        trip.setId(42L);
+        trip.setUserId(1L);
+        trip.setTripId(7L);
+        trip.setAmount(new BigDecimal("4500"));
+        trip.setType("TRIP_PAYMENT");
+        trip.setSource("WALLET");
+        trip.setStatus(status);
+        return trip;
+    }
+
+    @Test
+    @DisplayName("Should charge wallet trips without calling Stripe")
+    void testChargeTripWithWallet() {
+        // Arrange
+        TripPaymentRequestDTO request = new TripPaymentRequestDTO(1L, 7L, new BigDecimal("4500"), "WALLET");
+        Transaction pending = tripTransaction("PENDING");
+        WalletDebitRequestDTO debit = new WalletDebitRequestDTO(1L, new BigDecimal("4500"), "trip-7", "TRIP:7");
+
+        when(transactionRepository.findFirstByTripIdAndTypeOrderByIdDesc(7L, "TRIP_PAYMENT")).thenReturn(Optional.empty());
+        when(mapper.createTripPaymentTransaction(1L, 7L, "WALLET", new BigDecimal("4500"))).thenReturn(pending);
+        when(transactionRepository.save(any(Transaction.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(mapper.toWalletDebitRequestDTO(1L, new BigDecimal("4500"), 7L)).thenReturn(debit);
+        when(statusRepository.transition(eq(42L), anyCollection(), eq("COMPLETED"), isNull())).thenReturn(true);
+        when(userClient.debitWallet(debit)).thenReturn(Optional.of(
+                new WalletDebitResponseDTO(10L, 1L, new BigDecimal("4500"), new BigDecimal("500"), false)));
+        when(mapper.toTripChargeResponseDTO(any(Transaction.class), anyString())).thenAnswer(invocation -> {
+            Transaction t = invocation.getArgument(0);
+            return new TripChargeResponseDTO(t.getId().toString(), t.getStatus(), invocation.getArgument(1), t.getSource());
+        });
+
+        // Act
+        TripChargeResponseDTO result = paymentService.chargeTrip(request);
+
+        // Assert
+        assertEquals("COMPLETED", result.status());
+        assertEquals("WALLET", result.source());
+        verify(paymentMethodRepository, never()).findByUserIdAndActiveTrue(any());
+    }
+
+    @Test
+    @DisplayName("Should mark trip charge as FAILED when wallet balance is insufficient")
+    void testChargeTripWithWalletInsufficientFunds() {
+        // Arrange
+        TripPaymentRequestDTO request = new TripPaymentRequestDTO(1L, 7L, new BigDecimal("4500"), "WALLET");
+        Transaction pending = tripTransaction("PENDING");
+
+        when(transactionRepository.findFirstByTripIdAndTypeOrderByIdDesc(7L, "TRIP_PAYMENT")).thenReturn(Optional.empty());
+        when(mapper.createTripPaymentTransaction(any(), any(), any(), any())).thenReturn(pending);
+        when(transactionRepository.save(any(Transaction.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(userClient.debitWallet(any())).thenReturn(Optional.empty());
+        when(statusRepository.transition(eq(42L), anyCollection(), eq("FAILED"), isNull())).thenReturn(true);
+        when(mapper.toTripChargeResponseDTO(any(Transaction.class), anyString())).thenAnswer(invocation -> {
+            Transaction t = invocation.getArgument(0);
+            return new TripChargeResponseDTO(t.getId().toString(), t.getStatus(), invocation.getArgument(1), t.getSource());
+        });
+
+        // Act
+        TripChargeResponseDTO result = paymentService.chargeTrip(request);
+
+        // Assert
+        assertEquals("FAILED", result.status());
+    }
+
+    @Test
+    @DisplayName("Should return the existing charge when the trip was already paid")
+    void testChargeTripIsIdempotent() {
+        // Arrange
+        TripPaymentRequestDTO request = new TripPaymentRequestDTO(1L, 7L, new BigDecimal("4500"), "WALLET");
+        Transaction completed = tripTransaction("COMPLETED");
+        TripChargeResponseDTO expected = new TripChargeResponseDTO("42", "COMPLETED", "Cobro ya registrado para el viaje", "WALLET");
+
+        when(transactionRepository.findFirstByTripIdAndTypeOrderByIdDesc(7L, "TRIP_PAYMENT")).thenReturn(Optional.of(completed));
+        when(mapper.toTripChargeResponseDTO(completed, "Cobro ya registrado para el viaje")).thenReturn(expected);
+
+        // Act
+        TripChargeResponseDTO result = paymentService.chargeTrip(request);
+
+        // Assert
+        assertEquals(expected, result);
+        verify(userClient, never()).debitWallet(any());
+        verify(transactionRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("Should reject a second charge for the same trip with a different amount")
+    void testChargeTripDifferentAmount() {
+        // Arrange
+        TripPaymentRequestDTO request = new TripPaymentRequestDTO(1L, 7L, new BigDecimal("9000"), "WALLET");
+        when(transactionRepository.findFirstByTripIdAndTypeOrderByIdDesc(7L, "TRIP_PAYMENT"))
+                .thenReturn(Optional.of(tripTransaction("COMPLETED")));
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> paymentService.chargeTrip(request));
+    }
+
+    @Test
+    @DisplayName("Should return the concurrent charge when the insert hits the unique trip index")
+    void testChargeTripConcurrentInsert() {
+        // Arrange
+        TripPaymentRequestDTO request = new TripPaymentRequestDTO(1L, 7L, new BigDecimal("4500"), "WALLET");
+        Transaction concurrent = tripTransaction("PENDING");
+
+        when(transactionRepository.findFirstByTripIdAndTypeOrderByIdDesc(7L, "TRIP_PAYMENT"))
+                .thenReturn(Optional.empty())
+                .thenReturn(Optional.of(concurrent));
+        when(mapper.createTripPaymentTransaction(any(), any(), any(), any())).thenReturn(tripTransaction("PENDING"));
+        when(transactionRepository.save(any(Transaction.class)))
+                .thenThrow(new DataIntegrityViolationException("uk_transaction_trip_type"));
+        when(mapper.toTripChargeResponseDTO(concurrent, "Cobro en curso para el viaje"))
+                .thenReturn(new TripChargeResponseDTO("42", "PENDING", "Cobro en curso para el viaje", "WALLET"));
+
+        // Act
+        TripChargeResponseDTO result = paymentService.chargeTrip(request);
+
+        // Assert
+        assertEquals("PENDING", result.status());
+        verify(userClient, never()).debitWallet(any());
+    }
+
+    @Test
+    @DisplayName("Should use a new Stripe idempotency key when retrying a declined card charge")
+    void testCardRetryAfterDeclineUsesNewKey() throws Exception {
+        List<String> keys = new CopyOnWriteArrayList<>();
+        HttpServer stripeStub = stripeStub(402, """
+                {"error": {"type": "card_error", "code": "card_declined", "message": "declined"}}
+                """, keys);
+        try {
+            PaymentServiceImpl service = cardService(stripeStub);
+            Transaction trip = stubCardTrip();
+
+            TripChargeResponseDTO first = service.chargeTrip(cardTripRequest());
+            TripChargeResponseDTO second = service.chargeTrip(cardTripRequest());
+
+            assertEquals("FAILED", first.status());
+            assertEquals("La tarjeta fue rechazada", first.message());
+            assertEquals("FAILED", second.status());
+            assertEquals(List.of("trip-charge-7", "trip-charge-7-1"), keys);
+            assertEquals(2, trip.getChargeAttempt());
+            verify(statusRepository).transition(42L, List.of("FAILED"), "PENDING", null);
+        } finally {
+            stripeStub.stop(0);
+        }
+    }
+
+    @Test
+    @DisplayName("Should leave an ambiguous card charge PENDING and not charge again while it is in flight")
+    void testAmbiguousCardChargeStaysPending() throws Exception {
+        List<String> keys = new CopyOnWriteArrayList<>();
+        HttpServer stripeStub = stripeStub(500, """
+                {"error": {"type": "api_error", "message": "stub caído"}}
+                """, keys);
+        try {
+            PaymentServiceImpl service = cardService(stripeStub);
+            Transaction trip = stubCardTrip();
+
+            // Act: el primer intento no obtiene respuesta definitiva y trip-service reintenta
+            TripChargeResponseDTO first = service.chargeTrip(cardTripRequest());
+            TripChargeResponseDTO retry = service.chargeTrip(cardTripRequest());
+
+            // Assert
+            assertEquals("PENDING", first.status());
+            assertEquals("Cobro en curso para el viaje", retry.message());
+            assertEquals(List.of("trip-charge-7"), keys);
+            assertNull(trip.getChargeAttempt());
+            verify(statusRepository, never()).transition(anyLong(), anyCollection(), eq("FAILED"), any());
+
+            // Act: el barrido no encontró el cobro en Stripe y lo dejó FAILED; el reintento conserva la clave
+            trip.setStatus("FAILED");
+            service.chargeTrip(cardTripRequest());
+
+            assertEquals(List.of("trip-charge-7", "trip-charge-7"), keys);
+        } finally {
+            stripeStub.stop(0);
+        }
+    }
+
+    @Test
+    @DisplayName("Should treat a concurrent request with the same idempotency key as a charge in flight")
+    void testIdempotencyConflictIsNotADecline() throws Exception {
+        List<String> keys = new CopyOnWriteArrayList<>();
+        HttpServer stripeStub = stripeStub(409, """
+                {"error": {"type": "idempotency_error", "message": "There is currently another in-progress request using this Idempotent Key"}}
+                """, keys);
+        try {
+            PaymentServiceImpl service = cardService(stripeStub);
+            Transaction trip = stubCardTrip();
+
+            TripChargeResponseDTO result = service.chargeTrip(cardTripRequest());
+
+            assertEquals("PENDING", result.status());
+            assertEquals("Cobro en curso para el viaje", result.message());
+            assertNull(trip.getChargeAttempt());
+            verify(statusRepository, never()).transition(anyLong(), anyCollection(), eq("FAILED"), any());
+        } finally {
+            stripeStub.stop(0);
+        }
+    }
+
+    @Test
+    @DisplayName("Should complete a zero-amount card trip without calling Stripe")
+    void testZeroAmountCardTrip() {
+        // Arrange
+        TripPaymentRequestDTO request = new TripPaymentRequestDTO(1L, 7L, BigDecimal.ZERO, "CARD");
+        Transaction trip = tripTransaction("PENDING");
+        trip.setAmount(BigDecimal.ZERO);
+        when(transactionRepository.findFirstByTripIdAndTypeOrderByIdDesc(7L, "TRIP_PAYMENT")).thenReturn(Optional.empty());
+        when(mapper.createTripPaymentTransaction(1L, 7L, "CARD", BigDecimal.ZERO)).thenReturn(trip);
+        when(transactionRepository.save(any(Transaction.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(statusRepository.transition(eq(42L), anyCollection(), eq("COMPLETED"), isNull())).thenReturn(true);
+        stubTripChargeResponse();
+
+        // Act
+        TripChargeResponseDTO result = paymentService.chargeTrip(request);
+
+        // Assert
+        assertEquals("COMPLETED", result.status());
+        assertEquals("Viaje sin costo", result.message());
+        verify(paymentMethodRepository, never()).findByUserIdAndActiveTrue(any());
+    }
+
+    private static TripPaymentRequestDTO cardTripRequest() {
+        return new TripPaymentRequestDTO(1L, 7L, new BigDecimal("4500"), "CARD");
+    }
+
+    private void stubTripChargeResponse() {
+        when(mapper.toTripChargeResponseDTO(any(Transaction.class), anyString())).thenAnswer(invocation -> {
+            Transaction t = invocation.getArgument(0);
+            return new TripChargeResponseDTO(t.getId().toString(), t.getStatus(), invocation.getArgument(1), t.getSource());
+        });
+    }
+
+    /**
+     * Cobro de viaje con tarjeta cuya fila TRIP_PAYMENT vive en memoria; las transiciones la modifican.
+     */
+    private Transaction stubCardTrip() {
+        Transaction trip = tripTransaction("PENDING");
+        trip.setSource("CARD");
+        when(transactionRepository.findFirstByTripIdAndTypeOrderByIdDesc(7L, "TRIP_PAYMENT"))
+                .thenReturn(Optional.empty())
+                .thenAnswer(invocation -> Optional.of(trip));
+        when(mapper.createTripPaymentTransaction(1L, 7L, "CARD", new BigDecimal("4500"))).thenReturn(trip);
+        when(transactionRepository.save(any(Transaction.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        lenient().when(paymentMethodRepository.findByUserIdAndActiveTrue(1L)).thenReturn(List.of(paymentMethod));
+        lenient().when(statusRepository.transition(eq(42L), anyCollection(), anyString(), any())).thenAnswer(invocation -> {
+            java.util.Collection<String> from = invocation.getArgument(1);
+            if (!from.contains(trip.getStatus())) {
+                return false;
+            }
+            trip.setStatus(invocation.getArgument(2));
+            return true;
+        });
+        stubTripChargeResponse();
+        return trip;
+    }
+
+    /**
+     * Stub de Stripe que responde siempre el mismo error y registra las claves de idempotencia recibidas.
+     */
+    private static HttpServer stripeStub(int status, String errorBody, List<String> keys) throws Exception {
+        HttpServer stripeStub = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        stripeStub.createContext("/v1/payment_intents", exchange -> {
+            keys.add(exchange.getRequestHeaders().getFirst("Idempotency-Key"));
+            byte[] body = errorBody.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(status, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        stripeStub.start();
+        return stripeStub;
+    }
+
+    private PaymentServiceImpl cardService(HttpServer stripeStub) {
+        StripeClient stripeClient = StripeClient.builder()
+                .setApiKey("sk_test_stub")
+                .setApiBase("http://127.0.0.1:" + stripeStub.getAddress().getPort())
+                .setMaxNetworkRetries(0)
+                .build();
+        return new PaymentServiceImpl(paymentMethodRepository, transactionRepository, statusRepository,
+                paymentIntentProcessor, stripeClient, userClient, mapper);
+    }
+
+    @Test
+    @DisplayName("Should build stats from grouped rows with an exact completed amount")
+    void testGetTransactionStats() {
+        // Arrange
+        when(statusRepository.findStatsByUser(1L)).thenReturn(List.of(
+                new StatsRow("TOP_UP", "COMPLETED", 3, new BigDecimal("0.10")),
+                new StatsRow("TRIP_PAYMENT", "COMPLETED", 5, new BigDecimal("0.20")),
+                new StatsRow("TRIP_PAYMENT", "FAILED", 1, new BigDecimal("4500.00")),
+                new StatsRow("TOP_UP", "PENDING", 1, new BigDecimal("25.00"))
+        ));
+        when(mapper.toTransactionStatsDTO(anyList())).thenCallRealMethod();
+
+        // Act
+        TransactionStatsDTO stats = paymentService.getTransactionStats(1L);
+
+        // Assert
+        assertEquals(10, stats.totalTransactions());
+        assertEquals(new BigDecimal("0.30"), stats.totalAmount());
+        assertEquals(4L, stats.byType().get("TOP_UP"));
+        assertEquals(6L, stats.byType().get("TRIP_PAYMENT"));
+        assertEquals(8L, stats.byStatus().get("COMPLETED"));
+        assertEquals(1L, stats.byStatus().get("PENDING"));
+    }
+
+    @Test
+    @DisplayName("Should return a cursor to the next page when there are more rows than the limit")
+    void testGetTransactionsPageWithNextCursor() {
+        // Arrange
+        LocalDateTime now = LocalDateTime.of(2025, 1, 10, 14, 20, 30);
+        List<Transaction> rows = List.of(
+                pageRow(30L, now),
+                pageRow(29L, now),
+                pageRow(28L, now.minusMinutes(1))
+        );
+        when(transactionRepository.findFirstPageByUser(1L, 3)).thenReturn(rows);
+
+        // Act
+        TransactionPageDTO page = paymentService.getTransactionsPage(1L, null, 2);
+
+        // Assert
+        assertEquals(2, page.data().size());
+        assertNotNull(page.nextCursor());
+        TransactionCursor cursor = TransactionCursor.decode(page.nextCursor());
+        assertEquals(now, cursor.createdAt());
+        assertEquals(29L, cursor.id());
+
+        // La siguiente página arranca después de (createdAt, id) del último elemento
+        when(transactionRepository.findPageByUserAfter(1L, now, 29L, 3)).thenReturn(List.of(rows.get(2)));
+        TransactionPageDTO last = paymentService.getTransactionsPage(1L, page.nextCursor(), 2);
+        assertEquals(1, last.data().size());
+        assertNull(last.nextCursor());
+    }
+
+    @Test
+    @DisplayName("Should reject a tampered cursor")
+    void testGetTransactionsPageInvalidCursor() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class,
+                () -> paymentService.getTransactionsPage(1L, "no-es-un-cursor", 20));
+        verifyNoInteractions(transactionRepository);
+    }
+
+    private Transaction pageRow(Long id, LocalDateTime createdAt) {
+        Transaction row = new Transaction();
+        row.setId(id);
+        row.setUserId(1L);
+        row.setAmount(new BigDecimal("10.00"));
+        row.setType("TRIP_PAYMENT");
+        row.setStatus("COMPLETED");
+        row.setCreatedAt(createdAt);
+        return row;
+    }
+}
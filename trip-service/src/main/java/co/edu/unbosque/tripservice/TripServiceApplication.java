@@ -2,8 +2,10 @@ package co.edu.unbosque.tripservice;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class TripServiceApplication {
 
     public static void main(String[] args) {
@@ -0,0 +1,147 @@
+package co.edu.unbosque.tripservice.cache;
+
+import co.edu.unbosque.tripservice.dto.OSMRouteResponseDTO;
+import com.github.benmanes.caffeine.cache.Cache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+
+/**
+ * Cache de rutas OSRM en dos niveles:
+ * <ol>
+ *     <li>Caffeine en memoria, acotada por tamaño y TTL</li>
+ *     <li>{@link RouteDiskStore} en disco, que sobrevive a reinicios</li>
+ * </ol>
+ * {@link #get(Object, Callable)} carga cada llave una sola vez aunque lleguen
+ * varias peticiones concurrentes (Caffeine bloquea por llave mientras carga),
+ * así varios viajes que terminan entre las mismas estaciones hacen una sola consulta a OSRM.
+ */
+public class RouteCache implements org.springframework.cache.Cache, MeterBinder {
+
+    private final String name;
+    private final Cache<Object, Object> memory;
+    private final RouteDiskStore disk;
+
+    private Counter diskHits;
+    private Counter diskMisses;
+    private Counter loads;
+
+    public RouteCache(String name, Cache<Object, Object> memory, RouteDiskStore disk) {
+        this.name = name;
+        this.memory = memory;
+        this.disk = disk;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Cache<Object, Object> getNativeCache() {
+        return memory;
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        Object value = memory.get(key, this::loadFromDisk);
+        return value != null ? new SimpleValueWrapper(value) : null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        Object value = memory.get(key, this::loadFromDisk);
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException("El valor en cache no es del tipo " + type.getName());
+        }
+        return (T) value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        return (T) memory.get(key, k -> {
+            Object cached = loadFromDisk(k);
+            if (cached != null) {
+                return cached;
+            }
+            try {
+                T loaded = valueLoader.call();
+                increment(loads);
+                if (loaded instanceof OSMRouteResponseDTO route && k instanceof RouteKey routeKey && disk != null) {
+                    disk.write(routeKey, route);
+                }
+                return loaded;
+            } catch (Exception e) {
+                throw new ValueRetrievalException(k, valueLoader, e);
+            }
+        });
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        if (value == null) {
+            evict(key);
+            return;
+        }
+        memory.put(key, value);
+        if (value instanceof OSMRouteResponseDTO route && key instanceof RouteKey routeKey && disk != null) {
+            disk.write(routeKey, route);
+        }
+    }
+
+    @Override
+    public void evict(Object key) {
+        memory.invalidate(key);
+    }
+
+    @Override
+    public void clear() {
+        memory.invalidateAll();
+        if (disk != null) {
+            disk.clear();
+        }
+    }
+
+    private Object loadFromDisk(Object key) {
+        if (disk == null || !(key instanceof RouteKey routeKey)) {
+            return null;
+        }
+        OSMRouteResponseDTO route = disk.read(routeKey);
+        increment(route != null ? diskHits : diskMisses);
+        return route;
+    }
+
+    private void increment(Counter counter) {
+        if (counter != null) {
+            counter.increment();
+        }
+    }
+
+    /**
+     * Expone hits/misses/evictions de Caffeine y los contadores del nivel en disco
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        List<Tag> tags = List.of(Tag.of("cache", name));
+        CaffeineCacheMetrics.monitor(registry, memory, name);
+        diskHits = Counter.builder("route.cache.disk.gets").tags(tags).tag("result", "hit")
+                .description("Lecturas servidas por la cache de rutas en disco").register(registry);
+        diskMisses = Counter.builder("route.cache.disk.gets").tags(tags).tag("result", "miss")
+                .description("Lecturas no encontradas en la cache de rutas en disco").register(registry);
+        loads = Counter.builder("route.cache.loads").tags(tags)
+                .description("Consultas reales a OSRM por fallo en ambos niveles").register(registry);
+        if (disk != null) {
+            Gauge.builder("route.cache.disk.size", disk, RouteDiskStore::size).tags(tags)
+                    .description("Entradas en la cache de rutas en disco").register(registry);
+        }
+    }
+}
@@ -0,0 +1,270 @@
+package co.edu.unbosque.tripservice.cache;
+
+import co.edu.unbosque.tripservice.dto.OSMRouteResponseDTO;
+import co.edu.unbosque.tripservice.dto.RouteSegmentDTO;
+import co.edu.unbosque.tripservice.util.VarInts;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.file.*;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Segundo nivel de la cache de rutas: un archivo binario por par de puntos.
+ * La geometría se guarda como deltas en micro-grados codificados en varint,
+ * así una ruta típica de OSRM ocupa unos pocos KB y sobrevive a reinicios.
+ */
+public class RouteDiskStore {
+
+    private static final Logger log = LoggerFactory.getLogger(RouteDiskStore.class);
+
+    private static final int FORMAT_VERSION = 1;
+    private static final int MAX_PREALLOCATED = 4096;
+
+    private final Path directory;
+    private final int maxEntries;
+    private final Duration expireAfterWrite;
+    private final AtomicInteger entries = new AtomicInteger();
+    // Lock en vez de synchronized: la depuración hace I/O y no debe fijar un hilo virtual a su carrier
+    private final ReentrantLock pruneLock = new ReentrantLock();
+
+    public RouteDiskStore(Path directory, int maxEntries, Duration expireAfterWrite) {
+        this.directory = directory;
+        this.maxEntries = maxEntries;
+        this.expireAfterWrite = expireAfterWrite;
+        try {
+            Files.createDirectories(directory);
+            try (Stream<Path> files = Files.list(directory)) {
+                entries.set((int) files.filter(this::isRouteFile).count());
+            }
+            log.info("Cache de rutas en disco: {} ({} entradas)", directory, entries.get());
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo inicializar la cache de rutas en " + directory, e);
+        }
+    }
+
+    /**
+     * Lee una ruta del disco. Retorna null si no existe, expiró o está corrupta.
+     */
+    public OSMRouteResponseDTO read(RouteKey key) {
+        Path file = directory.resolve(key.fileName());
+        try {
+            if (!Files.exists(file)) {
+                return null;
+            }
+            FileTime written = Files.getLastModifiedTime(file);
+            if (written.toMillis() + expireAfterWrite.toMillis() < System.currentTimeMillis()) {
+                delete(file);
+                return null;
+            }
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+                return decode(in);
+            }
+        } catch (IOException | RuntimeException e) {
+            log.warn("Entrada de cache de rutas ilegible, se descarta: {}", file.getFileName());
+            delete(file);
+            return null;
+        }
+    }
+
+    /**
+     * Escribe la ruta de forma atómica (archivo temporal + rename)
+     */
+    public void write(RouteKey key, OSMRouteResponseDTO route) {
+        Path file = directory.resolve(key.fileName());
+        Path tmp = directory.resolve(key.fileName() + ".tmp");
+        try {
+            boolean existed = Files.exists(file);
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+                encode(route, out);
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            if (!existed && entries.incrementAndGet() > maxEntries) {
+                prune();
+            }
+        } catch (IOException e) {
+            log.warn("No se pudo escribir la ruta en disco: {}", e.getMessage());
+            delete(tmp);
+        }
+    }
+
+    public void clear() {
+        try (Stream<Path> files = Files.list(directory)) {
+            files.filter(this::isRouteFile).forEach(this::delete);
+        } catch (IOException e) {
+            log.warn("No se pudo limpiar la cache de rutas: {}", e.getMessage());
+        }
+        entries.set(0);
+    }
+
+    public int size() {
+        return entries.get();
+    }
+
+    /**
+     * Elimina las entradas más antiguas hasta quedar en el 90% de la capacidad
+     */
+    private void prune() {
+        // Si ya hay una depuración en curso, esta escritura no necesita esperarla
+        if (entries.get() <= maxEntries || !pruneLock.tryLock()) {
+            return;
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            List<Path> routeFiles = files.filter(this::isRouteFile)
+                    .sorted(Comparator.comparingLong(this::lastModified))
+                    .toList();
+            int target = (int) (maxEntries * 0.9);
+            int toRemove = Math.max(0, routeFiles.size() - target);
+            for (int i = 0; i < toRemove; i++) {
+                delete(routeFiles.get(i));
+            }
+            entries.set(routeFiles.size() - toRemove);
+        } catch (IOException e) {
+            log.warn("No se pudo depurar la cache de rutas: {}", e.getMessage());
+        } finally {
+            pruneLock.unlock();
+        }
+    }
+
+    private boolean isRouteFile(Path path) {
+        return path.getFileName().toString().endsWith(".route");
+    }
+
+    private long lastModified(Path path) {
+        try {
+            return Files.getLastModifiedTime(path).toMillis();
+        } catch (IOException e) {
+            return 0L;
+        }
+    }
+
+    private void delete(Path path) {
+        try {
+            if (Files.deleteIfExists(path) && isRouteFile(path)) {
+                entries.decrementAndGet();
+            }
+        } catch (IOException ignored) {
+            // Se reintentará en la próxima depuración
+        }
+    }
+
+    // ================================================
+    // FORMATO BINARIO
+    // ================================================
+
+    static void encode(OSMRouteResponseDTO route, DataOutputStream out) throws IOException {
+        out.writeByte(FORMAT_VERSION);
+        out.writeUTF(route.status() != null ? route.status() : "");
+        writeDecimal(out, route.totalDistance());
+        out.writeInt(route.totalDuration() != null ? route.totalDuration() : 0);
+
+        List<List<BigDecimal>> geometry = route.geometry() != null ? route.geometry() : List.of();
+        VarInts.writeVarLong(out, geometry.size());
+        int prevLon = 0;
+        int prevLat = 0;
+        for (List<BigDecimal> point : geometry) {
+            int lon = RouteKey.toE6(point.get(0));
+            int lat = RouteKey.toE6(point.get(1));
+            VarInts.writeSignedVarLong(out, lon - prevLon);
+            VarInts.writeSignedVarLong(out, lat - prevLat);
+            prevLon = lon;
+            prevLat = lat;
+        }
+
+        List<RouteSegmentDTO> segments = route.segments() != null ? route.segments() : List.of();
+        VarInts.writeVarLong(out, segments.size());
+        for (RouteSegmentDTO segment : segments) {
+            writeDecimal(out, segment.startLat());
+            writeDecimal(out, segment.startLon());
+            writeDecimal(out, segment.endLat());
+            writeDecimal(out, segment.endLon());
+            writeDecimal(out, segment.distance());
+            out.writeInt(segment.duration() != null ? segment.duration() : 0);
+            out.writeUTF(segment.roadType() != null ? segment.roadType() : "");
+        }
+    }
+
+    static OSMRouteResponseDTO decode(DataInputStream in) throws IOException {
+        int version = in.readUnsignedByte();
+        if (version != FORMAT_VERSION) {
+            throw new IOException("Versión de formato no soportada: " + version);
+        }
+        String status = in.readUTF();
+        BigDecimal totalDistance = readDecimal(in);
+        int totalDuration = in.readInt();
+
+        int points = readCount(in);
+        List<List<BigDecimal>> geometry = new ArrayList<>(Math.min(points, MAX_PREALLOCATED));
+        long lon = 0;
+        long lat = 0;
+        for (int i = 0; i < points; i++) {
+            lon += VarInts.readSignedVarLong(in);
+            lat += VarInts.readSignedVarLong(in);
+            geometry.add(List.of(BigDecimal.valueOf(lon, 6), BigDecimal.valueOf(lat, 6)));
+        }
+
+        int segmentCount = readCount(in);
+        List<RouteSegmentDTO> segments = new ArrayList<>(Math.min(segmentCount, MAX_PREALLOCATED));
+        for (int i = 0; i < segmentCount; i++) {
+            segments.add(new RouteSegmentDTO(
+                    readDecimal(in),
+                    readDecimal(in),
+                    readDecimal(in),
+                    readDecimal(in),
+                    readDecimal(in),
+                    in.readInt(),
+                    in.readUTF()
+            ));
+        }
+
+        return new OSMRouteResponseDTO(status, totalDistance, totalDuration, segments, geometry);
+    }
+
+    /**
+     * Lee un conteo validando su rango; un archivo corrupto termina en EOF y no en una reserva gigante
+     */
+    private static int readCount(DataInputStream in) throws IOException {
+        long count = VarInts.readVarLong(in);
+        if (count < 0 || count > Integer.MAX_VALUE) {
+            throw new IOException("Conteo fuera de rango: " + count);
+        }
+        return (int) count;
+    }
+
+    private static void writeDecimal(DataOutputStream out, BigDecimal value) throws IOException {
+        if (value == null) {
+            out.writeByte(-1);
+            return;
+        }
+        BigInteger unscaled = value.unscaledValue();
+        if (unscaled.bitLength() < 63 && value.scale() >= 0 && value.scale() < 127) {
+            out.writeByte(value.scale());
+            VarInts.writeSignedVarLong(out, unscaled.longValue());
+        } else {
+            // Caso raro: se guarda como texto
+            out.writeByte(127);
+            out.writeUTF(value.toPlainString());
+        }
+    }
+
+    private static BigDecimal readDecimal(DataInputStream in) throws IOException {
+        int scale = in.readByte();
+        if (scale == -1) {
+            return null;
+        }
+        if (scale == 127) {
+            return new BigDecimal(in.readUTF());
+        }
+        return BigDecimal.valueOf(VarInts.readSignedVarLong(in), scale);
+    }
+}
@@ -0,0 +1,33 @@
+package co.edu.unbosque.tripservice.cache;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Llave de la cache de rutas.
+ * Las coordenadas se normalizan a micro-grados (1e-6), que es la precisión
+ * con la que se guardan las estaciones, de modo que "4.6482" y "4.648200"
+ * apuntan a la misma entrada.
+ */
+public record RouteKey(
+        int startLatE6,
+        int startLonE6,
+        int endLatE6,
+        int endLonE6
+) {
+
+    public static RouteKey of(BigDecimal startLon, BigDecimal startLat, BigDecimal endLon, BigDecimal endLat) {
+        return new RouteKey(toE6(startLat), toE6(startLon), toE6(endLat), toE6(endLon));
+    }
+
+    /**
+     * Nombre de archivo estable para la cache en disco
+     */
+    public String fileName() {
+        return startLatE6 + "_" + startLonE6 + "_" + endLatE6 + "_" + endLonE6 + ".route";
+    }
+
+    public static int toE6(BigDecimal degrees) {
+        return degrees.setScale(6, RoundingMode.HALF_UP).unscaledValue().intValueExact();
+    }
+}
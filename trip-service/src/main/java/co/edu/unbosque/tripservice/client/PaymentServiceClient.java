@@ -1,53 +1,63 @@
 package co.edu.unbosque.tripservice.client;
 
+import co.edu.unbosque.common.client.DownstreamCalls;
 import co.edu.unbosque.tripservice.dto.TripPaymentRequestDTO;
 import co.edu.unbosque.tripservice.dto.TripPaymentResponseDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.reactive.function.client.WebClientResponseException;
 import reactor.core.publisher.Mono;
 
-import java.util.Map;
+import java.time.Duration;
 
 @Component
 public class PaymentServiceClient {
 
+    private static final Logger log = LoggerFactory.getLogger(PaymentServiceClient.class);
+    private static final String DOWNSTREAM = "payment-service";
+
     @Autowired
     private WebClient paymentWebClient;
 
+    @Autowired
+    private DownstreamCalls downstreamCalls;
+
+    // El cobro puede incluir una llamada a Stripe: plazo mayor que el de las demás llamadas
+    @Value("${clients.payment-service.deadline-ms:5000}")
+    private long deadlineMs;
+
     public TripPaymentResponseDTO processTripPayment(TripPaymentRequestDTO request) {
         try {
-            System.out.println("Procesando pago de viaje para usuario: " + request.userId());
+            log.debug("Procesando pago del viaje {} para usuario {}", request.tripId(), request.userId());
 
-            return paymentWebClient.post()
+            Mono<TripPaymentResponseDTO> call = paymentWebClient.post()
                     .uri("/api/payments/trip/charge")
                     .contentType(MediaType.APPLICATION_JSON)
                     .body(Mono.just(request), TripPaymentRequestDTO.class)
                     .retrieve()
-                    .bodyToMono(TripPaymentResponseDTO.class)
-                    .block();
+                    .bodyToMono(TripPaymentResponseDTO.class);
+
+            return downstreamCalls.call(DOWNSTREAM, "trip-charge", deadline(), call).block();
 
         } catch (WebClientResponseException e) {
-            System.err.println("Error procesando pago: " + e.getResponseBodyAsString());
+            log.warn("payment-service rechazó el cobro del viaje {} ({}): {}",
+                    request.tripId(), e.getStatusCode(), e.getResponseBodyAsString());
             throw new RuntimeException("Error al procesar pago del viaje");
+        } catch (RuntimeException e) {
+            if (DownstreamCalls.isUnavailable(e)) {
+                log.warn("payment-service no disponible cobrando el viaje {}: {}", request.tripId(), e.getMessage());
+                throw new RuntimeException("Servicio de pagos no disponible, intente más tarde");
+            }
+            throw e;
         }
     }
 
-    public void refundTripPayment(Long tripId, java.math.BigDecimal amount) {
-        try {
-            paymentWebClient.post()
-                    .uri("/api/payments/trip/refund")
-                    .contentType(MediaType.APPLICATION_JSON)
-                    .body(Mono.just(Map.of("tripId", tripId, "amount", amount)), Object.class)
-                    .retrieve()
-                    .bodyToMono(Void.class)
-                    .block();
-
-            System.out.println("Reembolso procesado para trip: " + tripId);
-        } catch (Exception e) {
-            System.err.println("Error procesando reembolso: " + e.getMessage());
-        }
+    private Duration deadline() {
+        return Duration.ofMillis(deadlineMs);
     }
 }
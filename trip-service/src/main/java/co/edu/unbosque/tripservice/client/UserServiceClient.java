@@ -1,71 +1,60 @@
 package co.edu.unbosque.tripservice.client;
 
 
+import co.edu.unbosque.common.client.DownstreamCalls;
 import co.edu.unbosque.tripservice.dto.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.http.MediaType;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.reactive.function.client.WebClientResponseException;
 import reactor.core.publisher.Mono;
 
-import java.util.Map;
+import java.time.Duration;
 
 @Component
 public class UserServiceClient {
 
+    private static final Logger log = LoggerFactory.getLogger(UserServiceClient.class);
+    private static final String DOWNSTREAM = "user-service";
+
     @Autowired
     private WebClient userWebClient;
 
+    @Autowired
+    private DownstreamCalls downstreamCalls;
+
+    @Value("${clients.user-service.deadline-ms:2000}")
+    private long deadlineMs;
+
     public UserValidationResponseDTO validateUser(Long userId) {
         try {
-            System.out.println("Validando usuario: " + userId);
+            log.debug("Validando usuario: {}", userId);
 
-            return userWebClient.get()
-                    .uri("/api/users/" + userId)
+            Mono<UserValidationResponseDTO> request = userWebClient.get()
+                    .uri("/api/users/{id}", userId)
                     .retrieve()
-                    .bodyToMono(UserValidationResponseDTO.class)
-                    .block();
+                    .bodyToMono(UserValidationResponseDTO.class);
+
+            return downstreamCalls.call(DOWNSTREAM, "validate-user", deadline(), request).block();
 
         } catch (WebClientResponseException e) {
-            System.err.println("Error validando usuario: " + e.getResponseBodyAsString());
+            log.warn("user-service rechazó la validación del usuario {} ({}): {}",
+                    userId, e.getStatusCode(), e.getResponseBodyAsString());
             throw new RuntimeException("Usuario no encontrado o inactivo");
+        } catch (RuntimeException e) {
+            // Fallback: sin user-service no se puede validar, se rechaza rápido con un mensaje claro
+            if (DownstreamCalls.isUnavailable(e)) {
+                log.warn("user-service no disponible validando usuario {}: {}", userId, e.getMessage());
+                throw new RuntimeException("Servicio de usuarios no disponible, intente más tarde");
+            }
+            throw e;
         }
     }
 
-    public void notifyTripStarted(Long userId, Long tripId) {
-        try {
-            userWebClient.post()
-                    .uri("/api/notifications/trip-started")
-                    .contentType(MediaType.APPLICATION_JSON)
-                    .body(Mono.just(Map.of("userId", userId, "tripId", tripId)), Object.class)
-                    .retrieve()
-                    .bodyToMono(Void.class)
-                    .block();
-
-            System.out.println("Notificacion de inicio de viaje enviada");
-        } catch (Exception e) {
-            System.err.println("Error enviando notificacion: " + e.getMessage());
-        }
-    }
-
-    public void notifyTripCompleted(Long userId, Long tripId, java.math.BigDecimal cost) {
-        try {
-            userWebClient.post()
-                    .uri("/api/notifications/trip-completed")
-                    .contentType(MediaType.APPLICATION_JSON)
-                    .body(Mono.just(Map.of(
-                            "userId", userId,
-                            "tripId", tripId,
-                            "cost", cost
-                    )), Object.class)
-                    .retrieve()
-                    .bodyToMono(Void.class)
-                    .block();
-
-            System.out.println("Notificacion de finalizacion de viaje enviada");
-        } catch (Exception e) {
-            System.err.println("Error enviando notificacion: " + e.getMessage());
-        }
+    private Duration deadline() {
+        return Duration.ofMillis(deadlineMs);
     }
 }
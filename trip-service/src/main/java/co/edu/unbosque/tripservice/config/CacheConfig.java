@@ -0,0 +1,84 @@
+package co.edu.unbosque.tripservice.config;
+
+import co.edu.unbosque.tripservice.cache.RouteCache;
+import co.edu.unbosque.tripservice.cache.RouteDiskStore;
+import co.edu.unbosque.tripservice.cache.RouteKey;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.interceptor.KeyGenerator;
+import org.springframework.cache.support.SimpleCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Configuración de caches del servicio.
+ * "routes" es una cache de dos niveles (memoria + disco) para las rutas de OSRM.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String ROUTES_CACHE = "routes";
+
+    @Value("${route.cache.memory.max-size:1000}")
+    private long memoryMaxSize;
+
+    @Value("${route.cache.memory.expire-after-write:PT1H}")
+    private Duration memoryExpireAfterWrite;
+
+    @Value("${route.cache.disk.enabled:true}")
+    private boolean diskEnabled;
+
+    @Value("${route.cache.disk.directory:./data/route-cache}")
+    private String diskDirectory;
+
+    @Value("${route.cache.disk.max-entries:50000}")
+    private int diskMaxEntries;
+
+    @Value("${route.cache.disk.expire-after-write:P7D}")
+    private Duration diskExpireAfterWrite;
+
+    @Bean
+    public RouteCache routeCache() {
+        RouteDiskStore disk = diskEnabled
+                ? new RouteDiskStore(Path.of(diskDirectory), diskMaxEntries, diskExpireAfterWrite)
+                : null;
+
+        return new RouteCache(
+                ROUTES_CACHE,
+                Caffeine.newBuilder()
+                        .maximumSize(memoryMaxSize)
+                        .expireAfterWrite(memoryExpireAfterWrite)
+                        .recordStats()
+                        .build(),
+                disk
+        );
+    }
+
+    @Bean
+    public CacheManager cacheManager(RouteCache routeCache) {
+        SimpleCacheManager cacheManager = new SimpleCacheManager();
+        cacheManager.setCaches(List.of(routeCache));
+        return cacheManager;
+    }
+
+    /**
+     * Genera la llave de ruta a partir de (startLon, startLat, endLon, endLat)
+     */
+    @Bean
+    public KeyGenerator routeKeyGenerator() {
+        return (target, method, params) -> RouteKey.of(
+                (BigDecimal) params[0],
+                (BigDecimal) params[1],
+                (BigDecimal) params[2],
+                (BigDecimal) params[3]
+        );
+    }
+}
@@ -0,0 +1,46 @@
+package co.edu.unbosque.tripservice.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+public class ExecutorConfig {
+
+    /**
+     * Pool para los efectos posteriores al commit de un viaje (simulación, notificaciones).
+     * Cola acotada: si se llena, el evento queda en trip_outbox y lo toma el barrido.
+     *
+     * Con hilos virtuales (spring.threads.virtual.enabled, Java 21) cada tarea tiene su propio
+     * hilo; el límite de concurrencia reemplaza a la cola y al superarlo la tarea se rechaza igual.
+     */
+    @Bean(name = "tripPipelineExecutor")
+    public AsyncTaskExecutor tripPipelineExecutor(
+            @Value("${trip.pipeline.pool-size:4}") int poolSize,
+            @Value("${trip.pipeline.queue-capacity:1000}") int queueCapacity,
+            @Value("${trip.pipeline.virtual-concurrency-limit:256}") int virtualConcurrencyLimit,
+            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads
+    ) {
+        if (virtualThreads) {
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("trip-pipeline-");
+            executor.setVirtualThreads(true);
+            executor.setConcurrencyLimit(virtualConcurrencyLimit);
+            executor.setRejectTasksWhenLimitReached(true);
+            executor.setTaskTerminationTimeout(10_000);
+            return executor;
+        }
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("trip-pipeline-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(10);
+        executor.initialize();
+        return executor;
+    }
+}
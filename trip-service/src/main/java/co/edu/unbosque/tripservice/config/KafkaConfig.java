@@ -8,14 +8,17 @@ import org.apache.kafka.common.serialization.StringSerializer;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.kafka.annotation.EnableKafka;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
 import org.springframework.kafka.config.TopicBuilder;
 import org.springframework.kafka.core.*;
 import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.DefaultErrorHandler;
 import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
 import org.springframework.kafka.support.serializer.JsonDeserializer;
 import org.springframework.kafka.support.serializer.JsonSerializer;
+import org.springframework.util.backoff.FixedBackOff;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -27,16 +30,57 @@ public class KafkaConfig {
     @Value("${spring.kafka.bootstrap-servers:localhost:9092}")
     private String bootstrapServers;
 
+    // Las factories propias reemplazan a la de Spring Boot, así que el modo virtual se aplica aquí
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
     // ============================================
     // PRODUCER CONFIGURATION
     // ============================================
 
     @Bean
     public ProducerFactory<String, Object> producerFactory() {
+        Map<String, Object> config = producerConfig();
+        config.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
+
+        return new DefaultKafkaProducerFactory<>(config);
+    }
+
+    @Bean
+    public KafkaTemplate<String, Object> kafkaTemplate() {
+        return new KafkaTemplate<>(producerFactory());
+    }
+
+    /**
+     * Productor del relay de trip_outbox: el payload ya es JSON, se envía tal cual.
+     * Mismo productor idempotente; con clave = tripId se conserva el orden por viaje.
+     * Los plazos van por debajo del batch-timeout-ms del relay, que mantiene locks de trip_outbox
+     * mientras espera: sin broker, send() falla en max-block-ms y un envío en delivery-timeout-ms.
+     */
+    @Bean
+    public KafkaTemplate<String, String> outboxKafkaTemplate(
+            @Value("${trip.outbox.relay.linger-ms:20}") int lingerMs,
+            @Value("${trip.outbox.relay.producer-batch-bytes:65536}") int batchBytes,
+            @Value("${trip.outbox.relay.max-block-ms:2000}") int maxBlockMs,
+            @Value("${trip.outbox.relay.request-timeout-ms:5000}") int requestTimeoutMs,
+            @Value("${trip.outbox.relay.delivery-timeout-ms:8000}") int deliveryTimeoutMs
+    ) {
+        Map<String, Object> config = producerConfig();
+        config.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        config.put(ProducerConfig.LINGER_MS_CONFIG, lingerMs);
+        config.put(ProducerConfig.BATCH_SIZE_CONFIG, batchBytes);
+        config.put(ProducerConfig.MAX_BLOCK_MS_CONFIG, maxBlockMs);
+        // delivery.timeout.ms debe ser >= linger.ms + request.timeout.ms
+        config.put(ProducerConfig.REQUEST_TIMEOUT_MS_CONFIG, requestTimeoutMs);
+        config.put(ProducerConfig.DELIVERY_TIMEOUT_MS_CONFIG, Math.max(deliveryTimeoutMs, lingerMs + requestTimeoutMs));
+
+        return new KafkaTemplate<>(new DefaultKafkaProducerFactory<>(config));
+    }
+
+    private Map<String, Object> producerConfig() {
         Map<String, Object> config = new HashMap<>();
         config.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
         config.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
-        config.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
 
         // Garantía de entrega
         config.put(ProducerConfig.ACKS_CONFIG, "all");
@@ -51,12 +95,7 @@ public class KafkaConfig {
         // Idempotencia para evitar duplicados
         config.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
 
-        return new DefaultKafkaProducerFactory<>(config);
-    }
-
-    @Bean
-    public KafkaTemplate<String, Object> kafkaTemplate() {
-        return new KafkaTemplate<>(producerFactory());
+        return config;
     }
 
     // ============================================
@@ -102,9 +141,47 @@ public class KafkaConfig {
         // Manejo de errores
         factory.setCommonErrorHandler(new org.springframework.kafka.listener.DefaultErrorHandler());
 
+        applyVirtualThreads(factory, "kafka-listener-");
+
+        return factory;
+    }
+
+    /**
+     * Factory en modo batch: el listener recibe todo el poll (max.poll.records)
+     * y el offset se confirma una sola vez por lote.
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, String> batchKafkaListenerContainerFactory() {
+        ConcurrentKafkaListenerContainerFactory<String, String> factory =
+                new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(consumerFactory());
+        factory.setBatchListener(true);
+
+        // El ack del listener se confirma al terminar el lote, no por mensaje
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+
+        factory.setConcurrency(3);
+
+        // Si falla la escritura se revierte la transacción del lote y se reintenta completo
+        factory.setCommonErrorHandler(new DefaultErrorHandler(new FixedBackOff(1000L, 3)));
+
+        applyVirtualThreads(factory, "kafka-batch-listener-");
+
         return factory;
     }
 
+    /**
+     * Hilos de consumidor virtuales: el listener bloquea en JDBC sin ocupar un hilo de plataforma
+     */
+    private void applyVirtualThreads(ConcurrentKafkaListenerContainerFactory<String, String> factory, String threadPrefix) {
+        if (!virtualThreads) {
+            return;
+        }
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor(threadPrefix);
+        executor.setVirtualThreads(true);
+        factory.getContainerProperties().setListenerTaskExecutor(executor);
+    }
+
     // ============================================
     // TOPIC CREATION (Auto-create topics)
     // ============================================
@@ -1,10 +1,23 @@
 package co.edu.unbosque.tripservice.config;
 
+import io.netty.channel.ChannelOption;
+import jakarta.annotation.PreDestroy;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
 
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Un pool de conexiones Reactor Netty por servicio destino, con timeout de conexión y de
+ * respuesta. Pools separados: si un servicio se vuelve lento solo agota sus propias conexiones.
+ */
 @Configuration
 public class WebClientConfig {
 
@@ -14,17 +27,64 @@ public class WebClientConfig {
     @Value("${payment.service.url:http://localhost:8082}")
     private String paymentServiceUrl;
 
+    @Value("${clients.http.connect-timeout-ms:1000}")
+    private int connectTimeoutMs;
+
+    @Value("${clients.http.response-timeout-ms:5000}")
+    private long responseTimeoutMs;
+
+    @Value("${clients.http.pool.max-connections:50}")
+    private int maxConnections;
+
+    @Value("${clients.http.pool.pending-acquire-max:100}")
+    private int pendingAcquireMax;
+
+    @Value("${clients.http.pool.pending-acquire-timeout-ms:500}")
+    private long pendingAcquireTimeoutMs;
+
+    // Menor que el keep-alive de Tomcat en el otro extremo (20s) para no reusar conexiones ya cerradas
+    @Value("${clients.http.pool.max-idle-ms:15000}")
+    private long maxIdleMs;
+
+    @Value("${clients.http.pool.max-life-ms:300000}")
+    private long maxLifeMs;
+
+    private final List<ConnectionProvider> providers = new CopyOnWriteArrayList<>();
+
     @Bean(name = "userWebClient")
     public WebClient userWebClient() {
-        return WebClient.builder()
-                .baseUrl(userServiceUrl)
-                .build();
+        return buildClient("user-service", userServiceUrl);
     }
 
     @Bean(name = "paymentWebClient")
     public WebClient paymentWebClient() {
+        return buildClient("payment-service", paymentServiceUrl);
+    }
+
+    @PreDestroy
+    public void disposePools() {
+        providers.forEach(ConnectionProvider::dispose);
+    }
+
+    private WebClient buildClient(String name, String baseUrl) {
+        ConnectionProvider provider = ConnectionProvider.builder(name)
+                .maxConnections(maxConnections)
+                .pendingAcquireMaxCount(pendingAcquireMax)
+                .pendingAcquireTimeout(Duration.ofMillis(pendingAcquireTimeoutMs))
+                .maxIdleTime(Duration.ofMillis(maxIdleMs))
+                .maxLifeTime(Duration.ofMillis(maxLifeMs))
+                .evictInBackground(Duration.ofSeconds(30))
+                .metrics(true)
+                .build();
+        providers.add(provider);
+
+        HttpClient httpClient = HttpClient.create(provider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, connectTimeoutMs)
+                .responseTimeout(Duration.ofMillis(responseTimeoutMs));
+
         return WebClient.builder()
-                .baseUrl(paymentServiceUrl)
+                .baseUrl(baseUrl)
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
                 .build();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,53 @@
+package co.edu.unbosque.tripservice.controller;
+
+import co.edu.unbosque.tripservice.dto.FleetSnapshotDTO;
+import co.edu.unbosque.tripservice.service.FleetStateService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/fleet")
+@CrossOrigin(origins = "*")
+public class FleetController {
+
+    private final FleetStateService fleetStateService;
+
+    public FleetController(FleetStateService fleetStateService) {
+        this.fleetStateService = fleetStateService;
+    }
+
+    /**
+     * Estado en vivo de la flota desde memoria; con "since" retorna solo los cambios
+     */
+    @GetMapping("/live")
+    public ResponseEntity<?> getLiveFleet(@RequestParam(defaultValue = "0") long since) {
+        try {
+            FleetSnapshotDTO snapshot = fleetStateService.getSnapshot(since);
+
+            return ResponseEntity.ok(Map.of(
+                    "success", true,
+                    "message", snapshot.bikes().size() + " bicicletas actualizadas",
+                    "data", snapshot
+            ));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of(
+                            "success", false,
+                            "message", e.getMessage()
+                    ));
+        }
+    }
+
+    /**
+     * Stream SSE: evento "snapshot" al conectar y luego eventos "changes" periódicos
+     */
+    @GetMapping(value = "/live/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamLiveFleet() {
+        return fleetStateService.subscribe();
+    }
+}
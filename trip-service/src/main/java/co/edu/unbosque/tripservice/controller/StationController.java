@@ -0,0 +1,79 @@
+package co.edu.unbosque.tripservice.controller;
+
+import co.edu.unbosque.tripservice.dto.NearbyStationDTO;
+import co.edu.unbosque.tripservice.service.StationLocatorService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/stations")
+@CrossOrigin(origins = "*")
+public class StationController {
+
+    private final StationLocatorService stationLocator;
+
+    public StationController(StationLocatorService stationLocator) {
+        this.stationLocator = stationLocator;
+    }
+
+    /**
+     * Estaciones más cercanas con anclajes libres (para devolver la bicicleta)
+     */
+    @GetMapping("/nearest-free-docks")
+    public ResponseEntity<?> getNearestWithFreeDocks(
+            @RequestParam BigDecimal lat,
+            @RequestParam BigDecimal lon,
+            @RequestParam(defaultValue = "5") int limit,
+            @RequestParam(defaultValue = "1") int minFreeDocks,
+            @RequestParam(defaultValue = "5000") double maxRadiusMeters
+    ) {
+        try {
+            List<NearbyStationDTO> stations = stationLocator.findNearestWithFreeDocks(
+                    lat, lon, Math.min(Math.max(limit, 1), 50), minFreeDocks, maxRadiusMeters
+            );
+
+            return ResponseEntity.ok(Map.of(
+                    "success", true,
+                    "message", stations.size() + " estaciones con anclajes libres",
+                    "data", stations
+            ));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of(
+                            "success", false,
+                            "message", e.getMessage()
+                    ));
+        }
+    }
+
+    /**
+     * Estaciones activas dentro de un radio en metros
+     */
+    @GetMapping("/nearby")
+    public ResponseEntity<?> getNearbyStations(
+            @RequestParam BigDecimal lat,
+            @RequestParam BigDecimal lon,
+            @RequestParam(defaultValue = "1000") double radiusMeters
+    ) {
+        try {
+            List<NearbyStationDTO> stations = stationLocator.findWithinRadius(lat, lon, radiusMeters);
+
+            return ResponseEntity.ok(Map.of(
+                    "success", true,
+                    "message", stations.size() + " estaciones en un radio de " + radiusMeters + " m",
+                    "data", stations
+            ));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of(
+                            "success", false,
+                            "message", e.getMessage()
+                    ));
+        }
+    }
+}
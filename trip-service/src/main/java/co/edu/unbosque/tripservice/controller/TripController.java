@@ -2,9 +2,12 @@ package co.edu.unbosque.tripservice.controller;
 
 import co.edu.unbosque.tripservice.dto.*;
 import co.edu.unbosque.tripservice.service.TripService;
+import co.edu.unbosque.tripservice.service.TripTrackService;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.HashMap;
 import java.util.List;
@@ -16,9 +19,11 @@ import java.util.Map;
 public class TripController {
 
     private final TripService tripService;
+    private final TripTrackService tripTrackService;
 
-    public TripController(TripService tripService) {
+    public TripController(TripService tripService, TripTrackService tripTrackService) {
         this.tripService = tripService;
+        this.tripTrackService = tripTrackService;
     }
 
     /**
@@ -132,6 +137,17 @@ public class TripController {
         }
     }
 
+    /**
+     * Recorrido GPS del viaje en NDJSON (un punto por línea), decodificado en streaming
+     */
+    @GetMapping(value = "/{tripId}/track", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> getTripTrack(@PathVariable Long tripId) {
+        StreamingResponseBody body = out -> tripTrackService.writeTrackNdjson(tripId, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                .body(body);
+    }
+
     /**
      * Obtener viajes activos (con simulación IoT)
      */
@@ -0,0 +1,16 @@
+package co.edu.unbosque.tripservice.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+public record FleetBikeStateDTO(
+        Long bikeId,
+        Long tripId,
+        BigDecimal latitude,
+        BigDecimal longitude,
+        BigDecimal speedKmh,
+        Integer batteryLevel,
+        String lockStatus,
+        LocalDateTime updatedAt
+) {
+}
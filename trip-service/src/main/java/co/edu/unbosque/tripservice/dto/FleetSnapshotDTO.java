@@ -0,0 +1,13 @@
+package co.edu.unbosque.tripservice.dto;
+
+import java.util.List;
+
+/**
+ * Estado de la flota; "version" se envía de vuelta como "since" para recibir solo cambios
+ */
+public record FleetSnapshotDTO(
+        long version,
+        int totalBikes,
+        List<FleetBikeStateDTO> bikes
+) {
+}
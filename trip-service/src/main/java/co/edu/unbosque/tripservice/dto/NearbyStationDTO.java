@@ -0,0 +1,15 @@
+package co.edu.unbosque.tripservice.dto;
+
+import java.math.BigDecimal;
+
+public record NearbyStationDTO(
+        Long id,
+        String name,
+        BigDecimal latitude,
+        BigDecimal longitude,
+        Integer capacity,
+        Integer dockedBicycles,
+        Integer freeDocks,
+        Integer distanceMeters
+) {
+}
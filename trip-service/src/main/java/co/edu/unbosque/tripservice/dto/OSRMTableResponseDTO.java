@@ -0,0 +1,10 @@
+package co.edu.unbosque.tripservice.dto;
+
+/**
+ * Resultado del servicio /table de OSRM.
+ * Filas = orígenes, columnas = destinos. Las celdas sin ruta quedan en NaN.
+ */
+public record OSRMTableResponseDTO(
+        double[][] distances, // metros
+        double[][] durations  // segundos
+) {}
@@ -0,0 +1,11 @@
+package co.edu.unbosque.tripservice.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+public record TrackPointDTO(
+        LocalDateTime recordedAt,
+        BigDecimal latitude,
+        BigDecimal longitude
+) {
+}
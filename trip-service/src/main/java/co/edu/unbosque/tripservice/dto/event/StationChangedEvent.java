@@ -0,0 +1,11 @@
+package co.edu.unbosque.tripservice.dto.event;
+
+import co.edu.unbosque.tripservice.model.Station;
+
+/**
+ * Evento interno (no Kafka) emitido cuando una estación se crea, modifica o elimina
+ */
+public record StationChangedEvent(
+        Station station,
+        boolean removed
+) {}
@@ -0,0 +1,6 @@
+package co.edu.unbosque.tripservice.dto.event;
+
+/**
+ * Evento interno de Spring: se registró un evento en trip_outbox dentro de la transacción actual
+ */
+public record TripOutboxRecordedEvent(Long outboxId) {}
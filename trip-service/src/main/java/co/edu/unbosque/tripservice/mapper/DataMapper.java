@@ -2,6 +2,9 @@ package co.edu.unbosque.tripservice.mapper;
 
 
 import co.edu.unbosque.tripservice.dto.*;
+import co.edu.unbosque.tripservice.dto.event.LocationData;
+import co.edu.unbosque.tripservice.dto.event.TripCompletedEvent;
+import co.edu.unbosque.tripservice.dto.event.TripStartedEvent;
 import co.edu.unbosque.tripservice.model.*;
 import org.springframework.stereotype.Component;
 
@@ -139,6 +142,47 @@ public class DataMapper {
         return trip;
     }
 
+    public TripStartedEvent toTripStartedEvent(Trip entity) {
+        if (entity == null) return null;
+
+        return new TripStartedEvent(
+                entity.getId(),
+                entity.getUserId(),
+                entity.getBicycle().getId(),
+                entity.getStartStation() != null ? entity.getStartStation().getId() : null,
+                entity.getTripType(),
+                entity.getStartTime() != null ? entity.getStartTime().toString() : LocalDateTime.now().toString(),
+                entity.getStartStation() != null ? new LocationData(
+                        entity.getStartStation().getLatitude(),
+                        entity.getStartStation().getLongitude()
+                ) : null
+        );
+    }
+
+    public TripCompletedEvent toTripCompletedEvent(Trip entity) {
+        if (entity == null) return null;
+
+        Long durationMinutes = null;
+        if (entity.getStartTime() != null && entity.getEndTime() != null) {
+            durationMinutes = Duration.between(entity.getStartTime(), entity.getEndTime()).toMinutes();
+        }
+
+        return new TripCompletedEvent(
+                entity.getId(),
+                entity.getUserId(),
+                entity.getBicycle().getId(),
+                entity.getEndStation() != null ? entity.getEndStation().getId() : null,
+                entity.getDistanceKm(),
+                durationMinutes,
+                entity.getTotalCost(),
+                entity.getEndTime() != null ? entity.getEndTime().toString() : LocalDateTime.now().toString(),
+                entity.getEndStation() != null ? new LocationData(
+                        entity.getEndStation().getLatitude(),
+                        entity.getEndStation().getLongitude()
+                ) : null
+        );
+    }
+
     public TripResponseDTO toTripResponseDTO(Trip entity) {
         if (entity == null) return null;
 
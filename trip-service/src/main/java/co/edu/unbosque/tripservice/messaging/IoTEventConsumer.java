@@ -1,22 +1,25 @@
 package co.edu.unbosque.tripservice.messaging;
 
-import co.edu.unbosque.tripservice.dto.event.*;
 import co.edu.unbosque.tripservice.dto.event.*;
 import co.edu.unbosque.tripservice.model.Bicycle;
-import co.edu.unbosque.tripservice.model.Trip;
 import co.edu.unbosque.tripservice.repository.BicycleRepository;
-import co.edu.unbosque.tripservice.repository.TripRepository;
+import co.edu.unbosque.tripservice.repository.TelemetryJdbcRepository;
+import co.edu.unbosque.tripservice.repository.TelemetryJdbcRepository.TelemetryRow;
+import co.edu.unbosque.tripservice.service.FleetStateService;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.kafka.support.Acknowledgment;
-import org.springframework.kafka.support.KafkaHeaders;
-import org.springframework.messaging.handler.annotation.Header;
 import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
-import java.util.Optional;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.*;
 
 /**
  * Consumer de eventos IoT desde Kafka
@@ -25,18 +28,23 @@ import java.util.Optional;
 @Component
 public class IoTEventConsumer {
 
+    private static final Logger log = LoggerFactory.getLogger(IoTEventConsumer.class);
+
     private final ObjectMapper objectMapper;
-    private final TripRepository tripRepository;
+    private final TelemetryJdbcRepository telemetryRepository;
     private final BicycleRepository bicycleRepository;
+    private final FleetStateService fleetStateService;
 
     public IoTEventConsumer(
             ObjectMapper objectMapper,
-            TripRepository tripRepository,
-            BicycleRepository bicycleRepository
+            TelemetryJdbcRepository telemetryRepository,
+            BicycleRepository bicycleRepository,
+            FleetStateService fleetStateService
     ) {
         this.objectMapper = objectMapper;
-        this.tripRepository = tripRepository;
+        this.telemetryRepository = telemetryRepository;
         this.bicycleRepository = bicycleRepository;
+        this.fleetStateService = fleetStateService;
     }
 
     // ================================================
@@ -46,38 +54,54 @@ public class IoTEventConsumer {
     @KafkaListener(
             topics = "bicycle-telemetry",
             groupId = "trip-service-iot-group",
-            containerFactory = "kafkaListenerContainerFactory"
+            containerFactory = "batchKafkaListenerContainerFactory"
     )
-    @Transactional
     public void consumeTelemetry(
-            @Payload String message,
-            @Header(KafkaHeaders.RECEIVED_KEY) String key,
-            @Header(KafkaHeaders.RECEIVED_PARTITION) int partition,
-            @Header(KafkaHeaders.OFFSET) long offset,
+            List<ConsumerRecord<String, String>> records,
             Acknowledgment acknowledgment
     ) {
-        try {
-            BicycleTelemetryEvent telemetry = objectMapper.readValue(message, BicycleTelemetryEvent.class);
+        List<TelemetryRow> rows = new ArrayList<>(records.size());
+        for (ConsumerRecord<String, String> record : records) {
+            try {
+                BicycleTelemetryEvent telemetry = objectMapper.readValue(record.value(), BicycleTelemetryEvent.class);
+                if (telemetry.tripId() == null) {
+                    continue;
+                }
+                detectAnomalies(telemetry);
+                TelemetryRow row = new TelemetryRow(telemetry, parseTimestamp(telemetry.timestamp()));
+                fleetStateService.onTelemetry(telemetry, row.recordedAt());
+                rows.add(row);
+            } catch (Exception e) {
+                // Un mensaje malformado no debe bloquear el resto del lote
+                log.warn("Telemetría descartada [P:{}|O:{}]: {}", record.partition(), record.offset(), e.getMessage());
+            }
+        }
 
-            System.out.println("Telemetría recibida [P:" + partition + "|O:" + offset + "] - " +
-                    "Bike: " + telemetry.bikeId() +
-                    " | Pos: " + telemetry.latitude() + "," + telemetry.longitude() +
-                    " | Speed: " + telemetry.speedKmh() + " km/h" +
-                    " | Distance: " + telemetry.distanceFromStart() + " km");
+        // Agrupar por viaje y descartar los que ya no están en progreso (una sola consulta)
+        Map<Long, List<TelemetryRow>> byTrip = new HashMap<>();
+        for (TelemetryRow row : rows) {
+            byTrip.computeIfAbsent(row.event().tripId(), id -> new ArrayList<>()).add(row);
+        }
+        Set<Long> activeTrips = telemetryRepository.findTripsInProgress(byTrip.keySet());
+        byTrip.keySet().retainAll(activeTrips);
+
+        Map<Long, TelemetryRow> latestPerBike = new HashMap<>();
+        for (List<TelemetryRow> tripRows : byTrip.values()) {
+            for (TelemetryRow row : tripRows) {
+                latestPerBike.merge(row.event().bikeId(), row,
+                        (current, candidate) -> candidate.recordedAt().isBefore(current.recordedAt()) ? current : candidate);
+            }
+        }
 
-            // Procesar telemetría
-            processTelemetry(telemetry);
+        if (!byTrip.isEmpty()) {
+            telemetryRepository.saveBatch(byTrip, latestPerBike.values());
+        }
 
-            // Validar anomalías
-            detectAnomalies(telemetry);
+        log.debug("Lote de telemetría: {} registros, {} viajes activos, {} bicicletas",
+                records.size(), byTrip.size(), latestPerBike.size());
 
-            // Commit manual - solo si se procesó correctamente
-            acknowledgment.acknowledge();
-
-        } catch (Exception e) {
-            System.err.println("Error procesando telemetría: " + e.getMessage());
-            // No hacer acknowledge - se reintentará
-        }
+        // Commit de offsets una sola vez por lote; si saveBatch falla, el error handler reintenta el lote
+        acknowledgment.acknowledge();
     }
 
     // ================================================
@@ -95,6 +119,7 @@ public class IoTEventConsumer {
     ) {
         try {
             LockStatusEvent lockEvent = objectMapper.readValue(message, LockStatusEvent.class);
+            fleetStateService.onLockStatus(lockEvent);
 
             System.out.println("Lock status recibido - Bike: " + lockEvent.bikeId() +
                     " -> " + lockEvent.lockStatus());
@@ -134,6 +159,7 @@ public class IoTEventConsumer {
     ) {
         try {
             BatteryStatusEvent batteryEvent = objectMapper.readValue(message, BatteryStatusEvent.class);
+            fleetStateService.onBattery(batteryEvent);
 
             System.out.println("Battery status recibido - Bike: " + batteryEvent.bikeId() +
                     " -> " + batteryEvent.batteryLevel() + "% [" + batteryEvent.alertLevel() + "]");
@@ -234,34 +260,30 @@ public class IoTEventConsumer {
     // MÉTODOS DE PROCESAMIENTO
     // ================================================
 
-    private void processTelemetry(BicycleTelemetryEvent telemetry) {
-        // Actualizar posición actual del viaje en BD (opcional)
-        Optional<Trip> tripOpt = tripRepository.findById(telemetry.tripId());
-
-        tripOpt.ifPresent(trip -> {
-            // Aquí podrías guardar waypoints, actualizar distancia en tiempo real, etc.
-            // Por ahora solo logeamos
-            System.out.println("   → Viaje " + trip.getId() + " en progreso: " +
-                    telemetry.distanceFromStart() + " km recorridos");
-        });
-    }
-
     private void detectAnomalies(BicycleTelemetryEvent telemetry) {
         // Velocidad excesiva (>40 km/h sospechoso)
-        if (telemetry.speedKmh().compareTo(BigDecimal.valueOf(40)) > 0) {
-            System.out.println("⚠️ ANOMALÍA: Velocidad excesiva - " + telemetry.speedKmh() + " km/h");
+        if (telemetry.speedKmh() != null && telemetry.speedKmh().compareTo(BigDecimal.valueOf(40)) > 0) {
+            log.warn("ANOMALÍA: Velocidad excesiva - Bike {}: {} km/h", telemetry.bikeId(), telemetry.speedKmh());
             // TODO: Generar alerta SPEED_LIMIT
         }
 
         // Precisión GPS muy baja (>20m)
-        if (telemetry.accuracy().compareTo(BigDecimal.valueOf(20)) > 0) {
-            System.out.println("⚠️ ANOMALÍA: Señal GPS débil - Precisión: " + telemetry.accuracy() + "m");
+        if (telemetry.accuracy() != null && telemetry.accuracy().compareTo(BigDecimal.valueOf(20)) > 0) {
+            log.warn("ANOMALÍA: Señal GPS débil - Bike {}: precisión {} m", telemetry.bikeId(), telemetry.accuracy());
         }
 
         // TODO: Validar que la bicicleta esté dentro de los límites de Bogotá
         // TODO: Detectar si está en una zona no permitida
     }
 
+    private LocalDateTime parseTimestamp(String timestamp) {
+        try {
+            return LocalDateTime.parse(timestamp);
+        } catch (DateTimeParseException e) {
+            return LocalDateTime.now();
+        }
+    }
+
     private void handleCriticalBattery(BatteryStatusEvent batteryEvent) {
         Optional<Bicycle> bicycleOpt = bicycleRepository.findById(batteryEvent.bikeId());
 
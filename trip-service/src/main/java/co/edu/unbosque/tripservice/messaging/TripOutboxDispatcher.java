@@ -0,0 +1,124 @@
+package co.edu.unbosque.tripservice.messaging;
+
+import co.edu.unbosque.tripservice.dto.event.TripOutboxRecordedEvent;
+import co.edu.unbosque.tripservice.model.Trip;
+import co.edu.unbosque.tripservice.model.TripOutboxEvent;
+import co.edu.unbosque.tripservice.repository.TripOutboxRepository;
+import co.edu.unbosque.tripservice.repository.TripRepository;
+import co.edu.unbosque.tripservice.util.IoTBikeSimulator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+
+/**
+ * Etapa post-commit del ciclo de vida del viaje.
+ *
+ * Cuando la transacción que registró el evento en trip_outbox hace commit, el evento se
+ * despacha en un pool propio: la petición HTTP ya respondió y no retiene conexiones de BD
+ * mientras se calcula la ruta OSRM. Las notificaciones al usuario no pasan por aquí:
+ * notification-service las produce consumiendo trip-events. Si el proceso cae o el pool
+ * está lleno, el barrido periódico retoma los eventos pendientes (entrega al menos una vez).
+ *
+ * TRIP_COMPLETED detiene la simulación después del commit de endTrip, y TRIP_STARTED vuelve a
+ * leer el estado tras registrarla: así un endTrip que confirma mientras la simulación arranca
+ * no la deja corriendo, en cualquier orden en que se crucen.
+ */
+@Component
+public class TripOutboxDispatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(TripOutboxDispatcher.class);
+
+    private final TripOutboxRepository outboxRepo;
+    private final TripRepository tripRepo;
+    private final IoTBikeSimulator iotSimulator;
+    private final TaskExecutor executor;
+
+    @Value("${trip.pipeline.lease-seconds:60}")
+    private long leaseSeconds;
+
+    @Value("${trip.pipeline.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${trip.pipeline.sweep-delay-seconds:30}")
+    private long sweepDelaySeconds;
+
+    public TripOutboxDispatcher(
+            TripOutboxRepository outboxRepo,
+            TripRepository tripRepo,
+            IoTBikeSimulator iotSimulator,
+            @Qualifier("tripPipelineExecutor") TaskExecutor executor
+    ) {
+        this.outboxRepo = outboxRepo;
+        this.tripRepo = tripRepo;
+        this.iotSimulator = iotSimulator;
+        this.executor = executor;
+    }
+
+    @TransactionalEventListener
+    public void onOutboxRecorded(TripOutboxRecordedEvent event) {
+        try {
+            executor.execute(() -> dispatch(event.outboxId()));
+        } catch (TaskRejectedException e) {
+            log.warn("Pool de pipeline lleno; el evento {} queda para el barrido", event.outboxId());
+        }
+    }
+
+    @Scheduled(
+            fixedDelayString = "${trip.pipeline.sweep-interval-ms:15000}",
+            initialDelayString = "${trip.pipeline.sweep-interval-ms:15000}"
+    )
+    public void sweepPending() {
+        LocalDateTime now = LocalDateTime.now();
+        for (Long id : outboxRepo.findPendingIds(now.minusSeconds(sweepDelaySeconds), maxAttempts, now, PageRequest.of(0, 100))) {
+            dispatch(id);
+        }
+    }
+
+    private void dispatch(Long outboxId) {
+        LocalDateTime now = LocalDateTime.now();
+        if (outboxRepo.claim(outboxId, now, now.plusSeconds(leaseSeconds)) == 0) {
+            return;
+        }
+
+        try {
+            TripOutboxEvent event = outboxRepo.findById(outboxId).orElseThrow();
+            Trip trip = tripRepo.findById(event.getTripId())
+                    .orElseThrow(() -> new IllegalStateException("Viaje no encontrado: " + event.getTripId()));
+
+            switch (event.getEventType()) {
+                case "TRIP_STARTED" -> handleTripStarted(trip);
+                case "TRIP_COMPLETED" -> iotSimulator.stopSimulation(trip.getId());
+                default -> log.debug("Evento {} sin efectos locales", event.getEventType());
+            }
+
+            outboxRepo.markHandled(outboxId, LocalDateTime.now());
+        } catch (Exception e) {
+            log.error("Error procesando evento de outbox {}: {}", outboxId, e.getMessage());
+            String error = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+            outboxRepo.markFailed(outboxId, error.length() > 500 ? error.substring(0, 500) : error);
+        }
+    }
+
+    private void handleTripStarted(Trip trip) {
+        // El viaje pudo terminar antes de que se procesara el evento
+        if (!"IN_PROGRESS".equals(trip.getStatus())) {
+            return;
+        }
+        iotSimulator.startSimulation(trip);
+
+        // endTrip pudo confirmar entre la lectura y el registro, cuando aún no había qué detener
+        String status = tripRepo.findStatusById(trip.getId()).orElse(null);
+        if (!"IN_PROGRESS".equals(status)) {
+            iotSimulator.stopSimulation(trip.getId());
+        }
+    }
+}
@@ -0,0 +1,229 @@
+package co.edu.unbosque.tripservice.messaging;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Publica en trip-events los eventos registrados en trip_outbox.
+ *
+ * Cada ciclo toma un lote con FOR UPDATE SKIP LOCKED, lo envía con clave = tripId y marca
+ * published_at solo para los envíos confirmados. Los eventos de un mismo viaje se encadenan:
+ * el siguiente se envía cuando Kafka confirmó el anterior, así que si uno falla los que
+ * vienen detrás no salen y el próximo ciclo reenvía el viaje desde el evento fallido. Viajes
+ * distintos se envían en paralelo. Todo el lote comparte un plazo (batch-timeout-ms): al
+ * vencer no se inician más envíos y se liberan los locks. Cada mensaje lleva el header
+ * "event_id" (id del outbox) para deduplicar aguas abajo los reenvíos.
+ *
+ * Con varias instancias del relay, SKIP LOCKED permite que cada una tome eventos distintos de
+ * un mismo viaje; en ese caso el orden por viaje ya no está garantizado y los consumidores
+ * deben tolerarlo.
+ */
+@Component
+public class TripOutboxRelay {
+
+    private static final Logger log = LoggerFactory.getLogger(TripOutboxRelay.class);
+
+    public static final String EVENT_ID_HEADER = "event_id";
+    public static final String EVENT_TYPE_HEADER = "event_type";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final KafkaTemplate<String, String> outboxKafkaTemplate;
+
+    private final Counter publishedCounter;
+    private final Counter failedCounter;
+    private final Timer publishLag;
+    private final AtomicLong pendingEvents = new AtomicLong();
+    private final AtomicLong oldestPendingAgeSeconds = new AtomicLong();
+
+    @Value("${trip.outbox.relay.topic:trip-events}")
+    private String topic;
+
+    @Value("${trip.outbox.relay.batch-size:200}")
+    private int batchSize;
+
+    @Value("${trip.outbox.relay.batch-timeout-ms:10000}")
+    private long batchTimeoutMs;
+
+    @Value("${trip.outbox.retention-days:7}")
+    private int retentionDays;
+
+    public TripOutboxRelay(
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            @Qualifier("outboxKafkaTemplate") KafkaTemplate<String, String> outboxKafkaTemplate,
+            MeterRegistry meterRegistry
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.outboxKafkaTemplate = outboxKafkaTemplate;
+
+        this.publishedCounter = Counter.builder("trip.outbox.published")
+                .description("Eventos de trip_outbox publicados en Kafka")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("trip.outbox.failed")
+                .description("Envíos fallidos desde trip_outbox (se reintentan)")
+                .register(meterRegistry);
+        this.publishLag = Timer.builder("trip.outbox.publish.lag")
+                .description("Tiempo entre el commit del evento y su confirmación en Kafka")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        Gauge.builder("trip.outbox.pending", pendingEvents, AtomicLong::get)
+                .description("Eventos de trip_outbox sin publicar")
+                .register(meterRegistry);
+        Gauge.builder("trip.outbox.oldest.age.seconds", oldestPendingAgeSeconds, AtomicLong::get)
+                .description("Antigüedad del evento sin publicar más viejo")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Drena lotes mientras vengan llenos; cuando el outbox está al día espera poll-interval-ms
+     */
+    @Scheduled(fixedDelayString = "${trip.outbox.relay.poll-interval-ms:200}")
+    public void relay() {
+        int published;
+        do {
+            Integer result = transactionTemplate.execute(status -> drainBatch());
+            published = result != null ? result : 0;
+        } while (published >= batchSize);
+    }
+
+    private int drainBatch() {
+        List<OutboxRow> batch = jdbcTemplate.query(
+                "SELECT id, trip_id, event_type, payload, created_at FROM trip_outbox " +
+                        "WHERE published_at IS NULL ORDER BY id LIMIT ? FOR UPDATE SKIP LOCKED",
+                (rs, rowNum) -> new OutboxRow(
+                        rs.getLong("id"),
+                        rs.getLong("trip_id"),
+                        rs.getString("event_type"),
+                        rs.getString("payload"),
+                        rs.getTimestamp("created_at").toLocalDateTime()
+                ),
+                batchSize
+        );
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        Map<Long, List<OutboxRow>> byTrip = new LinkedHashMap<>();
+        for (OutboxRow row : batch) {
+            byTrip.computeIfAbsent(row.tripId(), tripId -> new ArrayList<>()).add(row);
+        }
+
+        // Una cadena por viaje; los envíos corren fuera de este hilo (send() puede bloquear hasta
+        // max.block.ms sin metadata) y el productor agrupa los de viajes distintos (linger/batch)
+        Queue<OutboxRow> confirmed = new ConcurrentLinkedQueue<>();
+        AtomicBoolean closed = new AtomicBoolean();
+        List<CompletableFuture<Void>> chains = new ArrayList<>(byTrip.size());
+        for (List<OutboxRow> rows : byTrip.values()) {
+            CompletableFuture<Void> chain = CompletableFuture.completedFuture(null);
+            for (OutboxRow row : rows) {
+                chain = chain
+                        .thenComposeAsync(ignored -> publish(row, closed))
+                        .thenRun(() -> confirmed.add(row));
+            }
+            chains.add(chain.exceptionally(error -> null));
+        }
+
+        try {
+            CompletableFuture.allOf(chains.toArray(CompletableFuture[]::new)).get(batchTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            log.warn("Lote de trip_outbox sin confirmar tras {} ms; se reintenta en el próximo ciclo", batchTimeoutMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            // no ocurre: cada cadena absorbe su error
+        }
+        closed.set(true);
+
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> published = new ArrayList<>(confirmed.size());
+        for (OutboxRow row : confirmed) {
+            published.add(new Object[]{Timestamp.valueOf(now), row.id()});
+            publishLag.record(Duration.between(row.createdAt(), now));
+        }
+        if (!published.isEmpty()) {
+            jdbcTemplate.batchUpdate("UPDATE trip_outbox SET published_at = ? WHERE id = ?", published);
+            publishedCounter.increment(published.size());
+        }
+        return published.size();
+    }
+
+    private CompletableFuture<Void> publish(OutboxRow row, AtomicBoolean closed) {
+        // Venció el plazo del lote: no se envía nada más y el viaje se retoma desde aquí
+        if (closed.get()) {
+            return CompletableFuture.failedFuture(new IllegalStateException("Plazo del lote vencido"));
+        }
+        ProducerRecord<String, String> record = new ProducerRecord<>(topic, row.tripId().toString(), row.payload());
+        record.headers().add(EVENT_ID_HEADER, row.id().toString().getBytes(StandardCharsets.UTF_8));
+        record.headers().add(EVENT_TYPE_HEADER, row.eventType().getBytes(StandardCharsets.UTF_8));
+        return outboxKafkaTemplate.send(record)
+                .<Void>thenApply(result -> null)
+                .whenComplete((ignored, error) -> {
+                    if (error != null) {
+                        failedCounter.increment();
+                        log.warn("No se pudo publicar el evento {} del viaje {}: {}", row.id(), row.tripId(), error.getMessage());
+                    }
+                });
+    }
+
+    @Scheduled(fixedDelayString = "${trip.outbox.metrics-interval-ms:10000}")
+    public void refreshLagMetrics() {
+        jdbcTemplate.query(
+                "SELECT COUNT(*), MIN(created_at) FROM trip_outbox WHERE published_at IS NULL",
+                rs -> {
+                    pendingEvents.set(rs.getLong(1));
+                    Timestamp oldest = rs.getTimestamp(2);
+                    oldestPendingAgeSeconds.set(oldest != null
+                            ? Math.max(0, Duration.between(oldest.toLocalDateTime(), LocalDateTime.now()).toSeconds())
+                            : 0);
+                }
+        );
+    }
+
+    /**
+     * Elimina eventos ya publicados y procesados con más de retention-days
+     */
+    @Scheduled(cron = "${trip.outbox.cleanup-cron:0 30 3 * * *}")
+    public void purgeOldEvents() {
+        int deleted = jdbcTemplate.update(
+                "DELETE FROM trip_outbox WHERE published_at IS NOT NULL AND handled_at IS NOT NULL AND created_at < ?",
+                Timestamp.valueOf(LocalDateTime.now().minusDays(retentionDays))
+        );
+        if (deleted > 0) {
+            log.info("trip_outbox: {} eventos antiguos eliminados", deleted);
+        }
+    }
+
+    private record OutboxRow(Long id, Long tripId, String eventType, String payload, LocalDateTime createdAt) {}
+}
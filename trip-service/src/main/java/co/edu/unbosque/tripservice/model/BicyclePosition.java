@@ -0,0 +1,96 @@
+package co.edu.unbosque.tripservice.model;
+
+import jakarta.persistence.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Última posición conocida de cada bicicleta (una fila por bicicleta).
+ * Se actualiza con upsert en lote vía JDBC desde el consumidor de telemetría.
+ */
+@Entity
+@Table(name = "bicycle_position")
+public class BicyclePosition {
+
+    @Id
+    @Column(name = "bike_id")
+    private Long bikeId;
+
+    @Column(name = "trip_id")
+    private Long tripId;
+
+    @Column(nullable = false, precision = 9, scale = 6)
+    private BigDecimal latitude;
+
+    @Column(nullable = false, precision = 9, scale = 6)
+    private BigDecimal longitude;
+
+    @Column(name = "speed_kmh", precision = 5, scale = 1)
+    private BigDecimal speedKmh;
+
+    @Column(name = "battery_level")
+    private Integer batteryLevel;
+
+    @Column(name = "recorded_at", nullable = false)
+    private LocalDateTime recordedAt;
+
+    public BicyclePosition() {
+    }
+
+    public Long getBikeId() {
+        return bikeId;
+    }
+
+    public void setBikeId(Long bikeId) {
+        this.bikeId = bikeId;
+    }
+
+    public Long getTripId() {
+        return tripId;
+    }
+
+    public void setTripId(Long tripId) {
+        this.tripId = tripId;
+    }
+
+    public BigDecimal getLatitude() {
+        return latitude;
+    }
+
+    public void setLatitude(BigDecimal latitude) {
+        this.latitude = latitude;
+    }
+
+    public BigDecimal getLongitude() {
+        return longitude;
+    }
+
+    public void setLongitude(BigDecimal longitude) {
+        this.longitude = longitude;
+    }
+
+    public BigDecimal getSpeedKmh() {
+        return speedKmh;
+    }
+
+    public void setSpeedKmh(BigDecimal speedKmh) {
+        this.speedKmh = speedKmh;
+    }
+
+    public Integer getBatteryLevel() {
+        return batteryLevel;
+    }
+
+    public void setBatteryLevel(Integer batteryLevel) {
+        this.batteryLevel = batteryLevel;
+    }
+
+    public LocalDateTime getRecordedAt() {
+        return recordedAt;
+    }
+
+    public void setRecordedAt(LocalDateTime recordedAt) {
+        this.recordedAt = recordedAt;
+    }
+}
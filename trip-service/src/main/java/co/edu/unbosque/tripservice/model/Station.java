@@ -3,6 +3,7 @@ import jakarta.persistence.*;
 import java.math.BigDecimal;
 @Entity
 @Table(name = "station")
+@EntityListeners(StationChangeListener.class)
 public class Station {
 
     @Id
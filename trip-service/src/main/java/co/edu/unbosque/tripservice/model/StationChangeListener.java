@@ -0,0 +1,33 @@
+package co.edu.unbosque.tripservice.model;
+
+import co.edu.unbosque.tripservice.dto.event.StationChangedEvent;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+/**
+ * Listener JPA que publica los cambios de estaciones para mantener
+ * sincronizados los índices en memoria (ej. índice espacial).
+ */
+@Component
+public class StationChangeListener {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    public StationChangeListener(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void onSaved(Station station) {
+        eventPublisher.publishEvent(new StationChangedEvent(station, false));
+    }
+
+    @PostRemove
+    public void onRemoved(Station station) {
+        eventPublisher.publishEvent(new StationChangedEvent(station, true));
+    }
+}
@@ -45,7 +45,7 @@ public class Trip {
     private String paymentSource; // WALLET, CARD
 
     @Column(length = 20)
-    private String status = "IN_PROGRESS"; // IN_PROGRESS, COMPLETED, CANCELLED
+    private String status = "IN_PROGRESS"; // IN_PROGRESS, COMPLETED, PAYMENT_PENDING, CANCELLED
 
     @Column(name = "trip_type", length = 20)
     private String tripType;
@@ -0,0 +1,108 @@
+package co.edu.unbosque.tripservice.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Recorrido GPS de un viaje en una sola fila: los puntos viven en "data" codificados
+ * con TrackCodec y se añaden en lote vía JDBC. Las columnas last_* guardan el último
+ * punto para poder codificar el siguiente bloque como delta sin leer el track completo.
+ * La entidad solo define el esquema de la tabla.
+ */
+@Entity
+@Table(name = "trip_track")
+public class TripTrack {
+
+    @Id
+    @Column(name = "trip_id")
+    private Long tripId;
+
+    @Column(name = "bike_id", nullable = false)
+    private Long bikeId;
+
+    @Column(name = "point_count", nullable = false)
+    private Integer pointCount;
+
+    @Column(name = "last_lat_e6", nullable = false)
+    private Integer lastLatE6;
+
+    @Column(name = "last_lon_e6", nullable = false)
+    private Integer lastLonE6;
+
+    @Column(name = "last_time_ms", nullable = false)
+    private Long lastTimeMs;
+
+    @Column(nullable = false, columnDefinition = "bytea")
+    private byte[] data;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    public TripTrack() {
+    }
+
+    public Long getTripId() {
+        return tripId;
+    }
+
+    public void setTripId(Long tripId) {
+        this.tripId = tripId;
+    }
+
+    public Long getBikeId() {
+        return bikeId;
+    }
+
+    public void setBikeId(Long bikeId) {
+        this.bikeId = bikeId;
+    }
+
+    public Integer getPointCount() {
+        return pointCount;
+    }
+
+    public void setPointCount(Integer pointCount) {
+        this.pointCount = pointCount;
+    }
+
+    public Integer getLastLatE6() {
+        return lastLatE6;
+    }
+
+    public void setLastLatE6(Integer lastLatE6) {
+        this.lastLatE6 = lastLatE6;
+    }
+
+    public Integer getLastLonE6() {
+        return lastLonE6;
+    }
+
+    public void setLastLonE6(Integer lastLonE6) {
+        this.lastLonE6 = lastLonE6;
+    }
+
+    public Long getLastTimeMs() {
+        return lastTimeMs;
+    }
+
+    public void setLastTimeMs(Long lastTimeMs) {
+        this.lastTimeMs = lastTimeMs;
+    }
+
+    public byte[] getData() {
+        return data;
+    }
+
+    public void setData(byte[] data) {
+        this.data = data;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
@@ -23,6 +23,13 @@ public interface BicycleRepository extends JpaRepository<Bicycle, Long> {
             "AND (b.type = 'MECHANICAL' OR (b.type = 'ELECTRIC' AND b.batteryLevel >= 40))")
     List<Bicycle> findAvailableBicyclesByStation(Long stationId);
 
+    /**
+     * Bicicletas ancladas (no en uso) por estación: filas [stationId, count]
+     */
+    @Query("SELECT b.lastStation.id, COUNT(b) FROM Bicycle b " +
+            "WHERE b.lastStation IS NOT NULL AND b.status <> 'IN_USE' GROUP BY b.lastStation.id")
+    List<Object[]> countDockedBicyclesGroupedByStation();
+
     List<Bicycle> findByStatus(String status);
 
     @Query("SELECT b FROM Bicycle b WHERE b.type = 'ELECTRIC' AND b.batteryLevel < 40")
@@ -0,0 +1,193 @@
+package co.edu.unbosque.tripservice.repository;
+
+import co.edu.unbosque.tripservice.cache.RouteKey;
+import co.edu.unbosque.tripservice.dto.event.BicycleTelemetryEvent;
+import co.edu.unbosque.tripservice.util.TrackCodec;
+import co.edu.unbosque.tripservice.util.TrackCodec.TrackPoint;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+
+/**
+ * Persistencia en lote de telemetría con JDBC puro (tracks de viaje y última posición).
+ * Un lote de Kafka se escribe con una sola sentencia batch por tabla,
+ * sin pasar por el contexto de persistencia de JPA.
+ */
+@Repository
+public class TelemetryJdbcRepository {
+
+    private static final String INSERT_TRACK =
+            "INSERT INTO trip_track (trip_id, bike_id, point_count, last_lat_e6, last_lon_e6, last_time_ms, data, updated_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    // Postgres reescribe el bytea completo en cada append; un viaje (<= 75 min a 5 s) ocupa pocos KB
+    private static final String APPEND_TRACK =
+            "UPDATE trip_track SET data = data || ?, point_count = point_count + ?, " +
+            "last_lat_e6 = ?, last_lon_e6 = ?, last_time_ms = ?, updated_at = ? WHERE trip_id = ?";
+
+    private static final String UPSERT_POSITION =
+            "INSERT INTO bicycle_position (bike_id, trip_id, latitude, longitude, speed_kmh, battery_level, recorded_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?) " +
+            "ON CONFLICT (bike_id) DO UPDATE SET " +
+            "trip_id = EXCLUDED.trip_id, latitude = EXCLUDED.latitude, longitude = EXCLUDED.longitude, " +
+            "speed_kmh = EXCLUDED.speed_kmh, battery_level = EXCLUDED.battery_level, recorded_at = EXCLUDED.recorded_at " +
+            "WHERE bicycle_position.recorded_at <= EXCLUDED.recorded_at";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    public TelemetryJdbcRepository(JdbcTemplate jdbcTemplate, NamedParameterJdbcTemplate namedJdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = namedJdbcTemplate;
+    }
+
+    /**
+     * De los ids recibidos, retorna los que corresponden a viajes en progreso (una consulta)
+     */
+    public Set<Long> findTripsInProgress(Collection<Long> tripIds) {
+        if (tripIds.isEmpty()) {
+            return Set.of();
+        }
+        return new HashSet<>(namedJdbcTemplate.queryForList(
+                "SELECT id FROM trip WHERE id IN (:ids) AND status = 'IN_PROGRESS'",
+                new MapSqlParameterSource("ids", tripIds),
+                Long.class
+        ));
+    }
+
+    /**
+     * Añade los puntos del lote al track de cada viaje y actualiza la última posición
+     * de cada bicicleta; una sentencia batch por tabla y una sola transacción por lote
+     */
+    @Transactional
+    public void saveBatch(Map<Long, List<TelemetryRow>> rowsByTrip, Collection<TelemetryRow> latestPerBike) {
+        appendTracks(rowsByTrip);
+
+        // Ignora posiciones más antiguas que la ya guardada (reentregas o particiones desfasadas)
+        List<Object[]> positionRows = new ArrayList<>(latestPerBike.size());
+        for (TelemetryRow row : latestPerBike) {
+            BicycleTelemetryEvent event = row.event();
+            positionRows.add(new Object[]{
+                    event.bikeId(),
+                    event.tripId(),
+                    event.latitude(),
+                    event.longitude(),
+                    event.speedKmh(),
+                    event.batteryLevel(),
+                    Timestamp.valueOf(row.recordedAt())
+            });
+        }
+        jdbcTemplate.batchUpdate(UPSERT_POSITION, positionRows, new int[]{
+                Types.BIGINT, Types.BIGINT, Types.NUMERIC, Types.NUMERIC, Types.NUMERIC, Types.INTEGER, Types.TIMESTAMP
+        });
+    }
+
+    /**
+     * Datos codificados del track de un viaje (ver TrackCodec)
+     */
+    public Optional<byte[]> findTrackData(Long tripId) {
+        List<byte[]> data = jdbcTemplate.query(
+                "SELECT data FROM trip_track WHERE trip_id = ?",
+                (rs, rowNum) -> rs.getBytes(1),
+                tripId
+        );
+        return data.stream().findFirst();
+    }
+
+    private void appendTracks(Map<Long, List<TelemetryRow>> rowsByTrip) {
+        if (rowsByTrip.isEmpty()) {
+            return;
+        }
+
+        // Último punto guardado de cada viaje; el lock evita appends concurrentes tras un rebalanceo
+        Map<Long, TrackPoint> lastPoints = new HashMap<>();
+        namedJdbcTemplate.query(
+                "SELECT trip_id, last_lat_e6, last_lon_e6, last_time_ms FROM trip_track WHERE trip_id IN (:ids) FOR UPDATE",
+                new MapSqlParameterSource("ids", rowsByTrip.keySet()),
+                rs -> {
+                    lastPoints.put(rs.getLong(1), new TrackPoint(rs.getLong(4), rs.getInt(2), rs.getInt(3)));
+                }
+        );
+
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> inserts = new ArrayList<>();
+        List<Object[]> appends = new ArrayList<>();
+
+        for (Map.Entry<Long, List<TelemetryRow>> entry : rowsByTrip.entrySet()) {
+            TrackPoint previous = lastPoints.get(entry.getKey());
+            List<TrackPoint> points = toTrackPoints(entry.getValue(), previous);
+            if (points.isEmpty()) {
+                continue;
+            }
+
+            byte[] block = TrackCodec.encode(points, previous);
+            TrackPoint last = points.get(points.size() - 1);
+            if (previous == null) {
+                inserts.add(new Object[]{
+                        entry.getKey(), entry.getValue().get(0).event().bikeId(), points.size(),
+                        last.latE6(), last.lonE6(), last.timeMillis(), block, Timestamp.valueOf(now)
+                });
+            } else {
+                appends.add(new Object[]{
+                        block, points.size(), last.latE6(), last.lonE6(), last.timeMillis(),
+                        Timestamp.valueOf(now), entry.getKey()
+                });
+            }
+        }
+
+        if (!inserts.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_TRACK, inserts, new int[]{
+                    Types.BIGINT, Types.BIGINT, Types.INTEGER, Types.INTEGER, Types.INTEGER, Types.BIGINT,
+                    Types.BINARY, Types.TIMESTAMP
+            });
+        }
+        if (!appends.isEmpty()) {
+            jdbcTemplate.batchUpdate(APPEND_TRACK, appends, new int[]{
+                    Types.BINARY, Types.INTEGER, Types.INTEGER, Types.INTEGER, Types.BIGINT, Types.TIMESTAMP,
+                    Types.BIGINT
+            });
+        }
+    }
+
+    /**
+     * Ordena por tiempo y descarta puntos no posteriores al último guardado,
+     * de modo que una reentrega de Kafka no duplique el recorrido
+     */
+    private List<TrackPoint> toTrackPoints(List<TelemetryRow> rows, TrackPoint previous) {
+        List<TrackPoint> candidates = new ArrayList<>(rows.size());
+        for (TelemetryRow row : rows) {
+            BicycleTelemetryEvent event = row.event();
+            if (event.latitude() != null && event.longitude() != null) {
+                candidates.add(new TrackPoint(
+                        row.recordedAt().toInstant(ZoneOffset.UTC).toEpochMilli(),
+                        RouteKey.toE6(event.latitude()),
+                        RouteKey.toE6(event.longitude())
+                ));
+            }
+        }
+        candidates.sort(Comparator.comparingLong(TrackPoint::timeMillis));
+
+        long lastTime = previous != null ? previous.timeMillis() : Long.MIN_VALUE;
+        List<TrackPoint> points = new ArrayList<>(candidates.size());
+        for (TrackPoint point : candidates) {
+            if (point.timeMillis() > lastTime) {
+                points.add(point);
+                lastTime = point.timeMillis();
+            }
+        }
+        return points;
+    }
+
+    /**
+     * Evento de telemetría con su marca de tiempo ya parseada
+     */
+    public record TelemetryRow(BicycleTelemetryEvent event, LocalDateTime recordedAt) {}
+}
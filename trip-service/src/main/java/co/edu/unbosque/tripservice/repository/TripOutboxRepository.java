@@ -0,0 +1,43 @@
+package co.edu.unbosque.tripservice.repository;
+
+import co.edu.unbosque.tripservice.model.TripOutboxEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface TripOutboxRepository extends JpaRepository<TripOutboxEvent, Long> {
+
+    /**
+     * Toma el evento para procesarlo hasta "until"; retorna 0 si ya fue procesado
+     * o si otro hilo/instancia lo tiene tomado
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE TripOutboxEvent e SET e.lockedUntil = :until, e.attempts = e.attempts + 1 " +
+            "WHERE e.id = :id AND e.handledAt IS NULL AND (e.lockedUntil IS NULL OR e.lockedUntil < :now)")
+    int claim(Long id, LocalDateTime now, LocalDateTime until);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE TripOutboxEvent e SET e.handledAt = :handledAt, e.lockedUntil = NULL, e.lastError = NULL WHERE e.id = :id")
+    int markHandled(Long id, LocalDateTime handledAt);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE TripOutboxEvent e SET e.lockedUntil = NULL, e.lastError = :error WHERE e.id = :id")
+    int markFailed(Long id, String error);
+
+    /**
+     * Eventos sin procesar que el despacho post-commit no alcanzó a completar
+     */
+    @Query("SELECT e.id FROM TripOutboxEvent e WHERE e.handledAt IS NULL AND e.createdAt < :olderThan " +
+            "AND e.attempts < :maxAttempts AND (e.lockedUntil IS NULL OR e.lockedUntil < :now) ORDER BY e.id")
+    List<Long> findPendingIds(LocalDateTime olderThan, int maxAttempts, LocalDateTime now, Pageable page);
+}
@@ -20,6 +20,9 @@ public interface TripRepository extends JpaRepository<Trip, Long> {
 
     List<Trip> findByStatus(String status);
 
+    @Query("SELECT t.status FROM Trip t WHERE t.id = :id")
+    Optional<String> findStatusById(Long id);
+
     @Query("SELECT t FROM Trip t WHERE t.startTime BETWEEN :start AND :end")
     List<Trip> findTripsBetweenDates(LocalDateTime start, LocalDateTime end);
 
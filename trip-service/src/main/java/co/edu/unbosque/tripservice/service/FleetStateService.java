@@ -0,0 +1,43 @@
+package co.edu.unbosque.tripservice.service;
+
+import co.edu.unbosque.tripservice.dto.FleetSnapshotDTO;
+import co.edu.unbosque.tripservice.dto.event.BatteryStatusEvent;
+import co.edu.unbosque.tripservice.dto.event.BicycleTelemetryEvent;
+import co.edu.unbosque.tripservice.dto.event.LockStatusEvent;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Estado en vivo de la flota (posición, velocidad, batería, candado) alimentado
+ * por los tópicos IoT. Se sirve desde memoria, sin consultar la base de datos.
+ */
+public interface FleetStateService {
+
+    /**
+     * Aplica un punto de telemetría; los eventos más antiguos que el último aplicado se ignoran.
+     *
+     * @param event      evento de telemetría
+     * @param recordedAt marca de tiempo del evento ya parseada
+     */
+    void onTelemetry(BicycleTelemetryEvent event, LocalDateTime recordedAt);
+
+    void onBattery(BatteryStatusEvent event);
+
+    void onLockStatus(LockStatusEvent event);
+
+    /**
+     * Estado de las bicicletas que cambiaron desde una versión.
+     *
+     * @param sinceVersion versión retornada por una consulta anterior (0 = todas)
+     * @return bicicletas modificadas y la versión actual
+     */
+    FleetSnapshotDTO getSnapshot(long sinceVersion);
+
+    /**
+     * Registra un cliente SSE: recibe el estado completo y luego solo los cambios.
+     *
+     * @return emisor asociado a la conexión
+     */
+    SseEmitter subscribe();
+}
@@ -20,7 +20,7 @@ public interface IoTPublisherService {
 
     /**
      * Detiene la simulación de telemetría de un viaje en curso,
-     * eliminándolo del mapa activo y publicando el evento de finalización.
+     * eliminándolo del mapa activo. El evento de finalización se publica vía trip_outbox.
      *
      * @param tripId     identificador del viaje
      * @param distanceKm distancia total recorrida (en km)
@@ -3,6 +3,7 @@ package co.edu.unbosque.tripservice.service;
 
 
 import co.edu.unbosque.tripservice.dto.OSMRouteResponseDTO;
+import co.edu.unbosque.tripservice.dto.OSRMTableResponseDTO;
 
 import java.math.BigDecimal;
 import java.util.List;
@@ -30,6 +31,19 @@ public interface OSRMRouteService {
             BigDecimal endLat
     );
 
+    /**
+     * Calcula en una sola petición la matriz de distancias y duraciones
+     * entre un conjunto de orígenes y destinos (servicio /table de OSRM).
+     *
+     * @param sources      coordenadas [lon, lat] de los orígenes
+     * @param destinations coordenadas [lon, lat] de los destinos
+     * @return matriz orígenes × destinos en metros y segundos
+     */
+    OSRMTableResponseDTO getTable(
+            List<List<BigDecimal>> sources,
+            List<List<BigDecimal>> destinations
+    );
+
     /**
      * Genera puntos intermedios a lo largo de la ruta,
      * devolviendo N puntos equidistantes sobre la geometría.
@@ -0,0 +1,41 @@
+package co.edu.unbosque.tripservice.service;
+
+import co.edu.unbosque.tripservice.dto.NearbyStationDTO;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Búsqueda de estaciones cercanas sobre un índice espacial en memoria.
+ * Reemplaza la consulta SQL por SQRT/POWER en grados, que no usaba índices.
+ */
+public interface StationLocatorService {
+
+    /**
+     * Estaciones activas dentro de un radio en metros, ordenadas por distancia.
+     *
+     * @param latitude     latitud de referencia
+     * @param longitude    longitud de referencia
+     * @param radiusMeters radio de búsqueda en metros
+     * @return estaciones dentro del radio
+     */
+    List<NearbyStationDTO> findWithinRadius(BigDecimal latitude, BigDecimal longitude, double radiusMeters);
+
+    /**
+     * Las k estaciones más cercanas con al menos minFreeDocks anclajes libres.
+     *
+     * @param latitude        latitud de referencia
+     * @param longitude       longitud de referencia
+     * @param limit           número máximo de estaciones (k)
+     * @param minFreeDocks    anclajes libres requeridos
+     * @param maxRadiusMeters radio máximo de búsqueda
+     * @return estaciones ordenadas por distancia ascendente
+     */
+    List<NearbyStationDTO> findNearestWithFreeDocks(
+            BigDecimal latitude,
+            BigDecimal longitude,
+            int limit,
+            int minFreeDocks,
+            double maxRadiusMeters
+    );
+}
@@ -0,0 +1,35 @@
+package co.edu.unbosque.tripservice.service;
+
+import java.math.BigDecimal;
+
+/**
+ * Matriz precalculada estación × estación de distancias y duraciones en bicicleta.
+ * Se construye en segundo plano contra OSRM y se consulta en O(1) al liquidar viajes,
+ * sin llamadas externas dentro de la transacción.
+ */
+public interface StationMatrixService {
+
+    /**
+     * Distancia por ruta ciclable entre dos estaciones.
+     *
+     * @param fromStationId estación de origen
+     * @param toStationId   estación de destino
+     * @return distancia en km (2 decimales) o null si la celda aún no está calculada
+     */
+    BigDecimal getDistanceKm(Long fromStationId, Long toStationId);
+
+    /**
+     * Duración estimada en bicicleta entre dos estaciones.
+     *
+     * @param fromStationId estación de origen
+     * @param toStationId   estación de destino
+     * @return duración en minutos o null si la celda aún no está calculada
+     */
+    Integer getDurationMinutes(Long fromStationId, Long toStationId);
+
+    /**
+     * Sincroniza la matriz con las estaciones activas y calcula
+     * un número acotado de bloques pendientes. Se ejecuta periódicamente.
+     */
+    void refresh();
+}
@@ -11,7 +11,8 @@ public interface TripService {
 
     /**
      * Inicia un viaje para un usuario con una bicicleta específica.
-     * Valida usuario, disponibilidad de bicicleta, reserva y tipo de viaje.
+     * Valida usuario (fuera de transacción), disponibilidad de bicicleta, reserva y tipo de viaje;
+     * la simulación IoT y la notificación se ejecutan después del commit.
      *
      * @param request datos del inicio del viaje
      * @return información del viaje creado
@@ -20,7 +21,7 @@ public interface TripService {
 
     /**
      * Finaliza un viaje activo.
-     * Calcula duración, costo, distancia (OSRM o Haversine),
+     * Calcula duración, costo, distancia (matriz precalculada o Haversine),
      * procesa el pago y libera la bicicleta.
      *
      * @param request datos de finalización del viaje
@@ -0,0 +1,31 @@
+package co.edu.unbosque.tripservice.service;
+
+import co.edu.unbosque.tripservice.dto.TrackPointDTO;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.stream.Stream;
+
+/**
+ * Lectura de recorridos GPS guardados en formato compacto (trip_track).
+ * Los puntos se decodifican bajo demanda, sin materializar el track completo.
+ */
+public interface TripTrackService {
+
+    /**
+     * Puntos del recorrido de un viaje en orden cronológico.
+     *
+     * @param tripId ID del viaje
+     * @return stream perezoso de puntos (vacío si el viaje no tiene track)
+     */
+    Stream<TrackPointDTO> streamTrack(Long tripId);
+
+    /**
+     * Escribe el recorrido como NDJSON (un punto por línea) directamente en la salida.
+     *
+     * @param tripId ID del viaje
+     * @param out    salida de la respuesta
+     * @return número de puntos escritos
+     */
+    long writeTrackNdjson(Long tripId, OutputStream out) throws IOException;
+}
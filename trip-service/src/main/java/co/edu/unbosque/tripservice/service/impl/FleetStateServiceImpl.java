@@ -0,0 +1,175 @@
+package co.edu.unbosque.tripservice.service.impl;
+
+import co.edu.unbosque.tripservice.cache.RouteKey;
+import co.edu.unbosque.tripservice.dto.FleetBikeStateDTO;
+import co.edu.unbosque.tripservice.dto.FleetSnapshotDTO;
+import co.edu.unbosque.tripservice.dto.event.BatteryStatusEvent;
+import co.edu.unbosque.tripservice.dto.event.BicycleTelemetryEvent;
+import co.edu.unbosque.tripservice.dto.event.LockStatusEvent;
+import co.edu.unbosque.tripservice.service.FleetStateService;
+import co.edu.unbosque.tripservice.util.FleetStateTable;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+@Service
+public class FleetStateServiceImpl implements FleetStateService {
+
+    private static final Logger log = LoggerFactory.getLogger(FleetStateServiceImpl.class);
+
+    private final FleetStateTable table;
+    private final List<SseEmitter> emitters = new CopyOnWriteArrayList<>();
+    private final AtomicBoolean overflowLogged = new AtomicBoolean(false);
+
+    @Value("${fleet.live.sse-timeout-ms:0}")
+    private long sseTimeoutMs;
+
+    // Versión hasta la que ya se difundieron cambios por SSE
+    private volatile long lastBroadcastVersion;
+
+    public FleetStateServiceImpl(
+            @Value("${fleet.live.capacity:65536}") int capacity,
+            MeterRegistry meterRegistry
+    ) {
+        this.table = new FleetStateTable(capacity);
+        Gauge.builder("fleet.live.bikes", table, FleetStateTable::size)
+                .description("Bicicletas con estado en vivo")
+                .register(meterRegistry);
+        Gauge.builder("fleet.live.sse.subscribers", emitters, List::size)
+                .description("Clientes SSE conectados a /fleet/live/stream")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void onTelemetry(BicycleTelemetryEvent event, LocalDateTime recordedAt) {
+        if (event.latitude() == null || event.longitude() == null) {
+            return;
+        }
+        int speedDeci = event.speedKmh() != null
+                ? event.speedKmh().movePointRight(1).intValue()
+                : 0;
+        boolean applied = table.updateTelemetry(
+                event.bikeId(),
+                event.tripId() != null ? event.tripId() : 0,
+                RouteKey.toE6(event.latitude()),
+                RouteKey.toE6(event.longitude()),
+                speedDeci,
+                event.batteryLevel(),
+                recordedAt.toInstant(ZoneOffset.UTC).toEpochMilli()
+        );
+        checkOverflow(applied, event.bikeId());
+    }
+
+    @Override
+    public void onBattery(BatteryStatusEvent event) {
+        if (event.bikeId() != null && event.batteryLevel() != null) {
+            checkOverflow(table.updateBattery(event.bikeId(), event.batteryLevel()), event.bikeId());
+        }
+    }
+
+    @Override
+    public void onLockStatus(LockStatusEvent event) {
+        if (event.bikeId() == null) {
+            return;
+        }
+        int lockState = switch (String.valueOf(event.lockStatus())) {
+            case "LOCKED" -> FleetStateTable.LOCK_LOCKED;
+            case "UNLOCKED" -> FleetStateTable.LOCK_UNLOCKED;
+            default -> FleetStateTable.LOCK_UNKNOWN;
+        };
+        checkOverflow(table.updateLock(event.bikeId(), lockState), event.bikeId());
+    }
+
+    @Override
+    public FleetSnapshotDTO getSnapshot(long sinceVersion) {
+        List<FleetBikeStateDTO> bikes = new ArrayList<>();
+        long version = table.forEachChangedSince(sinceVersion,
+                (bikeId, tripId, hasPosition, latE6, lonE6, speedDeci, battery, lockState, eventTime) ->
+                        bikes.add(new FleetBikeStateDTO(
+                                bikeId,
+                                tripId != 0 ? tripId : null,
+                                hasPosition ? BigDecimal.valueOf(latE6, 6) : null,
+                                hasPosition ? BigDecimal.valueOf(lonE6, 6) : null,
+                                hasPosition ? BigDecimal.valueOf(speedDeci, 1) : null,
+                                battery >= 0 ? battery : null,
+                                switch (lockState) {
+                                    case FleetStateTable.LOCK_LOCKED -> "LOCKED";
+                                    case FleetStateTable.LOCK_UNLOCKED -> "UNLOCKED";
+                                    default -> null;
+                                },
+                                eventTime > 0
+                                        ? LocalDateTime.ofInstant(Instant.ofEpochMilli(eventTime), ZoneOffset.UTC)
+                                        : null
+                        ))
+        );
+        return new FleetSnapshotDTO(version, table.size(), bikes);
+    }
+
+    // ================================================
+    // SSE
+    // ================================================
+
+    @Override
+    public SseEmitter subscribe() {
+        SseEmitter emitter = new SseEmitter(sseTimeoutMs);
+        emitter.onCompletion(() -> emitters.remove(emitter));
+        emitter.onTimeout(() -> emitters.remove(emitter));
+        emitter.onError(e -> emitters.remove(emitter));
+
+        try {
+            emitter.send(SseEmitter.event().name("snapshot").data(getSnapshot(0)));
+            emitters.add(emitter);
+        } catch (IOException e) {
+            emitter.completeWithError(e);
+        }
+        return emitter;
+    }
+
+    /**
+     * Difunde a todos los clientes solo las bicicletas que cambiaron desde el último envío;
+     * el snapshot se construye una vez por intervalo, no una vez por cliente
+     */
+    @Scheduled(fixedDelayString = "${fleet.live.sse-interval-ms:1000}")
+    public void broadcastChanges() {
+        if (emitters.isEmpty()) {
+            lastBroadcastVersion = table.version();
+            return;
+        }
+
+        FleetSnapshotDTO changes = getSnapshot(lastBroadcastVersion);
+        lastBroadcastVersion = changes.version();
+        if (changes.bikes().isEmpty()) {
+            return;
+        }
+
+        for (SseEmitter emitter : emitters) {
+            try {
+                emitter.send(SseEmitter.event().name("changes").data(changes));
+            } catch (Exception e) {
+                // Cliente desconectado
+                emitters.remove(emitter);
+            }
+        }
+    }
+
+    private void checkOverflow(boolean applied, Long bikeId) {
+        if (!applied && table.isFull() && overflowLogged.compareAndSet(false, true)) {
+            log.warn("Tabla de flota en vivo sin espacio para la bicicleta {} (fleet.live.capacity)", bikeId);
+        }
+    }
+}
@@ -5,10 +5,9 @@ import co.edu.unbosque.tripservice.dto.event.*;
 import co.edu.unbosque.tripservice.dto.event.*;
 import co.edu.unbosque.tripservice.model.Bicycle;
 import co.edu.unbosque.tripservice.model.Trip;
-import co.edu.unbosque.tripservice.repository.TripRepository;
 import co.edu.unbosque.tripservice.service.IoTPublisherService;
 import co.edu.unbosque.tripservice.service.OSRMRouteService;
-import co.edu.unbosque.tripservice.util.ActiveTripTelemetry;
+import co.edu.unbosque.tripservice.util.SimulatedRoute;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.kafka.core.KafkaTemplate;
@@ -32,12 +31,10 @@ public class IoTPublisherServiceImpl implements IoTPublisherService {
     private static final String TOPIC_LOCK_STATUS = "bicycle-lock-status";
     private static final String TOPIC_BATTERY = "bicycle-battery";
     private static final String TOPIC_ALERTS = "bicycle-alerts";
-    private static final String TOPIC_TRIP_EVENTS = "trip-events";
 
     private final KafkaTemplate<String, Object> kafkaTemplate;
     private final ObjectMapper objectMapper;
     private final OSRMRouteService osrmService;
-    private final TripRepository tripRepository;
 
     // Almacena telemetría activa con ruta real
     private final Map<Long, ActiveTripTelemetry> activeTrips = new ConcurrentHashMap<>();
@@ -45,13 +42,11 @@ public class IoTPublisherServiceImpl implements IoTPublisherService {
     public IoTPublisherServiceImpl(
             KafkaTemplate<String, Object> kafkaTemplate,
             ObjectMapper objectMapper,
-            OSRMRouteService osrmService,
-            TripRepository tripRepository
+            OSRMRouteService osrmService
     ) {
         this.kafkaTemplate = kafkaTemplate;
         this.objectMapper = objectMapper;
         this.osrmService = osrmService;
-        this.tripRepository = tripRepository;
     }
 
     // ================================================
@@ -84,16 +79,14 @@ public class IoTPublisherServiceImpl implements IoTPublisherService {
                     trip.getId(),
                     trip.getBicycle().getId(),
                     trip.getUserId(),
-                    interpolatedPoints,
+                    SimulatedRoute.fromLonLat(interpolatedPoints),
                     LocalDateTime.now(),
                     "ELECTRIC".equals(trip.getBicycle().getType()) ? 100 : null
             );
 
+            // TripStarted se publica desde trip_outbox (TripOutboxRelay) en la transacción del viaje
             activeTrips.put(trip.getId(), telemetry);
 
-            // Publicar evento de inicio
-            publishTripStarted(trip);
-
             System.out.println("Telemetría iniciada - Ruta: " + interpolatedPoints.size() + " puntos");
 
         } catch (Exception e) {
@@ -108,11 +101,8 @@ public class IoTPublisherServiceImpl implements IoTPublisherService {
     public void stopTripTelemetry(Long tripId, BigDecimal distanceKm, BigDecimal cost) {
         ActiveTripTelemetry telemetry = activeTrips.remove(tripId);
 
+        // TripCompleted se publica desde trip_outbox (TripOutboxRelay) en la transacción del viaje
         if (telemetry != null) {
-            Trip trip = tripRepository.findById(tripId).orElse(null);
-            if (trip != null) {
-                publishTripCompleted(trip, distanceKm, cost);
-            }
             System.out.println("Telemetría detenida para trip: " + tripId);
         }
     }
@@ -133,29 +123,30 @@ public class IoTPublisherServiceImpl implements IoTPublisherService {
                 // Avanzar al siguiente punto de la ruta
                 telemetry.advanceToNextPoint();
 
-                List<BigDecimal> currentPoint = telemetry.getCurrentPoint();
-
-                if (currentPoint == null) {
+                if (telemetry.route.size() == 0) {
                     System.out.println("Viaje completado (ruta finalizada): " + telemetry.tripId);
                     return;
                 }
 
+                SimulatedRoute route = telemetry.route;
+                int index = telemetry.currentPointIndex;
+
                 // Calcular velocidad (15-25 km/h típico en bicicleta)
                 BigDecimal speed = BigDecimal.valueOf(15 + Math.random() * 10)
                         .setScale(1, RoundingMode.HALF_UP);
 
-                // Calcular distancia acumulada
-                BigDecimal distanceFromStart = calculateDistanceFromStart(telemetry);
+                // Distancia acumulada: lectura O(1) del arreglo precalculado
+                BigDecimal distanceFromStart = route.distanceFromStartDecimal(index);
 
                 // Crear evento de telemetría
                 BicycleTelemetryEvent event = new BicycleTelemetryEvent(
                         telemetry.bicycleId,
                         telemetry.tripId,
                         LocalDateTime.now().toString(),
-                        currentPoint.get(1), // latitude
-                        currentPoint.get(0), // longitude
+                        route.latitudeDecimal(index),
+                        route.longitudeDecimal(index),
                         speed,
-                        calculateBearing(telemetry), // dirección
+                        route.bearing(index), // dirección
                         BigDecimal.valueOf(2600 + Math.random() * 100), // altitud Bogotá
                         BigDecimal.valueOf(5 + Math.random() * 5), // precisión GPS
                         telemetry.batteryLevel,
@@ -180,7 +171,7 @@ public class IoTPublisherServiceImpl implements IoTPublisherService {
                 }
 
                 System.out.println("Telemetría publicada - Bike: " + telemetry.bicycleId +
-                        " Pos: " + currentPoint.get(1) + "," + currentPoint.get(0) +
+                        " Pos: " + route.latitude(index) + "," + route.longitude(index) +
                         " Speed: " + speed + " km/h");
 
             } catch (Exception e) {
@@ -262,8 +253,8 @@ public class IoTPublisherServiceImpl implements IoTPublisherService {
                     "Batería baja: " + telemetry.batteryLevel + "%",
                     LocalDateTime.now().toString(),
                     new LocationData(
-                            telemetry.getCurrentPoint().get(1),
-                            telemetry.getCurrentPoint().get(0)
+                            telemetry.route.latitudeDecimal(telemetry.currentPointIndex),
+                            telemetry.route.longitudeDecimal(telemetry.currentPointIndex)
                     ),
                     metadata
             );
@@ -276,119 +267,6 @@ public class IoTPublisherServiceImpl implements IoTPublisherService {
         }
     }
 
-    // ================================================
-    // EVENTOS DE VIAJE (Event Sourcing)
-    // ================================================
-
-    private void publishTripStarted(Trip trip) {
-        try {
-            TripStartedEvent event = new TripStartedEvent(
-                    trip.getId(),
-                    trip.getUserId(),
-                    trip.getBicycle().getId(),
-                    trip.getStartStation().getId(),
-                    trip.getTripType(),
-                    LocalDateTime.now().toString(),
-                    new LocationData(
-                            trip.getStartStation().getLatitude(),
-                            trip.getStartStation().getLongitude()
-                    )
-            );
-
-            kafkaTemplate.send(TOPIC_TRIP_EVENTS, trip.getId().toString(), event);
-            System.out.println("Evento TripStarted publicado - Trip: " + trip.getId());
-
-        } catch (Exception e) {
-            System.err.println("Error publicando TripStarted: " + e.getMessage());
-        }
-    }
-
-    private void publishTripCompleted(Trip trip, BigDecimal distanceKm, BigDecimal cost) {
-        try {
-            long duration = java.time.Duration.between(trip.getStartTime(), trip.getEndTime()).toMinutes();
-
-            TripCompletedEvent event = new TripCompletedEvent(
-                    trip.getId(),
-                    trip.getUserId(),
-                    trip.getBicycle().getId(),
-                    trip.getEndStation() != null ? trip.getEndStation().getId() : null,
-                    distanceKm,
-                    duration,
-                    cost,
-                    LocalDateTime.now().toString(),
-                    trip.getEndStation() != null ? new LocationData(
-                            trip.getEndStation().getLatitude(),
-                            trip.getEndStation().getLongitude()
-                    ) : null
-            );
-
-            kafkaTemplate.send(TOPIC_TRIP_EVENTS, trip.getId().toString(), event);
-            System.out.println("Evento TripCompleted publicado - Trip: " + trip.getId());
-
-        } catch (Exception e) {
-            System.err.println("Error publicando TripCompleted: " + e.getMessage());
-        }
-    }
-
-    // ================================================
-    // MÉTODOS AUXILIARES
-    // ================================================
-
-    private BigDecimal calculateDistanceFromStart(ActiveTripTelemetry telemetry) {
-        if (telemetry.currentPointIndex == 0) {
-            return BigDecimal.ZERO;
-        }
-
-        double totalDistance = 0;
-        for (int i = 0; i < telemetry.currentPointIndex; i++) {
-            List<BigDecimal> p1 = telemetry.routePoints.get(i);
-            List<BigDecimal> p2 = telemetry.routePoints.get(i + 1);
-
-            totalDistance += calculateHaversineDistance(
-                    p1.get(1).doubleValue(), p1.get(0).doubleValue(),
-                    p2.get(1).doubleValue(), p2.get(0).doubleValue()
-            );
-        }
-
-        return BigDecimal.valueOf(totalDistance).setScale(2, RoundingMode.HALF_UP);
-    }
-
-    private Integer calculateBearing(ActiveTripTelemetry telemetry) {
-        if (telemetry.currentPointIndex >= telemetry.routePoints.size() - 1) {
-            return 0;
-        }
-
-        List<BigDecimal> current = telemetry.getCurrentPoint();
-        List<BigDecimal> next = telemetry.routePoints.get(telemetry.currentPointIndex + 1);
-
-        double lat1 = Math.toRadians(current.get(1).doubleValue());
-        double lat2 = Math.toRadians(next.get(1).doubleValue());
-        double lon1 = Math.toRadians(current.get(0).doubleValue());
-        double lon2 = Math.toRadians(next.get(0).doubleValue());
-
-        double y = Math.sin(lon2 - lon1) * Math.cos(lat2);
-        double x = Math.cos(lat1) * Math.sin(lat2) -
-                Math.sin(lat1) * Math.cos(lat2) * Math.cos(lon2 - lon1);
-
-        double bearing = Math.toDegrees(Math.atan2(y, x));
-        return (int) ((bearing + 360) % 360);
-    }
-
-    private double calculateHaversineDistance(double lat1, double lon1, double lat2, double lon2) {
-        final double EARTH_RADIUS_KM = 6371.0;
-
-        double dLat = Math.toRadians(lat2 - lat1);
-        double dLon = Math.toRadians(lon2 - lon1);
-
-        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2) +
-                Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) *
-                        Math.sin(dLon / 2) * Math.sin(dLon / 2);
-
-        double c = 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
-
-        return EARTH_RADIUS_KM * c;
-    }
-
     // ================================================
     // CLASE INTERNA - Telemetría Activa
     // ================================================
@@ -397,7 +275,7 @@ public class IoTPublisherServiceImpl implements IoTPublisherService {
         Long tripId;
         Long bicycleId;
         Long userId;
-        List<List<BigDecimal>> routePoints;
+        SimulatedRoute route;
         LocalDateTime startTime;
         Integer batteryLevel;
         int currentPointIndex = 0;
@@ -406,33 +284,26 @@ public class IoTPublisherServiceImpl implements IoTPublisherService {
                 Long tripId,
                 Long bicycleId,
                 Long userId,
-                List<List<BigDecimal>> routePoints,
+                SimulatedRoute route,
                 LocalDateTime startTime,
                 Integer batteryLevel
         ) {
             this.tripId = tripId;
             this.bicycleId = bicycleId;
             this.userId = userId;
-            this.routePoints = routePoints;
+            this.route = route;
             this.startTime = startTime;
             this.batteryLevel = batteryLevel;
         }
 
         public void advanceToNextPoint() {
-            if (currentPointIndex < routePoints.size() - 1) {
+            if (currentPointIndex < route.size() - 1) {
                 currentPointIndex++;
             }
         }
 
-        public List<BigDecimal> getCurrentPoint() {
-            if (currentPointIndex >= routePoints.size()) {
-                return null;
-            }
-            return routePoints.get(currentPointIndex);
-        }
-
         public boolean isRouteCompleted() {
-            return currentPointIndex >= routePoints.size() - 1;
+            return currentPointIndex >= route.size() - 1;
         }
     }
 }
\ No newline at end of file
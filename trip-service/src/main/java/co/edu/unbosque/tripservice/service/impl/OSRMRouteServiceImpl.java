@@ -1,6 +1,8 @@
 package co.edu.unbosque.tripservice.service.impl;
 
+import co.edu.unbosque.tripservice.config.CacheConfig;
 import co.edu.unbosque.tripservice.dto.OSMRouteResponseDTO;
+import co.edu.unbosque.tripservice.dto.OSRMTableResponseDTO;
 import co.edu.unbosque.tripservice.dto.RouteSegmentDTO;
 import co.edu.unbosque.tripservice.service.OSRMRouteService;
 import com.fasterxml.jackson.databind.JsonNode;
@@ -38,9 +40,10 @@ public class OSRMRouteServiceImpl implements OSRMRouteService{
 
     /**
      * Obtiene ruta real entre dos puntos usando OSRM
-     * Usa perfil "bike" para rutas ciclables
+     * Usa perfil "bike" para rutas ciclables.
+     * Se cachea en memoria y disco; con sync=true una sola petición consulta OSRM por par de puntos.
      */
-    @Cacheable(value = "routes", key = "#startLon + '_' + #startLat + '_' + #endLon + '_' + #endLat")
+    @Cacheable(value = CacheConfig.ROUTES_CACHE, keyGenerator = "routeKeyGenerator", sync = true)
     public OSMRouteResponseDTO getRoute(
             BigDecimal startLon,
             BigDecimal startLat,
@@ -102,6 +105,77 @@ public class OSRMRouteServiceImpl implements OSRMRouteService{
         }
     }
 
+    /**
+     * Matriz de distancias/duraciones entre orígenes y destinos
+     * OSRM formato: /table/v1/{profile}/{coords}?sources=..&destinations=..
+     */
+    public OSRMTableResponseDTO getTable(
+            List<List<BigDecimal>> sources,
+            List<List<BigDecimal>> destinations
+    ) {
+        try {
+            StringBuilder coords = new StringBuilder();
+            StringBuilder sourceIdx = new StringBuilder();
+            StringBuilder destinationIdx = new StringBuilder();
+            int index = 0;
+
+            for (List<BigDecimal> point : sources) {
+                appendCoordinate(coords, point);
+                appendIndex(sourceIdx, index++);
+            }
+            for (List<BigDecimal> point : destinations) {
+                appendCoordinate(coords, point);
+                appendIndex(destinationIdx, index++);
+            }
+
+            String url = String.format(
+                    "%s/table/v1/bike/%s?sources=%s&destinations=%s&annotations=distance,duration",
+                    osrmBaseUrl, coords, sourceIdx, destinationIdx
+            );
+
+            String response = restTemplate.getForObject(url, String.class);
+            JsonNode root = objectMapper.readTree(response);
+
+            if (!"Ok".equals(root.path("code").asText())) {
+                throw new RuntimeException("OSRM error: " + root.path("message").asText());
+            }
+
+            return new OSRMTableResponseDTO(
+                    toMatrix(root.path("distances"), sources.size(), destinations.size()),
+                    toMatrix(root.path("durations"), sources.size(), destinations.size())
+            );
+
+        } catch (Exception e) {
+            throw new RuntimeException("Error obteniendo matriz desde OSRM", e);
+        }
+    }
+
+    private void appendCoordinate(StringBuilder coords, List<BigDecimal> point) {
+        if (!coords.isEmpty()) {
+            coords.append(';');
+        }
+        coords.append(point.get(0).toPlainString()).append(',').append(point.get(1).toPlainString());
+    }
+
+    private void appendIndex(StringBuilder indexes, int index) {
+        if (!indexes.isEmpty()) {
+            indexes.append(';');
+        }
+        indexes.append(index);
+    }
+
+    private double[][] toMatrix(JsonNode rows, int sourceCount, int destinationCount) {
+        double[][] matrix = new double[sourceCount][destinationCount];
+        for (int i = 0; i < sourceCount; i++) {
+            JsonNode row = rows.path(i);
+            for (int j = 0; j < destinationCount; j++) {
+                JsonNode cell = row.path(j);
+                matrix[i][j] = cell.isNumber() ? cell.asDouble() : Double.NaN;
+            }
+        }
+        return matrix;
+    }
+
     /**
      * Extrae segmentos detallados de la ruta (calles, tipo de vía)
      */
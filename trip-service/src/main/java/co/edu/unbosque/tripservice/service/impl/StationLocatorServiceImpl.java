@@ -0,0 +1,185 @@
+package co.edu.unbosque.tripservice.service.impl;
+
+import co.edu.unbosque.tripservice.dto.NearbyStationDTO;
+import co.edu.unbosque.tripservice.dto.event.StationChangedEvent;
+import co.edu.unbosque.tripservice.model.Station;
+import co.edu.unbosque.tripservice.repository.BicycleRepository;
+import co.edu.unbosque.tripservice.repository.StationRepository;
+import co.edu.unbosque.tripservice.service.StationLocatorService;
+import co.edu.unbosque.tripservice.util.StationGridIndex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+@Service
+public class StationLocatorServiceImpl implements StationLocatorService {
+
+    private static final Logger log = LoggerFactory.getLogger(StationLocatorServiceImpl.class);
+
+    private final StationRepository stationRepo;
+    private final BicycleRepository bicycleRepo;
+    private final TaskScheduler taskScheduler;
+
+    @Value("${station.index.cell-meters:500}")
+    private double cellMeters;
+
+    @Value("${station.index.change-debounce-ms:200}")
+    private long changeDebounceMs;
+
+    private volatile StationGridIndex index = StationGridIndex.EMPTY;
+
+    // Bicicletas ancladas por estación (se refresca periódicamente con una sola consulta agrupada)
+    private volatile Map<Long, Integer> dockedByStation = Map.of();
+
+    // Cambios pendientes de aplicar: se agrupan para reconstruir el índice una sola vez
+    private final Map<Long, Station> pendingChanges = new ConcurrentHashMap<>();
+    private final Set<Long> pendingRemovals = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean applyScheduled = new AtomicBoolean(false);
+
+    public StationLocatorServiceImpl(
+            StationRepository stationRepo,
+            BicycleRepository bicycleRepo,
+            TaskScheduler taskScheduler
+    ) {
+        this.stationRepo = stationRepo;
+        this.bicycleRepo = bicycleRepo;
+        this.taskScheduler = taskScheduler;
+    }
+
+    @Override
+    public List<NearbyStationDTO> findWithinRadius(BigDecimal latitude, BigDecimal longitude, double radiusMeters) {
+        Map<Long, Integer> docked = dockedByStation;
+        return index.withinRadius(latitude.doubleValue(), longitude.doubleValue(), radiusMeters)
+                .stream()
+                .map(hit -> toDTO(hit, docked))
+                .toList();
+    }
+
+    @Override
+    public List<NearbyStationDTO> findNearestWithFreeDocks(
+            BigDecimal latitude,
+            BigDecimal longitude,
+            int limit,
+            int minFreeDocks,
+            double maxRadiusMeters
+    ) {
+        Map<Long, Integer> docked = dockedByStation;
+        return index.nearest(
+                        latitude.doubleValue(),
+                        longitude.doubleValue(),
+                        limit,
+                        maxRadiusMeters,
+                        (stationId, capacity) -> capacity - docked.getOrDefault(stationId, 0) >= minFreeDocks
+                )
+                .stream()
+                .map(hit -> toDTO(hit, docked))
+                .toList();
+    }
+
+    // ================================================
+    // SINCRONIZACIÓN DEL ÍNDICE
+    // ================================================
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        rebuild();
+        refreshOccupancy();
+    }
+
+    /**
+     * Reconstrucción completa desde BD; red de seguridad ante cambios hechos fuera de JPA
+     */
+    @Scheduled(
+            fixedDelayString = "${station.index.full-rebuild-interval-ms:600000}",
+            initialDelayString = "${station.index.full-rebuild-interval-ms:600000}"
+    )
+    public void rebuild() {
+        List<Station> stations = stationRepo.findByActiveTrue();
+        index = new StationGridIndex(stations, cellMeters);
+        log.info("Índice espacial de estaciones reconstruido: {} estaciones", stations.size());
+    }
+
+    @Scheduled(
+            fixedDelayString = "${station.index.occupancy-refresh-ms:15000}",
+            initialDelayString = "${station.index.occupancy-refresh-ms:15000}"
+    )
+    public void refreshOccupancy() {
+        Map<Long, Integer> docked = new HashMap<>();
+        for (Object[] row : bicycleRepo.countDockedBicyclesGroupedByStation()) {
+            docked.put((Long) row[0], ((Number) row[1]).intValue());
+        }
+        dockedByStation = docked;
+    }
+
+    /**
+     * Se ejecuta tras el commit; los cambios se agrupan y se aplican
+     * con una sola reconstrucción después de un breve debounce.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStationChanged(StationChangedEvent event) {
+        Long id = event.station().getId();
+        if (event.removed()) {
+            pendingChanges.remove(id);
+            pendingRemovals.add(id);
+        } else {
+            pendingRemovals.remove(id);
+            pendingChanges.put(id, event.station());
+        }
+
+        if (applyScheduled.compareAndSet(false, true)) {
+            taskScheduler.schedule(this::applyPendingChanges,
+                    Instant.now().plus(Duration.ofMillis(changeDebounceMs)));
+        }
+    }
+
+    private synchronized void applyPendingChanges() {
+        applyScheduled.set(false);
+
+        List<Station> changed = new ArrayList<>();
+        for (Long id : new ArrayList<>(pendingChanges.keySet())) {
+            Station station = pendingChanges.remove(id);
+            if (station != null) {
+                changed.add(station);
+            }
+        }
+        List<Long> removed = new ArrayList<>();
+        for (Long id : new ArrayList<>(pendingRemovals)) {
+            if (pendingRemovals.remove(id)) {
+                removed.add(id);
+            }
+        }
+
+        if (!changed.isEmpty() || !removed.isEmpty()) {
+            index = index.withChanges(changed, removed);
+            log.debug("Índice espacial actualizado: {} cambios, {} bajas", changed.size(), removed.size());
+        }
+    }
+
+    private NearbyStationDTO toDTO(StationGridIndex.Hit hit, Map<Long, Integer> docked) {
+        int dockedBicycles = docked.getOrDefault(hit.stationId(), 0);
+        return new NearbyStationDTO(
+                hit.stationId(),
+                hit.name(),
+                BigDecimal.valueOf(hit.latitude()).setScale(6, RoundingMode.HALF_UP),
+                BigDecimal.valueOf(hit.longitude()).setScale(6, RoundingMode.HALF_UP),
+                hit.capacity(),
+                dockedBicycles,
+                Math.max(0, hit.capacity() - dockedBicycles),
+                (int) Math.round(hit.distanceMeters())
+        );
+    }
+}
@@ -0,0 +1,410 @@
+package co.edu.unbosque.tripservice.service.impl;
+
+import co.edu.unbosque.tripservice.cache.RouteKey;
+import co.edu.unbosque.tripservice.dto.OSRMTableResponseDTO;
+import co.edu.unbosque.tripservice.model.Station;
+import co.edu.unbosque.tripservice.repository.StationRepository;
+import co.edu.unbosque.tripservice.service.OSRMRouteService;
+import co.edu.unbosque.tripservice.service.StationMatrixService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.*;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Matriz de distancias/duraciones entre estaciones.
+ *
+ * Las celdas se guardan en arreglos primitivos planos (fila = origen, columna = destino):
+ * {@code float[]} con metros y {@code int[]} con segundos. Las celdas pendientes son NaN / -1.
+ * La tarea programada calcula bloques de tileSize × tileSize con el servicio /table de OSRM,
+ * y la matriz se persiste en disco para no recalcularla en cada arranque.
+ */
+@Service
+public class StationMatrixServiceImpl implements StationMatrixService {
+
+    private static final Logger log = LoggerFactory.getLogger(StationMatrixServiceImpl.class);
+
+    private static final int FILE_VERSION = 1;
+
+    /**
+     * Tope de estaciones aceptado al leer el archivo: 10.000 estaciones son 100 M de celdas
+     * (~800 MB entre ambos arreglos). Un tamaño mayor solo puede venir de un archivo corrupto.
+     */
+    static final int MAX_STATIONS = 10_000;
+
+    private final StationRepository stationRepo;
+    private final OSRMRouteService osrmService;
+
+    @Value("${station.matrix.enabled:true}")
+    private boolean enabled;
+
+    @Value("${station.matrix.file:./data/station-matrix.bin}")
+    private String matrixFile;
+
+    @Value("${station.matrix.tile-size:50}")
+    private int tileSize;
+
+    @Value("${station.matrix.max-tiles-per-run:16}")
+    private int maxTilesPerRun;
+
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+
+    public StationMatrixServiceImpl(
+            StationRepository stationRepo,
+            OSRMRouteService osrmService,
+            MeterRegistry meterRegistry
+    ) {
+        this.stationRepo = stationRepo;
+        this.osrmService = osrmService;
+
+        Gauge.builder("station.matrix.stations", this, s -> s.snapshot.size)
+                .description("Estaciones en la matriz precalculada")
+                .register(meterRegistry);
+        Gauge.builder("station.matrix.pending.cells", this, s -> s.snapshot.pendingCells())
+                .description("Celdas de la matriz aún sin calcular")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void loadFromDisk() {
+        if (!enabled) {
+            return;
+        }
+        Path file = Path.of(matrixFile);
+        if (!Files.exists(file)) {
+            return;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            snapshot = Snapshot.read(in, Files.size(file));
+            log.info("Matriz de estaciones cargada desde disco: {} estaciones, {} celdas pendientes",
+                    snapshot.size, snapshot.pendingCells());
+        } catch (IOException | RuntimeException e) {
+            log.warn("No se pudo leer la matriz de estaciones ({}), se reconstruirá", e.getMessage());
+        }
+    }
+
+    @Override
+    public BigDecimal getDistanceKm(Long fromStationId, Long toStationId) {
+        Snapshot current = snapshot;
+        int cell = current.cell(fromStationId, toStationId);
+        if (cell < 0 || Float.isNaN(current.distanceMeters[cell])) {
+            return null;
+        }
+        return BigDecimal.valueOf(current.distanceMeters[cell] / 1000.0).setScale(2, RoundingMode.HALF_UP);
+    }
+
+    @Override
+    public Integer getDurationMinutes(Long fromStationId, Long toStationId) {
+        Snapshot current = snapshot;
+        int cell = current.cell(fromStationId, toStationId);
+        if (cell < 0 || current.durationSeconds[cell] < 0) {
+            return null;
+        }
+        return current.durationSeconds[cell] / 60;
+    }
+
+    @Override
+    @Scheduled(
+            fixedDelayString = "${station.matrix.refresh-interval-ms:60000}",
+            initialDelayString = "${station.matrix.initial-delay-ms:15000}"
+    )
+    public void refresh() {
+        if (!enabled) {
+            return;
+        }
+
+        List<Station> stations = new ArrayList<>(stationRepo.findByActiveTrue());
+        stations.sort(Comparator.comparing(Station::getId));
+
+        Snapshot current = snapshot;
+        Snapshot next = current.reconcile(stations);
+        if (next != current) {
+            snapshot = next;
+            log.info("Matriz de estaciones sincronizada: {} estaciones, {} celdas pendientes",
+                    next.size, next.pendingCells());
+        }
+
+        int computed = computePendingTiles(next, stations);
+
+        if (computed > 0 || next != current) {
+            persist(next);
+        }
+    }
+
+    /**
+     * Calcula hasta maxTilesPerRun bloques que tengan celdas pendientes
+     */
+    private int computePendingTiles(Snapshot target, List<Station> stations) {
+        int n = target.size;
+        int computed = 0;
+
+        for (int rowStart = 0; rowStart < n && computed < maxTilesPerRun; rowStart += tileSize) {
+            for (int colStart = 0; colStart < n && computed < maxTilesPerRun; colStart += tileSize) {
+                int rowEnd = Math.min(rowStart + tileSize, n);
+                int colEnd = Math.min(colStart + tileSize, n);
+
+                if (!target.hasPending(rowStart, rowEnd, colStart, colEnd)) {
+                    continue;
+                }
+
+                try {
+                    OSRMTableResponseDTO table = osrmService.getTable(
+                            coordinates(stations, rowStart, rowEnd),
+                            coordinates(stations, colStart, colEnd)
+                    );
+                    target.fill(rowStart, colStart, table);
+                    computed++;
+                } catch (Exception e) {
+                    // OSRM no disponible: se reintenta en la siguiente ejecución
+                    log.warn("No se pudo calcular bloque de la matriz [{}:{}]x[{}:{}]: {}",
+                            rowStart, rowEnd, colStart, colEnd, e.getMessage());
+                    return computed;
+                }
+            }
+        }
+
+        if (computed > 0) {
+            log.info("Matriz de estaciones: {} bloques calculados, {} celdas pendientes",
+                    computed, target.pendingCells());
+        }
+        return computed;
+    }
+
+    private List<List<BigDecimal>> coordinates(List<Station> stations, int from, int to) {
+        List<List<BigDecimal>> coords = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            Station station = stations.get(i);
+            coords.add(List.of(station.getLongitude(), station.getLatitude()));
+        }
+        return coords;
+    }
+
+    private void persist(Snapshot target) {
+        Path file = Path.of(matrixFile);
+        Path tmp = Path.of(matrixFile + ".tmp");
+        try {
+            if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
+            }
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+                target.write(out);
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("No se pudo persistir la matriz de estaciones: {}", e.getMessage());
+        }
+    }
+
+    // ================================================
+    // CLASE INTERNA - Matriz inmutable en estructura
+    // ================================================
+
+    /**
+     * Estaciones y celdas de la matriz. La lista de estaciones no cambia;
+     * las celdas solo las escribe el hilo de refresco (escrituras de 32 bits, atómicas).
+     * Los ids van ordenados de forma ascendente y se buscan por búsqueda binaria, así la
+     * memoria depende del número de estaciones y no del id más alto.
+     */
+    private static final class Snapshot {
+
+        static final Snapshot EMPTY = new Snapshot(new long[0], new int[0], new int[0]);
+
+        final int size;
+        final long[] stationIds;
+        final int[] latE6;
+        final int[] lonE6;
+        final float[] distanceMeters;
+        final int[] durationSeconds;
+
+        // Celdas sin calcular; solo la modifica el hilo de refresco, el gauge solo la lee
+        private volatile int pending;
+
+        Snapshot(long[] stationIds, int[] latE6, int[] lonE6) {
+            this.size = stationIds.length;
+            this.stationIds = stationIds;
+            this.latE6 = latE6;
+            this.lonE6 = lonE6;
+
+            int cells = Math.multiplyExact(size, size);
+            this.distanceMeters = new float[cells];
+            this.durationSeconds = new int[cells];
+            Arrays.fill(distanceMeters, Float.NaN);
+            Arrays.fill(durationSeconds, -1);
+            this.pending = cells;
+        }
+
+        int index(Long stationId) {
+            if (stationId == null) {
+                return -1;
+            }
+            int index = Arrays.binarySearch(stationIds, stationId);
+            return index >= 0 ? index : -1;
+        }
+
+        int cell(Long from, Long to) {
+            int i = index(from);
+            int j = index(to);
+            return i < 0 || j < 0 ? -1 : i * size + j;
+        }
+
+        int pendingCells() {
+            return pending;
+        }
+
+        boolean hasPending(int rowStart, int rowEnd, int colStart, int colEnd) {
+            for (int i = rowStart; i < rowEnd; i++) {
+                for (int j = colStart; j < colEnd; j++) {
+                    if (durationSeconds[i * size + j] < 0) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        void fill(int rowStart, int colStart, OSRMTableResponseDTO table) {
+            for (int r = 0; r < table.distances().length; r++) {
+                for (int c = 0; c < table.distances()[r].length; c++) {
+                    double distance = table.distances()[r][c];
+                    double duration = table.durations()[r][c];
+                    if (Double.isNaN(distance) || Double.isNaN(duration)) {
+                        continue;
+                    }
+                    int cell = (rowStart + r) * size + (colStart + c);
+                    if (durationSeconds[cell] < 0) {
+                        pending--;
+                    }
+                    distanceMeters[cell] = (float) distance;
+                    durationSeconds[cell] = (int) Math.round(duration);
+                }
+            }
+        }
+
+        /**
+         * Retorna esta misma instancia si las estaciones no cambiaron; si no,
+         * una nueva matriz que conserva las celdas de estaciones sin cambios de posición.
+         */
+        Snapshot reconcile(List<Station> stations) {
+            long[] ids = new long[stations.size()];
+            int[] lats = new int[stations.size()];
+            int[] lons = new int[stations.size()];
+            for (int i = 0; i < stations.size(); i++) {
+                Station station = stations.get(i);
+                ids[i] = station.getId();
+                lats[i] = RouteKey.toE6(station.getLatitude());
+                lons[i] = RouteKey.toE6(station.getLongitude());
+            }
+
+            if (Arrays.equals(ids, stationIds) && Arrays.equals(lats, latE6) && Arrays.equals(lons, lonE6)) {
+                return this;
+            }
+
+            Snapshot next = new Snapshot(ids, lats, lons);
+            int[] oldIndex = new int[next.size];
+            for (int i = 0; i < next.size; i++) {
+                int old = index(ids[i]);
+                oldIndex[i] = old >= 0 && latE6[old] == lats[i] && lonE6[old] == lons[i] ? old : -1;
+            }
+            for (int i = 0; i < next.size; i++) {
+                if (oldIndex[i] < 0) {
+                    continue;
+                }
+                for (int j = 0; j < next.size; j++) {
+                    if (oldIndex[j] < 0) {
+                        continue;
+                    }
+                    int from = oldIndex[i] * size + oldIndex[j];
+                    int to = i * next.size + j;
+                    next.distanceMeters[to] = distanceMeters[from];
+                    next.durationSeconds[to] = durationSeconds[from];
+                    if (durationSeconds[from] >= 0) {
+                        next.pending--;
+                    }
+                }
+            }
+            return next;
+        }
+
+        void write(DataOutputStream out) throws IOException {
+            out.writeInt(FILE_VERSION);
+            out.writeInt(size);
+            for (int i = 0; i < size; i++) {
+                out.writeLong(stationIds[i]);
+                out.writeInt(latE6[i]);
+                out.writeInt(lonE6[i]);
+            }
+            for (float distance : distanceMeters) {
+                out.writeFloat(distance);
+            }
+            for (int duration : durationSeconds) {
+                out.writeInt(duration);
+            }
+        }
+
+        /**
+         * Valida el tamaño contra MAX_STATIONS y contra la longitud del archivo antes de
+         * reservar los arreglos, y que los ids vengan en orden estrictamente ascendente.
+         */
+        static Snapshot read(DataInputStream in, long fileLength) throws IOException {
+            int version = in.readInt();
+            if (version != FILE_VERSION) {
+                throw new IOException("Versión de matriz no soportada: " + version);
+            }
+            int size = in.readInt();
+            if (size < 0 || size > MAX_STATIONS) {
+                throw new IOException("Tamaño de matriz fuera de rango: " + size);
+            }
+            long expectedLength = fileLength(size);
+            if (fileLength != expectedLength) {
+                throw new IOException("El archivo mide " + fileLength + " bytes y una matriz de "
+                        + size + " estaciones requiere " + expectedLength);
+            }
+            long[] ids = new long[size];
+            int[] lats = new int[size];
+            int[] lons = new int[size];
+            for (int i = 0; i < size; i++) {
+                ids[i] = in.readLong();
+                lats[i] = in.readInt();
+                lons[i] = in.readInt();
+                if (i > 0 && ids[i] <= ids[i - 1]) {
+                    throw new IOException("Ids de estación desordenados en la matriz: " + ids[i]);
+                }
+            }
+            Snapshot loaded = new Snapshot(ids, lats, lons);
+            for (int i = 0; i < loaded.distanceMeters.length; i++) {
+                loaded.distanceMeters[i] = in.readFloat();
+            }
+            int pending = 0;
+            for (int i = 0; i < loaded.durationSeconds.length; i++) {
+                loaded.durationSeconds[i] = in.readInt();
+                if (loaded.durationSeconds[i] < 0) {
+                    pending++;
+                }
+            }
+            loaded.pending = pending;
+            return loaded;
+        }
+
+        /**
+         * Versión y tamaño, 16 bytes por estación y 8 bytes por celda.
+         */
+        static long fileLength(int size) {
+            return 8L + 16L * size + 8L * size * size;
+        }
+    }
+}
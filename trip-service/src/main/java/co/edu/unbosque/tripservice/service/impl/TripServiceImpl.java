@@ -2,16 +2,24 @@ package co.edu.unbosque.tripservice.service.impl;
 
 import co.edu.unbosque.tripservice.client.*;
 import co.edu.unbosque.tripservice.dto.*;
+import co.edu.unbosque.tripservice.dto.event.TripOutboxRecordedEvent;
 import co.edu.unbosque.tripservice.mapper.DataMapper;
 import co.edu.unbosque.tripservice.model.*;
 import co.edu.unbosque.tripservice.repository.*;
-import co.edu.unbosque.tripservice.service.OSRMRouteService;
 import co.edu.unbosque.tripservice.service.RouteValidationService;
+import co.edu.unbosque.tripservice.service.StationMatrixService;
 import co.edu.unbosque.tripservice.service.TripService;
 import co.edu.unbosque.tripservice.util.IoTBikeSimulator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
@@ -23,6 +31,8 @@ import java.util.stream.Collectors;
 @Service
 public class TripServiceImpl implements TripService {
 
+    private static final Logger log = LoggerFactory.getLogger(TripServiceImpl.class);
+
     private final TripRepository tripRepo;
     private final BicycleRepository bicycleRepo;
     private final StationRepository stationRepo;
@@ -32,7 +42,11 @@ public class TripServiceImpl implements TripService {
     private final PaymentServiceClient paymentClient;
     private final IoTBikeSimulator iotSimulator;
     private final RouteValidationService routeValidation;
-    private final OSRMRouteService osrmService;
+    private final StationMatrixService stationMatrix;
+    private final TripOutboxRepository outboxRepo;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
 
     @Value("${trip.cost.last-mile.base}")
     private BigDecimal lastMileBaseCost;
@@ -62,7 +76,11 @@ public class TripServiceImpl implements TripService {
             PaymentServiceClient paymentClient,
             IoTBikeSimulator iotSimulator,
             RouteValidationService routeValidation,
-            OSRMRouteService osrmService
+            StationMatrixService stationMatrix,
+            TripOutboxRepository outboxRepo,
+            ObjectMapper objectMapper,
+            ApplicationEventPublisher eventPublisher,
+            PlatformTransactionManager transactionManager
     ) {
         this.tripRepo = tripRepo;
         this.bicycleRepo = bicycleRepo;
@@ -73,38 +91,55 @@ public class TripServiceImpl implements TripService {
         this.paymentClient = paymentClient;
         this.iotSimulator = iotSimulator;
         this.routeValidation = routeValidation;
-        this.osrmService = osrmService;
+        this.stationMatrix = stationMatrix;
+        this.outboxRepo = outboxRepo;
+        this.objectMapper = objectMapper;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
 
+    /**
+     * Flujo en tres etapas: validación remota fuera de transacción, transacción corta
+     * (viaje + bicicleta + evento en outbox) y efectos posteriores al commit
+     * (simulación IoT, notificación) despachados por TripOutboxDispatcher.
+     */
     @Override
-    @Transactional
     public TripResponseDTO startTrip(TripStartRequestDTO request) {
         System.out.println("Iniciando viaje para usuario: " + request.userId());
 
-        // 1. Validar usuario
+        // 1. Validar usuario (llamada remota, sin conexión de BD tomada)
         UserValidationResponseDTO userValidation = userClient.validateUser(request.userId());
-        if (!userValidation.valid()) {
+        if (userValidation == null || !userValidation.valid()) {
             throw new RuntimeException("Usuario inválido o con saldo insuficiente");
         }
 
-        // 2. Verificar que no tenga viajes activos
+        // 2. Transacción corta: solo lecturas/escrituras locales
+        Trip trip = transactionTemplate.execute(status -> createTrip(request));
+
+        System.out.println("Viaje creado con ID: " + trip.getId());
+
+        return mapper.toTripResponseDTO(trip);
+    }
+
+    private Trip createTrip(TripStartRequestDTO request) {
+        // Verificar que no tenga viajes activos
         tripRepo.findByUserIdAndStatus(request.userId(), "IN_PROGRESS")
                 .ifPresent(t -> {
                     throw new RuntimeException("Usuario ya tiene un viaje activo");
                 });
 
-        // 3. Obtener bicicleta
+        // Obtener bicicleta
         Bicycle bicycle = bicycleRepo.findById(request.bicycleId())
                 .orElseThrow(() -> new RuntimeException("Bicicleta no encontrada"));
 
-        // 4. Validar disponibilidad de bicicleta
+        // Validar disponibilidad de bicicleta
         validateBicycleAvailability(bicycle);
 
-        // 5. Obtener estación de inicio
+        // Obtener estación de inicio
         Station startStation = stationRepo.findById(request.stationId())
                 .orElseThrow(() -> new RuntimeException("Estación no encontrada"));
 
-        // 6. Verificar reserva activa si existe
+        // Verificar reserva activa si existe
         reservationRepo.findByUserIdAndStatus(request.userId(), "ACTIVE")
                 .ifPresent(reservation -> {
                     if (!reservation.getBicycle().getId().equals(bicycle.getId())) {
@@ -114,10 +149,10 @@ public class TripServiceImpl implements TripService {
                     reservationRepo.save(reservation);
                 });
 
-        // 7. Validar tipo de viaje
+        // Validar tipo de viaje
         validateTripType(request.tripType(), startStation);
 
-        // 8. Crear viaje
+        // Crear viaje
         Trip trip = mapper.toTripEntity(
                 request.userId(),
                 bicycle,
@@ -126,22 +161,18 @@ public class TripServiceImpl implements TripService {
                 request.paymentSource()
         );
 
-        // 9. Actualizar estado de bicicleta
+        // Actualizar estado de bicicleta
         bicycle.setStatus("IN_USE");
         bicycleRepo.save(bicycle);
 
-        // 10. Guardar viaje
+        // Guardar viaje
         trip = tripRepo.save(trip);
 
-        System.out.println("Viaje creado con ID: " + trip.getId());
-
-        // 11. INICIAR SIMULACIÓN AUTOMÁTICA IOT
-        iotSimulator.startSimulation(trip);
+        // Registrar evento en outbox: simulación y notificación se ejecutan después del commit
+        // y TripOutboxRelay lo publica en trip-events
+        recordOutboxEvent(trip.getId(), "TRIP_STARTED", mapper.toTripStartedEvent(trip));
 
-        // 12. Notificar a usuario
-        userClient.notifyTripStarted(request.userId(), trip.getId());
-
-        return mapper.toTripResponseDTO(trip);
+        return trip;
     }
 
     @Override
@@ -192,25 +223,20 @@ public class TripServiceImpl implements TripService {
 
         long durationMinutes = Duration.between(trip.getStartTime(), trip.getEndTime()).toMinutes();
 
-        // Calcular distancia real usando OSRM si es posible
-        BigDecimal distanceKm;
-        try {
-            var osrmRoute = osrmService.getRoute(
-                    trip.getStartStation().getLongitude(),
-                    trip.getStartStation().getLatitude(),
-                    endStation.getLongitude(),
-                    endStation.getLatitude()
-            );
-            distanceKm = osrmRoute.totalDistance();
-            System.out.println("Distancia calculada con OSRM: " + distanceKm + " km");
-        } catch (Exception e) {
+        // Distancia real desde la matriz precalculada (O(1), sin llamadas externas en la transacción)
+        BigDecimal distanceKm = stationMatrix.getDistanceKm(
+                trip.getStartStation().getId(),
+                endStation.getId()
+        );
+        if (distanceKm == null) {
             distanceKm = calculateHaversineDistance(
                     trip.getStartStation().getLatitude(),
                     trip.getStartStation().getLongitude(),
                     endStation.getLatitude(),
                     endStation.getLongitude()
             );
-            System.out.println("OSRM falló, usando Haversine: " + distanceKm + " km");
+            log.debug("Matriz sin dato para las estaciones {} -> {}, usando Haversine: {} km",
+                    trip.getStartStation().getId(), endStation.getId(), distanceKm);
         }
 
         trip.setDistanceKm(distanceKm);
@@ -234,20 +260,27 @@ public class TripServiceImpl implements TripService {
 
         TripPaymentResponseDTO paymentResponse = paymentClient.processTripPayment(paymentRequest);
 
-        if (!"COMPLETED".equals(paymentResponse.status())) {
+        // PROCESSING (requires_action) o PENDING (resultado incierto) no son un rechazo: el viaje
+        // termina y payment-service liquida el cobro con el webhook o el barrido de conciliación.
+        // Reintentar el endTrip solo devolvería el mismo estado y dejaría el viaje IN_PROGRESS
+        boolean paymentPending = "PROCESSING".equals(paymentResponse.status())
+                || "PENDING".equals(paymentResponse.status());
+
+        if (!"COMPLETED".equals(paymentResponse.status()) && !paymentPending) {
             trip.setStatus("PAYMENT_FAILED");
             tripRepo.save(trip);
             throw new RuntimeException("Error al procesar el pago del viaje");
         }
 
         // 9. Actualizar estado del viaje
-        trip.setStatus("COMPLETED");
+        trip.setStatus(paymentPending ? "PAYMENT_PENDING" : "COMPLETED");
         trip = tripRepo.save(trip);
 
-        System.out.println("Viaje finalizado exitosamente. Costo: $" + totalCost);
+        // Evento TripCompleted en la misma transacción; TripOutboxRelay lo publica en trip-events
+        recordOutboxEvent(trip.getId(), "TRIP_COMPLETED", mapper.toTripCompletedEvent(trip));
 
-        // 10. Notificar finalización
-        userClient.notifyTripCompleted(trip.getUserId(), trip.getId(), totalCost);
+        // La notificación al usuario la produce notification-service consumiendo trip-events
+        System.out.println("Viaje finalizado exitosamente. Costo: $" + totalCost);
 
         return mapper.toTripResponseDTO(trip);
     }
@@ -280,6 +313,17 @@ public class TripServiceImpl implements TripService {
     // MÉTODOS PRIVADOS AUXILIARES
     // ================================================
 
+    private void recordOutboxEvent(Long tripId, String eventType, Object payload) {
+        try {
+            TripOutboxEvent event = outboxRepo.save(
+                    new TripOutboxEvent(tripId, eventType, objectMapper.writeValueAsString(payload))
+            );
+            eventPublisher.publishEvent(new TripOutboxRecordedEvent(event.getId()));
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Error serializando evento " + eventType, e);
+        }
+    }
+
     private void validateBicycleAvailability(Bicycle bicycle) {
         if (!"AVAILABLE".equals(bicycle.getStatus()) && !"RESERVED".equals(bicycle.getStatus())) {
             throw new RuntimeException("La bicicleta no está disponible");
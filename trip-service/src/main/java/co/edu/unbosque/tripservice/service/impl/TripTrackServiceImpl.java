@@ -0,0 +1,73 @@
+package co.edu.unbosque.tripservice.service.impl;
+
+import co.edu.unbosque.tripservice.dto.TrackPointDTO;
+import co.edu.unbosque.tripservice.repository.TelemetryJdbcRepository;
+import co.edu.unbosque.tripservice.service.TripTrackService;
+import co.edu.unbosque.tripservice.util.TrackCodec;
+import co.edu.unbosque.tripservice.util.TrackCodec.TrackPoint;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+@Service
+public class TripTrackServiceImpl implements TripTrackService {
+
+    private final TelemetryJdbcRepository telemetryRepository;
+
+    public TripTrackServiceImpl(TelemetryJdbcRepository telemetryRepository) {
+        this.telemetryRepository = telemetryRepository;
+    }
+
+    @Override
+    public Stream<TrackPointDTO> streamTrack(Long tripId) {
+        return telemetryRepository.findTrackData(tripId)
+                .map(data -> TrackCodec.stream(data).map(this::toDTO))
+                .orElseGet(Stream::empty);
+    }
+
+    @Override
+    public long writeTrackNdjson(Long tripId, OutputStream out) throws IOException {
+        byte[] data = telemetryRepository.findTrackData(tripId).orElse(null);
+        if (data == null) {
+            return 0;
+        }
+
+        // Se serializa a mano, sin pasar por Jackson ni crear un DTO por punto
+        long count = 0;
+        StringBuilder line = new StringBuilder(96);
+        Iterator<TrackPoint> points = TrackCodec.iterator(data);
+        while (points.hasNext()) {
+            TrackPoint point = points.next();
+            line.setLength(0);
+            line.append("{\"recordedAt\":\"").append(toLocalDateTime(point.timeMillis()))
+                    .append("\",\"latitude\":").append(BigDecimal.valueOf(point.latE6(), 6).toPlainString())
+                    .append(",\"longitude\":").append(BigDecimal.valueOf(point.lonE6(), 6).toPlainString())
+                    .append("}\n");
+            out.write(line.toString().getBytes(StandardCharsets.UTF_8));
+            count++;
+        }
+        out.flush();
+        return count;
+    }
+
+    private TrackPointDTO toDTO(TrackPoint point) {
+        return new TrackPointDTO(
+                toLocalDateTime(point.timeMillis()),
+                BigDecimal.valueOf(point.latE6(), 6),
+                BigDecimal.valueOf(point.lonE6(), 6)
+        );
+    }
+
+    private LocalDateTime toLocalDateTime(long timeMillis) {
+        // El consumidor codifica la hora local del evento como si fuera UTC
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(timeMillis), ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,204 @@
+package co.edu.unbosque.tripservice.util;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Tabla en memoria con el último estado conocido de cada bicicleta.
+ *
+ * Cada bicicleta ocupa un "slot" fijo en arreglos atómicos paralelos; las escrituras
+ * son sets o CAS sobre un long, sin locks, así que los consumidores de Kafka
+ * (telemetría, batería y candado) pueden actualizar la misma bicicleta en paralelo.
+ * Un lector puede ver la posición de un evento y la batería del siguiente, lo cual
+ * es aceptable para un tablero en vivo.
+ *
+ * Formato de "status": bits 0-15 velocidad en décimas de km/h, 16-23 batería
+ * (0xFF = desconocida), 24-25 candado (0 desconocido, 1 LOCKED, 2 UNLOCKED),
+ * bit 26 = tiene posición.
+ */
+public final class FleetStateTable {
+
+    public static final int LOCK_UNKNOWN = 0;
+    public static final int LOCK_LOCKED = 1;
+    public static final int LOCK_UNLOCKED = 2;
+
+    private static final long SPEED_MASK = 0xFFFFL;
+    private static final int BATTERY_SHIFT = 16;
+    private static final long BATTERY_MASK = 0xFFL << BATTERY_SHIFT;
+    private static final long BATTERY_UNKNOWN = 0xFF;
+    private static final int LOCK_SHIFT = 24;
+    private static final long LOCK_MASK = 0x3L << LOCK_SHIFT;
+    private static final long HAS_POSITION = 1L << 26;
+    private static final long INITIAL_STATUS = BATTERY_UNKNOWN << BATTERY_SHIFT;
+
+    private final int capacity;
+    private final Map<Long, Integer> slotByBike = new ConcurrentHashMap<>();
+    private final AtomicInteger nextSlot = new AtomicInteger();
+
+    private final AtomicLongArray bikeIds;
+    private final AtomicLongArray positions;   // latE6 << 32 | lonE6
+    private final AtomicLongArray statuses;
+    private final AtomicLongArray tripIds;     // 0 = sin viaje
+    private final AtomicLongArray eventTimes;  // epoch ms del último evento de telemetría
+    private final AtomicLongArray versions;    // valor de "clock" en la última escritura
+
+    // Reloj lógico: permite pedir solo lo que cambió desde una versión dada
+    private final AtomicLong clock = new AtomicLong();
+
+    public FleetStateTable(int capacity) {
+        this.capacity = capacity;
+        this.bikeIds = new AtomicLongArray(capacity);
+        this.positions = new AtomicLongArray(capacity);
+        this.statuses = new AtomicLongArray(capacity);
+        this.tripIds = new AtomicLongArray(capacity);
+        this.eventTimes = new AtomicLongArray(capacity);
+        this.versions = new AtomicLongArray(capacity);
+    }
+
+    /**
+     * Actualiza posición, velocidad, batería y viaje. Los eventos más antiguos
+     * que el último aplicado se ignoran (particiones o reentregas desfasadas).
+     *
+     * @return false si el evento se descartó (desactualizado o tabla llena)
+     */
+    public boolean updateTelemetry(long bikeId, long tripId, int latE6, int lonE6,
+                                   int speedDeciKmh, Integer batteryLevel, long eventTimeMillis) {
+        int slot = slotFor(bikeId);
+        if (slot < 0) {
+            return false;
+        }
+
+        long previousTime;
+        do {
+            previousTime = eventTimes.get(slot);
+            if (eventTimeMillis < previousTime) {
+                return false;
+            }
+        } while (!eventTimes.compareAndSet(slot, previousTime, eventTimeMillis));
+
+        positions.set(slot, ((long) latE6 << 32) | (lonE6 & 0xFFFFFFFFL));
+        tripIds.set(slot, tripId);
+
+        long speed = Math.max(0, Math.min(speedDeciKmh, (int) SPEED_MASK));
+        statuses.getAndUpdate(slot, status -> {
+            long updated = (status & ~SPEED_MASK) | speed | HAS_POSITION;
+            return batteryLevel != null ? withBattery(updated, batteryLevel) : updated;
+        });
+
+        touch(slot);
+        return true;
+    }
+
+    public boolean updateBattery(long bikeId, int batteryLevel) {
+        int slot = slotFor(bikeId);
+        if (slot < 0) {
+            return false;
+        }
+        statuses.getAndUpdate(slot, status -> withBattery(status, batteryLevel));
+        touch(slot);
+        return true;
+    }
+
+    public boolean updateLock(long bikeId, int lockState) {
+        int slot = slotFor(bikeId);
+        if (slot < 0) {
+            return false;
+        }
+        statuses.getAndUpdate(slot, status -> (status & ~LOCK_MASK) | ((long) lockState << LOCK_SHIFT));
+        if (lockState == LOCK_LOCKED) {
+            tripIds.set(slot, 0);
+        }
+        touch(slot);
+        return true;
+    }
+
+    /**
+     * Recorre las bicicletas modificadas después de "sinceVersion" (0 = todas).
+     * Una escritura concurrente con el recorrido puede quedar para la siguiente
+     * actualización de esa bicicleta (llegan cada pocos segundos).
+     *
+     * @return versión actual, para pasarla en la siguiente consulta incremental
+     */
+    public long forEachChangedSince(long sinceVersion, BikeStateVisitor visitor) {
+        long current = clock.get();
+        int size = Math.min(nextSlot.get(), capacity);
+        for (int slot = 0; slot < size; slot++) {
+            long bikeId = bikeIds.get(slot);
+            if (bikeId == 0 || versions.get(slot) <= sinceVersion) {
+                continue;
+            }
+            long status = statuses.get(slot);
+            long position = positions.get(slot);
+            long battery = (status & BATTERY_MASK) >>> BATTERY_SHIFT;
+            visitor.visit(
+                    bikeId,
+                    tripIds.get(slot),
+                    (status & HAS_POSITION) != 0,
+                    (int) (position >> 32),
+                    (int) position,
+                    (int) (status & SPEED_MASK),
+                    battery == BATTERY_UNKNOWN ? -1 : (int) battery,
+                    (int) ((status & LOCK_MASK) >>> LOCK_SHIFT),
+                    eventTimes.get(slot)
+            );
+        }
+        return current;
+    }
+
+    public int size() {
+        return slotByBike.size();
+    }
+
+    public boolean isFull() {
+        return nextSlot.get() >= capacity;
+    }
+
+    public long version() {
+        return clock.get();
+    }
+
+    private int slotFor(long bikeId) {
+        Integer slot = slotByBike.get(bikeId);
+        if (slot != null) {
+            return slot;
+        }
+        if (nextSlot.get() >= capacity) {
+            return -1;
+        }
+        // Solo la primera vez que se ve una bicicleta; luego la lectura es un get sin bloqueo
+        slot = slotByBike.computeIfAbsent(bikeId, id -> {
+            int allocated = nextSlot.getAndIncrement();
+            if (allocated >= capacity) {
+                return -1;
+            }
+            statuses.set(allocated, INITIAL_STATUS);
+            bikeIds.set(allocated, id);
+            return allocated;
+        });
+        if (slot < 0) {
+            slotByBike.remove(bikeId, -1);
+        }
+        return slot;
+    }
+
+    private void touch(int slot) {
+        versions.set(slot, clock.incrementAndGet());
+    }
+
+    private static long withBattery(long status, int batteryLevel) {
+        long battery = Math.max(0, Math.min(batteryLevel, 100));
+        return (status & ~BATTERY_MASK) | (battery << BATTERY_SHIFT);
+    }
+
+    /**
+     * Recibe el estado de una bicicleta sin crear objetos intermedios
+     */
+    @FunctionalInterface
+    public interface BikeStateVisitor {
+        void visit(long bikeId, long tripId, boolean hasPosition, int latE6, int lonE6,
+                   int speedDeciKmh, int batteryLevel, int lockState, long eventTimeMillis);
+    }
+}
@@ -8,17 +8,20 @@ import co.edu.unbosque.tripservice.model.Trip;
 import co.edu.unbosque.tripservice.service.OSRMRouteService;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
 import org.springframework.kafka.core.KafkaTemplate;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Component;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.LocalDateTime;
 import java.util.List;
-import java.util.concurrent.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Simulador Automático de Dispositivos IoT
@@ -28,6 +31,8 @@ import java.util.concurrent.*;
 @ConditionalOnProperty(name = "iot.simulation.enabled", havingValue = "true", matchIfMissing = true)
 public class IoTBikeSimulator {
 
+    private static final Logger log = LoggerFactory.getLogger(IoTBikeSimulator.class);
+
     private final KafkaTemplate<String, Object> kafkaTemplate;
     private final OSRMRouteService osrmService;
     private final ObjectMapper objectMapper;
@@ -47,31 +52,45 @@ public class IoTBikeSimulator {
     // Mapa de simulaciones activas
     private final ConcurrentHashMap<Long, TripSimulation> activeSimulations = new ConcurrentHashMap<>();
 
-    // Executor para simular en paralelo
-    private final ScheduledExecutorService executorService = Executors.newScheduledThreadPool(10);
+    // Rueda de tiempo: un hilo por shard avanza todas las simulaciones en una pasada por tick
+    private final TickWheel wheel;
 
     public IoTBikeSimulator(
             KafkaTemplate<String, Object> kafkaTemplate,
             OSRMRouteService osrmService,
-            ObjectMapper objectMapper
+            ObjectMapper objectMapper,
+            @Value("${iot.simulation.wheel.shards:0}") int wheelShards,
+            @Value("${iot.simulation.wheel.tick-ms:100}") long wheelTickMs,
+            @Value("${iot.simulation.wheel.size:128}") int wheelSize,
+            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads
     ) {
         this.kafkaTemplate = kafkaTemplate;
         this.osrmService = osrmService;
         this.objectMapper = objectMapper;
+        this.wheel = new TickWheel("iot-sim-wheel", wheelShards, wheelTickMs, wheelSize,
+                virtualThreads ? new VirtualThreadTaskExecutor("iot-sim-wheel-").getVirtualThreadFactory() : null);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        wheel.close();
     }
 
     /**
-     * Iniciar simulación de viaje
+     * Iniciar simulación de viaje (se invoca desde la etapa post-commit, fuera de la petición)
+     *
+     * La simulación se registra con putIfAbsent antes de programarla en la rueda. Si un
+     * stopSimulation concurrente la retira antes de que el handle quede asignado, la tarea sale
+     * en su primer tick (ya no es la simulación activa del viaje) y aquí se cancela el handle.
      */
-    @Async
     public void startSimulation(Trip trip) {
         if (activeSimulations.containsKey(trip.getId())) {
-            System.out.println("⚠️ Simulación ya existe para trip: " + trip.getId());
+            log.debug("Simulación ya existe para trip: {}", trip.getId());
             return;
         }
 
         try {
-            System.out.println("🚀 Iniciando simulación IoT para trip: " + trip.getId());
+            log.info("Iniciando simulación IoT para trip: {}", trip.getId());
 
             // Obtener ruta real desde OSRM
             BigDecimal startLat = trip.getStartStation().getLatitude();
@@ -91,32 +110,40 @@ public class IoTBikeSimulator {
                     numPoints
             );
 
-            // Crear objeto de simulación
+            // Crear objeto de simulación (ruta a arreglos primitivos con distancia y rumbo precalculados)
             TripSimulation simulation = new TripSimulation(
                     trip.getId(),
                     trip.getBicycle().getId(),
                     trip.getUserId(),
-                    interpolatedRoute,
+                    SimulatedRoute.fromLonLat(interpolatedRoute),
                     "ELECTRIC".equals(trip.getBicycle().getType()) ? 100 : null
             );
 
-            activeSimulations.put(trip.getId(), simulation);
+            if (activeSimulations.putIfAbsent(trip.getId(), simulation) != null) {
+                log.debug("Simulación ya existe para trip: {}", trip.getId());
+                return;
+            }
 
-            // Programar tarea de telemetría
-            ScheduledFuture<?> future = executorService.scheduleAtFixedRate(
-                    () -> publishTelemetry(simulation),
+            // Programar telemetría en la rueda (misma clave = mismo hilo para todo el viaje)
+            TickWheel.Handle handle = wheel.schedule(
+                    trip.getId(),
                     0,
-                    telemetryInterval,
-                    TimeUnit.SECONDS
+                    telemetryInterval * 1000L,
+                    () -> publishTelemetry(simulation)
             );
 
-            simulation.setScheduledFuture(future);
+            simulation.setWheelHandle(handle);
 
-            System.out.println("Simulación iniciada - " + interpolatedRoute.size() + " puntos en ruta");
+            // stopSimulation pudo retirarla antes de ver el handle
+            if (activeSimulations.get(trip.getId()) != simulation) {
+                handle.cancel();
+                return;
+            }
+
+            log.info("Simulación iniciada para trip {} - {} puntos en ruta", trip.getId(), interpolatedRoute.size());
 
         } catch (Exception e) {
-            System.err.println("Error iniciando simulación: " + e.getMessage());
-            e.printStackTrace();
+            log.error("Error iniciando simulación para trip {}", trip.getId(), e);
         }
     }
 
@@ -127,42 +154,46 @@ public class IoTBikeSimulator {
         TripSimulation simulation = activeSimulations.remove(tripId);
 
         if (simulation != null) {
-            if (simulation.getScheduledFuture() != null) {
-                simulation.getScheduledFuture().cancel(false);
+            if (simulation.getWheelHandle() != null) {
+                simulation.getWheelHandle().cancel();
             }
-            System.out.println("Simulación detenida para trip: " + tripId);
+            log.info("Simulación detenida para trip: {}", tripId);
         }
     }
 
     /**
      * Publicar telemetría del viaje
+     *
+     * @return false cuando la simulación terminó y debe salir de la rueda
      */
-    private void publishTelemetry(TripSimulation simulation) {
+    private boolean publishTelemetry(TripSimulation simulation) {
+        // Detenida (o reemplazada) aunque el handle aún no estuviera asignado al detenerla
+        if (activeSimulations.get(simulation.getTripId()) != simulation) {
+            return false;
+        }
         try {
             // Avanzar al siguiente punto
             simulation.advanceToNextPoint();
 
-            List<BigDecimal> currentPoint = simulation.getCurrentPoint();
-
-            if (currentPoint == null || simulation.isCompleted()) {
+            if (simulation.getRoute().size() == 0 || simulation.isCompleted()) {
                 System.out.println("Ruta completada para trip: " + simulation.getTripId());
                 stopSimulation(simulation.getTripId());
-                return;
+                return false;
             }
 
-            BigDecimal lat = currentPoint.get(1);
-            BigDecimal lon = currentPoint.get(0);
+            SimulatedRoute route = simulation.getRoute();
+            int index = simulation.getCurrentIndex();
+            BigDecimal lat = route.latitudeDecimal(index);
+            BigDecimal lon = route.longitudeDecimal(index);
 
             // Calcular velocidad aleatoria dentro del rango
             BigDecimal speed = BigDecimal.valueOf(
                     speedMin + Math.random() * (speedMax - speedMin)
             ).setScale(1, RoundingMode.HALF_UP);
 
-            // Calcular dirección
-            Integer bearing = calculateBearing(simulation);
-
-            // Calcular distancia acumulada
-            BigDecimal distanceFromStart = calculateDistanceFromStart(simulation);
+            // Dirección y distancia acumulada: lecturas O(1) de los arreglos precalculados
+            Integer bearing = route.bearing(index);
+            BigDecimal distanceFromStart = route.distanceFromStartDecimal(index);
 
             // Disminuir batería si es eléctrica
             if (simulation.getBatteryLevel() != null) {
@@ -200,14 +231,14 @@ public class IoTBikeSimulator {
             // Publicar a Kafka
             kafkaTemplate.send("bicycle-telemetry", simulation.getBicycleId().toString(), event);
 
-            System.out.println("📡 Telemetría [Trip " + simulation.getTripId() + "] - " +
-                    "Pos: " + lat + "," + lon + " | " +
-                    "Speed: " + speed + " km/h | " +
-                    "Distance: " + distanceFromStart + " km");
+            // Con miles de simulaciones por tick, imprimir cada envío se vuelve el cuello de botella
+            log.debug("Telemetría [Trip {}] - Pos: {},{} | Speed: {} km/h | Distance: {} km",
+                    simulation.getTripId(), lat, lon, speed, distanceFromStart);
 
         } catch (Exception e) {
             System.err.println("Error publicando telemetría: " + e.getMessage());
         }
+        return true;
     }
 
     /**
@@ -228,8 +259,7 @@ public class IoTBikeSimulator {
             );
 
             kafkaTemplate.send("bicycle-battery", simulation.getBicycleId().toString(), event);
-            System.out.println("🔋 Batería [Bike " + simulation.getBicycleId() + "]: " +
-                    simulation.getBatteryLevel() + "% [" + alertLevel + "]");
+            log.debug("Batería [Bike {}]: {}% [{}]", simulation.getBicycleId(), simulation.getBatteryLevel(), alertLevel);
 
         } catch (Exception e) {
             System.err.println("❌ Error publicando batería: " + e.getMessage());
@@ -264,77 +294,6 @@ public class IoTBikeSimulator {
         }
     }
 
-    /**
-     * Calcular distancia acumulada desde el inicio
-     */
-    private BigDecimal calculateDistanceFromStart(TripSimulation simulation) {
-        if (simulation.getCurrentIndex() == 0) {
-            return BigDecimal.ZERO;
-        }
-
-        double totalDistance = 0;
-        List<List<BigDecimal>> route = simulation.getRoutePoints();
-
-        for (int i = 0; i < simulation.getCurrentIndex(); i++) {
-            if (i + 1 < route.size()) {
-                List<BigDecimal> p1 = route.get(i);
-                List<BigDecimal> p2 = route.get(i + 1);
-
-                totalDistance += calculateHaversineDistance(
-                        p1.get(1).doubleValue(), p1.get(0).doubleValue(),
-                        p2.get(1).doubleValue(), p2.get(0).doubleValue()
-                );
-            }
-        }
-
-        return BigDecimal.valueOf(totalDistance).setScale(2, RoundingMode.HALF_UP);
-    }
-
-    /**
-     * Calcular dirección entre puntos
-     */
-    private Integer calculateBearing(TripSimulation simulation) {
-        List<List<BigDecimal>> route = simulation.getRoutePoints();
-        int currentIndex = simulation.getCurrentIndex();
-
-        if (currentIndex >= route.size() - 1) {
-            return 0;
-        }
-
-        List<BigDecimal> current = route.get(currentIndex);
-        List<BigDecimal> next = route.get(currentIndex + 1);
-
-        double lat1 = Math.toRadians(current.get(1).doubleValue());
-        double lat2 = Math.toRadians(next.get(1).doubleValue());
-        double lon1 = Math.toRadians(current.get(0).doubleValue());
-        double lon2 = Math.toRadians(next.get(0).doubleValue());
-
-        double y = Math.sin(lon2 - lon1) * Math.cos(lat2);
-        double x = Math.cos(lat1) * Math.sin(lat2) -
-                Math.sin(lat1) * Math.cos(lat2) * Math.cos(lon2 - lon1);
-
-        double bearing = Math.toDegrees(Math.atan2(y, x));
-        return (int) ((bearing + 360) % 360);
-    }
-
-    /**
-     * Calcular distancia Haversine en km
-     */
-    private double calculateHaversineDistance(double lat1, double lon1, double lat2, double lon2) {
-        final double EARTH_RADIUS_KM = 6371.0;
-
-        double dLat = Math.toRadians(lat2 - lat1);
-        double dLon = Math.toRadians(lon2 - lon1);
-
-        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2) +
-                Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) *
-                        Math.sin(dLon / 2) * Math.sin(dLon / 2);
-
-        double c = 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
-
-        return EARTH_RADIUS_KM * c;
-    }
-
     /**
      * Clase interna para gestionar simulación de viaje
      */
@@ -342,48 +301,42 @@ public class IoTBikeSimulator {
         private final Long tripId;
         private final Long bicycleId;
         private final Long userId;
-        private final List<List<BigDecimal>> routePoints;
+        private final SimulatedRoute route;
         private Integer batteryLevel;
         private int currentIndex = 0;
-        private ScheduledFuture<?> scheduledFuture;
+        // Lo asigna el hilo que inicia la simulación y lo lee el que la detiene
+        private volatile TickWheel.Handle wheelHandle;
 
         public TripSimulation(Long tripId, Long bicycleId, Long userId,
-                              List<List<BigDecimal>> routePoints, Integer batteryLevel) {
+                              SimulatedRoute route, Integer batteryLevel) {
             this.tripId = tripId;
             this.bicycleId = bicycleId;
             this.userId = userId;
-            this.routePoints = routePoints;
+            this.route = route;
             this.batteryLevel = batteryLevel;
         }
 
         public void advanceToNextPoint() {
-            if (currentIndex < routePoints.size() - 1) {
+            if (currentIndex < route.size() - 1) {
                 currentIndex++;
             }
         }
 
-        public List<BigDecimal> getCurrentPoint() {
-            if (currentIndex >= routePoints.size()) {
-                return null;
-            }
-            return routePoints.get(currentIndex);
-        }
-
         public boolean isCompleted() {
-            return currentIndex >= routePoints.size() - 1;
+            return currentIndex >= route.size() - 1;
         }
 
         // Getters y Setters
         public Long getTripId() { return tripId; }
         public Long getBicycleId() { return bicycleId; }
         public Long getUserId() { return userId; }
-        public List<List<BigDecimal>> getRoutePoints() { return routePoints; }
+        public SimulatedRoute getRoute() { return route; }
         public Integer getBatteryLevel() { return batteryLevel; }
         public void setBatteryLevel(Integer batteryLevel) { this.batteryLevel = batteryLevel; }
         public int getCurrentIndex() { return currentIndex; }
-        public ScheduledFuture<?> getScheduledFuture() { return scheduledFuture; }
-        public void setScheduledFuture(ScheduledFuture<?> scheduledFuture) {
-            this.scheduledFuture = scheduledFuture;
+        public TickWheel.Handle getWheelHandle() { return wheelHandle; }
+        public void setWheelHandle(TickWheel.Handle wheelHandle) {
+            this.wheelHandle = wheelHandle;
         }
     }
 }
@@ -0,0 +1,116 @@
+package co.edu.unbosque.tripservice.util;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.List;
+
+/**
+ * Ruta de simulación en arreglos primitivos.
+ *
+ * Se construye una sola vez al iniciar la simulación a partir de los puntos [lon, lat]
+ * interpolados de OSRM, precalculando la distancia acumulada y el rumbo de cada punto.
+ * En cada tick la distancia desde el inicio y la dirección son una lectura O(1).
+ */
+public final class SimulatedRoute {
+
+    private static final double EARTH_RADIUS_KM = 6371.0;
+
+    private final double[] lats;
+    private final double[] lons;
+    private final double[] cumulativeKm;
+    private final int[] bearings;
+
+    private SimulatedRoute(double[] lats, double[] lons) {
+        int n = lats.length;
+        this.lats = lats;
+        this.lons = lons;
+        this.cumulativeKm = new double[n];
+        this.bearings = new int[n];
+
+        for (int i = 1; i < n; i++) {
+            cumulativeKm[i] = cumulativeKm[i - 1] + haversineKm(lats[i - 1], lons[i - 1], lats[i], lons[i]);
+            bearings[i - 1] = bearing(lats[i - 1], lons[i - 1], lats[i], lons[i]);
+        }
+        // El último punto no tiene siguiente: rumbo 0, como antes
+    }
+
+    /**
+     * @param points puntos en formato [lon, lat] (como los retorna OSRM)
+     */
+    public static SimulatedRoute fromLonLat(List<List<BigDecimal>> points) {
+        int n = points.size();
+        double[] lats = new double[n];
+        double[] lons = new double[n];
+        for (int i = 0; i < n; i++) {
+            List<BigDecimal> point = points.get(i);
+            lons[i] = point.get(0).doubleValue();
+            lats[i] = point.get(1).doubleValue();
+        }
+        return new SimulatedRoute(lats, lons);
+    }
+
+    public int size() {
+        return lats.length;
+    }
+
+    public double latitude(int index) {
+        return lats[index];
+    }
+
+    public double longitude(int index) {
+        return lons[index];
+    }
+
+    /**
+     * Distancia recorrida por la ruta desde el primer punto hasta "index", en km
+     */
+    public double distanceFromStartKm(int index) {
+        return cumulativeKm[index];
+    }
+
+    /**
+     * Rumbo (0-359°) desde "index" hacia el siguiente punto; 0 en el último
+     */
+    public int bearing(int index) {
+        return bearings[index];
+    }
+
+    public double totalDistanceKm() {
+        return lats.length == 0 ? 0 : cumulativeKm[lats.length - 1];
+    }
+
+    public BigDecimal latitudeDecimal(int index) {
+        return BigDecimal.valueOf(lats[index]);
+    }
+
+    public BigDecimal longitudeDecimal(int index) {
+        return BigDecimal.valueOf(lons[index]);
+    }
+
+    public BigDecimal distanceFromStartDecimal(int index) {
+        return BigDecimal.valueOf(cumulativeKm[index]).setScale(2, RoundingMode.HALF_UP);
+    }
+
+    private static double haversineKm(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2) +
+                Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) *
+                        Math.sin(dLon / 2) * Math.sin(dLon / 2);
+
+        return EARTH_RADIUS_KM * 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
+    }
+
+    private static int bearing(double lat1Deg, double lon1Deg, double lat2Deg, double lon2Deg) {
+        double lat1 = Math.toRadians(lat1Deg);
+        double lat2 = Math.toRadians(lat2Deg);
+        double dLon = Math.toRadians(lon2Deg - lon1Deg);
+
+        double y = Math.sin(dLon) * Math.cos(lat2);
+        double x = Math.cos(lat1) * Math.sin(lat2) - Math.sin(lat1) * Math.cos(lat2) * Math.cos(dLon);
+
+        double degrees = Math.toDegrees(Math.atan2(y, x));
+        return (int) ((degrees + 360) % 360);
+    }
+}
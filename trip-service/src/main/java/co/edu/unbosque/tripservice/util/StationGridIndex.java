@@ -0,0 +1,219 @@
+package co.edu.unbosque.tripservice.util;
+
+import co.edu.unbosque.tripservice.model.Station;
+
+import java.util.*;
+
+/**
+ * Índice espacial inmutable de estaciones sobre una grilla uniforme lat/lon.
+ *
+ * Cada estación cae en una celda de cellDegrees × cellDegrees; una búsqueda por radio
+ * solo revisa las celdas que tocan el rectángulo envolvente del círculo y filtra por
+ * distancia Haversine real en metros. Para k vecinos se amplía el radio hasta reunir k.
+ * Los datos se guardan en arreglos primitivos paralelos indexados por "slot".
+ */
+public final class StationGridIndex {
+
+    private static final double EARTH_RADIUS_M = 6_371_000.0;
+    // Misma esfera que Haversine: si la caja usara otro radio dejaría fuera estaciones en el borde
+    private static final double METERS_PER_DEGREE_LAT = EARTH_RADIUS_M * Math.PI / 180;
+
+    public static final StationGridIndex EMPTY = new StationGridIndex(List.of(), 500);
+
+    private final double cellMeters;
+    private final double cellDegrees;
+    private final long[] ids;
+    private final double[] lats;
+    private final double[] lons;
+    private final int[] capacities;
+    private final String[] names;
+    private final Map<Long, int[]> cells;
+
+    /**
+     * @param stations    estaciones activas
+     * @param cellMeters  tamaño aproximado de la celda en metros
+     */
+    public StationGridIndex(Collection<Station> stations, double cellMeters) {
+        this.cellMeters = cellMeters;
+        this.cellDegrees = cellMeters / METERS_PER_DEGREE_LAT;
+
+        int n = stations.size();
+        this.ids = new long[n];
+        this.lats = new double[n];
+        this.lons = new double[n];
+        this.capacities = new int[n];
+        this.names = new String[n];
+
+        Map<Long, List<Integer>> buckets = new HashMap<>();
+        int slot = 0;
+        for (Station station : stations) {
+            ids[slot] = station.getId();
+            lats[slot] = station.getLatitude().doubleValue();
+            lons[slot] = station.getLongitude().doubleValue();
+            capacities[slot] = station.getCapacity() != null ? station.getCapacity() : 0;
+            names[slot] = station.getName();
+            buckets.computeIfAbsent(cellKey(row(lats[slot]), col(lons[slot])), k -> new ArrayList<>()).add(slot);
+            slot++;
+        }
+
+        this.cells = new HashMap<>(buckets.size() * 2);
+        buckets.forEach((key, slots) -> cells.put(key, slots.stream().mapToInt(Integer::intValue).toArray()));
+    }
+
+    /**
+     * Retorna un nuevo índice aplicando altas/cambios y bajas en un solo paso.
+     * Las estaciones inactivas que lleguen como cambio se eliminan del índice.
+     */
+    public StationGridIndex withChanges(Collection<Station> changed, Collection<Long> removed) {
+        Map<Long, Station> all = toStations();
+        for (Station station : changed) {
+            if (Boolean.TRUE.equals(station.getActive())) {
+                all.put(station.getId(), station);
+            } else {
+                all.remove(station.getId());
+            }
+        }
+        removed.forEach(all::remove);
+        return new StationGridIndex(all.values(), cellMeters);
+    }
+
+    public int size() {
+        return ids.length;
+    }
+
+    /**
+     * Estaciones dentro del radio, ordenadas por distancia ascendente
+     */
+    public List<Hit> withinRadius(double lat, double lon, double radiusMeters) {
+        List<Hit> hits = new ArrayList<>();
+        collect(lat, lon, radiusMeters, hits);
+        hits.sort(Comparator.comparingDouble(Hit::distanceMeters));
+        return hits;
+    }
+
+    /**
+     * Hasta k estaciones más cercanas que cumplan el filtro, dentro de maxRadiusMeters
+     */
+    public List<Hit> nearest(double lat, double lon, int k, double maxRadiusMeters, SlotFilter filter) {
+        if (k <= 0 || ids.length == 0) {
+            return List.of();
+        }
+        double radius = Math.min(cellMeters, maxRadiusMeters);
+        while (true) {
+            List<Hit> hits = new ArrayList<>();
+            collect(lat, lon, radius, hits);
+            hits.removeIf(hit -> !filter.accept(hit.stationId(), hit.capacity()));
+            // Todo lo que esté a menos de "radius" ya fue considerado, así que los k primeros son exactos
+            if (hits.size() >= k || radius >= maxRadiusMeters) {
+                hits.sort(Comparator.comparingDouble(Hit::distanceMeters));
+                return hits.size() > k ? new ArrayList<>(hits.subList(0, k)) : hits;
+            }
+            radius = Math.min(radius * 2, maxRadiusMeters);
+        }
+    }
+
+    private void collect(double lat, double lon, double radiusMeters, List<Hit> out) {
+        double dLat = radiusMeters / METERS_PER_DEGREE_LAT;
+        // Ancho exacto del casquete esférico: un círculo alcanza su mayor Δlon hacia el polo, no sobre el paralelo
+        double cosLat = Math.max(Math.cos(Math.toRadians(lat)), 1e-6);
+        double sinLon = Math.sin(radiusMeters / EARTH_RADIUS_M) / cosLat;
+        double dLon = sinLon >= 1 ? 180 : Math.toDegrees(Math.asin(sinLon));
+
+        long rowMin = row(lat - dLat);
+        long rowMax = row(lat + dLat);
+        long colMin = col(lon - dLon);
+        long colMax = col(lon + dLon);
+
+        long cellsInBox = (rowMax - rowMin + 1) * (colMax - colMin + 1);
+        if (cellsInBox > cells.size()) {
+            // Radio grande respecto a la densidad: recorrer solo las celdas ocupadas
+            for (Map.Entry<Long, int[]> entry : cells.entrySet()) {
+                long r = entry.getKey() >> 32;
+                long c = (int) (long) entry.getKey();
+                if (r >= rowMin && r <= rowMax && c >= colMin && c <= colMax) {
+                    scan(entry.getValue(), lat, lon, radiusMeters, out);
+                }
+            }
+            return;
+        }
+
+        for (long r = rowMin; r <= rowMax; r++) {
+            for (long c = colMin; c <= colMax; c++) {
+                int[] slots = cells.get(cellKey(r, c));
+                if (slots != null) {
+                    scan(slots, lat, lon, radiusMeters, out);
+                }
+            }
+        }
+    }
+
+    private void scan(int[] slots, double lat, double lon, double radiusMeters, List<Hit> out) {
+        for (int slot : slots) {
+            double distance = haversineMeters(lat, lon, lats[slot], lons[slot]);
+            if (distance <= radiusMeters) {
+                out.add(new Hit(ids[slot], names[slot], lats[slot], lons[slot], capacities[slot], distance));
+            }
+        }
+    }
+
+    private long row(double lat) {
+        return (long) Math.floor(lat / cellDegrees);
+    }
+
+    private long col(double lon) {
+        return (long) Math.floor(lon / cellDegrees);
+    }
+
+    private static long cellKey(long row, long col) {
+        return (row << 32) | (col & 0xFFFFFFFFL);
+    }
+
+    private Map<Long, Station> toStations() {
+        Map<Long, Station> all = new LinkedHashMap<>();
+        for (int i = 0; i < ids.length; i++) {
+            Station station = new Station(
+                    names[i],
+                    java.math.BigDecimal.valueOf(lons[i]),
+                    java.math.BigDecimal.valueOf(lats[i]),
+                    capacities[i],
+                    true
+            );
+            station.setId(ids[i]);
+            all.put(ids[i], station);
+        }
+        return all;
+    }
+
+    private static double haversineMeters(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2) +
+                Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) *
+                        Math.sin(dLon / 2) * Math.sin(dLon / 2);
+
+        return EARTH_RADIUS_M * 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
+    }
+
+    /**
+     * Resultado de búsqueda
+     */
+    public record Hit(
+            long stationId,
+            String name,
+            double latitude,
+            double longitude,
+            int capacity,
+            double distanceMeters
+    ) {}
+
+    /**
+     * Filtro aplicado a cada candidato (ej. docks libres)
+     */
+    @FunctionalInterface
+    public interface SlotFilter {
+        boolean accept(long stationId, int capacity);
+
+        SlotFilter ALL = (stationId, capacity) -> true;
+    }
+}
@@ -0,0 +1,216 @@
+package co.edu.unbosque.tripservice.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Rueda de tiempo (hashed timing wheel) para tareas periódicas masivas.
+ *
+ * En lugar de una entrada de timer por tarea en un ScheduledThreadPool, cada shard tiene
+ * un único hilo que avanza un "tick" fijo y ejecuta en una sola pasada las tareas cuyo
+ * vencimiento cae en la ranura actual. Las tareas se reparten entre shards por clave
+ * (ej. tripId), así que las de una misma clave nunca corren en paralelo.
+ * Las altas llegan por una cola concurrente y solo el hilo del shard toca las ranuras.
+ */
+public final class TickWheel implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(TickWheel.class);
+
+    private final long tickMillis;
+    private final Shard[] shards;
+    private final AtomicInteger size = new AtomicInteger();
+
+    /**
+     * @param name       prefijo de los hilos
+     * @param shards     número de shards (hilos); 0 = núcleos disponibles
+     * @param tickMillis resolución de la rueda
+     * @param wheelSize  número de ranuras (se redondea a potencia de 2); conviene que
+     *                   cubra el periodo típico para que cada ranura solo tenga tareas que vencen
+     */
+    public TickWheel(String name, int shards, long tickMillis, int wheelSize) {
+        this(name, shards, tickMillis, wheelSize, null);
+    }
+
+    /**
+     * @param threadFactory fábrica de los hilos de los shards (ej. hilos virtuales);
+     *                      null = hilos de plataforma daemon con el prefijo "name"
+     */
+    public TickWheel(String name, int shards, long tickMillis, int wheelSize, ThreadFactory threadFactory) {
+        int shardCount = shards > 0 ? shards : Runtime.getRuntime().availableProcessors();
+        int slots = Integer.highestOneBit(Math.max(wheelSize - 1, 1)) << 1;
+
+        this.tickMillis = tickMillis;
+        this.shards = new Shard[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            this.shards[i] = new Shard(name + "-" + i, slots, threadFactory);
+        }
+    }
+
+    /**
+     * Programa una tarea periódica.
+     *
+     * @param key                 clave de reparto (misma clave = mismo hilo)
+     * @param initialDelayMillis  espera antes de la primera ejecución
+     * @param periodMillis        periodo entre ejecuciones
+     * @param task                retorna false para dejar de ejecutarse
+     * @return handle para cancelar
+     */
+    public Handle schedule(long key, long initialDelayMillis, long periodMillis, PeriodicTask task) {
+        Shard shard = shards[(int) Math.floorMod(mix(key), (long) shards.length)];
+        Handle handle = new Handle(task, toTicks(initialDelayMillis), Math.max(1, toTicks(periodMillis)));
+        shard.pending.add(handle);
+        size.incrementAndGet();
+        return handle;
+    }
+
+    /**
+     * Tareas activas (incluye las recién programadas y aún no ubicadas en la rueda)
+     */
+    public int size() {
+        return size.get();
+    }
+
+    @Override
+    public void close() {
+        for (Shard shard : shards) {
+            shard.thread.shutdownNow();
+        }
+    }
+
+    private long toTicks(long millis) {
+        return (millis + tickMillis - 1) / tickMillis;
+    }
+
+    private static long mix(long key) {
+        key ^= (key >>> 33);
+        key *= 0xff51afd7ed558ccdL;
+        return key ^ (key >>> 33);
+    }
+
+    /**
+     * Tarea periódica; retorna false cuando ya no debe volver a ejecutarse
+     */
+    @FunctionalInterface
+    public interface PeriodicTask {
+        boolean run();
+    }
+
+    public final class Handle {
+        private final PeriodicTask task;
+        private final long periodTicks;
+        private long initialDelayTicks;
+        private long deadline;
+        private volatile boolean cancelled;
+
+        private Handle(PeriodicTask task, long initialDelayTicks, long periodTicks) {
+            this.task = task;
+            this.initialDelayTicks = initialDelayTicks;
+            this.periodTicks = periodTicks;
+        }
+
+        /**
+         * Cancela la tarea; se retira de la rueda la próxima vez que pase por su ranura
+         */
+        public void cancel() {
+            cancelled = true;
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+    }
+
+    private final class Shard {
+        private final List<Handle>[] wheel;
+        private final int mask;
+        private final Queue<Handle> pending = new ConcurrentLinkedQueue<>();
+        private final ScheduledExecutorService thread;
+        private long tick;
+
+        @SuppressWarnings("unchecked")
+        private Shard(String threadName, int slots, ThreadFactory threadFactory) {
+            this.wheel = new List[slots];
+            for (int i = 0; i < slots; i++) {
+                wheel[i] = new ArrayList<>();
+            }
+            this.mask = slots - 1;
+            this.thread = Executors.newSingleThreadScheduledExecutor(threadFactory != null ? threadFactory : runnable -> {
+                Thread t = new Thread(runnable, threadName);
+                t.setDaemon(true);
+                return t;
+            });
+            this.thread.scheduleAtFixedRate(this::advance, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+        }
+
+        private void advance() {
+            try {
+                tick++;
+
+                Handle added;
+                while ((added = pending.poll()) != null) {
+                    place(added, tick + added.initialDelayTicks);
+                }
+
+                List<Handle> slot = wheel[(int) (tick & mask)];
+                if (slot.isEmpty()) {
+                    return;
+                }
+
+                // Se compacta la ranura en el mismo recorrido: quedan solo las de vueltas posteriores
+                int kept = 0;
+                List<Handle> rescheduled = null;
+                for (int i = 0, n = slot.size(); i < n; i++) {
+                    Handle handle = slot.get(i);
+                    if (handle.deadline > tick && !handle.cancelled) {
+                        slot.set(kept++, handle);
+                        continue;
+                    }
+                    // Se revisa de nuevo tras correr: la tarea pudo cancelarse a sí misma durante run()
+                    if (!handle.cancelled && runSafely(handle) && !handle.cancelled) {
+                        if (rescheduled == null) {
+                            rescheduled = new ArrayList<>();
+                        }
+                        rescheduled.add(handle);
+                    } else {
+                        size.decrementAndGet();
+                    }
+                }
+                slot.subList(kept, slot.size()).clear();
+
+                if (rescheduled != null) {
+                    for (Handle handle : rescheduled) {
+                        place(handle, tick + handle.periodTicks);
+                    }
+                }
+            } catch (Throwable t) {
+                // Un error aquí no debe detener el hilo de la rueda
+                log.error("Error avanzando la rueda de tiempo: {}", t.getMessage(), t);
+            }
+        }
+
+        private void place(Handle handle, long deadline) {
+            handle.deadline = Math.max(deadline, tick + 1);
+            handle.initialDelayTicks = 0;
+            wheel[(int) (handle.deadline & mask)].add(handle);
+        }
+
+        private boolean runSafely(Handle handle) {
+            try {
+                return handle.task.run();
+            } catch (Exception e) {
+                log.warn("Tarea periódica falló: {}", e.getMessage());
+                return true;
+            }
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package co.edu.unbosque.tripservice.util;
+
+import java.io.*;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Codificación compacta de recorridos GPS.
+ *
+ * Cada punto se guarda como deltas respecto al anterior: latitud y longitud en
+ * microgrados (varint zigzag) y tiempo en milisegundos (varint zigzag). El primer
+ * punto se codifica contra (0, 0, 0), así que un track es simplemente la concatenación
+ * de los bloques añadidos; un punto típico a 5 s ocupa 6-8 bytes.
+ */
+public final class TrackCodec {
+
+    private TrackCodec() {
+    }
+
+    /**
+     * Codifica puntos a continuación de "previous" (el último punto ya guardado, o null si el track está vacío)
+     */
+    public static byte[] encode(Iterable<TrackPoint> points, TrackPoint previous) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        DataOutputStream out = new DataOutputStream(bytes);
+        int lat = previous != null ? previous.latE6() : 0;
+        int lon = previous != null ? previous.lonE6() : 0;
+        long time = previous != null ? previous.timeMillis() : 0;
+        try {
+            for (TrackPoint point : points) {
+                VarInts.writeSignedVarLong(out, (long) point.latE6() - lat);
+                VarInts.writeSignedVarLong(out, (long) point.lonE6() - lon);
+                VarInts.writeSignedVarLong(out, point.timeMillis() - time);
+                lat = point.latE6();
+                lon = point.lonE6();
+                time = point.timeMillis();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Decodifica el track de forma perezosa: los puntos se generan a medida que se consumen
+     */
+    public static Stream<TrackPoint> stream(byte[] data) {
+        return StreamSupport.stream(
+                Spliterators.spliteratorUnknownSize(iterator(data), Spliterator.ORDERED | Spliterator.NONNULL),
+                false
+        );
+    }
+
+    public static Iterator<TrackPoint> iterator(byte[] data) {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+        return new Iterator<>() {
+            private int remaining = data.length;
+            private int lat;
+            private int lon;
+            private long time;
+
+            @Override
+            public boolean hasNext() {
+                return remaining > 0;
+            }
+
+            @Override
+            public TrackPoint next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                try {
+                    lat += (int) VarInts.readSignedVarLong(in);
+                    lon += (int) VarInts.readSignedVarLong(in);
+                    time += VarInts.readSignedVarLong(in);
+                    remaining = in.available();
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Track corrupto", e);
+                }
+                return new TrackPoint(time, lat, lon);
+            }
+        };
+    }
+
+    /**
+     * Punto del recorrido: epoch en milisegundos y coordenadas en microgrados
+     */
+    public record TrackPoint(long timeMillis, int latE6, int lonE6) {}
+}
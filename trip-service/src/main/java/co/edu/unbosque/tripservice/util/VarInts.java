@@ -0,0 +1,49 @@
+package co.edu.unbosque.tripservice.util;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Codificación de enteros de longitud variable (varint LEB128 + zigzag).
+ * Los deltas pequeños de coordenadas y tiempos ocupan 1-2 bytes en lugar de 4-8.
+ */
+public final class VarInts {
+
+    private VarInts() {
+    }
+
+    public static void writeVarLong(DataOutput out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    public static long readVarLong(DataInput in) throws IOException {
+        long result = 0;
+        int shift = 0;
+        while (shift < 64) {
+            int b = in.readUnsignedByte();
+            result |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+            shift += 7;
+        }
+        throw new IOException("Varint mal formado");
+    }
+
+    /**
+     * Escribe un entero con signo usando zigzag para que los negativos pequeños sigan siendo cortos
+     */
+    public static void writeSignedVarLong(DataOutput out, long value) throws IOException {
+        writeVarLong(out, (value << 1) ^ (value >> 63));
+    }
+
+    public static long readSignedVarLong(DataInput in) throws IOException {
+        long raw = readVarLong(in);
+        return (raw >>> 1) ^ -(raw & 1);
+    }
+}
@@ -0,0 +1,133 @@
+package co.edu.unbosque.tripservice;
+
+import co.edu.unbosque.tripservice.dto.OSMRouteResponseDTO;
+import co.edu.unbosque.tripservice.model.Bicycle;
+import co.edu.unbosque.tripservice.model.Station;
+import co.edu.unbosque.tripservice.model.Trip;
+import co.edu.unbosque.tripservice.service.OSRMRouteService;
+import co.edu.unbosque.tripservice.util.IoTBikeSimulator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Simulador con una rueda real (tick de 10 ms) y telemetría cada segundo.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("IoTBikeSimulator Tests")
+class IoTBikeSimulatorTest {
+
+    @Mock
+    private KafkaTemplate<String, Object> kafkaTemplate;
+
+    @Mock
+    private OSRMRouteService osrmService;
+
+    private IoTBikeSimulator simulator;
+
+    @BeforeEach
+    void setUp() {
+        simulator = new IoTBikeSimulator(kafkaTemplate, osrmService, new ObjectMapper(), 1, 10, 128, false);
+        ReflectionTestUtils.setField(simulator, "telemetryInterval", 1);
+        ReflectionTestUtils.setField(simulator, "speedMin", 12.0);
+        ReflectionTestUtils.setField(simulator, "speedMax", 25.0);
+    }
+
+    @AfterEach
+    void tearDown() {
+        simulator.shutdown();
+    }
+
+    private static Trip trip(long id) {
+        Station station = new Station("Estación 1", new BigDecimal("-74.081700"), new BigDecimal("4.648200"), 10, true);
+        station.setId(1L);
+        Bicycle bicycle = new Bicycle("BIKE-" + id, null, station, "IN_USE", "MECHANICAL");
+        bicycle.setId(id);
+        Trip trip = new Trip();
+        trip.setId(id);
+        trip.setUserId(10L);
+        trip.setBicycle(bicycle);
+        trip.setStartStation(station);
+        trip.setStatus("IN_PROGRESS");
+        return trip;
+    }
+
+    private void stubRoute() {
+        List<List<BigDecimal>> points = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            points.add(List.of(BigDecimal.valueOf(-74.0817 + i * 0.0005), BigDecimal.valueOf(4.6482 + i * 0.0005)));
+        }
+        when(osrmService.getRoute(any(), any(), any(), any()))
+                .thenReturn(new OSMRouteResponseDTO("OK", new BigDecimal("1.50"), 5, List.of(), points));
+        when(osrmService.interpolateRoutePoints(anyList(), anyInt())).thenReturn(points);
+    }
+
+    @Test
+    @DisplayName("Should stop publishing telemetry once the simulation is stopped")
+    void testStopHaltsTelemetry() throws InterruptedException {
+        // Arrange
+        stubRoute();
+        simulator.startSimulation(trip(1));
+        verify(kafkaTemplate, timeout(2000)).send(eq("bicycle-telemetry"), eq("1"), any());
+
+        // Act
+        simulator.stopSimulation(1L);
+        clearInvocations(kafkaTemplate);
+        Thread.sleep(1500);
+
+        // Assert
+        verifyNoInteractions(kafkaTemplate);
+    }
+
+    @Test
+    @DisplayName("Should schedule a single simulation when the same trip is started concurrently")
+    void testConcurrentStartSchedulesOnce() throws InterruptedException {
+        // Arrange
+        stubRoute();
+        Trip trip = trip(2);
+        CountDownLatch ready = new CountDownLatch(2);
+        CountDownLatch go = new CountDownLatch(1);
+        List<Thread> starters = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            starters.add(new Thread(() -> {
+                ready.countDown();
+                try {
+                    go.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                simulator.startSimulation(trip);
+            }));
+        }
+        starters.forEach(Thread::start);
+        ready.await(1, TimeUnit.SECONDS);
+
+        // Act
+        go.countDown();
+        for (Thread starter : starters) {
+            starter.join(2000);
+        }
+        Thread.sleep(500);
+
+        // Assert
+        // Primer envío inmediato y el siguiente a 1 s: dos simulaciones darían dos envíos
+        verify(kafkaTemplate, times(1)).send(eq("bicycle-telemetry"), eq("2"), any());
+    }
+}
@@ -0,0 +1,236 @@
+package co.edu.unbosque.tripservice;
+
+import co.edu.unbosque.tripservice.cache.RouteDiskStore;
+import co.edu.unbosque.tripservice.cache.RouteKey;
+import co.edu.unbosque.tripservice.config.CacheConfig;
+import co.edu.unbosque.tripservice.dto.OSMRouteResponseDTO;
+import co.edu.unbosque.tripservice.dto.RouteSegmentDTO;
+import co.edu.unbosque.tripservice.util.VarInts;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("RouteDiskStore Tests")
+class RouteDiskStoreTest {
+
+    @TempDir
+    Path directory;
+
+    private RouteDiskStore store;
+    private RouteKey key;
+    private OSMRouteResponseDTO route;
+
+    @BeforeEach
+    void setUp() {
+        store = new RouteDiskStore(directory, 10, Duration.ofDays(7));
+        key = RouteKey.of(new BigDecimal("-74.0817"), new BigDecimal("4.6482"),
+                new BigDecimal("-74.0500"), new BigDecimal("4.7000"));
+        route = new OSMRouteResponseDTO(
+                "OK",
+                new BigDecimal("6.42"),
+                1250,
+                List.of(
+                        new RouteSegmentDTO(new BigDecimal("4.648200"), new BigDecimal("-74.081700"),
+                                new BigDecimal("4.660000"), new BigDecimal("-74.070000"),
+                                new BigDecimal("2.10"), 400, "cycleway"),
+                        new RouteSegmentDTO(new BigDecimal("4.660000"), new BigDecimal("-74.070000"),
+                                new BigDecimal("4.700000"), new BigDecimal("-74.050000"),
+                                new BigDecimal("4.32"), 850, null)
+                ),
+                List.of(
+                        List.of(new BigDecimal("-74.081700"), new BigDecimal("4.648200")),
+                        List.of(new BigDecimal("-74.075123"), new BigDecimal("4.652345")),
+                        List.of(new BigDecimal("-74.070000"), new BigDecimal("4.660000")),
+                        List.of(new BigDecimal("-74.050000"), new BigDecimal("4.700000"))
+                )
+        );
+    }
+
+    private Path fileOf(RouteKey routeKey) {
+        return directory.resolve(routeKey.fileName());
+    }
+
+    private RouteKey keyOf(int i) {
+        return new RouteKey(4_600_000 + i, -74_000_000, 4_700_000, -74_050_000);
+    }
+
+    private long routeFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(p -> p.getFileName().toString().endsWith(".route")).count();
+        }
+    }
+
+    @Test
+    @DisplayName("Should read back the same route that was written")
+    void testWriteAndReadBack() {
+        // Act
+        store.write(key, route);
+        OSMRouteResponseDTO read = store.read(key);
+
+        // Assert
+        assertNotNull(read);
+        assertEquals("OK", read.status());
+        assertEquals(new BigDecimal("6.42"), read.totalDistance());
+        assertEquals(1250, read.totalDuration());
+        assertEquals(route.geometry(), read.geometry());
+        assertEquals(route.segments().get(0), read.segments().get(0));
+        // Los campos nulos vuelven como valores vacíos del formato
+        assertEquals("", read.segments().get(1).roadType());
+        assertEquals(1, store.size());
+    }
+
+    @Test
+    @DisplayName("Should survive a restart by counting the existing files")
+    void testReopenKeepsEntries() {
+        // Arrange
+        store.write(key, route);
+
+        // Act
+        RouteDiskStore reopened = new RouteDiskStore(directory, 10, Duration.ofDays(7));
+
+        // Assert
+        assertEquals(1, reopened.size());
+        assertEquals(route.geometry(), reopened.read(key).geometry());
+    }
+
+    @Test
+    @DisplayName("Should treat a truncated file as a cache miss and delete it")
+    void testTruncatedFileIsMiss() throws IOException {
+        // Arrange
+        store.write(key, route);
+        byte[] data = Files.readAllBytes(fileOf(key));
+        Files.write(fileOf(key), Arrays.copyOf(data, data.length / 2));
+
+        // Act & Assert
+        assertNull(store.read(key));
+        assertFalse(Files.exists(fileOf(key)));
+        assertEquals(0, store.size());
+    }
+
+    @Test
+    @DisplayName("Should treat garbage, an unknown version and an absurd point count as cache misses")
+    void testCorruptFilesAreMisses() throws IOException {
+        // Bytes arbitrarios
+        Files.write(fileOf(key), new byte[]{(byte) 0xFF, (byte) 0xFF, (byte) 0xFF});
+        assertNull(store.read(key));
+
+        // Versión desconocida
+        Files.write(fileOf(key), new byte[]{42, 0, 0});
+        assertNull(store.read(key));
+
+        // Cabecera válida con un conteo de puntos enorme y sin datos detrás
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeByte(1);
+        out.writeUTF("OK");
+        out.writeByte(-1);
+        out.writeInt(0);
+        VarInts.writeVarLong(out, Integer.MAX_VALUE);
+        Files.write(fileOf(key), bytes.toByteArray());
+        assertNull(store.read(key));
+
+        // Conteo que no cabe en un int
+        bytes.reset();
+        out.writeByte(1);
+        out.writeUTF("OK");
+        out.writeByte(-1);
+        out.writeInt(0);
+        VarInts.writeVarLong(out, -1L);
+        Files.write(fileOf(key), bytes.toByteArray());
+        assertNull(store.read(key));
+
+        assertFalse(Files.exists(fileOf(key)));
+    }
+
+    @Test
+    @DisplayName("Should treat a missing or expired file as a cache miss")
+    void testMissingAndExpired() throws IOException {
+        assertNull(store.read(key));
+
+        store.write(key, route);
+        Files.setLastModifiedTime(fileOf(key), FileTime.fromMillis(System.currentTimeMillis() - Duration.ofDays(8).toMillis()));
+
+        assertNull(store.read(key));
+        assertFalse(Files.exists(fileOf(key)));
+        assertEquals(0, store.size());
+    }
+
+    @Test
+    @DisplayName("Should prune the oldest entries down to 90% once maxEntries is exceeded")
+    void testPrunePastMaxEntries() throws IOException {
+        // Arrange: 10 entradas (capacidad) con fechas de escritura crecientes
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < 10; i++) {
+            store.write(keyOf(i), route);
+            Files.setLastModifiedTime(fileOf(keyOf(i)), FileTime.fromMillis(now - (20 - i) * 60_000L));
+        }
+        assertEquals(10, store.size());
+
+        // Act: la entrada 11 supera la capacidad
+        store.write(keyOf(10), route);
+
+        // Assert: quedan 9, se eliminaron las dos más antiguas
+        assertEquals(9, store.size());
+        assertEquals(9, routeFiles());
+        assertNull(store.read(keyOf(0)));
+        assertNull(store.read(keyOf(1)));
+        assertNotNull(store.read(keyOf(2)));
+        assertNotNull(store.read(keyOf(10)));
+    }
+
+    @Test
+    @DisplayName("Should not count an overwrite of an existing key as a new entry")
+    void testOverwriteDoesNotGrow() throws IOException {
+        store.write(key, route);
+        store.write(key, route);
+
+        assertEquals(1, store.size());
+        assertEquals(1, routeFiles());
+    }
+
+    @Test
+    @DisplayName("Should map equal coordinates with different BigDecimal scale to the same key")
+    void testKeyIgnoresScale() {
+        // Arrange
+        var keyGenerator = new CacheConfig().routeKeyGenerator();
+
+        // Act
+        Object shortScale = keyGenerator.generate(this, null, new BigDecimal("-74.0817"), new BigDecimal("4.6482"),
+                new BigDecimal("-74.05"), new BigDecimal("4.7"));
+        Object longScale = keyGenerator.generate(this, null, new BigDecimal("-74.081700"), new BigDecimal("4.648200"),
+                new BigDecimal("-74.0500000"), new BigDecimal("4.70000000"));
+        Object otherPoint = keyGenerator.generate(this, null, new BigDecimal("-74.081701"), new BigDecimal("4.6482"),
+                new BigDecimal("-74.05"), new BigDecimal("4.7"));
+
+        // Assert
+        assertEquals(shortScale, longScale);
+        assertEquals(shortScale.hashCode(), longScale.hashCode());
+        assertEquals(((RouteKey) shortScale).fileName(), ((RouteKey) longScale).fileName());
+        assertNotEquals(shortScale, otherPoint);
+        assertEquals(new RouteKey(4_648_200, -74_081_700, 4_700_000, -74_050_000), shortScale);
+    }
+
+    @Test
+    @DisplayName("Should round sub-micro-degree differences to the nearest micro-degree")
+    void testToE6Rounding() {
+        assertEquals(4_648_200, RouteKey.toE6(new BigDecimal("4.64820049")));
+        assertEquals(4_648_201, RouteKey.toE6(new BigDecimal("4.6482005")));
+        assertEquals(-74_081_701, RouteKey.toE6(new BigDecimal("-74.0817005")));
+        assertEquals(180_000_000, RouteKey.toE6(new BigDecimal("180")));
+    }
+}
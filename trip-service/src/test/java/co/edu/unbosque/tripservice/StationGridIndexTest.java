@@ -0,0 +1,199 @@
+package co.edu.unbosque.tripservice;
+
+import co.edu.unbosque.tripservice.model.Station;
+import co.edu.unbosque.tripservice.util.StationGridIndex;
+import co.edu.unbosque.tripservice.util.StationGridIndex.Hit;
+import co.edu.unbosque.tripservice.util.StationGridIndex.SlotFilter;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compara el índice contra una búsqueda por fuerza bruta con Haversine sobre todas las estaciones.
+ */
+@DisplayName("StationGridIndex Tests")
+class StationGridIndexTest {
+
+    private static final double EARTH_RADIUS_M = 6_371_000.0;
+    private static final double BOGOTA_LAT = 4.65;
+    private static final double BOGOTA_LON = -74.08;
+
+    private static Station station(long id, double lat, double lon, int capacity) {
+        Station station = new Station("Estación " + id, BigDecimal.valueOf(lon), BigDecimal.valueOf(lat), capacity, true);
+        station.setId(id);
+        return station;
+    }
+
+    private static List<Station> randomStations(Random random, int count, double spreadDegrees) {
+        List<Station> stations = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            stations.add(station(i + 1,
+                    BOGOTA_LAT + (random.nextDouble() - 0.5) * spreadDegrees,
+                    BOGOTA_LON + (random.nextDouble() - 0.5) * spreadDegrees,
+                    5 + random.nextInt(20)));
+        }
+        return stations;
+    }
+
+    private static double haversine(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2) +
+                Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) *
+                        Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return EARTH_RADIUS_M * 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
+    }
+
+    /**
+     * Punto a "meters" del origen en el rumbo indicado (grados desde el norte)
+     */
+    private static double[] destination(double lat, double lon, double bearingDegrees, double meters) {
+        double delta = meters / EARTH_RADIUS_M;
+        double phi1 = Math.toRadians(lat);
+        double theta = Math.toRadians(bearingDegrees);
+        double phi2 = Math.asin(Math.sin(phi1) * Math.cos(delta) + Math.cos(phi1) * Math.sin(delta) * Math.cos(theta));
+        double lambda2 = Math.toRadians(lon) + Math.atan2(Math.sin(theta) * Math.sin(delta) * Math.cos(phi1),
+                Math.cos(delta) - Math.sin(phi1) * Math.sin(phi2));
+        return new double[]{Math.toDegrees(phi2), Math.toDegrees(lambda2)};
+    }
+
+    private static List<Long> bruteWithinRadius(List<Station> stations, double lat, double lon, double radius) {
+        return stations.stream()
+                .filter(s -> haversine(lat, lon, s.getLatitude().doubleValue(), s.getLongitude().doubleValue()) <= radius)
+                .sorted(Comparator.comparingDouble(s -> haversine(lat, lon, s.getLatitude().doubleValue(), s.getLongitude().doubleValue())))
+                .map(Station::getId)
+                .toList();
+    }
+
+    private static List<Long> bruteNearest(List<Station> stations, double lat, double lon, int k, double maxRadius) {
+        List<Long> within = bruteWithinRadius(stations, lat, lon, maxRadius);
+        return within.size() > k ? within.subList(0, k) : within;
+    }
+
+    private static List<Long> ids(List<Hit> hits) {
+        return hits.stream().map(Hit::stationId).toList();
+    }
+
+    @Test
+    @DisplayName("Should match brute force for radius searches that span several cells")
+    void testWithinRadiusMatchesBruteForce() {
+        // Arrange
+        Random random = new Random(42);
+        List<Station> stations = randomStations(random, 400, 0.2);
+        StationGridIndex index = new StationGridIndex(stations, 500);
+
+        // Act & Assert
+        for (int q = 0; q < 300; q++) {
+            double lat = BOGOTA_LAT + (random.nextDouble() - 0.5) * 0.2;
+            double lon = BOGOTA_LON + (random.nextDouble() - 0.5) * 0.2;
+            double radius = 100 + random.nextDouble() * 5_000;
+            assertEquals(bruteWithinRadius(stations, lat, lon, radius), ids(index.withinRadius(lat, lon, radius)),
+                    "consulta " + q + " radio " + radius);
+        }
+    }
+
+    @Test
+    @DisplayName("Should find stations just inside the radius when they sit across a cell edge")
+    void testStationsNearCellEdges() {
+        // Arrange: una estación a 0.9995·r en cada rumbo, consultada desde muchos puntos de una misma celda
+        double radius = 1_000;
+        for (double bearing = 0; bearing < 360; bearing += 15) {
+            for (int step = 0; step < 600; step++) {
+                double lat = BOGOTA_LAT + step * 1e-5;
+                double lon = BOGOTA_LON + step * 1e-5;
+                double[] target = destination(lat, lon, bearing, radius * 0.9995);
+                List<Station> stations = List.of(station(1, target[0], target[1], 10));
+                StationGridIndex index = new StationGridIndex(stations, 250);
+
+                // Act
+                List<Hit> hits = index.withinRadius(lat, lon, radius);
+
+                // Assert
+                assertEquals(List.of(1L), ids(hits), "rumbo " + bearing + " paso " + step);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Should match brute force for nearest k, including k larger than the number of stations")
+    void testNearestMatchesBruteForce() {
+        // Arrange
+        Random random = new Random(7);
+        List<Station> stations = randomStations(random, 150, 0.1);
+        StationGridIndex index = new StationGridIndex(stations, 300);
+
+        // Act & Assert
+        for (int q = 0; q < 200; q++) {
+            double lat = BOGOTA_LAT + (random.nextDouble() - 0.5) * 0.12;
+            double lon = BOGOTA_LON + (random.nextDouble() - 0.5) * 0.12;
+            int k = 1 + random.nextInt(8);
+            assertEquals(bruteNearest(stations, lat, lon, k, 3_000), ids(index.nearest(lat, lon, k, 3_000, SlotFilter.ALL)),
+                    "consulta " + q + " k " + k);
+        }
+
+        List<Hit> all = index.nearest(BOGOTA_LAT, BOGOTA_LON, 1_000, 100_000, SlotFilter.ALL);
+        assertEquals(150, all.size());
+        assertEquals(bruteNearest(stations, BOGOTA_LAT, BOGOTA_LON, 1_000, 100_000), ids(all));
+        assertTrue(index.nearest(BOGOTA_LAT, BOGOTA_LON, 0, 100_000, SlotFilter.ALL).isEmpty());
+        assertTrue(StationGridIndex.EMPTY.nearest(BOGOTA_LAT, BOGOTA_LON, 3, 100_000, SlotFilter.ALL).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should apply the filter before taking the k nearest")
+    void testNearestWithFilter() {
+        // Arrange
+        Random random = new Random(11);
+        List<Station> stations = randomStations(random, 120, 0.08);
+        StationGridIndex index = new StationGridIndex(stations, 400);
+        List<Station> big = stations.stream().filter(s -> s.getCapacity() >= 15).toList();
+
+        // Act
+        List<Hit> hits = index.nearest(BOGOTA_LAT, BOGOTA_LON, 5, 20_000, (id, capacity) -> capacity >= 15);
+
+        // Assert
+        assertEquals(bruteNearest(big, BOGOTA_LAT, BOGOTA_LON, 5, 20_000), ids(hits));
+    }
+
+    @Test
+    @DisplayName("Should reflect added, moved, deactivated and deleted stations after withChanges")
+    void testWithChanges() {
+        // Arrange
+        Random random = new Random(3);
+        List<Station> stations = new ArrayList<>(randomStations(random, 60, 0.05));
+        StationGridIndex index = new StationGridIndex(stations, 500);
+
+        Station added = station(1_000, BOGOTA_LAT + 0.001, BOGOTA_LON - 0.001, 12);
+        Station moved = station(5, BOGOTA_LAT - 0.02, BOGOTA_LON + 0.02, 8);
+        Station deactivated = station(6, stations.get(5).getLatitude().doubleValue(), stations.get(5).getLongitude().doubleValue(), 8);
+        deactivated.setActive(false);
+
+        // Act
+        StationGridIndex updated = index.withChanges(List.of(added, moved, deactivated), List.of(7L));
+
+        // Assert: el índice original no cambia
+        assertEquals(60, index.size());
+        assertEquals(59, updated.size());
+
+        List<Station> expected = new ArrayList<>(stations);
+        expected.removeIf(s -> s.getId() == 5L || s.getId() == 6L || s.getId() == 7L);
+        expected.add(added);
+        expected.add(moved);
+        for (int q = 0; q < 100; q++) {
+            double lat = BOGOTA_LAT + (random.nextDouble() - 0.5) * 0.06;
+            double lon = BOGOTA_LON + (random.nextDouble() - 0.5) * 0.06;
+            assertEquals(bruteWithinRadius(expected, lat, lon, 2_000), ids(updated.withinRadius(lat, lon, 2_000)),
+                    "consulta " + q);
+        }
+
+        Hit movedHit = updated.nearest(moved.getLatitude().doubleValue(), moved.getLongitude().doubleValue(), 1, 10, SlotFilter.ALL).get(0);
+        assertEquals(5L, movedHit.stationId());
+        assertEquals(8, movedHit.capacity());
+    }
+}
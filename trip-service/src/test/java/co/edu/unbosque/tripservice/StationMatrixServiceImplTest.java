@@ -0,0 +1,175 @@
+package co.edu.unbosque.tripservice;
+
+import co.edu.unbosque.tripservice.dto.OSRMTableResponseDTO;
+import co.edu.unbosque.tripservice.model.Station;
+import co.edu.unbosque.tripservice.repository.StationRepository;
+import co.edu.unbosque.tripservice.service.OSRMRouteService;
+import co.edu.unbosque.tripservice.service.impl.StationMatrixServiceImpl;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("StationMatrixServiceImpl Tests")
+class StationMatrixServiceImplTest {
+
+    @TempDir
+    Path directory;
+
+    @Mock
+    private StationRepository stationRepo;
+
+    @Mock
+    private OSRMRouteService osrmService;
+
+    private StationMatrixServiceImpl service(MeterRegistry registry) {
+        StationMatrixServiceImpl service = new StationMatrixServiceImpl(stationRepo, osrmService, registry);
+        ReflectionTestUtils.setField(service, "enabled", true);
+        ReflectionTestUtils.setField(service, "matrixFile", directory.resolve("station-matrix.bin").toString());
+        ReflectionTestUtils.setField(service, "tileSize", 50);
+        ReflectionTestUtils.setField(service, "maxTilesPerRun", 16);
+        return service;
+    }
+
+    private static Station station(long id, String lat, String lon) {
+        Station station = new Station("Estación " + id, new BigDecimal(lon), new BigDecimal(lat), 10, true);
+        station.setId(id);
+        return station;
+    }
+
+    /**
+     * Tabla OSRM con celda (i, j) = 1000 * (i + 1) + j metros y la mitad en segundos
+     */
+    private void stubTable() {
+        when(osrmService.getTable(anyList(), anyList())).thenAnswer(invocation -> {
+            int rows = invocation.<List<?>>getArgument(0).size();
+            int cols = invocation.<List<?>>getArgument(1).size();
+            double[][] distances = new double[rows][cols];
+            double[][] durations = new double[rows][cols];
+            for (int i = 0; i < rows; i++) {
+                for (int j = 0; j < cols; j++) {
+                    distances[i][j] = 1000.0 * (i + 1) + j;
+                    durations[i][j] = distances[i][j] / 2;
+                }
+            }
+            return new OSRMTableResponseDTO(distances, durations);
+        });
+    }
+
+    private static double gauge(MeterRegistry registry, String name) {
+        return registry.get(name).gauge().value();
+    }
+
+    @Test
+    @DisplayName("Should index sparse station ids without sizing memory by the largest id")
+    void testSparseIdsRoundTrip() {
+        // Arrange
+        long farId = 9_000_000_000L;
+        when(stationRepo.findByActiveTrue()).thenReturn(List.of(
+                station(farId, "4.700000", "-74.050000"),
+                station(7, "4.648200", "-74.081700")));
+        stubTable();
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        StationMatrixServiceImpl service = service(registry);
+
+        // Act
+        service.refresh();
+
+        // Assert
+        // Ordenadas por id: 7 es la fila 0 y farId la fila 1
+        assertEquals(new BigDecimal("1.00"), service.getDistanceKm(7L, farId));
+        assertEquals(new BigDecimal("2.00"), service.getDistanceKm(farId, 7L));
+        assertEquals(8, service.getDurationMinutes(7L, farId));
+        assertNull(service.getDistanceKm(8L, farId));
+        assertEquals(2.0, gauge(registry, "station.matrix.stations"));
+        assertEquals(0.0, gauge(registry, "station.matrix.pending.cells"));
+
+        SimpleMeterRegistry reloadedRegistry = new SimpleMeterRegistry();
+        StationMatrixServiceImpl reloaded = service(reloadedRegistry);
+        ReflectionTestUtils.invokeMethod(reloaded, "loadFromDisk");
+        assertEquals(new BigDecimal("2.00"), reloaded.getDistanceKm(farId, 7L));
+        assertEquals(0.0, gauge(reloadedRegistry, "station.matrix.pending.cells"));
+    }
+
+    @Test
+    @DisplayName("Should keep the pending cell gauge in step with computed tiles")
+    void testPendingCellsFollowTiles() {
+        // Arrange
+        when(stationRepo.findByActiveTrue()).thenReturn(List.of(
+                station(1, "4.600000", "-74.100000"),
+                station(2, "4.610000", "-74.090000"),
+                station(3, "4.620000", "-74.080000")));
+        stubTable();
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        StationMatrixServiceImpl service = service(registry);
+        ReflectionTestUtils.setField(service, "tileSize", 2);
+        ReflectionTestUtils.setField(service, "maxTilesPerRun", 1);
+
+        // Act
+        service.refresh();
+        double afterFirstTile = gauge(registry, "station.matrix.pending.cells");
+        service.refresh();
+        service.refresh();
+        service.refresh();
+
+        // Assert
+        // Primer bloque 2x2 de 9 celdas; luego 2x1, 1x2 y 1x1
+        assertEquals(5.0, afterFirstTile);
+        assertEquals(0.0, gauge(registry, "station.matrix.pending.cells"));
+    }
+
+    @Test
+    @DisplayName("Should reject a file whose station count is out of range without allocating it")
+    void testCorruptSizeIsRejected() throws IOException {
+        // Arrange
+        try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(directory.resolve("station-matrix.bin")))) {
+            out.writeInt(1);
+            out.writeInt(Integer.MAX_VALUE);
+        }
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        StationMatrixServiceImpl service = service(registry);
+
+        // Act
+        ReflectionTestUtils.invokeMethod(service, "loadFromDisk");
+
+        // Assert
+        assertEquals(0.0, gauge(registry, "station.matrix.stations"));
+    }
+
+    @Test
+    @DisplayName("Should reject a file shorter than its declared station count")
+    void testTruncatedFileIsRejected() throws IOException {
+        // Arrange
+        try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(directory.resolve("station-matrix.bin")))) {
+            out.writeInt(1);
+            out.writeInt(10_000);
+            out.writeLong(1L);
+        }
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        StationMatrixServiceImpl service = service(registry);
+
+        // Act
+        ReflectionTestUtils.invokeMethod(service, "loadFromDisk");
+
+        // Assert
+        assertEquals(0.0, gauge(registry, "station.matrix.stations"));
+        assertNull(service.getDistanceKm(1L, 1L));
+    }
+}
@@ -0,0 +1,194 @@
+package co.edu.unbosque.tripservice;
+
+import co.edu.unbosque.tripservice.util.TickWheel;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas con reloj real: tick de 10 ms y márgenes amplios para no depender de la carga de la máquina.
+ */
+@DisplayName("TickWheel Tests")
+class TickWheelTest {
+
+    private static final long TICK_MS = 10;
+
+    private TickWheel wheel;
+
+    @BeforeEach
+    void setUp() {
+        // 8 ranuras de 10 ms: una vuelta completa son 80 ms
+        wheel = new TickWheel("test-wheel", 2, TICK_MS, 8);
+    }
+
+    @AfterEach
+    void tearDown() {
+        wheel.close();
+    }
+
+    private static void awaitSize(TickWheel wheel, int expected) throws InterruptedException {
+        awaitSize(wheel, expected, 2_000);
+    }
+
+    private static void awaitSize(TickWheel wheel, int expected, long timeoutMs) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMs;
+        while (wheel.size() != expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(TICK_MS);
+        }
+        assertEquals(expected, wheel.size());
+    }
+
+    @Test
+    @DisplayName("Should wait for a delay longer than one revolution before the first run")
+    void testDelayLongerThanRevolution() throws InterruptedException {
+        // Arrange
+        CountDownLatch ran = new CountDownLatch(1);
+        AtomicInteger runs = new AtomicInteger();
+        long start = System.nanoTime();
+        AtomicReference<Long> firstRunMs = new AtomicReference<>();
+
+        // Act: 250 ms son algo más de tres vueltas
+        wheel.schedule(1L, 250, 1_000, () -> {
+            firstRunMs.compareAndSet(null, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            runs.incrementAndGet();
+            ran.countDown();
+            return true;
+        });
+
+        // Assert
+        assertTrue(ran.await(2, TimeUnit.SECONDS));
+        assertTrue(firstRunMs.get() >= 250 - TICK_MS, "primera ejecución a los " + firstRunMs.get() + " ms");
+        assertEquals(1, runs.get());
+        assertEquals(1, wheel.size());
+    }
+
+    @Test
+    @DisplayName("Should never run a task cancelled before its first tick")
+    void testCancelBeforeFirstTick() throws InterruptedException {
+        // Arrange
+        AtomicInteger runs = new AtomicInteger();
+
+        // Act
+        TickWheel.Handle handle = wheel.schedule(2L, 0, TICK_MS, () -> {
+            runs.incrementAndGet();
+            return true;
+        });
+        handle.cancel();
+
+        // Assert
+        assertTrue(handle.isCancelled());
+        awaitSize(wheel, 0);
+        Thread.sleep(10 * TICK_MS);
+        assertEquals(0, runs.get());
+    }
+
+    @Test
+    @DisplayName("Should stop a task that cancels itself from inside run and release it right away")
+    void testCancelFromInsideRun() throws InterruptedException {
+        // Arrange
+        AtomicInteger runs = new AtomicInteger();
+        AtomicReference<TickWheel.Handle> self = new AtomicReference<>();
+        CountDownLatch cancelled = new CountDownLatch(1);
+
+        // Rueda de 1024 ranuras: la ranura de la tarea no se vuelve a visitar durante la prueba
+        TickWheel longWheel = new TickWheel("test-long-wheel", 1, TICK_MS, 1024);
+
+        // Act: periodo de 1 s, se cancela en la primera ejecución pero retorna true
+        self.set(longWheel.schedule(3L, 0, 1_000, () -> {
+            if (runs.incrementAndGet() == 1) {
+                self.get().cancel();
+                cancelled.countDown();
+            }
+            return true;
+        }));
+
+        // Assert: sin esperar un periodo más, la tarea ya no cuenta como activa
+        assertTrue(cancelled.await(2, TimeUnit.SECONDS));
+        awaitSize(longWheel, 0, 300);
+        Thread.sleep(1_200);
+        assertEquals(1, runs.get());
+        longWheel.close();
+    }
+
+    @Test
+    @DisplayName("Should keep the period of a periodic task, including periods longer than one revolution")
+    void testPeriodicTaskKeepsPeriod() throws InterruptedException {
+        for (long periodMs : new long[]{30, 120}) {
+            // Arrange
+            List<Long> runsAt = new CopyOnWriteArrayList<>();
+            CountDownLatch done = new CountDownLatch(6);
+
+            // Act
+            TickWheel.Handle handle = wheel.schedule(4L, 0, periodMs, () -> {
+                runsAt.add(System.nanoTime());
+                done.countDown();
+                return true;
+            });
+
+            // Assert: el intervalo promedio coincide con el periodo
+            assertTrue(done.await(5, TimeUnit.SECONDS));
+            handle.cancel();
+            double averageMs = (runsAt.get(5) - runsAt.get(0)) / 5.0 / 1_000_000;
+            assertEquals(periodMs, averageMs, periodMs * 0.25 + TICK_MS, "periodo " + periodMs);
+            awaitSize(wheel, 0);
+        }
+    }
+
+    @Test
+    @DisplayName("Should drop a task that returns false and keep one that throws")
+    void testReturnFalseAndException() throws InterruptedException {
+        // Arrange
+        AtomicInteger finite = new AtomicInteger();
+        AtomicInteger failing = new AtomicInteger();
+        CountDownLatch failedThreeTimes = new CountDownLatch(3);
+
+        // Act
+        wheel.schedule(5L, 0, TICK_MS, () -> finite.incrementAndGet() < 2);
+        TickWheel.Handle failingHandle = wheel.schedule(6L, 0, TICK_MS, () -> {
+            failing.incrementAndGet();
+            failedThreeTimes.countDown();
+            throw new IllegalStateException("fallo simulado");
+        });
+
+        // Assert
+        assertTrue(failedThreeTimes.await(2, TimeUnit.SECONDS));
+        awaitSize(wheel, 1);
+        assertEquals(2, finite.get());
+        failingHandle.cancel();
+        awaitSize(wheel, 0);
+    }
+
+    @Test
+    @DisplayName("Should run all tasks of the same key on the same thread")
+    void testSameKeySameThread() throws InterruptedException {
+        // Arrange
+        Set<String> threads = ConcurrentHashMap.newKeySet();
+        CountDownLatch done = new CountDownLatch(20);
+
+        // Act
+        for (int i = 0; i < 4; i++) {
+            wheel.schedule(42L, 0, TICK_MS, () -> {
+                threads.add(Thread.currentThread().getName());
+                done.countDown();
+                return done.getCount() > 0;
+            });
+        }
+
+        // Assert
+        assertTrue(done.await(2, TimeUnit.SECONDS));
+        assertEquals(1, threads.size());
+        assertTrue(threads.iterator().next().startsWith("test-wheel-"));
+    }
+}
@@ -0,0 +1,139 @@
+package co.edu.unbosque.tripservice;
+
+import co.edu.unbosque.tripservice.util.TrackCodec;
+import co.edu.unbosque.tripservice.util.TrackCodec.TrackPoint;
+import co.edu.unbosque.tripservice.util.VarInts;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("TrackCodec Tests")
+class TrackCodecTest {
+
+    private static final long T0 = 1_760_000_000_000L;
+
+    private static List<TrackPoint> decode(byte[] data) {
+        return TrackCodec.stream(data).toList();
+    }
+
+    private static byte[] concat(byte[]... blocks) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (byte[] block : blocks) {
+            out.writeBytes(block);
+        }
+        return out.toByteArray();
+    }
+
+    @Test
+    @DisplayName("Should round-trip signed varints at the edges of each byte length and of long")
+    void testSignedVarIntRoundTrip() throws IOException {
+        long[] values = {0, 1, -1, 63, -64, 64, -65, 8191, -8192, 8192, Integer.MAX_VALUE, Integer.MIN_VALUE,
+                (long) Integer.MAX_VALUE * 2 + 1, -((long) Integer.MAX_VALUE * 2 + 1), Long.MAX_VALUE, Long.MIN_VALUE};
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        for (long value : values) {
+            VarInts.writeSignedVarLong(out, value);
+        }
+
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+        for (long value : values) {
+            assertEquals(value, VarInts.readSignedVarLong(in));
+        }
+        assertEquals(0, in.available());
+    }
+
+    @Test
+    @DisplayName("Should encode small negative and positive deltas in one byte each")
+    void testSmallDeltasAreShort() {
+        TrackPoint previous = new TrackPoint(T0, 4_650_000, -74_100_000);
+        List<TrackPoint> points = List.of(
+                new TrackPoint(T0 + 60, 4_649_990, -74_099_970),
+                new TrackPoint(T0 + 120, 4_650_020, -74_100_030)
+        );
+
+        byte[] block = TrackCodec.encode(points, previous);
+
+        // Deltas |d| < 64 (lat, lon, tiempo): 3 bytes por punto
+        assertEquals(6, block.length);
+    }
+
+    @Test
+    @DisplayName("Should round-trip a track with negative deltas and extreme jumps from the first point")
+    void testRoundTripWithNegativeDeltasAndLargeJumps() {
+        List<TrackPoint> points = List.of(
+                new TrackPoint(T0, -90_000_000, -180_000_000),
+                new TrackPoint(T0 + 5_000, 90_000_000, 180_000_000),
+                new TrackPoint(T0 + 5_001, -90_000_000, 180_000_000),
+                new TrackPoint(T0 + 86_400_000L * 365, 0, 0),
+                new TrackPoint(T0 + 86_400_000L * 365 + 5_000, 4_650_123, -74_100_456),
+                new TrackPoint(T0 + 86_400_000L * 365 + 10_000, 4_650_100, -74_100_500)
+        );
+
+        byte[] data = TrackCodec.encode(points, null);
+
+        assertEquals(points, decode(data));
+    }
+
+    @Test
+    @DisplayName("Should decode blocks appended one after another, each encoded against the stored last point")
+    void testAppendedBlocksContinueFromTheLastPoint() {
+        List<TrackPoint> first = List.of(
+                new TrackPoint(T0, 4_650_000, -74_100_000),
+                new TrackPoint(T0 + 5_000, 4_650_050, -74_100_020)
+        );
+        List<TrackPoint> second = List.of(
+                new TrackPoint(T0 + 10_000, 4_649_900, -74_099_800),
+                new TrackPoint(T0 + 15_000, 4_649_950, -74_099_850)
+        );
+        List<TrackPoint> third = List.of(
+                new TrackPoint(T0 + 20_000, -33_000_000, 151_000_000)
+        );
+
+        // Como en trip_track: el primer bloque parte de (0, 0, 0) y cada append del último punto guardado
+        byte[] data = concat(
+                TrackCodec.encode(first, null),
+                TrackCodec.encode(second, first.get(first.size() - 1)),
+                TrackCodec.encode(third, second.get(second.size() - 1))
+        );
+
+        List<TrackPoint> expected = new ArrayList<>(first);
+        expected.addAll(second);
+        expected.addAll(third);
+        assertEquals(expected, decode(data));
+    }
+
+    @Test
+    @DisplayName("Should decode wrong points when a block is encoded against the wrong previous point")
+    void testPreviousPointIsPartOfTheFormat() {
+        List<TrackPoint> first = List.of(new TrackPoint(T0, 4_650_000, -74_100_000));
+        List<TrackPoint> second = List.of(new TrackPoint(T0 + 5_000, 4_650_010, -74_100_010));
+
+        byte[] data = concat(TrackCodec.encode(first, null), TrackCodec.encode(second, null));
+
+        assertNotEquals(second.get(0), decode(data).get(1));
+    }
+
+    @Test
+    @DisplayName("Should produce an empty track for no points and fail loudly on a truncated block")
+    void testEmptyAndTruncated() {
+        assertEquals(0, TrackCodec.encode(List.of(), null).length);
+        assertFalse(TrackCodec.iterator(new byte[0]).hasNext());
+
+        byte[] data = TrackCodec.encode(List.of(new TrackPoint(T0, 4_650_000, -74_100_000)), null);
+        Iterator<TrackPoint> truncated = TrackCodec.iterator(Arrays.copyOf(data, data.length - 1));
+        assertTrue(truncated.hasNext());
+        assertThrows(UncheckedIOException.class, truncated::next);
+    }
+}
@@ -0,0 +1,105 @@
+package co.edu.unbosque.tripservice;
+
+import co.edu.unbosque.tripservice.dto.event.TripOutboxRecordedEvent;
+import co.edu.unbosque.tripservice.messaging.TripOutboxDispatcher;
+import co.edu.unbosque.tripservice.model.Trip;
+import co.edu.unbosque.tripservice.model.TripOutboxEvent;
+import co.edu.unbosque.tripservice.repository.TripOutboxRepository;
+import co.edu.unbosque.tripservice.repository.TripRepository;
+import co.edu.unbosque.tripservice.util.IoTBikeSimulator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("TripOutboxDispatcher Tests")
+class TripOutboxDispatcherTest {
+
+    @Mock
+    private TripOutboxRepository outboxRepo;
+
+    @Mock
+    private TripRepository tripRepo;
+
+    @Mock
+    private IoTBikeSimulator iotSimulator;
+
+    private TripOutboxDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        dispatcher = new TripOutboxDispatcher(outboxRepo, tripRepo, iotSimulator, Runnable::run);
+        ReflectionTestUtils.setField(dispatcher, "leaseSeconds", 60L);
+    }
+
+    private Trip outboxEvent(long outboxId, String eventType, String tripStatus) {
+        Trip trip = new Trip();
+        trip.setId(20L);
+        trip.setStatus(tripStatus);
+        TripOutboxEvent event = new TripOutboxEvent(trip.getId(), eventType, "{}");
+        event.setId(outboxId);
+        when(outboxRepo.claim(eq(outboxId), any(), any())).thenReturn(1);
+        when(outboxRepo.findById(outboxId)).thenReturn(Optional.of(event));
+        when(tripRepo.findById(trip.getId())).thenReturn(Optional.of(trip));
+        return trip;
+    }
+
+    @Test
+    @DisplayName("Should keep the simulation when the trip is still in progress after registering it")
+    void testStartedTripKeepsSimulation() {
+        // Arrange
+        Trip trip = outboxEvent(1L, "TRIP_STARTED", "IN_PROGRESS");
+        when(tripRepo.findStatusById(trip.getId())).thenReturn(Optional.of("IN_PROGRESS"));
+
+        // Act
+        dispatcher.onOutboxRecorded(new TripOutboxRecordedEvent(1L));
+
+        // Assert
+        verify(iotSimulator).startSimulation(trip);
+        verify(iotSimulator, never()).stopSimulation(any());
+        verify(outboxRepo).markHandled(eq(1L), any());
+    }
+
+    @Test
+    @DisplayName("Should stop the simulation when the trip ended while it was being registered")
+    void testTripEndedDuringStartStopsSimulation() {
+        // Arrange
+        // Se leyó IN_PROGRESS, pero endTrip confirmó antes de la segunda lectura
+        Trip trip = outboxEvent(1L, "TRIP_STARTED", "IN_PROGRESS");
+        when(tripRepo.findStatusById(trip.getId())).thenReturn(Optional.of("COMPLETED"));
+
+        // Act
+        dispatcher.onOutboxRecorded(new TripOutboxRecordedEvent(1L));
+
+        // Assert
+        InOrder order = inOrder(iotSimulator);
+        order.verify(iotSimulator).startSimulation(trip);
+        order.verify(iotSimulator).stopSimulation(trip.getId());
+        verify(outboxRepo).markHandled(eq(1L), any());
+    }
+
+    @Test
+    @DisplayName("Should stop the simulation after the trip completion commits")
+    void testCompletedEventStopsSimulation() {
+        // Arrange
+        Trip trip = outboxEvent(2L, "TRIP_COMPLETED", "COMPLETED");
+
+        // Act
+        dispatcher.onOutboxRecorded(new TripOutboxRecordedEvent(2L));
+
+        // Assert
+        verify(iotSimulator).stopSimulation(trip.getId());
+        verify(iotSimulator, never()).startSimulation(any());
+        verify(outboxRepo).markHandled(eq(2L), any());
+    }
+}
@@ -0,0 +1,172 @@
+package co.edu.unbosque.tripservice;
+
+import co.edu.unbosque.tripservice.messaging.TripOutboxRelay;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.producer.MockProducer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * MockProducer de kafka-clients hace de broker con confirmaciones manuales; el SELECT del lote
+ * se responde pasando filas simuladas por el RowMapper del relay.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("TripOutboxRelay Tests")
+class TripOutboxRelayTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private MockProducer<String, String> producer;
+    private TripOutboxRelay relay;
+
+    @BeforeEach
+    void setUp() {
+        // KafkaTemplate cierra el productor tras cada envío; la factory real lo protege, aquí se ignora el cierre
+        producer = new MockProducer<>(false, new StringSerializer(), new StringSerializer()) {
+            @Override
+            public void close(Duration timeout) {
+            }
+        };
+        relay = new TripOutboxRelay(jdbcTemplate, transactionManager, new KafkaTemplate<>(() -> producer),
+                new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(relay, "topic", "trip-events");
+        ReflectionTestUtils.setField(relay, "batchSize", 200);
+        ReflectionTestUtils.setField(relay, "batchTimeoutMs", 5000L);
+    }
+
+    /**
+     * Filas (id, tripId) del lote en orden de id.
+     */
+    private void outbox(long[]... rows) {
+        when(jdbcTemplate.query(contains("FOR UPDATE SKIP LOCKED"), any(RowMapper.class), eq(200)))
+                .thenAnswer(invocation -> {
+                    RowMapper<?> mapper = invocation.getArgument(1);
+                    List<Object> batch = new ArrayList<>();
+                    for (long[] row : rows) {
+                        ResultSet rs = mock(ResultSet.class);
+                        when(rs.getLong("id")).thenReturn(row[0]);
+                        when(rs.getLong("trip_id")).thenReturn(row[1]);
+                        when(rs.getString("event_type")).thenReturn("TRIP_EVENT");
+                        when(rs.getString("payload")).thenReturn("{}");
+                        when(rs.getTimestamp("created_at")).thenReturn(Timestamp.valueOf(LocalDateTime.now()));
+                        batch.add(mapper.mapRow(rs, batch.size()));
+                    }
+                    return batch;
+                });
+    }
+
+    private void awaitSent(int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (producer.history().size() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(count, producer.history().size());
+    }
+
+    private static List<String> eventIds(List<ProducerRecord<String, String>> records) {
+        return records.stream()
+                .map(record -> new String(record.headers().lastHeader("event_id").value()))
+                .toList();
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Long> markedPublished() {
+        ArgumentCaptor<List<Object[]>> captor = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(startsWith("UPDATE trip_outbox SET published_at"), captor.capture());
+        return captor.getValue().stream().map(args -> (Long) args[1]).sorted().toList();
+    }
+
+    @Test
+    @DisplayName("Should send a trip's next event only after the previous one is acknowledged")
+    void testEventsOfATripAreChained() throws Exception {
+        // Arrange: viaje 7 con dos eventos, viaje 8 con uno
+        outbox(new long[]{1, 7}, new long[]{2, 7}, new long[]{3, 8});
+        CompletableFuture<Void> relaying = CompletableFuture.runAsync(relay::relay);
+
+        // Act & Assert: salen el primero de cada viaje; el 2 espera la confirmación del 1
+        awaitSent(2);
+        assertFalse(eventIds(producer.history()).contains("2"));
+        producer.completeNext();
+        producer.completeNext();
+        awaitSent(3);
+        assertEquals("2", eventIds(producer.history()).get(2));
+        producer.completeNext();
+
+        relaying.get(5, TimeUnit.SECONDS);
+        assertEquals(List.of(1L, 2L, 3L), markedPublished());
+    }
+
+    @Test
+    @DisplayName("Should not send later events of a trip whose earlier event failed")
+    void testFailedEventBlocksTheRestOfItsTrip() throws Exception {
+        // Arrange
+        outbox(new long[]{1, 7}, new long[]{2, 7}, new long[]{3, 8});
+        CompletableFuture<Void> relaying = CompletableFuture.runAsync(relay::relay);
+
+        // Act: falla el evento 1 (viaje 7) y se confirma el 3 (viaje 8)
+        awaitSent(2);
+        for (String eventId : eventIds(producer.history())) {
+            if ("1".equals(eventId)) {
+                producer.errorNext(new RuntimeException("broker caído"));
+            } else {
+                producer.completeNext();
+            }
+        }
+        relaying.get(5, TimeUnit.SECONDS);
+
+        // Assert: el 2 nunca salió y solo el 3 queda publicado
+        assertEquals(2, producer.history().size());
+        assertEquals(List.of(3L), markedPublished());
+    }
+
+    @Test
+    @DisplayName("Should release the batch at the deadline and stop starting new sends")
+    void testBatchDeadline() throws Exception {
+        // Arrange
+        ReflectionTestUtils.setField(relay, "batchTimeoutMs", 200L);
+        outbox(new long[]{1, 7}, new long[]{2, 7});
+
+        // Act: el broker nunca confirma
+        long start = System.nanoTime();
+        relay.relay();
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        // Una confirmación tardía no debe disparar el envío del evento 2
+        producer.completeNext();
+        Thread.sleep(100);
+
+        // Assert
+        assertTrue(elapsedMs < 2000, "el lote tardó " + elapsedMs + " ms");
+        assertEquals(List.of("1"), eventIds(producer.history()));
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList());
+    }
+}
@@ -0,0 +1,153 @@
+package co.edu.unbosque.tripservice;
+
+import co.edu.unbosque.tripservice.dto.TrackPointDTO;
+import co.edu.unbosque.tripservice.dto.event.BicycleTelemetryEvent;
+import co.edu.unbosque.tripservice.repository.TelemetryJdbcRepository;
+import co.edu.unbosque.tripservice.repository.TelemetryJdbcRepository.TelemetryRow;
+import co.edu.unbosque.tripservice.service.impl.TripTrackServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * trip_track simulado en memoria detrás de JdbcTemplate: el INSERT guarda la fila, el append
+ * concatena el bloque (data = data || ?) y actualiza last_*, como lo haría Postgres. Así se
+ * recorre el camino real de TelemetryJdbcRepository y TripTrackServiceImpl.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Trip track storage Tests")
+class TripTrackStorageTest {
+
+    private static final long TRIP_ID = 9L;
+    private static final LocalDateTime START = LocalDateTime.of(2026, 10, 17, 8, 0);
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    // trip_id -> {data, point_count, last_lat_e6, last_lon_e6, last_time_ms}
+    private final Map<Long, Object[]> tripTrack = new HashMap<>();
+
+    private TelemetryJdbcRepository repository;
+    private TripTrackServiceImpl trackService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        repository = new TelemetryJdbcRepository(jdbcTemplate, namedJdbcTemplate);
+        trackService = new TripTrackServiceImpl(repository);
+
+        doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(2);
+            for (Map.Entry<Long, Object[]> row : tripTrack.entrySet()) {
+                ResultSet rs = mock(ResultSet.class);
+                when(rs.getLong(1)).thenReturn(row.getKey());
+                when(rs.getInt(2)).thenReturn((Integer) row.getValue()[2]);
+                when(rs.getInt(3)).thenReturn((Integer) row.getValue()[3]);
+                when(rs.getLong(4)).thenReturn((Long) row.getValue()[4]);
+                handler.processRow(rs);
+            }
+            return null;
+        }).when(namedJdbcTemplate).query(contains("FROM trip_track"), any(SqlParameterSource.class), any(RowCallbackHandler.class));
+
+        lenient().when(jdbcTemplate.batchUpdate(anyString(), anyList(), any(int[].class))).thenAnswer(invocation -> {
+            String sql = invocation.getArgument(0);
+            List<Object[]> rows = invocation.getArgument(1);
+            for (Object[] args : rows) {
+                if (sql.startsWith("INSERT INTO trip_track")) {
+                    tripTrack.put((Long) args[0], new Object[]{args[6], args[2], args[3], args[4], args[5]});
+                } else if (sql.startsWith("UPDATE trip_track")) {
+                    Object[] row = tripTrack.get((Long) args[6]);
+                    ByteArrayOutputStream data = new ByteArrayOutputStream();
+                    data.writeBytes((byte[]) row[0]);
+                    data.writeBytes((byte[]) args[0]);
+                    tripTrack.put((Long) args[6], new Object[]{
+                            data.toByteArray(), (Integer) row[1] + (Integer) args[1], args[2], args[3], args[4]});
+                }
+            }
+            return new int[rows.size()];
+        });
+
+        lenient().when(jdbcTemplate.query(startsWith("SELECT data FROM trip_track"), any(RowMapper.class), eq(TRIP_ID)))
+                .thenAnswer(invocation -> tripTrack.containsKey(TRIP_ID)
+                        ? List.of(tripTrack.get(TRIP_ID)[0])
+                        : List.of());
+    }
+
+    private static TelemetryRow row(int secondsFromStart, String lat, String lon) {
+        LocalDateTime at = START.plusSeconds(secondsFromStart);
+        BicycleTelemetryEvent event = new BicycleTelemetryEvent(3L, TRIP_ID, at.toString(),
+                new BigDecimal(lat), new BigDecimal(lon), BigDecimal.TEN, 90, null, null, 80, "UNLOCKED", null);
+        return new TelemetryRow(event, at);
+    }
+
+    private void save(TelemetryRow... rows) {
+        repository.saveBatch(Map.of(TRIP_ID, List.of(rows)), List.of(rows[rows.length - 1]));
+    }
+
+    @Test
+    @DisplayName("Should decode the first insert and two appends as one continuous track")
+    void testInsertThenTwoAppends() {
+        // Act: primer lote (INSERT) y dos appends que continúan desde last_*
+        save(row(0, "4.650000", "-74.100000"), row(5, "4.650120", "-74.099880"));
+        save(row(10, "4.649800", "-74.100300"), row(15, "4.649750", "-74.100350"));
+        save(row(20, "4.700000", "-74.050000"));
+
+        // Assert
+        List<TrackPointDTO> track = trackService.streamTrack(TRIP_ID).toList();
+        List<String> decoded = new ArrayList<>();
+        for (TrackPointDTO point : track) {
+            decoded.add(point.recordedAt() + " " + point.latitude().toPlainString() + " " + point.longitude().toPlainString());
+        }
+        assertEquals(List.of(
+                "2026-10-17T08:00 4.650000 -74.100000",
+                "2026-10-17T08:00:05 4.650120 -74.099880",
+                "2026-10-17T08:00:10 4.649800 -74.100300",
+                "2026-10-17T08:00:15 4.649750 -74.100350",
+                "2026-10-17T08:00:20 4.700000 -74.050000"
+        ), decoded);
+
+        Object[] stored = tripTrack.get(TRIP_ID);
+        assertEquals(5, stored[1]);
+        assertEquals(4_700_000, stored[2]);
+        assertEquals(-74_050_000, stored[3]);
+    }
+
+    @Test
+    @DisplayName("Should skip redelivered and out-of-order points so the appended deltas stay consistent")
+    void testRedeliveryIsNotAppended() {
+        // Arrange
+        save(row(0, "4.650000", "-74.100000"), row(5, "4.650100", "-74.100100"));
+
+        // Act: reentrega del punto de t=5 y uno anterior, junto con uno nuevo desordenado
+        save(row(15, "4.650300", "-74.100300"), row(5, "4.650100", "-74.100100"), row(3, "4.600000", "-74.000000"));
+
+        // Assert
+        List<TrackPointDTO> track = trackService.streamTrack(TRIP_ID).toList();
+        assertEquals(3, track.size());
+        assertEquals(new BigDecimal("4.650300"), track.get(2).latitude());
+        assertEquals(START.plusSeconds(15), track.get(2).recordedAt());
+    }
+}
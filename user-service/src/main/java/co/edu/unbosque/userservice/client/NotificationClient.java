@@ -1,6 +1,10 @@
 package co.edu.unbosque.userservice.client;
 
+import co.edu.unbosque.common.client.DownstreamCalls;
 import co.edu.unbosque.userservice.dto.NotificationRequestDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
@@ -13,30 +17,37 @@ import java.util.Map;
 @Component
 public class NotificationClient {
 
+    private static final Logger log = LoggerFactory.getLogger(NotificationClient.class);
+    private static final String DOWNSTREAM = "notification-service";
+
     private final WebClient webClient;
+    private final DownstreamCalls downstreamCalls;
+    private final Duration deadline;
 
 
-    public NotificationClient(@Value("${notification.service.url}") String baseUrl) {
-        this.webClient = WebClient.builder()
-                .baseUrl(baseUrl)
-                .build();
+    public NotificationClient(@Qualifier("notificationWebClient") WebClient webClient,
+                              DownstreamCalls downstreamCalls,
+                              @Value("${clients.notification-service.deadline-ms:5000}") long deadlineMs) {
+        this.webClient = webClient;
+        this.downstreamCalls = downstreamCalls;
+        this.deadline = Duration.ofMillis(deadlineMs);
     }
 
+    /**
+     * Notificación informativa: se envía sin bloquear al hilo de la petición (los errores solo se registran)
+     */
     public void sendNotification(NotificationRequestDTO request) {
-        try {
-            webClient.post()
-                    .uri("/api/notifications/send")
-                    .bodyValue(request)
-                    .retrieve()
-                    .bodyToMono(Void.class)
-                    .onErrorResume(WebClientResponseException.class, e -> {
-                        System.err.println("Error al enviar notificación: " + e.getMessage());
-                        return Mono.empty();
-                    })
-                    .block(); // Bloqueamos porque estamos en contexto sincrónico
-        } catch (Exception e) {
-            System.err.println("Fallo general al enviar notificación: " + e.getMessage());
-        }
+        Mono<Void> call = webClient.post()
+                .uri("/api/notifications/send")
+                .bodyValue(request)
+                .retrieve()
+                .bodyToMono(Void.class);
+
+        downstreamCalls.call(DOWNSTREAM, "send", deadline, call)
+                .subscribe(
+                        ignored -> {},
+                        e -> log.warn("Error al enviar notificación al usuario {}: {}", request.userId(), e.getMessage())
+                );
     }
 
 
@@ -47,23 +58,26 @@ public class NotificationClient {
                     "code", code
             );
 
-            webClient.post()
+            Mono<Void> call = webClient.post()
                     .uri("/api/notifications/password-recovery")
                     .bodyValue(payload)
                     .retrieve()
-                    .bodyToMono(Void.class)
-                    .timeout(Duration.ofSeconds(5))
-                    .block();
+                    .bodyToMono(Void.class);
+
+            downstreamCalls.call(DOWNSTREAM, "password-recovery", deadline, call).block();
 
-            System.out.println("Solicitud enviada al notification-service para userId=" + userId);
+            log.debug("Código de recuperación enviado a notification-service para userId={}", userId);
 
         } catch (WebClientResponseException e) {
-            System.out.println("Error HTTP al enviar código de recuperación: "
-                    + e.getStatusCode() + " - " + e.getResponseBodyAsString());
+            log.warn("Error HTTP al enviar código de recuperación para userId={}: {} - {}",
+                    userId, e.getStatusCode(), e.getResponseBodyAsString());
             throw e;
         } catch (Exception e) {
-            System.out.println("Error general al enviar código de recuperación: " + e.getMessage());
-            throw new RuntimeException("Fallo al comunicarse con notification-service", e);
+            log.warn("Error al enviar código de recuperación para userId={}: {}", userId, e.getMessage());
+            String reason = DownstreamCalls.isUnavailable(e)
+                    ? "notification-service no disponible"
+                    : "Fallo al comunicarse con notification-service";
+            throw new RuntimeException(reason, e);
         }
     }
 
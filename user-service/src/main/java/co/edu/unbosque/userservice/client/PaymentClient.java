@@ -1,69 +1,87 @@
 package co.edu.unbosque.userservice.client;
 
+import co.edu.unbosque.common.client.DownstreamCalls;
 import co.edu.unbosque.userservice.dto.PaymentCardRequestDTO;
 import co.edu.unbosque.userservice.dto.WalletRechargeRequestDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.reactive.function.client.WebClientResponseException;
 import reactor.core.publisher.Mono;
 
+import java.time.Duration;
+
 @Component
 public class PaymentClient {
 
+    private static final Logger log = LoggerFactory.getLogger(PaymentClient.class);
+    private static final String DOWNSTREAM = "payment-service";
+
     @Autowired
     private WebClient paymentWebClient;
 
+    @Autowired
+    private DownstreamCalls downstreamCalls;
+
+    // Registro de tarjeta y recarga llaman a Stripe dentro de payment-service
+    @Value("${clients.payment-service.deadline-ms:8000}")
+    private long deadlineMs;
+
     public void registerCard(PaymentCardRequestDTO request) {
         try {
-            System.out.println("Llamando a Payment-Service para registrar tarjeta...");
-            System.out.println("   userId: " + request.userId());
-            System.out.println("   email: " + request.email());
-            System.out.println("   paymentMethodId: " + request.paymentMethodId());
+            log.debug("Registrando tarjeta en payment-service para usuario {}", request.userId());
 
-            paymentWebClient.post()
+            Mono<Void> call = paymentWebClient.post()
                     .uri("/api/payments/cards/register")
                     .contentType(MediaType.APPLICATION_JSON)
                     .body(Mono.just(request), PaymentCardRequestDTO.class)
                     .retrieve()
-                    .bodyToMono(Void.class)
-                    .block();
+                    .bodyToMono(Void.class);
+
+            downstreamCalls.call(DOWNSTREAM, "register-card", Duration.ofMillis(deadlineMs), call).block();
 
-            System.out.println("Tarjeta registrada exitosamente en Payment-Service");
+            log.info("Tarjeta registrada en payment-service para usuario {}", request.userId());
         } catch (WebClientResponseException e) {
-            System.err.println("Error en Payment-Service: " + e.getResponseBodyAsString());
+            log.warn("payment-service rechazó el registro de tarjeta del usuario {} ({}): {}",
+                    request.userId(), e.getStatusCode(), e.getResponseBodyAsString());
             throw new RuntimeException("Error registrando tarjeta: " + e.getResponseBodyAsString(), e);
+        } catch (RuntimeException e) {
+            if (DownstreamCalls.isUnavailable(e)) {
+                throw new RuntimeException("Servicio de pagos no disponible, intente más tarde", e);
+            }
+            throw e;
         }
     }
 
     public void rechargeWallet(WalletRechargeRequestDTO request) {
         try {
-            System.out.println("========================================");
-            System.out.println("ENVIANDO REQUEST DESDE USER-SERVICE:");
-            System.out.println("   userId: " + request.userId());
-            System.out.println("   amount: " + request.amount());
-            System.out.println("   paymentMethodId: " + request.paymentMethodId());
-            System.out.println("   paymentMethodId es null? " + (request.paymentMethodId() == null));
-            System.out.println("   Clase del DTO: " + request.getClass().getName());
-            System.out.println("========================================");
+            log.debug("Solicitando recarga de {} para usuario {}", request.amount(), request.userId());
 
-            String response = paymentWebClient.post()
+            Mono<String> call = paymentWebClient.post()
                     .uri("/api/payments/wallet/recharge")
                     .contentType(MediaType.APPLICATION_JSON)
                     .body(Mono.just(request), WalletRechargeRequestDTO.class)
                     .retrieve()
-                    .bodyToMono(String.class)
-                    .block();
+                    .bodyToMono(String.class);
+
+            String response = downstreamCalls.call(DOWNSTREAM, "wallet-recharge", Duration.ofMillis(deadlineMs), call).block();
 
-            System.out.println("Respuesta del Payment-Service: " + response);
+            log.debug("Respuesta de payment-service a la recarga del usuario {}: {}", request.userId(), response);
         } catch (WebClientResponseException e) {
-            System.err.println("Error HTTP: " + e.getStatusCode());
-            System.err.println("Response Body: " + e.getResponseBodyAsString());
+            log.warn("payment-service rechazó la recarga del usuario {} ({}): {}",
+                    request.userId(), e.getStatusCode(), e.getResponseBodyAsString());
             throw new RuntimeException("Error recargando wallet: " + e.getResponseBodyAsString(), e);
         } catch (Exception e) {
-            System.err.println("Error general: " + e.getMessage());
-            e.printStackTrace();
+            if (DownstreamCalls.isUnavailable(e)) {
+                log.warn("payment-service no disponible recargando la wallet del usuario {}: {}",
+                        request.userId(), e.getMessage());
+                throw new RuntimeException("Servicio de pagos no disponible, intente más tarde", e);
+            }
+            log.error("Error recargando la wallet del usuario {}", request.userId(), e);
             throw new RuntimeException("Error recargando wallet: " + e.getMessage(), e);
         }
     }
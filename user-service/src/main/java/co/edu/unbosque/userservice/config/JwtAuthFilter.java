@@ -33,10 +33,10 @@ public class JwtAuthFilter extends OncePerRequestFilter {
             return;
         }
 
-        String token = authHeader.substring(7);
-        String username = jwtTokenUtil.extractUsername(token);
+        // Una sola verificación por petición; los tokens repetidos salen de la cache
+        String username = jwtTokenUtil.validateAndGetUsername(authHeader.substring(7));
 
-        if (username != null && jwtTokenUtil.isTokenValid(token)) {
+        if (username != null) {
             UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
                     new User(username, "", Collections.emptyList()), null, Collections.emptyList());
             authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
@@ -1,29 +1,60 @@
 package co.edu.unbosque.userservice.config;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
 
+/**
+ * Emisión y verificación de tokens JWT.
+ *
+ * El parser se construye una sola vez (es inmutable y thread-safe) y los claims de cada
+ * token ya verificado se guardan en una cache acotada, indexada por el SHA-256 del token y
+ * con vencimiento en el exp del propio token: las peticiones siguientes con el mismo token
+ * no vuelven a verificar la firma HMAC ni a deserializar el JSON.
+ */
 @Component
-public class JwtTokenUtil {
+public class JwtTokenUtil implements MeterBinder {
 
     private final SecretKey secretKey;
     private final long jwtExpiration;
+    private final JwtParser parser;
+    private final Cache<String, Claims> verifiedTokens;
 
     // Constructor que inyecta los valores del application.properties
     public JwtTokenUtil(
             @Value("${jwt.secret}") String secret,
-            @Value("${jwt.expiration}") long jwtExpiration
+            @Value("${jwt.expiration}") long jwtExpiration,
+            @Value("${jwt.cache.max-size:10000}") long cacheMaxSize
     ) {
         this.secretKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(secret));
         this.jwtExpiration = jwtExpiration;
+        this.parser = Jwts.parserBuilder()
+                .setSigningKey(secretKey)
+                .build();
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfter(new UntilTokenExpiration())
+                .recordStats()
+                .build();
     }
 
     // Generar un token válido para el usuario (email)
@@ -36,27 +67,87 @@ public class JwtTokenUtil {
                 .compact();
     }
 
+    /**
+     * Verifica el token en una sola pasada (firma y expiración) y devuelve el email.
+     *
+     * @return null si el token es inválido o ya expiró
+     */
+    public String validateAndGetUsername(String token) {
+        Claims claims = verifiedClaims(token);
+        return claims != null ? claims.getSubject() : null;
+    }
+
     // Extraer el email del token
     public String extractUsername(String token) {
-        return extractAllClaims(token).getSubject();
+        return validateAndGetUsername(token);
     }
 
     // Validar si el token es válido y no ha expirado
     public boolean isTokenValid(String token) {
+        return verifiedClaims(token) != null;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, verifiedTokens, "jwt.verified-tokens");
+    }
+
+    /**
+     * Claims de un token verificado; se comparten entre peticiones, así que son de solo lectura.
+     */
+    private Claims verifiedClaims(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+
+        String digest = digest(token);
+        Claims cached = verifiedTokens.getIfPresent(digest);
+        if (cached != null) {
+            return cached;
+        }
+
+        Claims claims;
         try {
-            Claims claims = extractAllClaims(token);
-            return !claims.getExpiration().before(new Date());
-        } catch (Exception e) {
-            return false;
+            // parseClaimsJws rechaza firma inválida y tokens expirados
+            claims = parser.parseClaimsJws(token).getBody();
+        } catch (JwtException | IllegalArgumentException e) {
+            return null;
+        }
+        // Sin exp no hay hasta cuándo cachearlo
+        if (claims.getExpiration() != null) {
+            verifiedTokens.put(digest, claims);
         }
+        return claims;
     }
 
-    // Extraer todos los claims del token
-    private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(secretKey)
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+
+    /**
+     * Cada entrada vence cuando vence su token.
+     */
+    private static final class UntilTokenExpiration implements Expiry<String, Claims> {
+
+        @Override
+        public long expireAfterCreate(String key, Claims claims, long currentTime) {
+            long remainingMillis = claims.getExpiration().getTime() - System.currentTimeMillis();
+            return Math.max(0, remainingMillis) * 1_000_000L;
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Claims claims, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, claims, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
     }
 }
@@ -0,0 +1,31 @@
+package co.edu.unbosque.userservice.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Pool dedicado para BCrypt. El hash es CPU puro, así que el pool usa hilos de plataforma
+ * (también con spring.threads.virtual.enabled) y por defecto uno por núcleo. La cola es
+ * acotada: cuando se llena, la petición se rechaza con 429 en lugar de esperar indefinidamente.
+ */
+@Configuration
+public class PasswordHashingConfig {
+
+    @Bean(name = "passwordHashingExecutor", destroyMethod = "shutdown")
+    public ThreadPoolTaskExecutor passwordHashingExecutor(
+            @Value("${security.password.hashing.threads:0}") int threads,
+            @Value("${security.password.hashing.queue-capacity:64}") int queueCapacity
+    ) {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("password-hash-");
+        executor.initialize();
+        return executor;
+    }
+}
@@ -1,6 +1,7 @@
 package co.edu.unbosque.userservice.config;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -38,8 +39,9 @@ public class SecurityConfig {
         return configuration.getAuthenticationManager();
     }
 
+    // Costo de BCrypt (log2 de rondas); los hashes con costo menor se actualizan en el siguiente login
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(@Value("${security.password.bcrypt.strength:10}") int strength) {
+        return new BCryptPasswordEncoder(strength);
     }
 }
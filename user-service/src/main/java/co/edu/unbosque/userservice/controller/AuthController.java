@@ -2,6 +2,7 @@ package co.edu.unbosque.userservice.controller;
 
 import co.edu.unbosque.userservice.dto.LoginRequestDTO;
 import co.edu.unbosque.userservice.dto.LoginResponseDTO;
+import co.edu.unbosque.userservice.exception.ServiceOverloadedException;
 import co.edu.unbosque.userservice.service.AuthService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -11,6 +12,7 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -86,6 +88,10 @@ public class AuthController {
             @ApiResponse(
                     responseCode = "403",
                     description = "Cuenta inactiva o bloqueada"
+            ),
+            @ApiResponse(
+                    responseCode = "429",
+                    description = "Demasiados logins simultáneos; reintentar según Retry-After"
             )
     })
     @PostMapping("/login")
@@ -109,6 +115,13 @@ public class AuthController {
         try {
             LoginResponseDTO response = authService.login(request);
             return ResponseEntity.ok(response);
+        } catch (ServiceOverloadedException e) {
+            Map<String, Object> error = new HashMap<>();
+            error.put("error", "Servicio saturado");
+            error.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(error);
         } catch (IllegalArgumentException e) {
             Map<String, Object> error = new HashMap<>();
             error.put("error", "Error de autenticacion");
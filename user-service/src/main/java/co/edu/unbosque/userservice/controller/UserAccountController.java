@@ -1,6 +1,7 @@
 package co.edu.unbosque.userservice.controller;
 
 import co.edu.unbosque.userservice.dto.*;
+import co.edu.unbosque.userservice.exception.ServiceOverloadedException;
 import co.edu.unbosque.userservice.service.UserAccountService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -11,12 +12,13 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 
 /**
@@ -28,6 +30,11 @@ import java.util.Map;
 @Tag(name = "Users", description = "Endpoints para gestion de cuentas de usuario")
 public class UserAccountController {
 
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 500;
+    private static final int DEFAULT_EMAIL_PAGE_SIZE = 1000;
+    private static final int MAX_EMAIL_PAGE_SIZE = 5000;
+
     private final UserAccountService userService;
 
     public UserAccountController(UserAccountService userService) {
@@ -114,8 +121,10 @@ public class UserAccountController {
     }
 
     @Operation(
-            summary = "Listar todos los usuarios",
-            description = "Obtiene una lista completa de todos los usuarios registrados con sus wallets"
+            summary = "Listar usuarios (paginado)",
+            description = "Obtiene los usuarios con el saldo de su wallet, ordenados por id y por páginas. " +
+                    "Para la siguiente página se envía afterId = nextAfterId de la respuesta anterior " +
+                    "(null cuando no hay más). Filtros opcionales por estado y rango de fecha de creación."
     )
     @ApiResponses({
             @ApiResponse(
@@ -126,7 +135,8 @@ public class UserAccountController {
                             examples = @ExampleObject(value = """
                                 {
                                   "message": "Usuarios obtenidos exitosamente",
-                                  "count": 2,
+                                  "count": 1,
+                                  "nextAfterId": 1,
                                   "users": [
                                     {
                                       "id": 1,
@@ -142,17 +152,40 @@ public class UserAccountController {
                                 }
                                 """)
                     )
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Parámetros de paginación inválidos"
             )
     })
     @GetMapping
-    public ResponseEntity<?> listAll() {
+    public ResponseEntity<?> listAll(
+            @Parameter(description = "Estado del usuario", example = "ACTIVE")
+            @RequestParam(required = false) String status,
+            @Parameter(description = "Creados desde (inclusive)", example = "2025-01-01T00:00:00")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdFrom,
+            @Parameter(description = "Creados antes de (exclusivo)", example = "2025-02-01T00:00:00")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdTo,
+            @Parameter(description = "nextAfterId de la página anterior (vacío para la primera)")
+            @RequestParam(required = false) Long afterId,
+            @Parameter(description = "Tamaño de página (máximo " + MAX_PAGE_SIZE + ")", example = "50")
+            @RequestParam(defaultValue = "" + DEFAULT_PAGE_SIZE) int limit
+    ) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            Map<String, Object> error = new HashMap<>();
+            error.put("error", "Parámetros inválidos");
+            error.put("message", "limit debe estar entre 1 y " + MAX_PAGE_SIZE);
+            return ResponseEntity.badRequest().body(error);
+        }
+
         try {
-            List<UserAccountResponseDTO> users = userService.listAllUsers();
+            UserPageDTO page = userService.listUsers(status, createdFrom, createdTo, afterId, limit);
 
             Map<String, Object> response = new HashMap<>();
             response.put("message", "Usuarios obtenidos exitosamente");
-            response.put("count", users.size());
-            response.put("users", users);
+            response.put("count", page.users().size());
+            response.put("users", page.users());
+            response.put("nextAfterId", page.nextAfterId());
 
             return ResponseEntity.ok(response);
         } catch (Exception e) {
@@ -328,6 +361,8 @@ public class UserAccountController {
             response.put("user", user);
 
             return ResponseEntity.ok(response);
+        } catch (ServiceOverloadedException e) {
+            throw e;
         } catch (Exception e) {
             Map<String, Object> error = new HashMap<>();
             error.put("error", "Error al actualizar usuario");
@@ -503,12 +538,90 @@ public class UserAccountController {
     }
 
 
+    @Operation(
+            summary = "Listar emails de usuarios por segmento",
+            description = "Devuelve id, nombre y email de los usuarios, paginado por id. Usado por las " +
+                    "campañas del servicio de notificaciones: enviar nextAfterId como afterId para la siguiente página."
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Página obtenida exitosamente",
+                    content = @Content(
+                            mediaType = "application/json",
+                            examples = @ExampleObject(value = """
+                                {
+                                  "users": [
+                                    {"id": 1, "fullName": "Sebastian Carroz", "email": "sebastian@example.com"}
+                                  ],
+                                  "nextAfterId": 1
+                                }
+                                """)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Parámetros de paginación inválidos"
+            )
+    })
+    @GetMapping("/emails")
+    public ResponseEntity<?> listUserEmails(
+            @Parameter(description = "Estado del usuario", example = "ACTIVE")
+            @RequestParam(required = false) String status,
+            @Parameter(description = "nextAfterId de la página anterior (vacío para la primera)")
+            @RequestParam(required = false) Long afterId,
+            @Parameter(description = "Tamaño de página (máximo " + MAX_EMAIL_PAGE_SIZE + ")", example = "1000")
+            @RequestParam(defaultValue = "" + DEFAULT_EMAIL_PAGE_SIZE) int limit
+    ) {
+        if (limit < 1 || limit > MAX_EMAIL_PAGE_SIZE) {
+            Map<String, Object> error = new HashMap<>();
+            error.put("error", "Parámetros inválidos");
+            error.put("message", "limit debe estar entre 1 y " + MAX_EMAIL_PAGE_SIZE);
+            return ResponseEntity.badRequest().body(error);
+        }
+
+        try {
+            return ResponseEntity.ok(userService.listUserEmails(status, afterId, limit));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", "Error al obtener emails", "message", e.getMessage()));
+        }
+    }
+
+    @Operation(
+            summary = "Obtener emails de varios usuarios",
+            description = "Devuelve id, nombre y email de los usuarios indicados (máximo 1000 por consulta) " +
+                    "en una sola consulta. Los ids que no existen se omiten."
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Emails obtenidos exitosamente"
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Lista de ids vacía o demasiado grande"
+            )
+    })
+    @PostMapping("/emails/batch")
+    public ResponseEntity<?> getUserEmails(@Valid @RequestBody UserIdsRequestDTO request) {
+        try {
+            return ResponseEntity.ok(userService.getUserEmails(request.ids()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", "Error al obtener emails", "message", e.getMessage()));
+        }
+    }
+
+
     @Operation(summary = "Restablecer contraseña con código")
     @PostMapping("/password-recovery/reset")
     public ResponseEntity<?> resetPassword(@RequestBody ResetPasswordDTO dto) {
         try {
             String message = userService.resetPassword(dto.email(), dto.code(), dto.newPassword());
             return ResponseEntity.ok(Map.of("message", message));
+        } catch (ServiceOverloadedException e) {
+            throw e;
         } catch (RuntimeException e) {
             return ResponseEntity
                     .status(HttpStatus.BAD_REQUEST)
@@ -1,6 +1,8 @@
 package co.edu.unbosque.userservice.controller;
 
 import co.edu.unbosque.userservice.dto.*;
+import co.edu.unbosque.userservice.exception.InsufficientFundsException;
+import co.edu.unbosque.userservice.exception.ResourceNotFoundException;
 import co.edu.unbosque.userservice.service.WalletService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -225,6 +227,11 @@ public class WalletController {
             response.put("amount", notification.amount());
 
             return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            Map<String, Object> error = new HashMap<>();
+            error.put("error", "Datos invalidos");
+            error.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
         } catch (Exception e) {
             Map<String, Object> error = new HashMap<>();
             error.put("error", "Error al actualizar saldo");
@@ -233,6 +240,73 @@ public class WalletController {
         }
     }
 
+    @Operation(
+            summary = "Debitar wallet (interno)",
+            description = "Descuenta saldo de forma atomica: el debito solo se aplica si el saldo alcanza. " +
+                    "Es idempotente por idempotencyKey: un reintento devuelve el movimiento original con replayed=true. " +
+                    "Usado por el Payment Service para cobrar viajes con saldo."
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Debito aplicado (o reintento de uno ya aplicado)",
+                    content = @Content(
+                            mediaType = "application/json",
+                            examples = @ExampleObject(value = """
+                                {
+                                  "entryId": 120,
+                                  "userId": 1,
+                                  "entryType": "DEBIT",
+                                  "amount": 4500.00,
+                                  "balance": 20500.00,
+                                  "idempotencyKey": "trip-42",
+                                  "reference": "TRIP:42",
+                                  "createdAt": "2025-01-10T16:00:00",
+                                  "replayed": false
+                                }
+                                """)
+                    )
+            ),
+            @ApiResponse(responseCode = "400", description = "Datos invalidos"),
+            @ApiResponse(responseCode = "404", description = "Wallet no encontrada"),
+            @ApiResponse(responseCode = "409", description = "Saldo insuficiente"),
+            @ApiResponse(responseCode = "422", description = "idempotencyKey reutilizada con otro movimiento")
+    })
+    @PostMapping("/debit")
+    public ResponseEntity<?> debit(
+            @Valid @RequestBody
+            @io.swagger.v3.oas.annotations.parameters.RequestBody(
+                    description = "Movimiento a debitar",
+                    required = true,
+                    content = @Content(
+                            schema = @Schema(implementation = WalletMovementRequestDTO.class),
+                            examples = @ExampleObject(value = """
+                                {
+                                  "userId": 1,
+                                  "amount": 4500.00,
+                                  "idempotencyKey": "trip-42",
+                                  "reference": "TRIP:42"
+                                }
+                                """)
+                    )
+            )
+            WalletMovementRequestDTO request
+    ) {
+        try {
+            return ResponseEntity.ok(walletService.debit(request));
+        } catch (InsufficientFundsException e) {
+            return movementError(HttpStatus.CONFLICT, "Saldo insuficiente", e);
+        } catch (ResourceNotFoundException e) {
+            return movementError(HttpStatus.NOT_FOUND, "Wallet no encontrada", e);
+        } catch (IllegalStateException e) {
+            return movementError(HttpStatus.UNPROCESSABLE_ENTITY, "Clave de idempotencia reutilizada", e);
+        } catch (IllegalArgumentException e) {
+            return movementError(HttpStatus.BAD_REQUEST, "Datos invalidos", e);
+        } catch (Exception e) {
+            return movementError(HttpStatus.INTERNAL_SERVER_ERROR, "Error al debitar wallet", e);
+        }
+    }
+
     @Operation(
             summary = "Obtener wallet por ID de usuario",
             description = "Consulta la informacion de la wallet del usuario incluyendo su saldo actual"
@@ -273,4 +347,11 @@ public class WalletController {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(error);
         }
     }
+
+    private ResponseEntity<?> movementError(HttpStatus status, String error, Exception e) {
+        Map<String, Object> body = new HashMap<>();
+        body.put("error", error);
+        body.put("message", e.getMessage());
+        return ResponseEntity.status(status).body(body);
+    }
 }
\ No newline at end of file
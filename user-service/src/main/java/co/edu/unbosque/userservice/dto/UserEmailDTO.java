@@ -5,5 +5,9 @@ public record UserEmailDTO(
         Integer id,
         String fullName,
         String email
-) {}
-
+) {
+    // Usado por las proyecciones JPQL (el id de la entidad es Long)
+    public UserEmailDTO(Long id, String fullName, String email) {
+        this(id.intValue(), fullName, email);
+    }
+}
@@ -0,0 +1,12 @@
+package co.edu.unbosque.userservice.dto;
+
+import java.util.List;
+
+/**
+ * Página de emails para envíos masivos. nextAfterId es el id a enviar como afterId para
+ * pedir la siguiente página; null cuando no hay más.
+ */
+public record UserEmailPageDTO(
+        List<UserEmailDTO> users,
+        Long nextAfterId
+) {}
@@ -0,0 +1,12 @@
+package co.edu.unbosque.userservice.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public record UserIdsRequestDTO(
+        @NotEmpty(message = "La lista de ids es obligatoria")
+        @Size(max = 1000, message = "Máximo 1000 ids por consulta")
+        List<Long> ids
+) {}
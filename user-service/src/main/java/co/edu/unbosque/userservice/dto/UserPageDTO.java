@@ -0,0 +1,12 @@
+package co.edu.unbosque.userservice.dto;
+
+import java.util.List;
+
+/**
+ * Página del listado de usuarios. nextAfterId es el id a enviar como afterId para pedir
+ * la siguiente página; null cuando no hay más.
+ */
+public record UserPageDTO(
+        List<UserAccountResponseDTO> users,
+        Long nextAfterId
+) {}
@@ -0,0 +1,17 @@
+package co.edu.unbosque.userservice.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+public record WalletMovementDTO(
+        Long entryId,
+        Long userId,
+        String entryType,
+        BigDecimal amount,
+        BigDecimal balance,
+        String idempotencyKey,
+        String reference,
+        LocalDateTime createdAt,
+        // true si la clave ya se había aplicado y se devuelve el movimiento original
+        boolean replayed
+) {}
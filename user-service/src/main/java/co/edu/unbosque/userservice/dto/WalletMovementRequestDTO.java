@@ -0,0 +1,23 @@
+package co.edu.unbosque.userservice.dto;
+
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+
+import java.math.BigDecimal;
+
+public record WalletMovementRequestDTO(
+        @NotNull(message = "userId es obligatorio")
+        Long userId,
+
+        @NotNull(message = "amount es obligatorio")
+        @DecimalMin(value = "0.01", message = "El monto debe ser mayor a cero")
+        BigDecimal amount,
+
+        // Reintentos con la misma clave devuelven el movimiento original sin aplicarlo de nuevo
+        @NotBlank(message = "idempotencyKey es obligatorio")
+        String idempotencyKey,
+
+        // Origen del movimiento, ej. "TRIP:42"
+        String reference
+) {}
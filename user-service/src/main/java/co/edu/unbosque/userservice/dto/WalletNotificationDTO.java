@@ -3,5 +3,7 @@ package co.edu.unbosque.userservice.dto;
 import java.math.BigDecimal;
 
 public record WalletNotificationDTO(Long userId,
-                                    BigDecimal amount) {
+                                    BigDecimal amount,
+                                    // Ej. id de la transacción en Payment-Service; evita acreditar dos veces
+                                    String idempotencyKey) {
 }
@@ -0,0 +1,5 @@
+package co.edu.unbosque.userservice.exception;
+
+public class InsufficientFundsException extends RuntimeException {
+    public InsufficientFundsException(String msg) { super(msg); }
+}
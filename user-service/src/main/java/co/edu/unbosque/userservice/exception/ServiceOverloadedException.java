@@ -0,0 +1,5 @@
+package co.edu.unbosque.userservice.exception;
+
+public class ServiceOverloadedException extends RuntimeException {
+    public ServiceOverloadedException(String msg) { super(msg); }
+}
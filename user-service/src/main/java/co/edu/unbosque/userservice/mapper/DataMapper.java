@@ -4,6 +4,7 @@ import co.edu.unbosque.userservice.dto.*;
 import co.edu.unbosque.userservice.model.UserAccount;
 import co.edu.unbosque.userservice.model.UserProfile;
 import co.edu.unbosque.userservice.model.Wallet;
+import co.edu.unbosque.userservice.repository.WalletLedgerJdbcRepository;
 import org.springframework.stereotype.Component;
 
 import java.math.BigDecimal;
@@ -205,6 +206,25 @@ public class DataMapper {
         );
     }
 
+    /**
+     * Convierte un movimiento del libro mayor a DTO
+     */
+    public WalletMovementDTO toWalletMovementDTO(WalletLedgerJdbcRepository.LedgerEntry entry, boolean replayed) {
+        if (entry == null) return null;
+
+        return new WalletMovementDTO(
+                entry.id(),
+                entry.userId(),
+                entry.entryType(),
+                entry.amount(),
+                entry.balanceAfter(),
+                entry.idempotencyKey(),
+                entry.reference(),
+                entry.createdAt(),
+                replayed
+        );
+    }
+
     // ========================================
     // AUTHENTICATION MAPPINGS
     // ========================================
@@ -231,8 +251,8 @@ public class DataMapper {
     /**
      * Crea DTO de notificacion de wallet
      */
-    public WalletNotificationDTO toWalletNotificationDTO(Long userId, BigDecimal amount) {
-        return new WalletNotificationDTO(userId, amount);
+    public WalletNotificationDTO toWalletNotificationDTO(Long userId, BigDecimal amount, String idempotencyKey) {
+        return new WalletNotificationDTO(userId, amount, idempotencyKey);
     }
 
     /**
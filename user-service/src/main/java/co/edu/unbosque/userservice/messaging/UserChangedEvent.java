@@ -0,0 +1,21 @@
+package co.edu.unbosque.userservice.messaging;
+
+import java.time.LocalDateTime;
+
+/**
+ * Cambio en una cuenta de usuario (UPDATED, DELETED). Se publica en el topic user-events
+ * después del commit para que otros servicios invaliden sus copias locales.
+ */
+public record UserChangedEvent(
+        Long userId,
+        String type,
+        LocalDateTime occurredAt
+) {
+    public static UserChangedEvent updated(Long userId) {
+        return new UserChangedEvent(userId, "UPDATED", LocalDateTime.now());
+    }
+
+    public static UserChangedEvent deleted(Long userId) {
+        return new UserChangedEvent(userId, "DELETED", LocalDateTime.now());
+    }
+}
@@ -0,0 +1,61 @@
+package co.edu.unbosque.userservice.messaging;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Publica los UserChangedEvent en Kafka (clave = userId) una vez confirmada la transacción.
+ *
+ * Es best-effort: si Kafka no responde el cambio ya está guardado y los consumidores
+ * quedan desactualizados como máximo hasta el TTL de su cache. max.block.ms acota lo que
+ * el hilo de la petición puede esperar por metadatos del broker.
+ */
+@Component
+public class UserEventPublisher {
+
+    private static final Logger log = LoggerFactory.getLogger(UserEventPublisher.class);
+
+    private final KafkaTemplate<String, String> kafkaTemplate;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${users.events.topic:user-events}")
+    private String topic = "user-events";
+
+    public UserEventPublisher(KafkaTemplate<String, String> kafkaTemplate, ObjectMapper objectMapper,
+                              MeterRegistry meterRegistry) {
+        this.kafkaTemplate = kafkaTemplate;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        try {
+            String payload = objectMapper.writeValueAsString(event);
+            kafkaTemplate.send(topic, event.userId().toString(), payload)
+                    .whenComplete((result, error) -> {
+                        if (error != null) {
+                            count("failed");
+                            log.warn("No se publicó {} del usuario {}: {}", event.type(), event.userId(), error.getMessage());
+                        } else {
+                            count("published");
+                        }
+                    });
+        } catch (JsonProcessingException | RuntimeException e) {
+            count("failed");
+            log.warn("No se publicó {} del usuario {}: {}", event.type(), event.userId(), e.getMessage());
+        }
+    }
+
+    private void count(String outcome) {
+        meterRegistry.counter("users.events.published", "outcome", outcome).increment();
+    }
+}
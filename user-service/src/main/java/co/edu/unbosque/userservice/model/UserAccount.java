@@ -6,7 +6,10 @@ import java.time.Instant;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "user_account")
+@Table(
+        name = "user_account",
+        indexes = @Index(name = "idx_user_account_status", columnList = "status, id")
+)
 public class UserAccount {
 
     @Id
@@ -0,0 +1,63 @@
+package co.edu.unbosque.userservice.model;
+
+import jakarta.persistence.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Movimiento de wallet (libro mayor de solo inserción).
+ * Solo define el esquema; las escrituras van por WalletLedgerJdbcRepository
+ * en la misma sentencia que actualiza el saldo.
+ */
+@Entity
+@Table(
+        name = "wallet_ledger",
+        uniqueConstraints = @UniqueConstraint(name = "uk_wallet_ledger_idempotency_key", columnNames = "idempotency_key"),
+        indexes = @Index(name = "idx_wallet_ledger_user", columnList = "user_id, id")
+)
+public class WalletLedgerEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "wallet_id", nullable = false)
+    private Long walletId;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    // CREDIT o DEBIT
+    @Column(name = "entry_type", nullable = false, length = 10)
+    private String entryType;
+
+    // Siempre positivo; el signo lo da entry_type
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal amount;
+
+    @Column(name = "balance_after", nullable = false, precision = 38, scale = 2)
+    private BigDecimal balanceAfter;
+
+    @Column(name = "idempotency_key", nullable = false, length = 100)
+    private String idempotencyKey;
+
+    // Origen del movimiento, ej. "RECHARGE" o "TRIP:42"
+    @Column(length = 100)
+    private String reference;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    public WalletLedgerEntry() {}
+
+    public Long getId() { return id; }
+    public Long getWalletId() { return walletId; }
+    public Long getUserId() { return userId; }
+    public String getEntryType() { return entryType; }
+    public BigDecimal getAmount() { return amount; }
+    public BigDecimal getBalanceAfter() { return balanceAfter; }
+    public String getIdempotencyKey() { return idempotencyKey; }
+    public String getReference() { return reference; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+}
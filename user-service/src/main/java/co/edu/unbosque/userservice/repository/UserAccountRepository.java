@@ -1,11 +1,75 @@
 package co.edu.unbosque.userservice.repository;
 
+import co.edu.unbosque.userservice.dto.UserAccountResponseDTO;
+import co.edu.unbosque.userservice.dto.UserEmailDTO;
 import co.edu.unbosque.userservice.model.UserAccount;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface UserAccountRepository extends JpaRepository<UserAccount, Long> {
     Optional<UserAccount> findByEmail(String email);
     Optional<UserAccount> findByDocumentNumber(String documentNumber);
 
+    /**
+     * Reemplaza el hash solo si no cambió desde que se leyó (p. ej. por un reset de contraseña).
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE UserAccount u SET u.passwordHash = :newHash WHERE u.id = :id AND u.passwordHash = :oldHash")
+    int upgradePasswordHash(@Param("id") Long id, @Param("oldHash") String oldHash, @Param("newHash") String newHash);
+
+    /**
+     * Página del listado en una sola consulta: usuario + saldo de su wallet, paginado por
+     * id (keyset) y con filtros opcionales. Los filtros en null no aplican.
+     */
+    @Query("""
+            SELECT new co.edu.unbosque.userservice.dto.UserAccountResponseDTO(
+                u.id, u.fullName, u.email, u.documentNumber, u.status, u.verified,
+                COALESCE(w.balance, 0.00BD), u.createdAt)
+            FROM UserAccount u
+            LEFT JOIN Wallet w ON w.user = u
+            WHERE (:afterId IS NULL OR u.id > :afterId)
+              AND (:status IS NULL OR u.status = :status)
+              AND (:createdFrom IS NULL OR u.createdAt >= :createdFrom)
+              AND (:createdTo IS NULL OR u.createdAt < :createdTo)
+            ORDER BY u.id
+            """)
+    List<UserAccountResponseDTO> findPage(
+            @Param("afterId") Long afterId,
+            @Param("status") String status,
+            @Param("createdFrom") LocalDateTime createdFrom,
+            @Param("createdTo") LocalDateTime createdTo,
+            Limit limit
+    );
+
+    /**
+     * Página de emails para envíos masivos, paginada por id (keyset). Solo lee user_account;
+     * con status usa el índice (status, id).
+     */
+    @Query("""
+            SELECT new co.edu.unbosque.userservice.dto.UserEmailDTO(u.id, u.fullName, u.email)
+            FROM UserAccount u
+            WHERE (:afterId IS NULL OR u.id > :afterId)
+              AND (:status IS NULL OR u.status = :status)
+            ORDER BY u.id
+            """)
+    List<UserEmailDTO> findEmailPage(@Param("afterId") Long afterId, @Param("status") String status, Limit limit);
+
+    @Query("""
+            SELECT new co.edu.unbosque.userservice.dto.UserEmailDTO(u.id, u.fullName, u.email)
+            FROM UserAccount u
+            WHERE u.id IN :ids
+            ORDER BY u.id
+            """)
+    List<UserEmailDTO> findEmailsByIds(@Param("ids") Collection<Long> ids);
+
 }
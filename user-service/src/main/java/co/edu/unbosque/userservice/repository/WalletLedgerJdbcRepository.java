@@ -0,0 +1,100 @@
+package co.edu.unbosque.userservice.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Motor de saldo de wallets sobre SQL directo.
+ *
+ * Cada movimiento es una sola sentencia: el UPDATE condicional suma el delta solo si el
+ * saldo no queda negativo y el INSERT del libro mayor usa el saldo resultante. Postgres
+ * serializa los UPDATE sobre la misma fila, así que no hay lecturas previas ni
+ * actualizaciones perdidas; si la clave de idempotencia ya existe la sentencia completa
+ * falla (DuplicateKeyException) y el saldo no cambia.
+ */
+@Repository
+public class WalletLedgerJdbcRepository {
+
+    private static final String APPLY_MOVEMENT = """
+            WITH updated AS (
+                UPDATE wallet SET balance = balance + ?, last_updated = ?
+                WHERE user_id = ? AND balance + ? >= 0
+                RETURNING id, balance
+            )
+            INSERT INTO wallet_ledger
+                (wallet_id, user_id, entry_type, amount, balance_after, idempotency_key, reference, created_at)
+            SELECT id, ?, ?, ?, balance, ?, ?, ? FROM updated
+            RETURNING id, wallet_id, user_id, entry_type, amount, balance_after, idempotency_key, reference, created_at
+            """;
+
+    private static final String SELECT_BY_KEY = """
+            SELECT id, wallet_id, user_id, entry_type, amount, balance_after, idempotency_key, reference, created_at
+            FROM wallet_ledger WHERE idempotency_key = ?
+            """;
+
+    private static final RowMapper<LedgerEntry> ROW_MAPPER = (rs, rowNum) -> new LedgerEntry(
+            rs.getLong("id"),
+            rs.getLong("wallet_id"),
+            rs.getLong("user_id"),
+            rs.getString("entry_type"),
+            rs.getBigDecimal("amount"),
+            rs.getBigDecimal("balance_after"),
+            rs.getString("idempotency_key"),
+            rs.getString("reference"),
+            rs.getTimestamp("created_at").toLocalDateTime()
+    );
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public WalletLedgerJdbcRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * @param delta  monto con signo (negativo para débitos)
+     * @param amount monto sin signo que se guarda en el libro
+     * @return vacío si la wallet no existe o el saldo no alcanza
+     */
+    public Optional<LedgerEntry> applyMovement(Long userId, String entryType, BigDecimal delta, BigDecimal amount,
+                                               String idempotencyKey, String reference) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<LedgerEntry> rows = jdbcTemplate.query(
+                APPLY_MOVEMENT,
+                ROW_MAPPER,
+                delta, now, userId, delta,
+                userId, entryType, amount, idempotencyKey, reference, now
+        );
+        return rows.stream().findFirst();
+    }
+
+    public Optional<LedgerEntry> findByIdempotencyKey(String idempotencyKey) {
+        return jdbcTemplate.query(SELECT_BY_KEY, ROW_MAPPER, idempotencyKey).stream().findFirst();
+    }
+
+    public Optional<BigDecimal> findBalance(Long userId) {
+        return jdbcTemplate.query(
+                "SELECT balance FROM wallet WHERE user_id = ?",
+                (rs, rowNum) -> rs.getBigDecimal(1),
+                userId
+        ).stream().findFirst();
+    }
+
+    public record LedgerEntry(
+            Long id,
+            Long walletId,
+            Long userId,
+            String entryType,
+            BigDecimal amount,
+            BigDecimal balanceAfter,
+            String idempotencyKey,
+            String reference,
+            LocalDateTime createdAt
+    ) {}
+}
@@ -1,12 +1,17 @@
 package co.edu.unbosque.userservice.service;
 
 import co.edu.unbosque.userservice.dto.*;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 public interface UserAccountService {
     UserAccountResponseDTO registerUser(UserAccountRequestDTO request);
-    List<UserAccountResponseDTO> listAllUsers();
+    UserPageDTO listUsers(String status, LocalDateTime createdFrom, LocalDateTime createdTo, Long afterId, int limit);
     UserAccountResponseDTO getUserById(Long id);
+    UserEmailPageDTO listUserEmails(String status, Long afterId, int limit);
+    List<UserEmailDTO> getUserEmails(Collection<Long> ids);
     UserAccountDetailDTO getUserDetailById(Long id);
     UserAccountResponseDTO updateUser(Long id, UserAccountUpdateDTO request);
     void deleteUser(Long id);
@@ -22,6 +22,16 @@ public interface WalletService {
      */
     void updateWalletBalance(WalletNotificationDTO notification);
 
+    /**
+     * Acredita saldo de forma atómica e idempotente
+     */
+    WalletMovementDTO credit(WalletMovementRequestDTO request);
+
+    /**
+     * Debita saldo de forma atómica e idempotente; falla si el saldo no alcanza
+     */
+    WalletMovementDTO debit(WalletMovementRequestDTO request);
+
     /**
      * Obtiene la wallet de un usuario
      */
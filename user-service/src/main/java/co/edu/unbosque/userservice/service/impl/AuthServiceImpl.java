@@ -8,7 +8,7 @@ import co.edu.unbosque.userservice.mapper.DataMapper;
 import co.edu.unbosque.userservice.model.UserAccount;
 import co.edu.unbosque.userservice.repository.UserAccountRepository;
 import co.edu.unbosque.userservice.service.AuthService;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import co.edu.unbosque.userservice.service.util.PasswordHasher;
 import org.springframework.stereotype.Service;
 
 /**
@@ -20,18 +20,18 @@ public class AuthServiceImpl implements AuthService {
 
     private final UserAccountRepository userAccountRepository;
     private final JwtTokenUtil jwtTokenUtil;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHasher passwordHasher;
     private final DataMapper mapper;
 
     public AuthServiceImpl(
             UserAccountRepository userAccountRepository,
             JwtTokenUtil jwtTokenUtil,
-            PasswordEncoder passwordEncoder,
+            PasswordHasher passwordHasher,
             DataMapper mapper
     ) {
         this.userAccountRepository = userAccountRepository;
         this.jwtTokenUtil = jwtTokenUtil;
-        this.passwordEncoder = passwordEncoder;
+        this.passwordHasher = passwordHasher;
         this.mapper = mapper;
     }
 
@@ -46,7 +46,7 @@ public class AuthServiceImpl implements AuthService {
                 ));
 
         // Validar password
-        if (!passwordEncoder.matches(request.password(), user.getPasswordHash())) {
+        if (!passwordHasher.matches(request.password(), user.getPasswordHash())) {
             System.out.println("Credenciales invalidas para: " + request.email());
             throw new IllegalArgumentException("Credenciales invalidas");
         }
@@ -58,6 +58,14 @@ public class AuthServiceImpl implements AuthService {
 
         System.out.println("Login exitoso para: " + user.getEmail());
 
+        // Hash con costo anterior: se recalcula con el actual aprovechando que tenemos la contraseña
+        String currentHash = user.getPasswordHash();
+        if (passwordHasher.needsUpgrade(currentHash)) {
+            Long userId = user.getId();
+            passwordHasher.rehashInBackground(request.password(),
+                    newHash -> userAccountRepository.upgradePasswordHash(userId, currentHash, newHash));
+        }
+
         // Generar token JWT
         String token = jwtTokenUtil.generateToken(user.getEmail());
 
@@ -4,6 +4,7 @@ import co.edu.unbosque.userservice.client.NotificationClient;
 import co.edu.unbosque.userservice.dto.*;
 import co.edu.unbosque.userservice.exception.ResourceNotFoundException;
 import co.edu.unbosque.userservice.mapper.DataMapper;
+import co.edu.unbosque.userservice.messaging.UserChangedEvent;
 import co.edu.unbosque.userservice.model.PasswordRecoveryToken;
 import co.edu.unbosque.userservice.model.UserAccount;
 import co.edu.unbosque.userservice.model.UserProfile;
@@ -13,17 +14,19 @@ import co.edu.unbosque.userservice.repository.UserAccountRepository;
 import co.edu.unbosque.userservice.repository.UserProfileRepository;
 import co.edu.unbosque.userservice.repository.WalletRepository;
 import co.edu.unbosque.userservice.service.UserAccountService;
+import co.edu.unbosque.userservice.service.util.PasswordHasher;
 import org.slf4j.LoggerFactory;
 import org.springframework.context.ApplicationEventPublisher;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.security.SecureRandom;
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.logging.Logger;
-import java.util.stream.Collectors;
 
 @Service
 public class UserAccountServiceImpl implements UserAccountService {
@@ -32,7 +35,7 @@ public class UserAccountServiceImpl implements UserAccountService {
     private final UserAccountRepository userRepo;
     private final WalletRepository walletRepo;
     private final UserProfileRepository profileRepo;
-    private final PasswordEncoder encoder;
+    private final PasswordHasher passwordHasher;
     private final DataMapper mapper;
     private final NotificationClient notificationClient;
     private final ApplicationEventPublisher eventPublisher;
@@ -43,7 +46,7 @@ public class UserAccountServiceImpl implements UserAccountService {
             PasswordRecoveryTokenRepository tokenRepository,
             WalletRepository walletRepo,
             UserProfileRepository profileRepo,
-            PasswordEncoder encoder,
+            PasswordHasher passwordHasher,
             DataMapper mapper,
             NotificationClient notificationClient,
             ApplicationEventPublisher
@@ -53,7 +56,7 @@ public class UserAccountServiceImpl implements UserAccountService {
         this.walletRepo = walletRepo;
         this.tokenRepository = tokenRepository;
         this.profileRepo = profileRepo;
-        this.encoder = encoder;
+        this.passwordHasher = passwordHasher;
         this.mapper = mapper;
         this.notificationClient = notificationClient;
         this.eventPublisher = eventPublisher;
@@ -72,7 +75,7 @@ public class UserAccountServiceImpl implements UserAccountService {
             throw new IllegalArgumentException("El documento ya está registrado");
         }
 
-        String encodedPassword = encoder.encode(request.password());
+        String encodedPassword = passwordHasher.hash(request.password());
         UserAccount user = mapper.toUserAccountEntity(request, encodedPassword);
         user = userRepo.save(user);
 
@@ -88,15 +91,40 @@ public class UserAccountServiceImpl implements UserAccountService {
 
 
     @Override
-    public List<UserAccountResponseDTO> listAllUsers() {
-        System.out.println("Listando todos los usuarios");
-
-        return userRepo.findAll().stream()
-                .map(user -> {
-                    Wallet wallet = walletRepo.findByUserId(user.getId()).orElse(null);
-                    return mapper.toUserAccountResponseDTO(user, wallet);
-                })
-                .collect(Collectors.toList());
+    public UserPageDTO listUsers(String status, LocalDateTime createdFrom, LocalDateTime createdTo,
+                                 Long afterId, int limit) {
+        System.out.println("Listando usuarios después del id " + afterId + " (límite " + limit + ")");
+
+        String normalizedStatus = status != null && !status.isBlank() ? status.trim().toUpperCase() : null;
+
+        // Una fila extra indica si hay página siguiente sin contar toda la tabla
+        List<UserAccountResponseDTO> rows = userRepo.findPage(
+                afterId, normalizedStatus, createdFrom, createdTo, Limit.of(limit + 1));
+
+        if (rows.size() <= limit) {
+            return new UserPageDTO(rows, null);
+        }
+        List<UserAccountResponseDTO> page = rows.subList(0, limit);
+        return new UserPageDTO(page, page.get(limit - 1).id());
+    }
+
+    @Override
+    public UserEmailPageDTO listUserEmails(String status, Long afterId, int limit) {
+        String normalizedStatus = status != null && !status.isBlank() ? status.trim().toUpperCase() : null;
+
+        List<UserEmailDTO> rows = userRepo.findEmailPage(afterId, normalizedStatus, Limit.of(limit + 1));
+
+        if (rows.size() <= limit) {
+            return new UserEmailPageDTO(rows, null);
+        }
+        List<UserEmailDTO> page = rows.subList(0, limit);
+        return new UserEmailPageDTO(page, page.get(limit - 1).id().longValue());
+    }
+
+    @Override
+    public List<UserEmailDTO> getUserEmails(Collection<Long> ids) {
+        // Los ids inexistentes simplemente no aparecen en la respuesta
+        return userRepo.findEmailsByIds(new LinkedHashSet<>(ids));
     }
 
     @Override
@@ -135,7 +163,7 @@ public class UserAccountServiceImpl implements UserAccountService {
         // Si se envia password, encriptarlo
         String encodedPassword = null;
         if (request.password() != null && !request.password().isBlank()) {
-            encodedPassword = encoder.encode(request.password());
+            encodedPassword = passwordHasher.hash(request.password());
         }
 
         // Actualizar usando mapper
@@ -143,6 +171,7 @@ public class UserAccountServiceImpl implements UserAccountService {
         user = userRepo.save(user);
 
         System.out.println("Usuario actualizado: " + user.getId());
+        eventPublisher.publishEvent(UserChangedEvent.updated(user.getId()));
 
         Wallet wallet = walletRepo.findByUserId(id).orElse(null);
         return mapper.toUserAccountResponseDTO(user, wallet);
@@ -158,6 +187,7 @@ public class UserAccountServiceImpl implements UserAccountService {
         }
 
         userRepo.deleteById(id);
+        eventPublisher.publishEvent(UserChangedEvent.deleted(id));
         System.out.println("Usuario eliminado exitosamente");
     }
 
@@ -240,7 +270,7 @@ public class UserAccountServiceImpl implements UserAccountService {
             throw new RuntimeException("Código inválido para este usuario");
         }
 
-        user.setPasswordHash(encoder.encode(newPassword));
+        user.setPasswordHash(passwordHasher.hash(newPassword));
         userRepo.save(user);
         tokenRepository.delete(token);
 
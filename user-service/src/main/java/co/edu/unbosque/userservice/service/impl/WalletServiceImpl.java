@@ -2,17 +2,24 @@ package co.edu.unbosque.userservice.service.impl;
 
 import co.edu.unbosque.userservice.client.PaymentClient;
 import co.edu.unbosque.userservice.dto.*;
+import co.edu.unbosque.userservice.exception.InsufficientFundsException;
 import co.edu.unbosque.userservice.exception.ResourceNotFoundException;
 import co.edu.unbosque.userservice.mapper.DataMapper;
 import co.edu.unbosque.userservice.model.UserAccount;
 import co.edu.unbosque.userservice.model.Wallet;
 import co.edu.unbosque.userservice.repository.UserAccountRepository;
+import co.edu.unbosque.userservice.repository.WalletLedgerJdbcRepository;
+import co.edu.unbosque.userservice.repository.WalletLedgerJdbcRepository.LedgerEntry;
 import co.edu.unbosque.userservice.repository.WalletRepository;
 import co.edu.unbosque.userservice.service.WalletService;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.time.LocalDateTime;
+import java.math.BigDecimal;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
 
 /**
  * Implementacion del servicio de gestion de wallets
@@ -20,19 +27,25 @@ import java.time.LocalDateTime;
 @Service
 public class WalletServiceImpl implements WalletService {
 
+    private static final String CREDIT = "CREDIT";
+    private static final String DEBIT = "DEBIT";
+
     private final PaymentClient paymentClient;
     private final WalletRepository walletRepo;
+    private final WalletLedgerJdbcRepository ledgerRepo;
     private final UserAccountRepository userAccountRepo;
     private final DataMapper mapper;
 
     public WalletServiceImpl(
             PaymentClient paymentClient,
             WalletRepository walletRepo,
+            WalletLedgerJdbcRepository ledgerRepo,
             UserAccountRepository userAccountRepo,
             DataMapper mapper
     ) {
         this.paymentClient = paymentClient;
         this.walletRepo = walletRepo;
+        this.ledgerRepo = ledgerRepo;
         this.userAccountRepo = userAccountRepo;
         this.mapper = mapper;
     }
@@ -90,23 +103,86 @@ public class WalletServiceImpl implements WalletService {
     }
 
     @Override
-    @Transactional
     public void updateWalletBalance(WalletNotificationDTO notification) {
         System.out.println("Recibida notificacion de recarga para usuario: " + notification.userId());
         System.out.println("Monto a agregar: " + notification.amount());
 
-        Wallet wallet = walletRepo.findByUserId(notification.userId())
-                .orElseThrow(() -> new ResourceNotFoundException(
-                        "No se encontro wallet para el usuario con ID: " + notification.userId()
-                ));
+        // Sin clave (clientes antiguos) cada notificación es un movimiento distinto
+        String key = notification.idempotencyKey() != null
+                ? notification.idempotencyKey()
+                : "recharge-" + UUID.randomUUID();
 
-        // Actualizar saldo
-        wallet.setBalance(wallet.getBalance().add(notification.amount()));
-        wallet.setLastUpdated(LocalDateTime.now());
-        walletRepo.save(wallet);
+        WalletMovementDTO movement = credit(new WalletMovementRequestDTO(
+                notification.userId(), notification.amount(), key, "RECHARGE"
+        ));
 
         System.out.println("Wallet actualizada correctamente");
-        System.out.println("Nuevo saldo: " + wallet.getBalance());
+        System.out.println("Nuevo saldo: " + movement.balance());
+    }
+
+    @Override
+    public WalletMovementDTO credit(WalletMovementRequestDTO request) {
+        return applyMovement(request, CREDIT);
+    }
+
+    @Override
+    public WalletMovementDTO debit(WalletMovementRequestDTO request) {
+        return applyMovement(request, DEBIT);
+    }
+
+    /**
+     * Sin transacción ni lectura previa del saldo: el UPDATE condicional + INSERT del libro
+     * es una sola sentencia atómica (ver WalletLedgerJdbcRepository).
+     */
+    private WalletMovementDTO applyMovement(WalletMovementRequestDTO request, String entryType) {
+        if (request.amount() == null || request.amount().signum() <= 0) {
+            throw new IllegalArgumentException("El monto debe ser mayor a cero");
+        }
+        if (request.idempotencyKey() == null || request.idempotencyKey().isBlank()) {
+            throw new IllegalArgumentException("idempotencyKey es obligatorio");
+        }
+
+        // Reintento de un movimiento ya aplicado: se responde lo mismo sin tocar el saldo
+        Optional<LedgerEntry> previous = ledgerRepo.findByIdempotencyKey(request.idempotencyKey());
+        if (previous.isPresent()) {
+            return replay(previous.get(), request, entryType);
+        }
+
+        BigDecimal delta = DEBIT.equals(entryType) ? request.amount().negate() : request.amount();
+        try {
+            Optional<LedgerEntry> applied = ledgerRepo.applyMovement(
+                    request.userId(), entryType, delta, request.amount(),
+                    request.idempotencyKey(), request.reference()
+            );
+            if (applied.isPresent()) {
+                return mapper.toWalletMovementDTO(applied.get(), false);
+            }
+        } catch (DuplicateKeyException e) {
+            // Otra petición con la misma clave se aplicó entre la consulta y el UPDATE
+            LedgerEntry winner = ledgerRepo.findByIdempotencyKey(request.idempotencyKey()).orElseThrow(() -> e);
+            return replay(winner, request, entryType);
+        }
+
+        // Ninguna fila actualizada: no hay wallet o el saldo no alcanza
+        if (ledgerRepo.findBalance(request.userId()).isEmpty()) {
+            throw new ResourceNotFoundException(
+                    "No se encontro wallet para el usuario con ID: " + request.userId()
+            );
+        }
+        throw new InsufficientFundsException("Saldo insuficiente para debitar " + request.amount());
+    }
+
+    private WalletMovementDTO replay(LedgerEntry entry, WalletMovementRequestDTO request, String entryType) {
+        boolean sameMovement = entry.userId().equals(request.userId())
+                && entry.entryType().equals(entryType)
+                && entry.amount().compareTo(request.amount()) == 0
+                && Objects.equals(entry.reference(), request.reference());
+        if (!sameMovement) {
+            throw new IllegalStateException(
+                    "La clave de idempotencia " + request.idempotencyKey() + " ya se uso con otro movimiento"
+            );
+        }
+        return mapper.toWalletMovementDTO(entry, true);
     }
 
     @Override
@@ -0,0 +1,113 @@
+package co.edu.unbosque.userservice.service.util;
+
+import co.edu.unbosque.userservice.exception.ServiceOverloadedException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+
+/**
+ * Hash y verificación de contraseñas en el pool acotado passwordHashingExecutor.
+ *
+ * Si el pool está saturado (cola llena) o la espera supera security.password.hashing.max-wait-ms,
+ * lanza ServiceOverloadedException y el controlador responde 429: ante una ráfaga de logins
+ * es mejor rechazar rápido que acumular peticiones que el cliente ya abandonó.
+ */
+@Component
+public class PasswordHasher {
+
+    private static final Logger log = LoggerFactory.getLogger(PasswordHasher.class);
+
+    private final PasswordEncoder encoder;
+    private final AsyncTaskExecutor executor;
+    private final MeterRegistry meterRegistry;
+    private final Timer hashTimer;
+    private final long maxWaitMs;
+
+    public PasswordHasher(
+            PasswordEncoder encoder,
+            @Qualifier("passwordHashingExecutor") AsyncTaskExecutor executor,
+            MeterRegistry meterRegistry,
+            @Value("${security.password.hashing.max-wait-ms:2000}") long maxWaitMs
+    ) {
+        this.encoder = encoder;
+        this.executor = executor;
+        this.meterRegistry = meterRegistry;
+        this.hashTimer = meterRegistry.timer("auth.password.hashing.duration");
+        this.maxWaitMs = maxWaitMs;
+    }
+
+    public String hash(String rawPassword) {
+        return run(() -> encoder.encode(rawPassword));
+    }
+
+    public boolean matches(String rawPassword, String hash) {
+        if (hash == null) {
+            return false;
+        }
+        return run(() -> encoder.matches(rawPassword, hash));
+    }
+
+    /**
+     * true si el hash fue generado con un costo menor al configurado.
+     */
+    public boolean needsUpgrade(String hash) {
+        return hash != null && encoder.upgradeEncoding(hash);
+    }
+
+    /**
+     * Recalcula el hash con el costo actual sin bloquear el login. Si el pool está
+     * saturado se omite; el próximo login exitoso lo intenta de nuevo.
+     */
+    public void rehashInBackground(String rawPassword, Consumer<String> onHashed) {
+        try {
+            executor.execute(() -> {
+                try {
+                    onHashed.accept(hashTimer.record(() -> encoder.encode(rawPassword)));
+                } catch (RuntimeException e) {
+                    log.warn("No se pudo actualizar el hash de la contraseña: {}", e.getMessage());
+                }
+            });
+        } catch (TaskRejectedException e) {
+            meterRegistry.counter("auth.password.hashing.rejected", "operation", "rehash").increment();
+        }
+    }
+
+    private <T> T run(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(() -> hashTimer.recordCallable(task));
+        } catch (TaskRejectedException e) {
+            meterRegistry.counter("auth.password.hashing.rejected", "operation", "request").increment();
+            throw new ServiceOverloadedException("Demasiadas solicitudes de autenticación, intente de nuevo en unos segundos");
+        }
+
+        try {
+            return future.get(maxWaitMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            meterRegistry.counter("auth.password.hashing.rejected", "operation", "timeout").increment();
+            throw new ServiceOverloadedException("Demasiadas solicitudes de autenticación, intente de nuevo en unos segundos");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Hash de contraseña interrumpido", e);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException runtime
+                    ? runtime
+                    : new IllegalStateException("Error calculando el hash de la contraseña", e.getCause());
+        }
+    }
+}
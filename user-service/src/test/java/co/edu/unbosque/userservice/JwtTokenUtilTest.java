@@ -0,0 +1,50 @@
+package co.edu.unbosque.userservice;
+
+import co.edu.unbosque.userservice.config.JwtTokenUtil;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("JwtTokenUtil - Unit Tests")
+public class JwtTokenUtilTest {
+
+    private static final String SECRET = "E3vR7pZkTn9qLm5s8Hj4Xy2Wc6BvN1rF8pQzD7tG5kH2lV9yT3sM0aR4dF1uE6jP";
+
+    @Test
+    @DisplayName("Debería validar el token y servir las siguientes validaciones desde la cache")
+    void deberiaValidarTokenYUsarCache() {
+        JwtTokenUtil jwtTokenUtil = new JwtTokenUtil(SECRET, 60_000, 100);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        jwtTokenUtil.bindTo(registry);
+        String token = jwtTokenUtil.generateToken("juan@example.com");
+
+        assertEquals("juan@example.com", jwtTokenUtil.validateAndGetUsername(token));
+        assertEquals("juan@example.com", jwtTokenUtil.validateAndGetUsername(token));
+        assertTrue(jwtTokenUtil.isTokenValid(token));
+
+        assertEquals(2.0, registry.get("cache.gets").tag("cache", "jwt.verified-tokens").tag("result", "hit").functionCounter().count());
+        assertEquals(1.0, registry.get("cache.gets").tag("cache", "jwt.verified-tokens").tag("result", "miss").functionCounter().count());
+    }
+
+    @Test
+    @DisplayName("Debería rechazar un token con la firma alterada")
+    void deberiaRechazarTokenAlterado() {
+        JwtTokenUtil jwtTokenUtil = new JwtTokenUtil(SECRET, 60_000, 100);
+        String token = jwtTokenUtil.generateToken("juan@example.com");
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("A") ? "BB" : "AA");
+
+        assertNull(jwtTokenUtil.validateAndGetUsername(tampered));
+        assertFalse(jwtTokenUtil.isTokenValid("no-es-un-token"));
+    }
+
+    @Test
+    @DisplayName("Debería rechazar un token expirado")
+    void deberiaRechazarTokenExpirado() {
+        JwtTokenUtil expiredIssuer = new JwtTokenUtil(SECRET, -1_000, 100);
+        String token = expiredIssuer.generateToken("juan@example.com");
+
+        assertNull(new JwtTokenUtil(SECRET, 60_000, 100).validateAndGetUsername(token));
+    }
+}
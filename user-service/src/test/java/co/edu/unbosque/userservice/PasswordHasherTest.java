@@ -0,0 +1,91 @@
+package co.edu.unbosque.userservice;
+
+import co.edu.unbosque.userservice.exception.ServiceOverloadedException;
+import co.edu.unbosque.userservice.service.util.PasswordHasher;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("PasswordHasher - Unit Tests")
+public class PasswordHasherTest {
+
+    private ThreadPoolTaskExecutor executor;
+
+    private PasswordHasher hasher(int strength, int threads, int queueCapacity, long maxWaitMs) {
+        executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.initialize();
+        return new PasswordHasher(new BCryptPasswordEncoder(strength), executor, new SimpleMeterRegistry(), maxWaitMs);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    @DisplayName("Debería generar y verificar el hash en el pool dedicado")
+    void deberiaGenerarYVerificarHash() {
+        PasswordHasher hasher = hasher(4, 1, 4, 2000);
+
+        String hash = hasher.hash("pass123");
+
+        assertTrue(hasher.matches("pass123", hash));
+        assertFalse(hasher.matches("otra", hash));
+        assertFalse(hasher.matches("pass123", null));
+    }
+
+    @Test
+    @DisplayName("Debería rechazar con ServiceOverloadedException cuando el pool está lleno")
+    void deberiaRechazarCuandoPoolLleno() throws Exception {
+        PasswordHasher hasher = hasher(4, 1, 0, 2000);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        executor.execute(() -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        started.await();
+
+        try {
+            assertThrows(ServiceOverloadedException.class, () -> hasher.hash("pass123"));
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    @DisplayName("Debería detectar hashes con costo anterior y recalcularlos en segundo plano")
+    void deberiaActualizarHashConCostoAnterior() throws Exception {
+        String oldHash = new BCryptPasswordEncoder(4).encode("pass123");
+        PasswordHasher hasher = hasher(5, 1, 4, 2000);
+        assertTrue(hasher.needsUpgrade(oldHash));
+
+        AtomicReference<String> upgraded = new AtomicReference<>();
+        CountDownLatch done = new CountDownLatch(1);
+        hasher.rehashInBackground("pass123", newHash -> {
+            upgraded.set(newHash);
+            done.countDown();
+        });
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertTrue(upgraded.get().startsWith("$2a$05$"));
+        assertFalse(hasher.needsUpgrade(upgraded.get()));
+        assertTrue(hasher.matches("pass123", upgraded.get()));
+    }
+}
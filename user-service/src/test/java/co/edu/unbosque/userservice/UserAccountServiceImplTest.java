@@ -10,14 +10,16 @@ import co.edu.unbosque.userservice.repository.UserAccountRepository;
 import co.edu.unbosque.userservice.repository.UserProfileRepository;
 import co.edu.unbosque.userservice.repository.WalletRepository;
 import co.edu.unbosque.userservice.service.impl.UserAccountServiceImpl;
+import co.edu.unbosque.userservice.service.util.PasswordHasher;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.mockito.*;
 import org.springframework.context.ApplicationEventPublisher;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.data.domain.Limit;
 
 import java.math.BigDecimal;
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -29,7 +31,7 @@ public class UserAccountServiceImplTest {
     @Mock private UserAccountRepository userRepo;
     @Mock private WalletRepository walletRepo;
     @Mock private UserProfileRepository profileRepo;
-    @Mock private PasswordEncoder encoder;
+    @Mock private PasswordHasher passwordHasher;
     @Mock private DataMapper mapper;
     @Mock private ApplicationEventPublisher eventPublisher;
 
@@ -49,7 +51,7 @@ public class UserAccountServiceImplTest {
 
         when(userRepo.findByEmail("juan@example.com")).thenReturn(Optional.empty());
         when(userRepo.findByDocumentNumber("123456789")).thenReturn(Optional.empty());
-        when(encoder.encode("pass123")).thenReturn("encodedPass");
+        when(passwordHasher.hash("pass123")).thenReturn("encodedPass");
 
         UserAccount savedUser = new UserAccount();
         savedUser.setId(1L);
@@ -131,4 +133,50 @@ public class UserAccountServiceImplTest {
         assertNotNull(dto);
         assertEquals("Bogotá", dto.city());
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Debería listar usuarios paginados en una sola consulta")
+    void deberiaListarUsuariosPaginadosEnUnaSolaConsulta() {
+        List<UserAccountResponseDTO> rows = List.of(
+                new UserAccountResponseDTO(4L, "Ana", "ana@example.com", "4", "ACTIVE", true, BigDecimal.TEN, null),
+                new UserAccountResponseDTO(5L, "Luis", "luis@example.com", "5", "ACTIVE", false, BigDecimal.ZERO, null),
+                new UserAccountResponseDTO(6L, "Eva", "eva@example.com", "6", "ACTIVE", false, BigDecimal.ONE, null)
+        );
+        when(userRepo.findPage(3L, "ACTIVE", null, null, Limit.of(3))).thenReturn(rows);
+
+        UserPageDTO page = userService.listUsers(" active ", null, null, 3L, 2);
+
+        assertEquals(2, page.users().size());
+        assertEquals(5L, page.nextAfterId());
+        verifyNoInteractions(walletRepo);
+    }
+
+    @Test
+    @DisplayName("Debería indicar que no hay más páginas en la última")
+    void deberiaIndicarQueNoHayMasPaginas() {
+        when(userRepo.findPage(null, null, null, null, Limit.of(51))).thenReturn(List.of(
+                new UserAccountResponseDTO(1L, "Ana", "ana@example.com", "1", "ACTIVE", true, BigDecimal.TEN, null)
+        ));
+
+        UserPageDTO page = userService.listUsers(null, null, null, null, 50);
+
+        assertEquals(1, page.users().size());
+        assertNull(page.nextAfterId());
+    }
+
+    @Test
+    @DisplayName("Debería paginar los emails por segmento con una fila extra")
+    void deberiaPaginarEmailsPorSegmento() {
+        when(userRepo.findEmailPage(10L, "ACTIVE", Limit.of(3))).thenReturn(List.of(
+                new UserEmailDTO(11L, "Ana", "ana@example.com"),
+                new UserEmailDTO(12L, "Luis", "luis@example.com"),
+                new UserEmailDTO(13L, "Sofía", "sofia@example.com")
+        ));
+
+        UserEmailPageDTO page = userService.listUserEmails("active", 10L, 2);
+
+        assertEquals(2, page.users().size());
+        assertEquals(12L, page.nextAfterId());
+        verifyNoInteractions(walletRepo);
+    }
+}
@@ -0,0 +1,65 @@
+package co.edu.unbosque.userservice;
+
+import co.edu.unbosque.userservice.messaging.UserChangedEvent;
+import co.edu.unbosque.userservice.messaging.UserEventPublisher;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.producer.MockProducer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.errors.TimeoutException;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.core.KafkaTemplate;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * MockProducer de kafka-clients hace de broker: registra lo enviado sin red.
+ */
+@DisplayName("UserEventPublisher Tests")
+class UserEventPublisherTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private UserEventPublisher publisher(MockProducer<String, String> producer) {
+        return new UserEventPublisher(new KafkaTemplate<>(() -> producer),
+                new ObjectMapper().findAndRegisterModules(), meterRegistry);
+    }
+
+    @Test
+    @DisplayName("Should publish the change keyed by user id")
+    void testPublishesKeyedEvent() {
+        // Arrange
+        MockProducer<String, String> producer = new MockProducer<>(true, new StringSerializer(), new StringSerializer());
+
+        // Act
+        publisher(producer).onUserChanged(new UserChangedEvent(42L, "UPDATED", LocalDateTime.of(2025, 3, 1, 10, 0)));
+
+        // Assert
+        assertEquals(1, producer.history().size());
+        ProducerRecord<String, String> record = producer.history().get(0);
+        assertEquals("user-events", record.topic());
+        assertEquals("42", record.key());
+        assertTrue(record.value().contains("\"userId\":42"));
+        assertTrue(record.value().contains("\"type\":\"UPDATED\""));
+        assertEquals(1.0, meterRegistry.counter("users.events.published", "outcome", "published").count());
+    }
+
+    @Test
+    @DisplayName("Should not propagate broker failures to the caller")
+    void testBrokerFailureIsCounted() {
+        // Arrange
+        MockProducer<String, String> producer = new MockProducer<>(false, new StringSerializer(), new StringSerializer());
+        UserEventPublisher publisher = publisher(producer);
+
+        // Act
+        assertDoesNotThrow(() -> publisher.onUserChanged(UserChangedEvent.deleted(7L)));
+        producer.errorNext(new TimeoutException("broker caído"));
+
+        // Assert
+        assertEquals(1.0, meterRegistry.counter("users.events.published", "outcome", "failed").count());
+    }
+}
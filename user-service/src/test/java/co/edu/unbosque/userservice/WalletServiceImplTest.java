@@ -0,0 +1,139 @@
+package co.edu.unbosque.userservice;
+
+import co.edu.unbosque.userservice.client.PaymentClient;
+import co.edu.unbosque.userservice.dto.WalletMovementDTO;
+import co.edu.unbosque.userservice.dto.WalletMovementRequestDTO;
+import co.edu.unbosque.userservice.dto.WalletNotificationDTO;
+import co.edu.unbosque.userservice.exception.InsufficientFundsException;
+import co.edu.unbosque.userservice.exception.ResourceNotFoundException;
+import co.edu.unbosque.userservice.mapper.DataMapper;
+import co.edu.unbosque.userservice.repository.UserAccountRepository;
+import co.edu.unbosque.userservice.repository.WalletLedgerJdbcRepository;
+import co.edu.unbosque.userservice.repository.WalletLedgerJdbcRepository.LedgerEntry;
+import co.edu.unbosque.userservice.repository.WalletRepository;
+import co.edu.unbosque.userservice.service.impl.WalletServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DuplicateKeyException;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@DisplayName("WalletServiceImpl - Unit Tests")
+public class WalletServiceImplTest {
+
+    @Mock private PaymentClient paymentClient;
+    @Mock private WalletRepository walletRepo;
+    @Mock private WalletLedgerJdbcRepository ledgerRepo;
+    @Mock private UserAccountRepository userAccountRepo;
+
+    private WalletServiceImpl walletService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        // Mapper real: es un conversor sin dependencias
+        walletService = new WalletServiceImpl(paymentClient, walletRepo, ledgerRepo, userAccountRepo, new DataMapper());
+    }
+
+    private static LedgerEntry entry(String type, String amount, String balanceAfter, String key) {
+        return new LedgerEntry(10L, 1L, 1L, type, new BigDecimal(amount), new BigDecimal(balanceAfter),
+                key, "TRIP:42", LocalDateTime.now());
+    }
+
+    @Test
+    @DisplayName("Debería debitar con un delta negativo en una sola sentencia")
+    void deberiaDebitarConDeltaNegativo() {
+        WalletMovementRequestDTO request = new WalletMovementRequestDTO(1L, new BigDecimal("4500"), "trip-42", "TRIP:42");
+        when(ledgerRepo.findByIdempotencyKey("trip-42")).thenReturn(Optional.empty());
+        when(ledgerRepo.applyMovement(1L, "DEBIT", new BigDecimal("-4500"), new BigDecimal("4500"), "trip-42", "TRIP:42"))
+                .thenReturn(Optional.of(entry("DEBIT", "4500", "500", "trip-42")));
+
+        WalletMovementDTO result = walletService.debit(request);
+
+        assertEquals(new BigDecimal("500"), result.balance());
+        assertFalse(result.replayed());
+        verify(walletRepo, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("Debería devolver el movimiento original si la clave ya se aplicó")
+    void deberiaDevolverMovimientoOriginalEnReintento() {
+        WalletMovementRequestDTO request = new WalletMovementRequestDTO(1L, new BigDecimal("4500"), "trip-42", "TRIP:42");
+        when(ledgerRepo.findByIdempotencyKey("trip-42"))
+                .thenReturn(Optional.of(entry("DEBIT", "4500.00", "500", "trip-42")));
+
+        WalletMovementDTO result = walletService.debit(request);
+
+        assertTrue(result.replayed());
+        verify(ledgerRepo, never()).applyMovement(any(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Debería resolver la carrera de claves duplicadas con el movimiento ganador")
+    void deberiaResolverCarreraDeClaveDuplicada() {
+        WalletMovementRequestDTO request = new WalletMovementRequestDTO(1L, new BigDecimal("4500"), "trip-42", "TRIP:42");
+        when(ledgerRepo.findByIdempotencyKey("trip-42"))
+                .thenReturn(Optional.empty())
+                .thenReturn(Optional.of(entry("DEBIT", "4500", "500", "trip-42")));
+        when(ledgerRepo.applyMovement(any(), any(), any(), any(), any(), any()))
+                .thenThrow(new DuplicateKeyException("uk_wallet_ledger_idempotency_key"));
+
+        WalletMovementDTO result = walletService.debit(request);
+
+        assertTrue(result.replayed());
+    }
+
+    @Test
+    @DisplayName("Debería rechazar una clave reutilizada con otro monto")
+    void deberiaRechazarClaveReutilizadaConOtroMonto() {
+        WalletMovementRequestDTO request = new WalletMovementRequestDTO(1L, new BigDecimal("9000"), "trip-42", "TRIP:42");
+        when(ledgerRepo.findByIdempotencyKey("trip-42"))
+                .thenReturn(Optional.of(entry("DEBIT", "4500", "500", "trip-42")));
+
+        assertThrows(IllegalStateException.class, () -> walletService.debit(request));
+    }
+
+    @Test
+    @DisplayName("Debería lanzar InsufficientFundsException si el UPDATE condicional no aplica")
+    void deberiaLanzarSaldoInsuficiente() {
+        WalletMovementRequestDTO request = new WalletMovementRequestDTO(1L, new BigDecimal("4500"), "trip-42", "TRIP:42");
+        when(ledgerRepo.findByIdempotencyKey("trip-42")).thenReturn(Optional.empty());
+        when(ledgerRepo.applyMovement(any(), any(), any(), any(), any(), any())).thenReturn(Optional.empty());
+        when(ledgerRepo.findBalance(1L)).thenReturn(Optional.of(new BigDecimal("100")));
+
+        assertThrows(InsufficientFundsException.class, () -> walletService.debit(request));
+    }
+
+    @Test
+    @DisplayName("Debería lanzar ResourceNotFoundException si la wallet no existe")
+    void deberiaLanzarWalletNoEncontrada() {
+        WalletMovementRequestDTO request = new WalletMovementRequestDTO(99L, new BigDecimal("10"), "k-1", null);
+        when(ledgerRepo.findByIdempotencyKey("k-1")).thenReturn(Optional.empty());
+        when(ledgerRepo.applyMovement(any(), any(), any(), any(), any(), any())).thenReturn(Optional.empty());
+        when(ledgerRepo.findBalance(99L)).thenReturn(Optional.empty());
+
+        assertThrows(ResourceNotFoundException.class, () -> walletService.credit(request));
+    }
+
+    @Test
+    @DisplayName("Debería acreditar la notificación de recarga con su clave de transacción")
+    void deberiaAcreditarNotificacionConClave() {
+        when(ledgerRepo.findByIdempotencyKey("wallet-recharge-7")).thenReturn(Optional.empty());
+        when(ledgerRepo.applyMovement(eq(1L), eq("CREDIT"), eq(new BigDecimal("25")), eq(new BigDecimal("25")),
+                eq("wallet-recharge-7"), eq("RECHARGE")))
+                .thenReturn(Optional.of(entry("CREDIT", "25", "525", "wallet-recharge-7")));
+
+        walletService.updateWalletBalance(new WalletNotificationDTO(1L, new BigDecimal("25"), "wallet-recharge-7"));
+
+        verify(ledgerRepo).applyMovement(eq(1L), eq("CREDIT"), any(), any(), eq("wallet-recharge-7"), eq("RECHARGE"));
+    }
+}
@@ -0,0 +1,61 @@
+package co.edu.unbosque.userservice.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Costo de BCrypt frente al throughput de login por núcleo.
+ *
+ * Con un solo hilo, el resultado en ops/s es la cantidad de logins que un núcleo puede
+ * verificar por segundo para cada security.password.bcrypt.strength. Para una meta de
+ * N logins/s en la hora pico con C núcleos dedicados al pool, el costo máximo aceptable es
+ * el mayor cuyo resultado sea >= N / C (dejando margen para el resto del request).
+ *
+ *   mvn -Pjmh test-compile exec:exec -Djmh.args="PasswordHashingBenchmark -p cost=10,11,12"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(1)
+@Fork(1)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+public class PasswordHashingBenchmark {
+
+    @Param({"8", "10", "12"})
+    public int cost;
+
+    private BCryptPasswordEncoder encoder;
+    private String storedHash;
+
+    @Setup
+    public void setUp() {
+        encoder = new BCryptPasswordEncoder(cost);
+        storedHash = encoder.encode("SecurePass123");
+    }
+
+    // Lo que cuesta cada login: verificar la contraseña contra el hash guardado
+    @Benchmark
+    public boolean login() {
+        return encoder.matches("SecurePass123", storedHash);
+    }
+
+    // Registro, cambio de contraseña y actualización del hash al nuevo costo
+    @Benchmark
+    public String hash() {
+        return encoder.encode("SecurePass123");
+    }
+}